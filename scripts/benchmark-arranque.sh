@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# Mide el tiempo hasta la primera petición exitosa de la aplicación.
+#
+# Uso: scripts/benchmark-arranque.sh [modo] [repeticiones]
+#   modo: plano | cds | aot | lazy   (por defecto: plano)
+#
+# Variables:
+#   JAR          jar de la aplicación (por defecto target/cuentaMovimientos-0.0.1-SNAPSHOT.jar)
+#   URL          petición que se considera "primera respuesta" (por defecto /actuator/health)
+#   JAVA_OPTS    opciones adicionales de la JVM
+#
+# Los modos cds y aot extraen el jar en target/arranque y generan el archivo CDS con una
+# ejecución de entrenamiento; aot requiere haber construido con: mvn -Paot package
+set -euo pipefail
+
+MODO="${1:-plano}"
+REPETICIONES="${2:-5}"
+JAR="${JAR:-target/cuentaMovimientos-0.0.1-SNAPSHOT.jar}"
+URL="${URL:-http://localhost:8081/actuator/health}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+DIR_EXTRAIDO="target/arranque"
+
+ms() { date +%s%3N; }
+
+preparar_cds() {
+  local opciones_aot="$1"
+  rm -rf "$DIR_EXTRAIDO"
+  java -Djarmode=tools -jar "$JAR" extract --destination "$DIR_EXTRAIDO" >/dev/null
+  local jar_extraido
+  jar_extraido="$(ls "$DIR_EXTRAIDO"/*.jar)"
+  java -XX:ArchiveClassesAtExit="$DIR_EXTRAIDO/application.jsa" $opciones_aot \
+    -Dspring.context.exit=onRefresh -jar "$jar_extraido" >/dev/null
+  echo "$jar_extraido"
+}
+
+case "$MODO" in
+  plano)
+    COMANDO=(java $JAVA_OPTS -jar "$JAR")
+    ;;
+  lazy)
+    COMANDO=(java $JAVA_OPTS -Dspring.profiles.active=lazy -jar "$JAR")
+    ;;
+  cds)
+    JAR_EXTRAIDO="$(preparar_cds "")"
+    COMANDO=(java -XX:SharedArchiveFile="$DIR_EXTRAIDO/application.jsa" $JAVA_OPTS -jar "$JAR_EXTRAIDO")
+    ;;
+  aot)
+    JAR_EXTRAIDO="$(preparar_cds "-Dspring.aot.enabled=true")"
+    COMANDO=(java -XX:SharedArchiveFile="$DIR_EXTRAIDO/application.jsa" -Dspring.aot.enabled=true $JAVA_OPTS -jar "$JAR_EXTRAIDO")
+    ;;
+  *)
+    echo "Modo desconocido: $MODO" >&2
+    exit 1
+    ;;
+esac
+
+TIEMPOS=()
+for i in $(seq 1 "$REPETICIONES"); do
+  inicio=$(ms)
+  "${COMANDO[@]}" >"target/arranque-$MODO-$i.log" 2>&1 &
+  PID=$!
+  until curl -sf -o /dev/null "$URL"; do
+    if ! kill -0 "$PID" 2>/dev/null; then
+      echo "La aplicación terminó antes de responder; ver target/arranque-$MODO-$i.log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  fin=$(ms)
+  kill "$PID"
+  wait "$PID" 2>/dev/null || true
+  TIEMPOS+=($((fin - inicio)))
+  echo "[$MODO] ejecución $i: $((fin - inicio)) ms"
+done
+
+printf '%s\n' "${TIEMPOS[@]}" | sort -n | awk -v modo="$MODO" '
+  { t[NR] = $1; suma += $1 }
+  END { printf "[%s] min %d ms, mediana %d ms, media %d ms (%d ejecuciones)\n", modo, t[1], t[int((NR + 1) / 2)], suma / NR, NR }'
@@ -0,0 +1,96 @@
+package com.example.cuentaMovimientos.carga;
+
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parámetros de la prueba de carga, leídos de argumentos {@code clave=valor}:
+ * <ul>
+ *     <li>{@code tasa} (200): peticiones por segundo de todas las operaciones;</li>
+ *     <li>{@code llegadas} ({@code poisson}): {@code poisson} o {@code constante};</li>
+ *     <li>{@code mezcla} ({@code crear:70,listar:20,reporte:10}): peso de cada {@link Operacion};</li>
+ *     <li>{@code duracion} (60s) y {@code calentamiento} (15s): el calentamiento no se incluye en los resultados;</li>
+ *     <li>{@code cuentas} (1000), {@code clientes} (100) y {@code cuentas-por-reporte} (3);</li>
+ *     <li>{@code latencia-cliente-ms} (20) y {@code variacion-cliente-ms} (10) del clientePersona simulado;</li>
+ *     <li>{@code max-en-curso} (2000): peticiones pendientes a partir de las cuales las nuevas se descartan;</li>
+ *     <li>{@code salida} ({@code target/carga}), {@code etiqueta} ({@code local}) y {@code comparar} (ruta de un
+ *     resumen anterior).</li>
+ * </ul>
+ * Cualquier otro argumento {@code --clave=valor} se pasa a la aplicación como propiedad.
+ */
+@Getter
+public class ConfiguracionCarga {
+
+    private final double tasa;
+    private final boolean poisson;
+    private final Map<Operacion, Integer> mezcla;
+    private final Duration duracion;
+    private final Duration calentamiento;
+    private final int cuentas;
+    private final int clientes;
+    private final int cuentasPorReporte;
+    private final long latenciaClienteMs;
+    private final long variacionClienteMs;
+    private final int maxEnCurso;
+    private final Path salida;
+    private final String etiqueta;
+    private final Path comparar;
+    private final Map<String, Object> propiedades;
+
+    public ConfiguracionCarga(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        Map<String, Object> propiedades = new HashMap<>();
+        for (String arg : args) {
+            // exec:exec entrega -Dcarga.args como un único argumento
+            for (String parte : arg.trim().split("\\s+")) {
+                int igual = parte.indexOf('=');
+                if (igual <= 0) {
+                    continue;
+                }
+                if (parte.startsWith("--")) {
+                    propiedades.put(parte.substring(2, igual), parte.substring(igual + 1));
+                } else {
+                    valores.put(parte.substring(0, igual), parte.substring(igual + 1));
+                }
+            }
+        }
+
+        this.tasa = Double.parseDouble(valores.getOrDefault("tasa", "200"));
+        this.poisson = !"constante".equals(valores.getOrDefault("llegadas", "poisson"));
+        this.mezcla = mezcla(valores.getOrDefault("mezcla", "crear:70,listar:20,reporte:10"));
+        this.duracion = DurationStyle.detectAndParse(valores.getOrDefault("duracion", "60s"));
+        this.calentamiento = DurationStyle.detectAndParse(valores.getOrDefault("calentamiento", "15s"));
+        this.cuentas = Integer.parseInt(valores.getOrDefault("cuentas", "1000"));
+        this.clientes = Integer.parseInt(valores.getOrDefault("clientes", "100"));
+        this.cuentasPorReporte = Integer.parseInt(valores.getOrDefault("cuentas-por-reporte", "3"));
+        this.latenciaClienteMs = Long.parseLong(valores.getOrDefault("latencia-cliente-ms", "20"));
+        this.variacionClienteMs = Long.parseLong(valores.getOrDefault("variacion-cliente-ms", "10"));
+        this.maxEnCurso = Integer.parseInt(valores.getOrDefault("max-en-curso", "2000"));
+        this.salida = Path.of(valores.getOrDefault("salida", "target/carga"));
+        this.etiqueta = valores.getOrDefault("etiqueta", "local");
+        this.comparar = valores.containsKey("comparar") ? Path.of(valores.get("comparar")) : null;
+        this.propiedades = propiedades;
+    }
+
+    private static Map<Operacion, Integer> mezcla(String valor) {
+        Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        for (String parte : valor.split(",")) {
+            String[] clavePeso = parte.split(":");
+            int peso = Integer.parseInt(clavePeso[1].trim());
+            if (peso > 0) {
+                pesos.put(Operacion.valueOf(clavePeso[0].trim().toUpperCase(Locale.ROOT)), peso);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla debe incluir al menos una operación: " + valor);
+        }
+        return pesos;
+    }
+}
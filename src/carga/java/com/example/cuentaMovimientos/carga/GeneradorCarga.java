@@ -0,0 +1,169 @@
+package com.example.cuentaMovimientos.carga;
+
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga de modelo abierto: las llegadas se programan a la tasa configurada (intervalos exponenciales o
+ * constantes) sin esperar a que terminen las anteriores, como llegan las peticiones de clientes independientes.
+ * <p>
+ * La latencia se mide desde el instante programado de cada llegada, no desde el envío, para que un retraso del
+ * propio generador o del servidor no desaparezca de los percentiles (omisión coordinada). Si hay más de
+ * {@code max-en-curso} peticiones pendientes, las nuevas llegadas se cuentan como descartadas.
+ * </p>
+ */
+public class GeneradorCarga {
+
+    private static final long LATENCIA_MAXIMA = TimeUnit.MINUTES.toNanos(2);
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final ConfiguracionCarga configuracion;
+    private final HttpClient http;
+    private final URI base;
+    private final List<Long> cuentasIds;
+    private final List<String> numerosCuenta;
+    private final Operacion[] ruleta;
+    private final Random random = new Random();
+
+    private final Map<Operacion, Recorder> latencias = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, LongAdder> correctas = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, LongAdder> errores = new EnumMap<>(Operacion.class);
+    private final LongAdder descartadas = new LongAdder();
+    private final AtomicInteger enCurso = new AtomicInteger();
+
+    public GeneradorCarga(ConfiguracionCarga configuracion, HttpClient http, URI base,
+                          List<Long> cuentasIds, List<String> numerosCuenta) {
+        this.configuracion = configuracion;
+        this.http = http;
+        this.base = base;
+        this.cuentasIds = cuentasIds;
+        this.numerosCuenta = numerosCuenta;
+
+        List<Operacion> opciones = new ArrayList<>();
+        configuracion.getMezcla().forEach((operacion, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                opciones.add(operacion);
+            }
+            latencias.put(operacion, new Recorder(LATENCIA_MAXIMA, 3));
+            correctas.put(operacion, new LongAdder());
+            errores.put(operacion, new LongAdder());
+        });
+        this.ruleta = opciones.toArray(new Operacion[0]);
+    }
+
+    /**
+     * Ejecuta el calentamiento y la fase medida, y espera a que terminen las peticiones pendientes.
+     */
+    public ResultadoCarga ejecutar() {
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + configuracion.getCalentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.getDuracion().toNanos();
+        long programadas = 0;
+
+        long siguiente = inicio;
+        while (siguiente < fin) {
+            esperarHasta(siguiente);
+            boolean medir = siguiente >= inicioMedicion;
+            lanzar(ruleta[random.nextInt(ruleta.length)], siguiente, medir);
+            if (medir) {
+                programadas++;
+            }
+            siguiente += intervalo();
+        }
+
+        long limite = System.nanoTime() + TIMEOUT.toNanos();
+        while (enCurso.get() > 0 && System.nanoTime() < limite) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        Map<Operacion, ResultadoCarga.ResultadoOperacion> operaciones = new EnumMap<>(Operacion.class);
+        latencias.forEach((operacion, recorder) -> operaciones.put(operacion, new ResultadoCarga.ResultadoOperacion(
+                recorder.getIntervalHistogram(), correctas.get(operacion).sum(), errores.get(operacion).sum())));
+        return new ResultadoCarga(operaciones, programadas, descartadas.sum(), configuracion.getDuracion().toMillis() / 1000.0);
+    }
+
+    private void lanzar(Operacion operacion, long programada, boolean medir) {
+        if (enCurso.get() >= configuracion.getMaxEnCurso()) {
+            if (medir) {
+                descartadas.increment();
+            }
+            return;
+        }
+        enCurso.incrementAndGet();
+        http.sendAsync(peticion(operacion), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((respuesta, error) -> {
+                    long latencia = System.nanoTime() - programada;
+                    enCurso.decrementAndGet();
+                    if (!medir) {
+                        return;
+                    }
+                    if (error != null || respuesta.statusCode() >= 400) {
+                        errores.get(operacion).increment();
+                    } else {
+                        correctas.get(operacion).increment();
+                        latencias.get(operacion).recordValue(Math.min(latencia, LATENCIA_MAXIMA));
+                    }
+                });
+    }
+
+    private HttpRequest peticion(Operacion operacion) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        LocalDate hoy = LocalDate.now();
+        switch (operacion) {
+            case CREAR: {
+                boolean deposito = aleatorio.nextInt(3) > 0;
+                String cuerpo = "{\"numeroCuenta\":\"" + numerosCuenta.get(aleatorio.nextInt(numerosCuenta.size()))
+                        + "\",\"fecha\":\"" + hoy + "\",\"tipo\":\"" + (deposito ? "Deposito" : "Retiro")
+                        + "\",\"movimiento\":" + (deposito ? 25.0 : -10.0) + "}";
+                return HttpRequest.newBuilder(base.resolve("/movimientos"))
+                        .timeout(TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                        .build();
+            }
+            case LISTAR:
+                return get("/movimientos/listado?fechaInicio=" + hoy.minusDays(30) + "&fechaFin=" + hoy
+                        + "&clienteId=" + (1 + aleatorio.nextInt(configuracion.getClientes())));
+            default: {
+                StringJoiner ids = new StringJoiner(",");
+                for (int i = 0; i < configuracion.getCuentasPorReporte(); i++) {
+                    ids.add(String.valueOf(cuentasIds.get(aleatorio.nextInt(cuentasIds.size()))));
+                }
+                return get("/reportes?cuentasIds=" + ids + "&fecha_inicio=" + hoy.minusDays(30) + "&fecha_fin=" + hoy);
+            }
+        }
+    }
+
+    private HttpRequest get(String ruta) {
+        return HttpRequest.newBuilder(base.resolve(ruta)).timeout(TIMEOUT).GET().build();
+    }
+
+    private long intervalo() {
+        double media = 1_000_000_000.0 / configuracion.getTasa();
+        return configuracion.isPoisson() ? (long) (-Math.log(1.0 - random.nextDouble()) * media) : (long) media;
+    }
+
+    private static void esperarHasta(long instante) {
+        long espera;
+        while ((espera = instante - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(espera);
+        }
+    }
+}
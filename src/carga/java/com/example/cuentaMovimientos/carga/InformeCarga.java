@@ -0,0 +1,130 @@
+package com.example.cuentaMovimientos.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Informe de una prueba de carga.
+ * <p>
+ * Escribe en {@code salida} un resumen {@code <etiqueta>-resumen.json} (rendimiento y percentiles en ms por operación)
+ * y la distribución completa de cada operación en {@code <etiqueta>-<operacion>.hgrm}, que se puede representar con
+ * el HdrHistogram Plotter. Con {@code comparar=<resumen anterior>} se imprimen las diferencias con otra ejecución,
+ * por ejemplo la de la rama principal.
+ * </p>
+ */
+public class InformeCarga {
+
+    private static final double NANOS_POR_MS = 1_000_000.0;
+
+    private final ConfiguracionCarga configuracion;
+    private final ResultadoCarga resultado;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public InformeCarga(ConfiguracionCarga configuracion, ResultadoCarga resultado) {
+        this.configuracion = configuracion;
+        this.resultado = resultado;
+    }
+
+    public Map<String, Object> resumen() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("etiqueta", configuracion.getEtiqueta());
+        resumen.put("fecha", OffsetDateTime.now().toString());
+        resumen.put("tasaObjetivo", configuracion.getTasa());
+        resumen.put("llegadas", configuracion.isPoisson() ? "poisson" : "constante");
+        resumen.put("segundos", resultado.getSegundos());
+        resumen.put("programadas", resultado.getProgramadas());
+        resumen.put("descartadas", resultado.getDescartadas());
+
+        Map<String, Object> operaciones = new LinkedHashMap<>();
+        resultado.getOperaciones().forEach((operacion, datos) -> {
+            Histogram latencias = datos.getLatencias();
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("correctas", datos.getCorrectas());
+            fila.put("errores", datos.getErrores());
+            fila.put("rps", datos.getCorrectas() / resultado.getSegundos());
+            fila.put("p50Ms", percentil(latencias, 50));
+            fila.put("p90Ms", percentil(latencias, 90));
+            fila.put("p99Ms", percentil(latencias, 99));
+            fila.put("p999Ms", percentil(latencias, 99.9));
+            fila.put("maxMs", latencias.getMaxValue() / NANOS_POR_MS);
+            operaciones.put(nombre(operacion), fila);
+        });
+        resumen.put("operaciones", operaciones);
+        return resumen;
+    }
+
+    public void imprimir(PrintStream salida) {
+        salida.printf(Locale.ROOT, "%nPrueba de carga '%s': %.0f peticiones/s (%s) durante %.0f s, %d descartadas%n",
+                configuracion.getEtiqueta(), configuracion.getTasa(), configuracion.isPoisson() ? "poisson" : "constante",
+                resultado.getSegundos(), resultado.getDescartadas());
+        salida.printf(Locale.ROOT, "%-10s %10s %8s %10s %10s %10s %10s %10s %10s%n",
+                "operacion", "correctas", "errores", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        resultado.getOperaciones().forEach((operacion, datos) -> {
+            Histogram latencias = datos.getLatencias();
+            salida.printf(Locale.ROOT, "%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n", nombre(operacion),
+                    datos.getCorrectas(), datos.getErrores(), datos.getCorrectas() / resultado.getSegundos(),
+                    percentil(latencias, 50), percentil(latencias, 90), percentil(latencias, 99),
+                    percentil(latencias, 99.9), latencias.getMaxValue() / NANOS_POR_MS);
+        });
+    }
+
+    public void escribir() throws IOException {
+        Path directorio = configuracion.getSalida();
+        Files.createDirectories(directorio);
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(directorio.resolve(configuracion.getEtiqueta() + "-resumen.json").toFile(), resumen());
+        for (Map.Entry<Operacion, ResultadoCarga.ResultadoOperacion> entrada : resultado.getOperaciones().entrySet()) {
+            Path fichero = directorio.resolve(configuracion.getEtiqueta() + "-" + nombre(entrada.getKey()) + ".hgrm");
+            try (PrintStream salida = new PrintStream(Files.newOutputStream(fichero))) {
+                entrada.getValue().getLatencias().outputPercentileDistribution(salida, NANOS_POR_MS);
+            }
+        }
+    }
+
+    /**
+     * Imprime el rendimiento y el p99 de cada operación frente a un resumen anterior.
+     *
+     * @param anterior Ruta del {@code -resumen.json} de referencia.
+     */
+    public void comparar(Path anterior, PrintStream salida) throws IOException {
+        JsonNode base = objectMapper.readTree(anterior.toFile());
+        JsonNode actual = objectMapper.valueToTree(resumen());
+        salida.printf(Locale.ROOT, "%nComparación con '%s':%n", base.path("etiqueta").asText(anterior.toString()));
+        salida.printf(Locale.ROOT, "%-10s %12s %12s %8s %12s %12s %8s%n",
+                "operacion", "rps base", "rps", "dif %", "p99 base", "p99", "dif %");
+        actual.path("operaciones").fields().forEachRemaining(entrada -> {
+            JsonNode anteriorOperacion = base.path("operaciones").path(entrada.getKey());
+            if (anteriorOperacion.isMissingNode()) {
+                return;
+            }
+            double rpsBase = anteriorOperacion.path("rps").asDouble();
+            double rps = entrada.getValue().path("rps").asDouble();
+            double p99Base = anteriorOperacion.path("p99Ms").asDouble();
+            double p99 = entrada.getValue().path("p99Ms").asDouble();
+            salida.printf(Locale.ROOT, "%-10s %12.1f %12.1f %+8.1f %12.2f %12.2f %+8.1f%n", entrada.getKey(),
+                    rpsBase, rps, diferencia(rpsBase, rps), p99Base, p99, diferencia(p99Base, p99));
+        });
+    }
+
+    private static double percentil(Histogram latencias, double percentil) {
+        return latencias.getValueAtPercentile(percentil) / NANOS_POR_MS;
+    }
+
+    private static double diferencia(double base, double valor) {
+        return base == 0 ? 0 : (valor - base) * 100.0 / base;
+    }
+
+    private static String nombre(Operacion operacion) {
+        return operacion.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.cuentaMovimientos.carga;
+
+/**
+ * Operaciones que componen la mezcla de tráfico de la prueba de carga.
+ */
+public enum Operacion {
+    /** {@code POST /movimientos}. */
+    CREAR,
+    /** {@code GET /movimientos/listado} de un cliente en los últimos 30 días. */
+    LISTAR,
+    /** {@code GET /reportes} de varias cuentas en los últimos 30 días. */
+    REPORTE
+}
@@ -0,0 +1,95 @@
+package com.example.cuentaMovimientos.carga;
+
+import com.example.cuentaMovimientos.CuentaMovimientosApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Prueba de carga autónoma: arranca un clientePersona simulado ({@link StubClientePersona}) y la aplicación con el
+ * perfil {@code carga} (H2 en memoria), crea las cuentas por la API y ejecuta la mezcla de tráfico configurada con
+ * {@link GeneradorCarga}. Los parámetros se describen en {@link ConfiguracionCarga}:
+ * {@code mvn -Pcarga test-compile exec:exec -Dcarga.args="tasa=300 duracion=60s etiqueta=mi-rama"}.
+ */
+public class PruebaCarga {
+
+    private static final int LOTE_SIEMBRA = 50;
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = new ConfiguracionCarga(args);
+
+        try (StubClientePersona stub = new StubClientePersona(configuracion.getLatenciaClienteMs(), configuracion.getVariacionClienteMs())) {
+            Map<String, Object> propiedades = new HashMap<>(configuracion.getPropiedades());
+            propiedades.put("server.port", 0);
+            propiedades.put("cuenta-movimientos.cliente-persona.url", "http://localhost:" + stub.getPuerto());
+
+            try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CuentaMovimientosApplication.class)
+                    .profiles("carga")
+                    .properties(propiedades)
+                    .run()) {
+                URI base = URI.create("http://localhost:" + contexto.getEnvironment().getProperty("local.server.port"));
+                HttpClient http = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+
+                List<Long> cuentasIds = new ArrayList<>(configuracion.getCuentas());
+                List<String> numerosCuenta = new ArrayList<>(configuracion.getCuentas());
+                sembrar(http, base, configuracion, cuentasIds, numerosCuenta);
+
+                ResultadoCarga resultado = new GeneradorCarga(configuracion, http, base, cuentasIds, numerosCuenta).ejecutar();
+                InformeCarga informe = new InformeCarga(configuracion, resultado);
+                informe.imprimir(System.out);
+                informe.escribir();
+                if (configuracion.getComparar() != null) {
+                    informe.comparar(configuracion.getComparar(), System.out);
+                }
+                System.out.printf("clientePersona simulado: %d peticiones; resultados en %s%n",
+                        stub.getPeticiones(), configuracion.getSalida().toAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Crea las cuentas de la prueba repartidas entre los clientes, en lotes de peticiones concurrentes.
+     */
+    private static void sembrar(HttpClient http, URI base, ConfiguracionCarga configuracion,
+                                List<Long> cuentasIds, List<String> numerosCuenta) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int desde = 0; desde < configuracion.getCuentas(); desde += LOTE_SIEMBRA) {
+            List<CompletableFuture<HttpResponse<String>>> respuestas = new ArrayList<>(LOTE_SIEMBRA);
+            for (int i = desde; i < Math.min(desde + LOTE_SIEMBRA, configuracion.getCuentas()); i++) {
+                String numeroCuenta = String.format("C%07d", i + 1);
+                String cuerpo = "{\"numeroCuenta\":\"" + numeroCuenta + "\",\"tipoCuenta\":\"" + (i % 2 == 0 ? "Ahorros" : "Corriente")
+                        + "\",\"saldoInicial\":1.0E9,\"estado\":true,\"clienteId\":" + (1 + i % configuracion.getClientes()) + "}";
+                numerosCuenta.add(numeroCuenta);
+                respuestas.add(http.sendAsync(HttpRequest.newBuilder(base.resolve("/cuentas"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                        .build(), HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> respuesta : respuestas) {
+                HttpResponse<String> creada = respuesta.join();
+                if (creada.statusCode() != 201) {
+                    throw new IllegalStateException("No se pudo crear la cuenta: " + creada.statusCode() + " " + creada.body());
+                }
+                try {
+                    cuentasIds.add(objectMapper.readTree(creada.body()).get("id").asLong());
+                } catch (Exception e) {
+                    throw new IllegalStateException("Respuesta inesperada al crear la cuenta: " + creada.body(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.cuentaMovimientos.carga;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * Resultado de la fase medida de una prueba de carga.
+ */
+@Getter
+@AllArgsConstructor
+public class ResultadoCarga {
+
+    /**
+     * Latencias (ns, desde el instante programado de llegada) y contadores de una operación.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ResultadoOperacion {
+        private final Histogram latencias;
+        private final long correctas;
+        private final long errores;
+    }
+
+    private final Map<Operacion, ResultadoOperacion> operaciones;
+    private final long programadas;
+    private final long descartadas;
+    private final double segundos;
+}
@@ -0,0 +1,76 @@
+package com.example.cuentaMovimientos.carga;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sustituto de clientePersona para la prueba de carga: responde a {@code GET /clientes/{id}} con un cliente ficticio
+ * tras una latencia de {@code latenciaMs} más una variación uniforme de hasta {@code variacionMs}.
+ */
+public class StubClientePersona implements AutoCloseable {
+
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+    private final long latenciaMs;
+    private final long variacionMs;
+    private final AtomicLong peticiones = new AtomicLong();
+
+    public StubClientePersona(long latenciaMs, long variacionMs) throws IOException {
+        this.latenciaMs = latenciaMs;
+        this.variacionMs = variacionMs;
+        this.ejecutor = Executors.newCachedThreadPool(tarea -> {
+            Thread hilo = new Thread(tarea, "stub-cliente-persona");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.servidor.createContext("/clientes/", this::responder);
+        this.servidor.setExecutor(ejecutor);
+        this.servidor.start();
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    public long getPeticiones() {
+        return peticiones.get();
+    }
+
+    private void responder(HttpExchange intercambio) throws IOException {
+        peticiones.incrementAndGet();
+        try {
+            long espera = latenciaMs + (variacionMs > 0 ? ThreadLocalRandom.current().nextLong(variacionMs + 1) : 0);
+            if (espera > 0) {
+                Thread.sleep(espera);
+            }
+            String id = intercambio.getRequestURI().getPath().substring("/clientes/".length());
+            byte[] cuerpo = ("{\"id\":" + id + ",\"nombre\":\"Cliente " + id + "\"}").getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            intercambio.sendResponseHeaders(503, -1);
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        ejecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.cuentaMovimientos.benchmark;
+
+import com.example.cuentaMovimientos.cache.ColumnasMovimientos;
+import com.example.cuentaMovimientos.cache.DiccionarioTipos;
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recorrido de un rango de 30 días sobre los movimientos de una cuenta en {@link ColumnasMovimientos} frente a una
+ * lista de {@link MovimientoReporteDto} (la representación por objetos que se cachearía en su lugar). La memoria que
+ * ocupa cada representación, medida como diferencia del heap usado tras un GC, se imprime al preparar el benchmark:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ColumnasMovimientos -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnasMovimientosBenchmark {
+
+    private static final LocalDate DESDE = LocalDate.of(2024, 1, 1);
+    private static final int DIAS = 92;
+    private static final String[] TIPOS = {"Deposito", "Retiro", "Transferencia"};
+
+    @Param({"10000", "1000000"})
+    public int movimientos;
+
+    private ColumnasMovimientos columnas;
+    private List<MovimientoReporteDto> objetos;
+    private LocalDate rangoInicio;
+    private LocalDate rangoFin;
+
+    @Setup
+    public void setUp() {
+        rangoInicio = DESDE.plusDays(DIAS - 30);
+        rangoFin = DESDE.plusDays(DIAS - 1);
+
+        long base = heapUsado();
+        objetos = new ArrayList<>(movimientos);
+        for (int i = 0; i < movimientos; i++) {
+            // Cada DTO con su propio LocalDate, como los que produce la conversión desde las entidades
+            LocalDate fecha = LocalDate.ofEpochDay(DESDE.toEpochDay() + (long) i * DIAS / movimientos);
+            objetos.add(new MovimientoReporteDto(fecha, new String(TIPOS[i % TIPOS.length]), i % 2 == 0 ? 10.0 : -5.0, i));
+        }
+        long bytesObjetos = heapUsado() - base;
+
+        base = heapUsado();
+        ColumnasMovimientos bloque = ColumnasMovimientos.vacio(new DiccionarioTipos(), DESDE, movimientos);
+        for (int i = 0; i < movimientos; i++) {
+            MovimientoReporteDto movimiento = objetos.get(i);
+            bloque = bloque.con(i + 1, movimiento.getFecha(), movimiento.getTipoMovimiento(), movimiento.getValor(), movimiento.getSaldo());
+        }
+        columnas = bloque;
+        long bytesColumnas = heapUsado() - base;
+
+        System.out.printf("%n%d movimientos: objetos %d bytes (%d por movimiento), columnas %d bytes (%d por movimiento, "
+                        + "estimado %d)%n", movimientos, bytesObjetos, bytesObjetos / movimientos, bytesColumnas,
+                bytesColumnas / movimientos, columnas.bytesEstimados());
+    }
+
+    @Benchmark
+    public double sumarColumnas() {
+        return columnas.sumaValores(rangoInicio, rangoFin);
+    }
+
+    @Benchmark
+    public double sumarObjetos() {
+        double suma = 0;
+        for (MovimientoReporteDto movimiento : objetos) {
+            LocalDate fecha = movimiento.getFecha();
+            if (!fecha.isBefore(rangoInicio) && !fecha.isAfter(rangoFin)) {
+                suma += movimiento.getValor();
+            }
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public List<MovimientoReporteDto> rangoColumnas() {
+        return columnas.entre(rangoInicio, rangoFin);
+    }
+
+    @Benchmark
+    public List<MovimientoReporteDto> rangoObjetos() {
+        List<MovimientoReporteDto> rango = new ArrayList<>();
+        for (MovimientoReporteDto movimiento : objetos) {
+            LocalDate fecha = movimiento.getFecha();
+            if (!fecha.isBefore(rangoInicio) && !fecha.isAfter(rangoFin)) {
+                rango.add(movimiento);
+            }
+        }
+        return rango;
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.cuentaMovimientos.benchmark;
+
+import com.example.cuentaMovimientos.dto.response.CuentaReporteDto;
+import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoResponseDto;
+import com.example.cuentaMovimientos.dto.response.ReporteResponseDto;
+import com.example.cuentaMovimientos.json.MovimientoJsonModule;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compara JSON, CBOR y Smile en tiempo de codificación y decodificación de un listado de movimientos y de un
+ * reporte. Los tamaños de las cargas (sin comprimir y con gzip) se imprimen al preparar cada formato:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="FormatoRespuesta"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatoRespuestaBenchmark {
+
+    private static final TypeReference<List<MovimientoResponseDto>> LISTA_MOVIMIENTOS = new TypeReference<>() { };
+
+    @Param({"json", "cbor", "smile"})
+    public String formato;
+
+    @Param({"1000"})
+    public int movimientos;
+
+    private ObjectMapper objectMapper;
+    private List<MovimientoResponseDto> listado;
+    private ReporteResponseDto reporte;
+    private byte[] listadoCodificado;
+    private byte[] reporteCodificado;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (formato) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .registerModule(new MovimientoJsonModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+
+        CuentaResponseDto cuenta = new CuentaResponseDto(1L, "478758", "Ahorros", 2000, 1425.5, true, 7L);
+        List<MovimientoReporteDto> movimientosReporte = new ArrayList<>(movimientos);
+        listado = new ArrayList<>(movimientos);
+        LocalDate fecha = LocalDate.of(2024, 1, 1);
+        double saldo = 2000;
+        for (int i = 0; i < movimientos; i++) {
+            double valor = i % 3 == 0 ? -125.75 : 310.4;
+            saldo += valor;
+            listado.add(new MovimientoResponseDto((long) i, cuenta, fecha.plusDays(i % 365),
+                    valor < 0 ? "Retiro" : "Deposito", valor, saldo, "Jose Lema"));
+            movimientosReporte.add(new MovimientoReporteDto(fecha.plusDays(i % 365),
+                    valor < 0 ? "Retiro" : "Deposito", valor, saldo));
+        }
+        reporte = new ReporteResponseDto("Jose Lema", new ArrayList<>());
+        reporte.addCuenta(new CuentaReporteDto("478758", "Ahorros", 2000, true, movimientosReporte));
+
+        listadoCodificado = objectMapper.writeValueAsBytes(listado);
+        reporteCodificado = objectMapper.writeValueAsBytes(reporte);
+        System.out.printf("%n%s: listado %d bytes (gzip %d), reporte %d bytes (gzip %d)%n", formato,
+                listadoCodificado.length, gzip(listadoCodificado), reporteCodificado.length, gzip(reporteCodificado));
+    }
+
+    @Benchmark
+    public byte[] codificarListado() throws IOException {
+        return objectMapper.writeValueAsBytes(listado);
+    }
+
+    @Benchmark
+    public List<MovimientoResponseDto> decodificarListado() throws IOException {
+        return objectMapper.readValue(listadoCodificado, LISTA_MOVIMIENTOS);
+    }
+
+    @Benchmark
+    public byte[] codificarReporte() throws IOException {
+        return objectMapper.writeValueAsBytes(reporte);
+    }
+
+    @Benchmark
+    public ReporteResponseDto decodificarReporte() throws IOException {
+        return objectMapper.readValue(reporteCodificado, ReporteResponseDto.class);
+    }
+
+    private static int gzip(byte[] datos) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        }
+        return salida.size();
+    }
+}
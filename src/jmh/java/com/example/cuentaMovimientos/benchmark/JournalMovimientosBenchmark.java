@@ -0,0 +1,148 @@
+package com.example.cuentaMovimientos.benchmark;
+
+import com.example.cuentaMovimientos.engine.JournalMovimientos;
+import com.example.cuentaMovimientos.engine.MovimientoAplicado;
+import com.example.cuentaMovimientos.engine.RegistroJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Rendimiento del {@link JournalMovimientos}.
+ * <p>
+ * {@code agregarYEsperar} mide movimientos confirmados (escritos y forzados a disco) por segundo con 16 hilos, cada
+ * uno esperando su {@code fsync} como una petición HTTP; el group commit comparte cada sincronización entre los
+ * hilos que esperan. {@code agregarLote} escribe lotes de 100 como lo hace una partición del motor.
+ * {@code recuperar} mide el tiempo de abrir y leer un diario con {@code registros} movimientos tras una caída:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="JournalMovimientos"}.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class JournalMovimientosBenchmark {
+
+    private static final int LOTE = 100;
+    private static final LocalDate FECHA = LocalDate.of(2024, 1, 1);
+
+    @State(Scope.Benchmark)
+    public static class Escritura {
+        private final AtomicLong ids = new AtomicLong();
+        private Path directorio;
+        private JournalMovimientos journal;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directorio = Files.createTempDirectory("journal-bench");
+            journal = new JournalMovimientos(directorio, 1 << 20);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            journal.close();
+            borrar(directorio);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Recuperacion {
+        @Param({"100000", "1000000"})
+        public int registros;
+
+        private Path directorio;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            directorio = Files.createTempDirectory("journal-bench");
+            try (JournalMovimientos journal = new JournalMovimientos(directorio, 1 << 20)) {
+                List<MovimientoAplicado> lote = new ArrayList<>(LOTE);
+                for (long id = 1; id <= registros; id++) {
+                    lote.add(movimiento(id));
+                    if (lote.size() == LOTE) {
+                        journal.esperarDurable(journal.agregar(lote));
+                        lote.clear();
+                    }
+                }
+                if (!lote.isEmpty()) {
+                    journal.esperarDurable(journal.agregar(lote));
+                }
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            borrar(directorio);
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long agregarYEsperar(Escritura estado) {
+        long posicion = estado.journal.agregar(List.of(movimiento(estado.ids.incrementAndGet())));
+        estado.journal.esperarDurable(posicion);
+        return posicion;
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(LOTE)
+    public long agregarLote(Escritura estado) {
+        List<MovimientoAplicado> lote = new ArrayList<>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            lote.add(movimiento(estado.ids.incrementAndGet()));
+        }
+        long posicion = estado.journal.agregar(lote);
+        estado.journal.esperarDurable(posicion);
+        return posicion;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Threads(1)
+    public int recuperar(Recuperacion estado) {
+        try (JournalMovimientos journal = new JournalMovimientos(estado.directorio, 1 << 20)) {
+            return journal.leer().size();
+        }
+    }
+
+    private static MovimientoAplicado movimiento(long id) {
+        long cuentaId = 1 + id % 10_000;
+        return MovimientoAplicado.recuperado(new RegistroJournal(id, cuentaId, FECHA, "Deposito", 10.0, 1_000.0 + id), "C-" + cuentaId);
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> ficheros = Files.walk(directorio)) {
+            for (Path fichero : ficheros.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(fichero);
+            }
+        }
+    }
+}
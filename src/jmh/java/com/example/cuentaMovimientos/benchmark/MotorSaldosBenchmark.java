@@ -0,0 +1,136 @@
+package com.example.cuentaMovimientos.benchmark;
+
+import com.example.cuentaMovimientos.engine.DiarioMovimientos;
+import com.example.cuentaMovimientos.engine.JdbcDiarioMovimientos;
+import com.example.cuentaMovimientos.engine.MotorSaldos;
+import com.example.cuentaMovimientos.engine.MovimientoAplicado;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Movimientos por segundo del {@link MotorSaldos} con 16 hilos productores.
+ * <p>
+ * {@code diario=memoria} mide el motor (particiones, colas y mapa de saldos) con un diario que solo asigna IDs;
+ * {@code diario=h2} añade la escritura real por lotes ({@link JdbcDiarioMovimientos}) sobre H2 en memoria.
+ * {@code enviarYEsperar} es un llamante síncrono por hilo (como una petición HTTP); {@code enviarEnRafaga} envía 1000
+ * movimientos antes de esperar, que es el caso que aprovecha los lotes:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="MotorSaldos"}.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class MotorSaldosBenchmark {
+
+    private static final int RAFAGA = 1000;
+    private static final LocalDate FECHA = LocalDate.of(2024, 1, 1);
+
+    @Param({"memoria", "h2"})
+    public String diario;
+
+    @Param({"8"})
+    public int particiones;
+
+    @Param({"100000"})
+    public int cuentas;
+
+    private EmbeddedDatabase baseDatos;
+    private MotorSaldos motor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DiarioMovimientos destino;
+        if ("h2".equals(diario)) {
+            baseDatos = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(baseDatos);
+            jdbcTemplate.execute("CREATE TABLE cuentas (id BIGINT PRIMARY KEY, saldo_actual DOUBLE, version_datos BIGINT DEFAULT 0 NOT NULL)");
+            jdbcTemplate.execute("CREATE TABLE movimientos (id BIGINT AUTO_INCREMENT PRIMARY KEY, fecha DATE, tipo_movimiento VARCHAR(255), "
+                    + "valor DOUBLE, saldo DOUBLE, aplicado BOOLEAN, cuenta_id BIGINT NOT NULL)");
+            jdbcTemplate.execute("CREATE TABLE movimientos_outbox (id BIGINT AUTO_INCREMENT PRIMARY KEY, tipo_evento VARCHAR(255), "
+                    + "movimiento_id BIGINT, cuenta_id BIGINT, payload CLOB, fecha_creacion TIMESTAMP, enviado BOOLEAN, fecha_envio TIMESTAMP)");
+            List<Object[]> filas = new ArrayList<>(cuentas);
+            for (long id = 1; id <= cuentas; id++) {
+                filas.add(new Object[]{id, 1_000_000.0});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO cuentas (id, saldo_actual) VALUES (?, ?)", filas);
+            ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            destino = new JdbcDiarioMovimientos(jdbcTemplate,
+                    new TransactionTemplate(new DataSourceTransactionManager(baseDatos)), objectMapper);
+        } else {
+            AtomicLong ids = new AtomicLong();
+            destino = lote -> lote.forEach(movimiento -> movimiento.asignarId(ids.incrementAndGet()));
+        }
+
+        motor = new MotorSaldos(particiones, 1000, destino, cuentaId -> 1_000_000.0);
+        for (long id = 1; id <= cuentas; id++) {
+            motor.cargar(id, 1_000_000.0);
+        }
+        motor.iniciar();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        motor.detener();
+        if (baseDatos != null) {
+            baseDatos.shutdown();
+        }
+    }
+
+    @Benchmark
+    public MovimientoAplicado enviarYEsperar() {
+        MovimientoAplicado movimiento = motor.enviar(movimiento());
+        return movimiento.getResultado().join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RAFAGA)
+    public void enviarEnRafaga() {
+        CompletableFuture<?>[] resultados = new CompletableFuture<?>[RAFAGA];
+        for (int i = 0; i < RAFAGA; i++) {
+            resultados[i] = motor.enviar(movimiento()).getResultado();
+        }
+        CompletableFuture.allOf(resultados).join();
+    }
+
+    private MovimientoAplicado movimiento() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long cuentaId = 1 + random.nextInt(cuentas);
+        double valor = random.nextBoolean() ? 10.0 : -10.0;
+        return new MovimientoAplicado(cuentaId, "C-" + cuentaId, FECHA, valor > 0 ? "Deposito" : "Retiro", valor);
+    }
+}
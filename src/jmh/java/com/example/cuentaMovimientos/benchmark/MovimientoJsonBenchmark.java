@@ -0,0 +1,121 @@
+package com.example.cuentaMovimientos.benchmark;
+
+import com.example.cuentaMovimientos.dto.response.CuentaReporteDto;
+import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoResponseDto;
+import com.example.cuentaMovimientos.dto.response.ReporteResponseDto;
+import com.example.cuentaMovimientos.json.MovimientoJsonModule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la serialización por reflexión del ObjectMapper con {@link MovimientoJsonModule} (más Blackbird).
+ * <p>
+ * Cada operación es un movimiento. El contador auxiliar {@code bytes} da los bytes/s y {@code -prof gc}
+ * ({@code gc.alloc.rate.norm}) las asignaciones por movimiento:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="MovimientoJson -prof gc"}.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MovimientoJsonBenchmark {
+
+    private static final int MOVIMIENTOS = 1000;
+
+    @Param({"reflexion", "optimizado"})
+    public String serializador;
+
+    private ObjectWriter writer;
+    private List<MovimientoResponseDto> movimientos;
+    private ReporteResponseDto reporte;
+    private final ByteArrayOutputStream salida = new ByteArrayOutputStream(256 * 1024);
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reiniciar() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+        if ("optimizado".equals(serializador)) {
+            objectMapper.registerModule(new MovimientoJsonModule()).registerModule(new BlackbirdModule());
+        }
+        writer = objectMapper.writer();
+
+        CuentaResponseDto cuenta = new CuentaResponseDto(1L, "478758", "Ahorros", 2000, 1425.5, true, 7L);
+        List<MovimientoReporteDto> movimientosReporte = new ArrayList<>(MOVIMIENTOS);
+        movimientos = new ArrayList<>(MOVIMIENTOS);
+        LocalDate fecha = LocalDate.of(2024, 1, 1);
+        double saldo = 2000;
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            double valor = i % 3 == 0 ? -125.75 : 310.4;
+            saldo += valor;
+            movimientos.add(new MovimientoResponseDto((long) i, cuenta, fecha.plusDays(i % 365),
+                    valor < 0 ? "Retiro" : "Deposito", valor, saldo, "Jose Lema"));
+            movimientosReporte.add(new MovimientoReporteDto(fecha.plusDays(i % 365),
+                    valor < 0 ? "Retiro" : "Deposito", valor, saldo));
+        }
+        reporte = new ReporteResponseDto("Jose Lema", new ArrayList<>());
+        reporte.addCuenta(new CuentaReporteDto("478758", "Ahorros", 2000, true, movimientosReporte));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVIMIENTOS)
+    public int listadoMovimientos(Bytes contador) throws IOException {
+        return escribir(movimientos, contador);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVIMIENTOS)
+    public int reporte(Bytes contador) throws IOException {
+        return escribir(reporte, contador);
+    }
+
+    private int escribir(Object valor, Bytes contador) throws IOException {
+        salida.reset();
+        writer.writeValue(salida, valor);
+        contador.bytes += salida.size();
+        return salida.size();
+    }
+}
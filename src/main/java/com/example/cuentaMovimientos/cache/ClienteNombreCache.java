@@ -0,0 +1,70 @@
+package com.example.cuentaMovimientos.cache;
+
+import com.example.common.dto.response.ClienteResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Caché en proceso de los nombres de cliente que devuelve el microservicio clientePersona ({@code GET /clientes/{id}}).
+ * <p>
+ * Los nombres cambian muy poco: las entradas expiran tras {@code ttl} y no se invalidan de otra forma. Los errores y
+ * las respuestas sin cuerpo no se cachean. Publica las métricas de Caffeine con el nombre {@code clientes.nombre} y el
+ * ratio de aciertos en {@code cuentas.cache.hit.ratio}.
+ * </p>
+ */
+@Component
+public class ClienteNombreCache {
+
+    private final WebClient webClient; // Usamos WebClient para comunicación entre microservicios
+    private final Cache<Long, String> nombres;
+
+    public ClienteNombreCache(WebClient.Builder webClientBuilder,
+                              MeterRegistry meterRegistry,
+                              @Value("${cuenta-movimientos.cliente-persona.url:http://localhost:8080}") String urlClientePersona,
+                              @Value("${cuenta-movimientos.cache.clientes.max-size:100000}") long tamanoMaximo,
+                              @Value("${cuenta-movimientos.cache.clientes.ttl:10m}") Duration ttl) {
+        this.webClient = webClientBuilder.baseUrl(urlClientePersona).build();
+        this.nombres = Caffeine.newBuilder().maximumSize(tamanoMaximo).expireAfterWrite(ttl).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, nombres, "clientes.nombre");
+        Gauge.builder("cuentas.cache.hit.ratio", nombres, c -> c.stats().hitRate()).tag("cache", "clientes.nombre").register(meterRegistry);
+    }
+
+    /**
+     * Obtiene el nombre de un cliente, consultándolo en clientePersona si no está en caché.
+     *
+     * @param clienteId ID del cliente.
+     * @return El nombre del cliente, o {@code null} si clientePersona responde sin cuerpo.
+     * @throws RuntimeException si el cliente no existe (4xx) o hay un error en clientePersona (5xx).
+     */
+    public String nombre(Long clienteId) {
+        return nombres.get(clienteId, this::consultar);
+    }
+
+    /**
+     * Número de nombres en caché (aproximado).
+     */
+    public long tamano() {
+        return nombres.estimatedSize();
+    }
+
+    private String consultar(Long clienteId) {
+        ClienteResponseDto cliente = webClient.get()
+                .uri("/clientes/{id}", clienteId)  // Endpoint del microservicio clientePersona
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError(), response -> Mono.error(new RuntimeException("Cliente no encontrado")))
+                .onStatus(status -> status.is5xxServerError(), response -> Mono.error(new RuntimeException("Error en el servidor de clientePersona")))
+                .bodyToMono(ClienteResponseDto.class)
+                .block();  // Bloqueamos para obtener el resultado sincrónicamente
+        return cliente != null ? cliente.getNombre() : null;
+    }
+}
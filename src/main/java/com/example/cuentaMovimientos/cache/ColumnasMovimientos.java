@@ -0,0 +1,182 @@
+package com.example.cuentaMovimientos.cache;
+
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Movimientos de una cuenta desde una fecha, en columnas de tipos primitivos ordenadas por fecha e ID: día (epoch
+ * day), ID, valor, saldo y código del tipo en un {@link DiccionarioTipos}. Ocupa unos 30 bytes por movimiento, frente a
+ * los cientos de bytes de las entidades o DTOs equivalentes, y los rangos de fechas se localizan con búsqueda binaria.
+ * <p>
+ * Una instancia publicada no cambia: {@link #con} devuelve una nueva. Al añadir al final se comparten los arrays
+ * (las posiciones nuevas quedan fuera del tamaño de las instancias anteriores), por lo que {@link #con} solo debe
+ * llamarse sobre la versión vigente, como hace {@link MovimientosColumnaresCache} dentro de un {@code compute}.
+ * </p>
+ */
+public final class ColumnasMovimientos {
+
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    private final DiccionarioTipos diccionario;
+    private final long desdeDia;
+    private final int tamano;
+    private final int[] dias;
+    private final long[] ids;
+    private final double[] valores;
+    private final double[] saldos;
+    private final short[] tipos;
+
+    private ColumnasMovimientos(DiccionarioTipos diccionario, long desdeDia, int tamano,
+                                int[] dias, long[] ids, double[] valores, double[] saldos, short[] tipos) {
+        this.diccionario = diccionario;
+        this.desdeDia = desdeDia;
+        this.tamano = tamano;
+        this.dias = dias;
+        this.ids = ids;
+        this.valores = valores;
+        this.saldos = saldos;
+        this.tipos = tipos;
+    }
+
+    /**
+     * Crea un bloque vacío que cubre los movimientos desde {@code desde}.
+     *
+     * @param capacidad Número de movimientos previsto.
+     */
+    public static ColumnasMovimientos vacio(DiccionarioTipos diccionario, LocalDate desde, int capacidad) {
+        int inicial = Math.max(capacidad, CAPACIDAD_MINIMA);
+        return new ColumnasMovimientos(diccionario, desde.toEpochDay(), 0, new int[inicial], new long[inicial],
+                new double[inicial], new double[inicial], new short[inicial]);
+    }
+
+    /**
+     * Devuelve un bloque con el movimiento añadido en su posición. Si el ID ya está presente (o la fecha es anterior
+     * al inicio del bloque) devuelve el mismo bloque.
+     */
+    public ColumnasMovimientos con(long id, LocalDate fecha, String tipoMovimiento, double valor, double saldo) {
+        int dia = (int) fecha.toEpochDay();
+        if (dia < desdeDia) {
+            return this;
+        }
+        // Caso habitual (carga ordenada, movimientos nuevos): va detrás del último sin necesidad de buscar
+        boolean alFinal = tamano == 0 || dia > dias[tamano - 1] || (dia == dias[tamano - 1] && id > ids[tamano - 1]);
+        if (!alFinal && contiene(id, dia)) {
+            return this;
+        }
+        short tipo = diccionario.codigo(tipoMovimiento);
+        int posicion = alFinal ? tamano : posicion(dia, id);
+
+        if (posicion == tamano && tamano < dias.length) {
+            escribir(this, posicion, dia, id, valor, saldo, tipo);
+            return new ColumnasMovimientos(diccionario, desdeDia, tamano + 1, dias, ids, valores, saldos, tipos);
+        }
+
+        int capacidad = tamano < dias.length ? dias.length : dias.length * 2;
+        ColumnasMovimientos copia = new ColumnasMovimientos(diccionario, desdeDia, tamano + 1, new int[capacidad],
+                new long[capacidad], new double[capacidad], new double[capacidad], new short[capacidad]);
+        copiar(this, 0, copia, 0, posicion);
+        escribir(copia, posicion, dia, id, valor, saldo, tipo);
+        copiar(this, posicion, copia, posicion + 1, tamano - posicion);
+        return copia;
+    }
+
+    /**
+     * Indica si el bloque contiene todos los movimientos a partir de {@code fechaInicio}.
+     */
+    public boolean cubre(LocalDate fechaInicio) {
+        return fechaInicio.toEpochDay() >= desdeDia;
+    }
+
+    /**
+     * Movimientos con fecha en {@code [fechaInicio, fechaFin]}, ordenados por fecha e ID.
+     */
+    public List<MovimientoReporteDto> entre(LocalDate fechaInicio, LocalDate fechaFin) {
+        int desde = primeroDesde(fechaInicio.toEpochDay());
+        int hasta = primeroDesde(fechaFin.toEpochDay() + 1);
+        List<MovimientoReporteDto> movimientos = new ArrayList<>(Math.max(hasta - desde, 0));
+        for (int i = desde; i < hasta; i++) {
+            movimientos.add(new MovimientoReporteDto(LocalDate.ofEpochDay(dias[i]), diccionario.tipo(tipos[i]), valores[i], saldos[i]));
+        }
+        return movimientos;
+    }
+
+    /**
+     * Suma de los valores de los movimientos con fecha en {@code [fechaInicio, fechaFin]}, sin materializarlos.
+     */
+    public double sumaValores(LocalDate fechaInicio, LocalDate fechaFin) {
+        int hasta = primeroDesde(fechaFin.toEpochDay() + 1);
+        double suma = 0;
+        for (int i = primeroDesde(fechaInicio.toEpochDay()); i < hasta; i++) {
+            suma += valores[i];
+        }
+        return suma;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Memoria aproximada que ocupan las columnas, incluida la capacidad libre.
+     */
+    public long bytesEstimados() {
+        // 4 (día) + 8 (ID) + 8 (valor) + 8 (saldo) + 2 (tipo) bytes por posición, más cabeceras de objeto y arrays
+        return 30L * dias.length + 5 * 16 + 48;
+    }
+
+    private boolean contiene(long id, int dia) {
+        for (int i = primeroDesde(dia); i < tamano && dias[i] == dia; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Índice del primer movimiento con día mayor o igual que {@code dia}.
+     */
+    private int primeroDesde(long dia) {
+        int bajo = 0;
+        int alto = tamano;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (dias[medio] < dia) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Índice en el que se inserta un movimiento para mantener el orden por fecha e ID.
+     */
+    private int posicion(int dia, long id) {
+        int i = primeroDesde(dia + 1L);
+        while (i > 0 && dias[i - 1] == dia && ids[i - 1] > id) {
+            i--;
+        }
+        return i;
+    }
+
+    private static void escribir(ColumnasMovimientos destino, int i, int dia, long id, double valor, double saldo, short tipo) {
+        destino.dias[i] = dia;
+        destino.ids[i] = id;
+        destino.valores[i] = valor;
+        destino.saldos[i] = saldo;
+        destino.tipos[i] = tipo;
+    }
+
+    private static void copiar(ColumnasMovimientos origen, int desde, ColumnasMovimientos destino, int hacia, int cantidad) {
+        System.arraycopy(origen.dias, desde, destino.dias, hacia, cantidad);
+        System.arraycopy(origen.ids, desde, destino.ids, hacia, cantidad);
+        System.arraycopy(origen.valores, desde, destino.valores, hacia, cantidad);
+        System.arraycopy(origen.saldos, desde, destino.saldos, hacia, cantidad);
+        System.arraycopy(origen.tipos, desde, destino.tipos, hacia, cantidad);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.cuentaMovimientos.cache;
+
+import com.example.cuentaMovimientos.entity.Cuenta;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Datos de una cuenta que cambian con poca frecuencia y pueden servirse desde caché.
+ * <p>
+ * No incluye {@code saldoActual}: el saldo se lee siempre de la base de datos.
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+public final class CuentaMetadata {
+    private final Long id;
+    private final String numeroCuenta;
+    private final String tipoCuenta;
+    private final double saldoInicial;
+    private final Boolean estado;
+    private final Long clienteId;
+
+    /**
+     * Crea los metadatos a partir de la entidad.
+     *
+     * @param cuenta Entidad Cuenta.
+     * @return CuentaMetadata con los datos de la cuenta, sin el saldo actual.
+     */
+    public static CuentaMetadata desde(Cuenta cuenta) {
+        return new CuentaMetadata(
+                cuenta.getId(),
+                cuenta.getNumeroCuenta(),
+                cuenta.getTipoCuenta(),
+                cuenta.getSaldoInicial(),
+                cuenta.getEstado(),
+                cuenta.getClienteId()
+        );
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.cuentaMovimientos.cache;
+
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.repository.CuentaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Caché en proceso de los metadatos de las cuentas y del mapeo {@code numeroCuenta -> id}.
+ * <p>
+ * Las entradas se invalidan desde {@code CuentaService} al actualizar o eliminar una cuenta (tras la confirmación
+ * si hay una transacción activa) y expiran tras {@code ttl} como red de seguridad cuando hay varias instancias.
+ * El saldo actual nunca se cachea. Publica las métricas de Caffeine ({@code cache.gets}, {@code cache.size}...)
+ * y el ratio de aciertos en {@code cuentas.cache.hit.ratio}.
+ * </p>
+ */
+@Component
+public class CuentaMetadataCache {
+
+    private final CuentaRepository cuentaRepository;
+    private final Cache<Long, CuentaMetadata> porId;
+    private final Cache<String, Long> idPorNumero;
+
+    public CuentaMetadataCache(CuentaRepository cuentaRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${cuenta-movimientos.cache.cuentas.max-size:100000}") long tamanoMaximo,
+                               @Value("${cuenta-movimientos.cache.cuentas.ttl:10m}") Duration ttl) {
+        this.cuentaRepository = cuentaRepository;
+        this.porId = Caffeine.newBuilder().maximumSize(tamanoMaximo).expireAfterWrite(ttl).recordStats().build();
+        this.idPorNumero = Caffeine.newBuilder().maximumSize(tamanoMaximo).expireAfterWrite(ttl).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, porId, "cuentas.metadata");
+        CaffeineCacheMetrics.monitor(meterRegistry, idPorNumero, "cuentas.numero");
+        Gauge.builder("cuentas.cache.hit.ratio", porId, c -> c.stats().hitRate()).tag("cache", "cuentas.metadata").register(meterRegistry);
+        Gauge.builder("cuentas.cache.hit.ratio", idPorNumero, c -> c.stats().hitRate()).tag("cache", "cuentas.numero").register(meterRegistry);
+    }
+
+    /**
+     * Obtiene los metadatos de una cuenta, cargándolos de la base de datos si no están en caché.
+     *
+     * @param id ID de la cuenta.
+     * @return Los metadatos, o vacío si la cuenta no existe (las ausencias no se cachean).
+     */
+    public Optional<CuentaMetadata> porId(Long id) {
+        return Optional.ofNullable(porId.get(id, clave -> cuentaRepository.findById(clave)
+                .map(this::registrarNumero)
+                .orElse(null)));
+    }
+
+    /**
+     * Resuelve el ID de una cuenta a partir de su número.
+     *
+     * @param numeroCuenta Número de la cuenta.
+     * @return El ID, o vacío si la cuenta no existe (las ausencias no se cachean).
+     */
+    public Optional<Long> idPorNumero(String numeroCuenta) {
+        return Optional.ofNullable(idPorNumero.get(numeroCuenta, clave -> cuentaRepository.findByNumeroCuenta(clave)
+                .map(cuenta -> {
+                    porId.put(cuenta.getId(), CuentaMetadata.desde(cuenta));
+                    return cuenta.getId();
+                })
+                .orElse(null)));
+    }
+
+    /**
+     * Carga en caché los metadatos de varias cuentas con una sola consulta, sin esperar a que se pidan.
+     *
+     * @param ids IDs de las cuentas; las inexistentes se ignoran.
+     * @return Los metadatos cargados.
+     */
+    public List<CuentaMetadata> precargar(Collection<Long> ids) {
+        List<CuentaMetadata> cargadas = new ArrayList<>(ids.size());
+        for (Cuenta cuenta : cuentaRepository.findAllById(ids)) {
+            CuentaMetadata metadata = registrarNumero(cuenta);
+            porId.put(cuenta.getId(), metadata);
+            cargadas.add(metadata);
+        }
+        return cargadas;
+    }
+
+    /**
+     * Invalida las entradas de una cuenta. Si hay una transacción activa, se invalida de nuevo tras la confirmación
+     * para descartar valores que otra petición pudiera haber cargado entretanto.
+     *
+     * @param id ID de la cuenta.
+     * @param numeroCuenta Número de la cuenta antes de la modificación.
+     */
+    public void invalidar(Long id, String numeroCuenta) {
+        eliminar(id, numeroCuenta);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eliminar(id, numeroCuenta);
+                }
+            });
+        }
+    }
+
+    private CuentaMetadata registrarNumero(Cuenta cuenta) {
+        idPorNumero.put(cuenta.getNumeroCuenta(), cuenta.getId());
+        return CuentaMetadata.desde(cuenta);
+    }
+
+    private void eliminar(Long id, String numeroCuenta) {
+        porId.invalidate(id);
+        if (numeroCuenta != null) {
+            idPorNumero.invalidate(numeroCuenta);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.cuentaMovimientos.cache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codificación por diccionario de los tipos de movimiento: cada tipo distinto se guarda una sola vez y las columnas
+ * almacenan su código de 2 bytes. El código 0 representa un tipo nulo.
+ */
+public final class DiccionarioTipos {
+
+    private final Map<String, Short> codigos = new ConcurrentHashMap<>();
+    private volatile String[] tipos = {null};
+
+    /**
+     * Obtiene el código de un tipo, registrándolo si es la primera vez que aparece.
+     *
+     * @throws IllegalStateException si se supera el número de tipos distintos representable.
+     */
+    public short codigo(String tipo) {
+        if (tipo == null) {
+            return 0;
+        }
+        Short codigo = codigos.get(tipo);
+        return codigo != null ? codigo : registrar(tipo);
+    }
+
+    public String tipo(short codigo) {
+        return tipos[codigo];
+    }
+
+    public int tamano() {
+        return tipos.length - 1;
+    }
+
+    private synchronized short registrar(String tipo) {
+        Short existente = codigos.get(tipo);
+        if (existente != null) {
+            return existente;
+        }
+        if (tipos.length > Short.MAX_VALUE) {
+            throw new IllegalStateException("Demasiados tipos de movimiento distintos");
+        }
+        String[] nuevos = Arrays.copyOf(tipos, tipos.length + 1);
+        short codigo = (short) tipos.length;
+        nuevos[codigo] = tipo;
+        // El array se publica antes que el código para que quien lea el código encuentre siempre su tipo
+        tipos = nuevos;
+        codigos.put(tipo, codigo);
+        return codigo;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.cuentaMovimientos.cache;
+
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Caché en proceso de los movimientos recientes de cada cuenta en formato columnar ({@link ColumnasMovimientos}).
+ * <p>
+ * Se activa con {@code cuenta-movimientos.cache.movimientos.enabled=true}. Cada cuenta se carga la primera vez que un
+ * reporte pide un rango que empieza dentro de los últimos {@code days} días; las cuentas se desalojan cuando el total
+ * estimado supera {@code max-memory}, empezando por las menos usadas. Los movimientos creados se añaden al bloque de
+ * su cuenta y las modificaciones o eliminaciones lo invalidan; además, cada bloque se recarga {@code ttl} después de
+ * cargarse como red de seguridad cuando hay varias instancias o frente a escrituras directas (reparaciones de la
+ * reconciliación). El periodo cubierto debe quedar dentro del nivel
+ * caliente ({@code archivo.retention-months}).
+ * </p>
+ * <p>
+ * Publica las métricas de Caffeine con el nombre {@code movimientos.columnas} y la memoria estimada en
+ * {@code movimientos.columnas.bytes}.
+ * </p>
+ */
+@Component
+public class MovimientosColumnaresCache {
+
+    private final JdbcTemplate jdbcTemplate;
+    @Getter
+    private final boolean habilitado;
+    private final int dias;
+    private final DiccionarioTipos diccionario = new DiccionarioTipos();
+    private final Cache<Long, ColumnasMovimientos> columnas;
+
+    public MovimientosColumnaresCache(JdbcTemplate jdbcTemplate,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${cuenta-movimientos.cache.movimientos.enabled:false}") boolean habilitado,
+                                      @Value("${cuenta-movimientos.cache.movimientos.days:92}") int dias,
+                                      @Value("${cuenta-movimientos.cache.movimientos.max-memory:64MB}") DataSize memoriaMaxima,
+                                      @Value("${cuenta-movimientos.cache.movimientos.ttl:10m}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado;
+        this.dias = dias;
+        this.columnas = Caffeine.newBuilder()
+                .maximumWeight(memoriaMaxima.toBytes())
+                .weigher((Long cuentaId, ColumnasMovimientos bloque) -> (int) Math.min(bloque.bytesEstimados(), Integer.MAX_VALUE))
+                .expireAfter(new Expiry<Long, ColumnasMovimientos>() {
+                    @Override
+                    public long expireAfterCreate(Long cuentaId, ColumnasMovimientos bloque, long ahora) {
+                        return ttl.toNanos();
+                    }
+
+                    // Añadir movimientos no prolonga la vida del bloque
+                    @Override
+                    public long expireAfterUpdate(Long cuentaId, ColumnasMovimientos bloque, long ahora, long restante) {
+                        return restante;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long cuentaId, ColumnasMovimientos bloque, long ahora, long restante) {
+                        return restante;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, columnas, "movimientos.columnas");
+        Gauge.builder("movimientos.columnas.bytes", columnas,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene los movimientos de una cuenta en un rango de fechas, cargando la cuenta si no está en caché.
+     *
+     * @param cuentaId ID de la cuenta.
+     * @param fechaInicio Fecha de inicio del rango (inclusive).
+     * @param fechaFin Fecha de fin del rango (inclusive).
+     * @return Los movimientos ordenados por fecha e ID, o vacío si la caché está desactivada o el rango empieza antes
+     *         del periodo que cubre.
+     */
+    public Optional<List<MovimientoReporteDto>> movimientos(Long cuentaId, LocalDate fechaInicio, LocalDate fechaFin) {
+        if (!habilitado || fechaInicio.isBefore(LocalDate.now().minusDays(dias))) {
+            return Optional.empty();
+        }
+        ColumnasMovimientos bloque = columnas.get(cuentaId, this::cargar);
+        if (!bloque.cubre(fechaInicio)) {
+            return Optional.empty();
+        }
+        return Optional.of(bloque.entre(fechaInicio, fechaFin));
+    }
+
+    /**
+     * Añade un movimiento confirmado al bloque de su cuenta, si está en caché.
+     *
+     * @param cuentaId ID de la cuenta.
+     * @param id ID del movimiento; si no se conoce, se invalida la cuenta.
+     */
+    public void registrar(Long cuentaId, Long id, LocalDate fecha, String tipoMovimiento, double valor, double saldo) {
+        if (!habilitado) {
+            return;
+        }
+        if (id == null) {
+            columnas.invalidate(cuentaId);
+            return;
+        }
+        columnas.asMap().computeIfPresent(cuentaId, (clave, bloque) -> bloque.con(id, fecha, tipoMovimiento, valor, saldo));
+    }
+
+    /**
+     * Invalida el bloque de una cuenta. Si hay una transacción activa, se invalida de nuevo tras la confirmación
+     * para descartar un bloque que otra petición pudiera haber cargado entretanto.
+     *
+     * @param cuentaId ID de la cuenta.
+     */
+    public void invalidar(Long cuentaId) {
+        if (!habilitado) {
+            return;
+        }
+        columnas.invalidate(cuentaId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    columnas.invalidate(cuentaId);
+                }
+            });
+        }
+    }
+
+    private ColumnasMovimientos cargar(Long cuentaId) {
+        LocalDate desde = LocalDate.now().minusDays(dias);
+        ColumnasMovimientos[] bloque = {ColumnasMovimientos.vacio(diccionario, desde, 0)};
+        jdbcTemplate.query("SELECT id, fecha, tipo_movimiento, valor, saldo FROM movimientos "
+                        + "WHERE cuenta_id = ? AND fecha >= ? ORDER BY fecha, id",
+                (RowCallbackHandler) rs -> bloque[0] = bloque[0].con(rs.getLong("id"), rs.getObject("fecha", LocalDate.class),
+                        rs.getString("tipo_movimiento"), rs.getDouble("valor"), rs.getDouble("saldo")),
+                cuentaId, desde);
+        return bloque[0];
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.cuentaMovimientos.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de JPA cuando el archivado de movimientos está activo ({@code cuenta-movimientos.archivo.enabled=true}).
+ * <p>
+ * La migración {@code db/particionado-movimientos.sql} elimina la clave foránea de {@code movimientos} y la
+ * particiona por mes; con {@code ddl-auto: update} Hibernate intentaría volver a crear la clave foránea al arrancar,
+ * lo que MySQL rechaza en tablas particionadas. Con el archivado activo el esquema lo gestionan solo las migraciones, así que se
+ * fuerza {@code hibernate.hbm2ddl.auto=none} sea cual sea {@code spring.jpa.hibernate.ddl-auto}.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "cuenta-movimientos.archivo.enabled", havingValue = "true")
+public class ArchivoConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer archivoSinDdlAutomatico() {
+        return propiedades -> propiedades.put(AvailableSettings.HBM2DDL_AUTO, "none");
+    }
+}
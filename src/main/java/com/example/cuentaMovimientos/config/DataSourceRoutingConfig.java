@@ -0,0 +1,78 @@
+package com.example.cuentaMovimientos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuración de los pools primario y réplica con enrutamiento lectura/escritura.
+ * <p>
+ * Se activa con {@code cuenta-movimientos.datasource.replica.enabled=true}. Los métodos de servicio anotados con
+ * {@code @Transactional(readOnly = true)} se ejecutan contra la réplica; el resto, contra la primaria. Cada pool se
+ * dimensiona por separado ({@code spring.datasource.hikari.*} y {@code cuenta-movimientos.datasource.replica.hikari.*}).
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "cuenta-movimientos.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /**
+     * Pool de la base primaria, construido a partir de {@code spring.datasource}.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    /**
+     * Pool de la réplica de solo lectura.
+     */
+    @Bean
+    @ConfigurationProperties("cuenta-movimientos.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaria,
+                                                             @Qualifier("replicaDataSource") DataSource replica) {
+        return new ReplicaRoutingDataSource(primaria, replica);
+    }
+
+    /**
+     * {@link DataSource} que usa la aplicación (JPA, JdbcTemplate). El proxy perezoso retrasa la obtención de la
+     * conexión hasta la primera sentencia, cuando ya se conoce si la transacción es de solo lectura.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean(initMethod = "inicializar")
+    @Lazy(false)
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaria,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               @Value("${cuenta-movimientos.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primaria, replica, replicaRoutingDataSource, maxLagMs, meterRegistry);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.cuentaMovimientos.config;
+
+import com.example.cuentaMovimientos.json.MovimientoJsonModule;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuración del {@link com.fasterxml.jackson.databind.ObjectMapper} de la aplicación.
+ * <p>
+ * Además de JSON, las respuestas se pueden negociar en CBOR ({@code Accept: application/cbor}) o Smile
+ * ({@code Accept: application/x-jackson-smile}) para los consumidores internos. JSON sigue siendo el formato por
+ * defecto.
+ * </p>
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Registra un filtro por defecto que serializa todos los campos, de modo que los DTOs anotados con
+     * {@code @JsonFilter} se serialicen completos salvo que la respuesta indique sus propios filtros.
+     *
+     * @return Personalizador del builder de Jackson.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer filtrosPorDefecto() {
+        return builder -> builder.filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    /**
+     * Serializadores escritos a mano para movimientos y reportes.
+     *
+     * @return Módulo que Spring Boot registra en el ObjectMapper.
+     */
+    @Bean
+    public Module movimientoJsonModule() {
+        return new MovimientoJsonModule();
+    }
+
+    /**
+     * Sustituye la reflexión por accesores generados con {@code LambdaMetafactory} en el resto de DTOs.
+     *
+     * @return Módulo que Spring Boot registra en el ObjectMapper.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Conversor CBOR construido con la misma configuración que el ObjectMapper JSON (módulos y filtros), de modo que
+     * sustituye al que Spring MVC registra por defecto.
+     *
+     * @param builder Builder de Jackson configurado por Spring Boot.
+     * @return Conversor para {@code application/cbor}.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Conversor Smile construido con la misma configuración que el ObjectMapper JSON.
+     *
+     * @param builder Builder de Jackson configurado por Spring Boot.
+     * @return Conversor para {@code application/x-jackson-smile}.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.cuentaMovimientos.config;
+
+import com.example.cuentaMovimientos.ratelimit.AdmisionFilter;
+import com.example.cuentaMovimientos.ratelimit.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Limitación de tasa y bulkheads por grupo de endpoints ({@link AdmisionFilter}).
+ * <p>
+ * Se activa con {@code cuenta-movimientos.rate-limit.enabled=true}. El filtro se ejecuta antes que el resto para que
+ * las peticiones rechazadas no consuman trabajo.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "cuenta-movimientos.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmisionFilter> admisionFilter(
+            MeterRegistry meterRegistry,
+            @Value("${cuenta-movimientos.rate-limit.cliente.per-second:20}") double clientePorSegundo,
+            @Value("${cuenta-movimientos.rate-limit.cliente.burst:40}") int clienteRafaga,
+            @Value("${cuenta-movimientos.rate-limit.api-key.per-second:100}") double apiKeyPorSegundo,
+            @Value("${cuenta-movimientos.rate-limit.api-key.burst:200}") int apiKeyRafaga,
+            @Value("${cuenta-movimientos.rate-limit.reporte.cuentas-por-token:50}") int cuentasPorToken,
+            @Value("${cuenta-movimientos.rate-limit.bulkhead.consultas:16}") int maxConsultas,
+            @Value("${cuenta-movimientos.rate-limit.bulkhead.escrituras:64}") int maxEscrituras,
+            @Value("${cuenta-movimientos.rate-limit.max-keys:100000}") long maxClaves,
+            @Value("${cuenta-movimientos.rate-limit.idle-expiry:10m}") Duration inactividad) {
+        AdmisionFilter filtro = new AdmisionFilter(
+                new AdmisionFilter.LimiteTasa(clientePorSegundo, clienteRafaga),
+                new AdmisionFilter.LimiteTasa(apiKeyPorSegundo, apiKeyRafaga),
+                cuentasPorToken,
+                new Bulkhead("consultas", maxConsultas),
+                new Bulkhead("escrituras", maxEscrituras),
+                maxClaves, inactividad, meterRegistry);
+        FilterRegistrationBean<AdmisionFilter> registro = new FilterRegistrationBean<>(filtro);
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.cuentaMovimientos.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide el lag de la réplica mediante un latido escrito en la primaria y leído en la réplica.
+ * <p>
+ * En cada ciclo se lee la marca replicada y se compara con la última marca escrita: si la réplica ya la tiene,
+ * el lag es cero; si no, es la antigüedad de la marca que ve. Cuando el lag supera {@code maxLagMs} o la réplica
+ * no responde, {@link ReplicaRoutingDataSource} deja de enviarle lecturas hasta que se recupere.
+ * </p>
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primaria;
+    private final JdbcTemplate replica;
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final long maxLagMs;
+    private final AtomicLong lagMs = new AtomicLong();
+    private volatile long ultimaMarca;
+
+    public ReplicaLagMonitor(DataSource primaria, DataSource replica, ReplicaRoutingDataSource routingDataSource,
+                             long maxLagMs, MeterRegistry meterRegistry) {
+        this.primaria = new JdbcTemplate(primaria);
+        this.replica = new JdbcTemplate(replica);
+        this.routingDataSource = routingDataSource;
+        this.maxLagMs = maxLagMs;
+        Gauge.builder("datasource.replica.lag", lagMs, AtomicLong::get).baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("datasource.replica.disponible", routingDataSource, r -> r.isReplicaDisponible() ? 1 : 0).register(meterRegistry);
+    }
+
+    /**
+     * Crea la tabla del latido en la primaria si no existe. La réplica la recibe por replicación.
+     */
+    public void inicializar() {
+        primaria.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, marca BIGINT NOT NULL)");
+        List<Long> marcas = primaria.queryForList("SELECT marca FROM replica_heartbeat WHERE id = 1", Long.class);
+        if (marcas.isEmpty()) {
+            ultimaMarca = System.currentTimeMillis();
+            primaria.update("INSERT INTO replica_heartbeat (id, marca) VALUES (1, ?)", ultimaMarca);
+        } else {
+            ultimaMarca = marcas.get(0);
+        }
+    }
+
+    /**
+     * Verifica el lag de la réplica y escribe un nuevo latido en la primaria.
+     */
+    @Scheduled(fixedDelayString = "${cuenta-movimientos.datasource.replica.lag-check-interval-ms:1000}")
+    public void verificar() {
+        long ahora = System.currentTimeMillis();
+        boolean disponible;
+        try {
+            Long marcaReplica = replica.queryForObject("SELECT marca FROM replica_heartbeat WHERE id = 1", Long.class);
+            long lag = marcaReplica != null && marcaReplica >= ultimaMarca ? 0 : ahora - (marcaReplica != null ? marcaReplica : 0);
+            lagMs.set(lag);
+            disponible = lag <= maxLagMs;
+        } catch (RuntimeException e) {
+            log.warn("No se pudo leer el latido de la réplica", e);
+            disponible = false;
+        }
+
+        if (disponible != routingDataSource.isReplicaDisponible()) {
+            log.info("Réplica {} (lag {} ms)", disponible ? "disponible" : "fuera de servicio", lagMs.get());
+        }
+        routingDataSource.setReplicaDisponible(disponible);
+
+        try {
+            primaria.update("UPDATE replica_heartbeat SET marca = ? WHERE id = 1", ahora);
+            ultimaMarca = ahora;
+        } catch (RuntimeException e) {
+            log.warn("No se pudo escribir el latido en la primaria", e);
+        }
+    }
+
+    public long getLagMs() {
+        return lagMs.get();
+    }
+}
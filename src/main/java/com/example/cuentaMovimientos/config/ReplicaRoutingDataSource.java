@@ -0,0 +1,61 @@
+package com.example.cuentaMovimientos.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link DataSource} que enruta las transacciones de solo lectura a la réplica y el resto a la primaria.
+ * <p>
+ * Debe envolverse en un {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} para que la
+ * conexión se obtenga cuando la marca {@code readOnly} de la transacción ya está establecida. Si la réplica se
+ * marca como no disponible (por ejemplo, por exceso de lag), todas las conexiones van a la primaria.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Destinos posibles de una conexión.
+     */
+    public enum Destino {
+        PRIMARIA,
+        REPLICA
+    }
+
+    private volatile boolean replicaDisponible = true;
+
+    public ReplicaRoutingDataSource(DataSource primaria, DataSource replica) {
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(Destino.PRIMARIA, primaria);
+        destinos.put(Destino.REPLICA, replica);
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primaria);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return destinoActual();
+    }
+
+    /**
+     * @return El destino que tendría una conexión obtenida en el contexto transaccional actual.
+     */
+    public Destino destinoActual() {
+        if (replicaDisponible && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIA;
+    }
+
+    public boolean isReplicaDisponible() {
+        return replicaDisponible;
+    }
+
+    public void setReplicaDisponible(boolean replicaDisponible) {
+        this.replicaDisponible = replicaDisponible;
+    }
+}
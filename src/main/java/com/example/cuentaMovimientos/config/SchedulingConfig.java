@@ -0,0 +1,12 @@
+package com.example.cuentaMovimientos.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita la ejecución de tareas programadas ({@code @Scheduled}) en la aplicación.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,77 @@
+package com.example.cuentaMovimientos.config;
+
+import com.example.cuentaMovimientos.profiling.SqlProfiler;
+import com.example.cuentaMovimientos.profiling.SqlProfilerAspect;
+import com.example.cuentaMovimientos.profiling.SqlProfilerEndpoint;
+import com.example.cuentaMovimientos.profiling.SqlProfilerFilter;
+import com.example.cuentaMovimientos.profiling.SqlProfilerListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Perfilado de sentencias SQL por petición con datasource-proxy.
+ * <p>
+ * Se activa con {@code cuenta-movimientos.sql-profiler.enabled=true}. Envuelve el {@link DataSource} principal
+ * (también cuando está activo el enrutamiento a réplica), de modo que se cuentan las sentencias de JPA y de
+ * {@code JdbcTemplate}. Ver {@link SqlProfiler} para las métricas y el presupuesto.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "cuenta-movimientos.sql-profiler.enabled", havingValue = "true")
+public class SqlProfilerConfig {
+
+    @Bean
+    public SqlProfiler sqlProfiler(MeterRegistry meterRegistry,
+                                   @Value("${cuenta-movimientos.sql-profiler.max-statements:20}") int maxSentencias,
+                                   @Value("${cuenta-movimientos.sql-profiler.max-time-ms:500}") long maxMilisegundos,
+                                   @Value("${cuenta-movimientos.sql-profiler.slow-statement-ms:200}") long sentenciaLentaMs,
+                                   @Value("${cuenta-movimientos.sql-profiler.recent-size:50}") int maxRecientes) {
+        return new SqlProfiler(meterRegistry, maxSentencias, maxMilisegundos, sentenciaLentaMs, maxRecientes);
+    }
+
+    /**
+     * Sustituye el bean {@code dataSource} por un proxy que notifica cada ejecución al perfilador.
+     */
+    @Bean
+    public static BeanPostProcessor sqlProfilerDataSourcePostProcessor(ObjectProvider<SqlProfiler> sqlProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("perfil-sql")
+                            .listener(new SqlProfilerListener(sqlProfiler.getObject()))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlProfilerAspect sqlProfilerAspect(SqlProfiler sqlProfiler) {
+        return new SqlProfilerAspect(sqlProfiler);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlProfilerFilter> sqlProfilerFilter(SqlProfiler sqlProfiler) {
+        FilterRegistrationBean<SqlProfilerFilter> registro = new FilterRegistrationBean<>(new SqlProfilerFilter(sqlProfiler));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+
+    @Bean
+    public SqlProfilerEndpoint sqlProfilerEndpoint(SqlProfiler sqlProfiler) {
+        return new SqlProfilerEndpoint(sqlProfiler);
+    }
+}
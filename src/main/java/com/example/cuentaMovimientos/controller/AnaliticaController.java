@@ -0,0 +1,52 @@
+package com.example.cuentaMovimientos.controller;
+
+import com.example.cuentaMovimientos.dto.response.AnaliticaMovimientosDto;
+import com.example.cuentaMovimientos.service.AnaliticaMovimientosService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Controlador REST de las consultas analíticas que agregan los movimientos de muchas cuentas.
+ */
+@Lazy(false)
+@RestController
+@RequestMapping("/analitica")
+public class AnaliticaController {
+
+    private final AnaliticaMovimientosService analiticaMovimientosService;
+    private final long maxDias;
+
+    public AnaliticaController(AnaliticaMovimientosService analiticaMovimientosService,
+                               @Value("${cuenta-movimientos.analitica.max-range-days:366}") long maxDias) {
+        this.analiticaMovimientosService = analiticaMovimientosService;
+        this.maxDias = maxDias;
+    }
+
+    /**
+     * Obtiene los totales de movimientos por tipo de movimiento y por día de todas las cuentas de un tipo.
+     *
+     * @param tipoCuenta Tipo de las cuentas incluidas.
+     * @param fechaInicio Fecha de inicio del periodo.
+     * @param fechaFin Fecha de fin del periodo.
+     * @return ResponseEntity con el AnaliticaMovimientosDto, o BAD REQUEST si la fecha de inicio es posterior a la de fin
+     *         o el periodo supera {@code max-range-days} días.
+     */
+    @GetMapping("/movimientos")
+    public ResponseEntity<AnaliticaMovimientosDto> obtenerTotales(
+            @RequestParam String tipoCuenta,
+            @RequestParam("fecha_inicio") LocalDate fechaInicio,
+            @RequestParam("fecha_fin") LocalDate fechaFin) {
+        if (fechaInicio.isAfter(fechaFin) || ChronoUnit.DAYS.between(fechaInicio, fechaFin) + 1 > maxDias) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(analiticaMovimientosService.analizar(tipoCuenta, fechaInicio, fechaFin));
+    }
+}
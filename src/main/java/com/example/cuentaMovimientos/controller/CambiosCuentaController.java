@@ -0,0 +1,64 @@
+package com.example.cuentaMovimientos.controller;
+
+import com.example.cuentaMovimientos.stream.HubCambiosCuenta;
+import com.example.cuentaMovimientos.stream.PoliticaDesborde;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Controlador del flujo de cambios de cuentas por Server-Sent Events.
+ * Sustituye el sondeo de {@code GET /cuentas/{id}} para seguir saldos y movimientos.
+ */
+@Lazy(false)
+@RestController
+@RequestMapping("/cuentas")
+public class CambiosCuentaController {
+
+    private final HubCambiosCuenta hubCambiosCuenta;
+    private final int maxCuentas;
+
+    public CambiosCuentaController(HubCambiosCuenta hubCambiosCuenta,
+                                   @Value("${cuenta-movimientos.cambios.max-accounts-per-subscription:100}") int maxCuentas) {
+        this.hubCambiosCuenta = hubCambiosCuenta;
+        this.maxCuentas = maxCuentas;
+    }
+
+    /**
+     * Abre un flujo SSE con los cambios de las cuentas indicadas. El primer evento de cada cuenta
+     * ({@code SALDO_ACTUAL}) trae su saldo; después llegan los eventos {@code MOVIMIENTO_CREADO},
+     * {@code MOVIMIENTO_ACTUALIZADO} y {@code MOVIMIENTO_ELIMINADO} con el saldo resultante. Un evento {@code perdidos}
+     * indica que se descartaron eventos porque el cliente no los consumía a tiempo.
+     *
+     * @param cuentas IDs de las cuentas a seguir.
+     * @param politica {@code coalescer} (por defecto) o {@code descartar}, ver {@link PoliticaDesborde}.
+     * @return ResponseEntity con el flujo de eventos, BAD REQUEST si la lista de cuentas está vacía o es demasiado
+     *         larga, o SERVICE UNAVAILABLE si el nodo alcanzó el máximo de suscriptores.
+     */
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribir(@RequestParam List<Long> cuentas,
+                                                @RequestParam(defaultValue = "coalescer") String politica) {
+        if (cuentas.isEmpty() || cuentas.size() > maxCuentas) {
+            return ResponseEntity.badRequest().build();
+        }
+        PoliticaDesborde politicaDesborde;
+        try {
+            politicaDesborde = PoliticaDesborde.valueOf(politica.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return hubCambiosCuenta.suscribir(cuentas, politicaDesborde)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -1,19 +1,29 @@
 package com.example.cuentaMovimientos.controller;
 
+import com.example.cuentaMovimientos.dto.request.CuentaFiltroDto;
 import com.example.cuentaMovimientos.dto.request.CuentaRequestDto;
 import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
+import com.example.cuentaMovimientos.dto.response.PaginaCuentasDto;
 import com.example.cuentaMovimientos.exception.ResourceNotFoundException;
 import com.example.cuentaMovimientos.service.CuentaService;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
 
 /**
  * Controlador REST para manejar operaciones relacionadas con cuentas.
  * Proporciona endpoints para crear, obtener, actualizar y eliminar cuentas.
  */
+@Lazy(false)
 @RestController
 @RequestMapping("/cuentas")
 public class CuentaController {
@@ -66,29 +76,78 @@ public class CuentaController {
 
     /**
      * Obtiene los detalles de una cuenta específica por su ID.
+     * <p>
+     * La respuesta incluye un ETag fuerte calculado sobre los datos servidos, que salen de la caché de metadatos. Si
+     * la cabecera {@code If-None-Match} coincide, se responde 304 sin cuerpo y sin consultar la base de datos.
+     * </p>
      *
      * @param id ID de la cuenta a buscar.
+     * @param ifNoneMatch Valor de la cabecera {@code If-None-Match}, si se envió.
      * @return ResponseEntity con la cuenta encontrada y el estado HTTP OK si la cuenta existe,
+     *         con el estado HTTP NOT MODIFIED si el cliente ya tiene la versión actual,
      *         o con el estado HTTP NOT FOUND si la cuenta no se encuentra.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CuentaResponseDto> obtenerCuenta(@PathVariable Long id) {
+    public ResponseEntity<CuentaResponseDto> obtenerCuenta(@PathVariable Long id,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             CuentaResponseDto cuenta = cuentaService.obtenerCuentaPorId(id);
-            return ResponseEntity.ok(cuenta);
+            String etag = etag(cuenta);
+            if (ETags.coincide(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(cuenta);
         } catch (ResourceNotFoundException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
     /**
-     * Obtiene una lista de todas las cuentas.
+     * Calcula el ETag de una cuenta a partir de los campos que se serializan, de modo que cambia si y solo si cambia
+     * el cuerpo de la respuesta.
+     */
+    private static String etag(CuentaResponseDto cuenta) {
+        String clave = cuenta.getId() + "|" + cuenta.getNumeroCuenta() + "|" + cuenta.getTipoCuenta() + "|"
+                + cuenta.getSaldoInicial() + "|" + cuenta.getSaldoActual() + "|" + cuenta.getEstado() + "|" + cuenta.getClienteId();
+        return "\"cuenta-" + cuenta.getId() + "-" + DigestUtils.md5DigestAsHex(clave.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Obtiene una página de cuentas, con filtros opcionales por cliente, tipo de cuenta y estado.
+     * <p>
+     * Admite paginación por desplazamiento ({@code page}, {@code size}, {@code orden}), que devuelve el total en la
+     * cabecera {@code X-Total-Count}, y paginación por clave ({@code despuesDe}, {@code size}), que devuelve el cursor
+     * de la siguiente página en {@code X-Siguiente-Cursor}. El parámetro {@code campos} limita los campos serializados.
+     * </p>
      *
-     * @return ResponseEntity con la lista de cuentas y el estado HTTP OK.
+     * @param filtro Filtros, orden y parámetros de paginación.
+     * @param campos Campos de CuentaResponseDto a incluir; si se omite, se incluyen todos.
+     * @return ResponseEntity con la lista de cuentas de la página y el estado HTTP OK, o BAD REQUEST si la página
+     *         está fuera de rango.
      */
     @GetMapping
-    public ResponseEntity<List<CuentaResponseDto>> obtenerTodasLasCuentas() {
-        List<CuentaResponseDto> cuentas = cuentaService.obtenerTodasLasCuentas();
-        return ResponseEntity.ok(cuentas);
+    public ResponseEntity<MappingJacksonValue> obtenerTodasLasCuentas(CuentaFiltroDto filtro,
+                                                                      @RequestParam(required = false) Set<String> campos) {
+        PaginaCuentasDto pagina;
+        try {
+            pagina = cuentaService.buscarCuentas(filtro);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        MappingJacksonValue cuentas = new MappingJacksonValue(pagina.getCuentas());
+        SimpleBeanPropertyFilter filtroCampos = campos == null || campos.isEmpty()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(campos);
+        cuentas.setFilters(new SimpleFilterProvider().addFilter(CuentaResponseDto.FILTRO_CAMPOS, filtroCampos));
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getTotal() != null) {
+            respuesta.header("X-Total-Count", String.valueOf(pagina.getTotal()));
+        }
+        if (pagina.getSiguienteCursor() != null) {
+            respuesta.header("X-Siguiente-Cursor", String.valueOf(pagina.getSiguienteCursor()));
+        }
+        return respuesta.body(cuentas);
     }
 }
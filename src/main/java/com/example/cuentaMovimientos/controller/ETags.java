@@ -0,0 +1,36 @@
+package com.example.cuentaMovimientos.controller;
+
+/**
+ * Utilidades para la comparación de ETags en peticiones condicionales.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Indica si la cabecera {@code If-None-Match} coincide con el ETag actual (comparación débil, RFC 9110).
+     *
+     * @param ifNoneMatch Valor de la cabecera, puede ser {@code null}.
+     * @param etag ETag actual del recurso, entre comillas.
+     * @return {@code true} si el cliente ya tiene la representación actual.
+     */
+    static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*")) {
+                return true;
+            }
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,9 +2,11 @@ package com.example.cuentaMovimientos.controller;
 
 import com.example.cuentaMovimientos.dto.request.MovimientoRequestDto;
 import com.example.cuentaMovimientos.dto.response.MovimientoResponseDto;
+import com.example.cuentaMovimientos.exception.MovimientoArchivadoException;
 import com.example.cuentaMovimientos.exception.ResourceNotFoundException;
 import com.example.cuentaMovimientos.exception.SaldoInsuficienteException;
 import com.example.cuentaMovimientos.service.MovimientoService;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +17,7 @@ import java.util.List;
  * Controlador REST para manejar operaciones relacionadas con los movimientos.
  * Proporciona endpoints para crear, obtener, actualizar y eliminar movimientos.
  */
+@Lazy(false)
 @RestController
 @RequestMapping("/movimientos")
 public class MovimientoController {
@@ -88,6 +91,7 @@ public class MovimientoController {
      * @param movimientoRequestDto Datos actualizados del movimiento.
      * @return ResponseEntity con el movimiento actualizado y el estado HTTP OK,
      *         o con un mensaje de error y el estado HTTP NOT FOUND si el movimiento no existe,
+     *         o con el estado HTTP CONFLICT si el movimiento está archivado,
      *         o con un mensaje de error y el estado HTTP BAD REQUEST si ocurre una excepción.
      */
     @PutMapping("/{id}")
@@ -97,6 +101,8 @@ public class MovimientoController {
             return ResponseEntity.ok(updatedMovimiento);
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (MovimientoArchivadoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         } catch (SaldoInsuficienteException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
@@ -107,7 +113,8 @@ public class MovimientoController {
      *
      * @param id ID del movimiento a eliminar.
      * @return ResponseEntity con un mensaje de éxito y el estado HTTP NO CONTENT si la eliminación es exitosa,
-     *         o con un mensaje de error y el estado HTTP NOT FOUND si el movimiento no existe.
+     *         o con un mensaje de error y el estado HTTP NOT FOUND si el movimiento no existe,
+     *         o con un mensaje de error y el estado HTTP CONFLICT si el movimiento está archivado.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<String> eliminarMovimiento(@PathVariable Long id) {
@@ -116,6 +123,8 @@ public class MovimientoController {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).body("Movimiento eliminado exitosamente.");
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (MovimientoArchivadoException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         }
     }
 }
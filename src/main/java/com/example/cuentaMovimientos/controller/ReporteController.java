@@ -3,6 +3,10 @@ package com.example.cuentaMovimientos.controller;
 import com.example.cuentaMovimientos.dto.response.ReporteResponseDto;
 import com.example.cuentaMovimientos.service.ReporteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -12,6 +16,7 @@ import java.util.List;
  * Controlador REST para manejar operaciones relacionadas con reportes.
  * Proporciona un endpoint para generar un reporte basado en un conjunto de cuentas y un rango de fechas.
  */
+@Lazy(false)
 @RestController
 @RequestMapping("/reportes")
 public class ReporteController {
@@ -30,18 +35,29 @@ public class ReporteController {
 
     /**
      * Obtiene un reporte basado en los IDs de cuentas y un rango de fechas.
+     * <p>
+     * La respuesta incluye un ETag fuerte calculado sobre el reporte generado, de modo que siempre corresponde al
+     * cuerpo servido. Si la cabecera {@code If-None-Match} coincide, se responde 304 sin cuerpo.
+     * </p>
      *
      * @param cuentasIds Lista de IDs de cuentas para incluir en el reporte.
      * @param fechaInicio Fecha de inicio del rango para el reporte.
      * @param fechaFin Fecha de fin del rango para el reporte.
-     * @return ReporteResponseDto con la información del reporte generado.
+     * @param ifNoneMatch Valor de la cabecera {@code If-None-Match}, si se envió.
+     * @return ResponseEntity con el ReporteResponseDto generado, o con el estado HTTP NOT MODIFIED.
      */
     @GetMapping
-    public ReporteResponseDto obtenerReporte(
+    public ResponseEntity<ReporteResponseDto> obtenerReporte(
             @RequestParam List<Long> cuentasIds,
             @RequestParam("fecha_inicio") LocalDate fechaInicio,
-            @RequestParam("fecha_fin") LocalDate fechaFin) {
+            @RequestParam("fecha_fin") LocalDate fechaFin,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        return reporteService.generarReporte(cuentasIds, fechaInicio, fechaFin);
+        ReporteResponseDto reporte = reporteService.generarReporte(cuentasIds, fechaInicio, fechaFin);
+        String etag = reporteService.calcularEtag(reporte);
+        if (ETags.coincide(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(reporte);
     }
 }
@@ -0,0 +1,27 @@
+package com.example.cuentaMovimientos.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) con un cambio de cuenta enviado a los suscriptores de {@code GET /cuentas/eventos}.
+ * Los eventos {@code SALDO_ACTUAL} solo informan del saldo y no tienen datos de movimiento.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CambioCuentaDto {
+    private String tipoEvento;
+    private Long cuentaId;
+    private String numeroCuenta;
+    private Double saldoActual;
+    private Long movimientoId;
+    private LocalDate fecha;
+    private String tipoMovimiento;
+    private Double valor;
+}
@@ -0,0 +1,26 @@
+package com.example.cuentaMovimientos.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) con el contenido de un evento de movimiento publicado a otros sistemas.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovimientoEventoDto {
+    private String tipoEvento;
+    private Long movimientoId;
+    private Long cuentaId;
+    private String numeroCuenta;
+    private LocalDate fecha;
+    private String tipoMovimiento;
+    private double valor;
+    private double saldo;
+}
@@ -0,0 +1,27 @@
+package com.example.cuentaMovimientos.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Parámetros de consulta del listado de cuentas: filtros, orden y paginación.
+ * <p>
+ * Si se indica {@code despuesDe}, se usa paginación por clave (cuentas con ID mayor, ordenadas por ID) y se ignoran
+ * {@code page} y {@code orden}; en caso contrario se usa paginación por desplazamiento.
+ * </p>
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CuentaFiltroDto {
+    private Long clienteId;
+    private String tipoCuenta;
+    private Boolean estado;
+    private Integer page;
+    private Integer size;
+    private Long despuesDe;
+    private String orden;
+}
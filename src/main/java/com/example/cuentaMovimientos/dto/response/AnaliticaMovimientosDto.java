@@ -0,0 +1,27 @@
+package com.example.cuentaMovimientos.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) con los totales de movimientos de todas las cuentas de un tipo en un periodo,
+ * por tipo de movimiento y por día.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnaliticaMovimientosDto {
+    private String tipoCuenta;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private long cantidad;
+    private double total;
+    private List<TotalTipoMovimientoDto> porTipo;
+    private List<TotalDiaDto> porDia;
+}
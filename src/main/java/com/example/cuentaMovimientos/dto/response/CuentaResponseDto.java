@@ -1,5 +1,6 @@
 package com.example.cuentaMovimientos.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -9,7 +10,14 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(CuentaResponseDto.FILTRO_CAMPOS)
 public class CuentaResponseDto {
+
+    /**
+     * Filtro de Jackson usado por GET /cuentas para devolver solo los campos solicitados.
+     */
+    public static final String FILTRO_CAMPOS = "camposCuenta";
+
     private Long id;
     private String numeroCuenta;
     private String tipoCuenta;
@@ -0,0 +1,23 @@
+package com.example.cuentaMovimientos.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) con una página del listado de cuentas.
+ * {@code total} solo se calcula en la paginación por desplazamiento y {@code siguienteCursor}
+ * solo en la paginación por clave cuando puede haber más resultados.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaCuentasDto {
+    private List<CuentaResponseDto> cuentas;
+    private Long total;
+    private Long siguienteCursor;
+}
@@ -0,0 +1,19 @@
+package com.example.cuentaMovimientos.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resumen de una ejecución de la reconciliación de saldos.
+ */
+@Getter
+@AllArgsConstructor
+public class ReconciliacionResultadoDto {
+    private long cuentasRevisadas;
+    private long movimientosRevisados;
+    private long saldosDescuadrados;
+    private long movimientosConSaldoIncorrecto;
+    private long saldosReparados;
+    private long movimientosReparados;
+    private long duracionMs;
+}
@@ -0,0 +1,23 @@
+package com.example.cuentaMovimientos.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) con los totales de un día, desglosados por tipo de movimiento.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TotalDiaDto {
+    private LocalDate fecha;
+    private long cantidad;
+    private double total;
+    private List<TotalTipoMovimientoDto> porTipo;
+}
@@ -0,0 +1,19 @@
+package com.example.cuentaMovimientos.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object (DTO) con el número de movimientos y la suma de sus valores para un tipo de movimiento.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TotalTipoMovimientoDto {
+    private String tipoMovimiento;
+    private long cantidad;
+    private double total;
+}
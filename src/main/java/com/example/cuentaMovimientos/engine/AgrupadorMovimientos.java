@@ -0,0 +1,113 @@
+package com.example.cuentaMovimientos.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Agrupa los movimientos enviados por peticiones concurrentes para confirmarlos en una única transacción
+ * (group commit).
+ * <p>
+ * Cada hilo agrupador toma el primer movimiento pendiente y sigue recogiendo los que llegan durante
+ * {@code ventanaMicros} o hasta {@code loteMaximo}; entonces entrega el lote al {@code procesador}, que debe completar
+ * el futuro de cada movimiento por separado. Con varios hilos, un lote se agrupa mientras otro se confirma. Si el
+ * procesador lanza una excepción, fallan todos los movimientos del lote que sigan pendientes.
+ * </p>
+ */
+@Slf4j
+public class AgrupadorMovimientos {
+
+    private final LinkedBlockingQueue<MovimientoAplicado> cola = new LinkedBlockingQueue<>();
+    private final long ventanaNanos;
+    private final int loteMaximo;
+    private final Consumer<List<MovimientoAplicado>> procesador;
+    private final Thread[] hilos;
+
+    private volatile boolean activo = true;
+
+    /**
+     * @param hilos Número de lotes que pueden confirmarse a la vez.
+     * @param ventanaMicros Tiempo máximo que espera un lote a que lleguen más movimientos.
+     * @param loteMaximo Movimientos máximos por lote.
+     * @param procesador Confirma un lote y completa el futuro de cada movimiento.
+     */
+    public AgrupadorMovimientos(int hilos, long ventanaMicros, int loteMaximo, Consumer<List<MovimientoAplicado>> procesador) {
+        this.ventanaNanos = TimeUnit.MICROSECONDS.toNanos(ventanaMicros);
+        this.loteMaximo = loteMaximo;
+        this.procesador = procesador;
+        this.hilos = new Thread[hilos];
+        for (int i = 0; i < hilos; i++) {
+            this.hilos[i] = new Thread(this::ejecutar, "agrupador-movimientos-" + i);
+            this.hilos[i].setDaemon(true);
+        }
+    }
+
+    public void iniciar() {
+        for (Thread hilo : hilos) {
+            hilo.start();
+        }
+    }
+
+    /**
+     * Detiene los hilos tras procesar los movimientos ya encolados.
+     */
+    public void detener() {
+        activo = false;
+        for (Thread hilo : hilos) {
+            try {
+                hilo.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Encola un movimiento. El resultado se obtiene con {@link MovimientoAplicado#getResultado()}.
+     */
+    public MovimientoAplicado enviar(MovimientoAplicado movimiento) {
+        if (!activo) {
+            throw new IllegalStateException("El agrupador de movimientos está detenido");
+        }
+        cola.add(movimiento);
+        return movimiento;
+    }
+
+    private void ejecutar() {
+        List<MovimientoAplicado> lote = new ArrayList<>(loteMaximo);
+        while (activo || !cola.isEmpty()) {
+            try {
+                MovimientoAplicado primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                long limite = System.nanoTime() + ventanaNanos;
+                while (lote.size() < loteMaximo) {
+                    long restante = limite - System.nanoTime();
+                    MovimientoAplicado siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : cola.poll();
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                procesador.accept(lote);
+            } catch (RuntimeException e) {
+                log.warn("Fallo al confirmar un lote de {} movimientos", lote.size(), e);
+                lote.forEach(movimiento -> movimiento.getResultado().completeExceptionally(e));
+            }
+            lote.clear();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.cuentaMovimientos.engine;
+
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ajuste del saldo de una cuenta que no es un movimiento nuevo (actualización o eliminación de uno existente),
+ * enviado al {@link MotorSaldos} para que lo aplique el escritor de la partición de la cuenta, en orden con sus
+ * movimientos. La escritura en la base de datos la hace {@link Escritura}; el futuro se completa con el saldo
+ * resultante cuando se ha confirmado.
+ */
+@Getter
+public final class AjusteSaldo {
+
+    private final long cuentaId;
+    private final Escritura escritura;
+    private final CompletableFuture<Double> resultado = new CompletableFuture<>();
+
+    public AjusteSaldo(long cuentaId, Escritura escritura) {
+        this.cuentaId = cuentaId;
+        this.escritura = escritura;
+    }
+
+    /**
+     * Escritura del ajuste, ejecutada en el hilo de la partición.
+     */
+    @FunctionalInterface
+    public interface Escritura {
+
+        /**
+         * Escribe el ajuste en la base de datos en una transacción, aplicando a {@code saldo_actual} solo la
+         * diferencia (nunca un saldo absoluto).
+         *
+         * @param saldoActual Saldo de la cuenta en memoria, que incluye todo lo aplicado antes del ajuste.
+         * @return Saldo de la cuenta tras el ajuste.
+         * @throws RuntimeException si el ajuste no se confirma; el saldo en memoria no cambia.
+         */
+        double escribir(double saldoActual);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.cuentaMovimientos.engine;
+
+import java.util.List;
+
+/**
+ * Destino durable de los movimientos aceptados por el {@link MotorSaldos}.
+ */
+public interface DiarioMovimientos {
+
+    /**
+     * Escribe un lote de movimientos de una partición de forma atómica y asigna sus IDs. Cuando retorna sin
+     * excepción, el lote es durable; con cualquier otra excepción que {@link ResultadoIndeterminadoException}, el lote
+     * no se ha guardado.
+     *
+     * @param lote Movimientos en el orden en que se aplicaron.
+     * @throws ResultadoIndeterminadoException si el lote se aceptó pero no se pudo confirmar su durabilidad.
+     */
+    void escribir(List<MovimientoAplicado> lote);
+
+    /**
+     * Espera a que los movimientos ya escritos de una cuenta estén en la base de datos, antes de releer su saldo.
+     * Los diarios que escriben directamente en la base de datos no tienen nada que esperar.
+     *
+     * @param cuentaId ID de la cuenta.
+     * @throws IllegalStateException si no se puede confirmar el volcado.
+     */
+    default void esperarVolcado(long cuentaId) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.cuentaMovimientos.engine;
+
+import com.example.cuentaMovimientos.dto.event.MovimientoEventoDto;
+import com.example.cuentaMovimientos.repository.ExtractoMensualRepository;
+import com.example.cuentaMovimientos.service.MovimientoOutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * {@link DiarioMovimientos} sobre las tablas de la aplicación: cada lote se escribe en una transacción con sentencias
+ * por lotes (inserción de movimientos con sus claves generadas, un {@code UPDATE} por cuenta con el delta del lote y
+ * los eventos del outbox). Si los movimientos del lote ya traen ID (asignado por {@link WalDiarioMovimientos}) se
+ * insertan con ese ID en lugar de usar el autoincremental. Si se indica un {@link ExtractoMensualRepository}, los
+ * movimientos con fecha en un mes cerrado invalidan el extracto de ese mes en la misma transacción.
+ */
+public class JdbcDiarioMovimientos implements DiarioMovimientos {
+
+    private static final String INSERTAR_MOVIMIENTO =
+            "INSERT INTO movimientos (fecha, tipo_movimiento, valor, saldo, aplicado, cuenta_id) VALUES (?, ?, ?, ?, TRUE, ?)";
+
+    private static final String INSERTAR_MOVIMIENTO_CON_ID =
+            "INSERT INTO movimientos (id, fecha, tipo_movimiento, valor, saldo, aplicado, cuenta_id) VALUES (?, ?, ?, ?, ?, TRUE, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExtractoMensualRepository extractoMensualRepository;
+
+    public JdbcDiarioMovimientos(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this(jdbcTemplate, transactionTemplate, objectMapper, null);
+    }
+
+    public JdbcDiarioMovimientos(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                 ExtractoMensualRepository extractoMensualRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.extractoMensualRepository = extractoMensualRepository;
+    }
+
+    @Override
+    public void escribir(List<MovimientoAplicado> lote) {
+        transactionTemplate.executeWithoutResult(status -> {
+            insertarMovimientos(lote);
+
+            // Ordenado por ID para que los bloqueos de fila se tomen siempre en el mismo orden
+            Map<Long, Double> deltas = new TreeMap<>();
+            for (MovimientoAplicado movimiento : lote) {
+                deltas.merge(movimiento.getCuentaId(), movimiento.getValor(), Double::sum);
+            }
+            List<Object[]> saldos = new ArrayList<>(deltas.size());
+            deltas.forEach((cuentaId, delta) -> saldos.add(new Object[]{delta, cuentaId}));
+            jdbcTemplate.batchUpdate("UPDATE cuentas SET saldo_actual = saldo_actual + ?, version_datos = version_datos + 1 WHERE id = ?", saldos);
+
+            Timestamp ahora = Timestamp.from(Instant.now());
+            List<Object[]> eventos = new ArrayList<>(lote.size());
+            for (MovimientoAplicado movimiento : lote) {
+                eventos.add(new Object[]{MovimientoOutboxService.MOVIMIENTO_CREADO, movimiento.getId(),
+                        movimiento.getCuentaId(), payload(movimiento), ahora});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO movimientos_outbox (tipo_evento, movimiento_id, cuenta_id, payload, fecha_creacion, enviado) "
+                    + "VALUES (?, ?, ?, ?, ?, FALSE)", eventos);
+
+            if (extractoMensualRepository != null) {
+                List<Object[]> cuentasYFechas = new ArrayList<>(lote.size());
+                for (MovimientoAplicado movimiento : lote) {
+                    cuentasYFechas.add(new Object[]{movimiento.getCuentaId(), movimiento.getFecha()});
+                }
+                extractoMensualRepository.invalidar(cuentasYFechas);
+            }
+        });
+    }
+
+    /**
+     * Escribe los movimientos del lote cuyo ID aún no está en la tabla {@code movimientos}. Se usa al recuperar el
+     * diario local, cuyo último volcado pudo confirmarse o no antes de la caída.
+     *
+     * @param lote Movimientos con ID asignado.
+     * @return Número de movimientos escritos.
+     */
+    public int escribirPendientes(List<MovimientoAplicado> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        String marcadores = String.join(",", Collections.nCopies(lote.size(), "?"));
+        Set<Long> existentes = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM movimientos WHERE id IN (" + marcadores + ")", Long.class,
+                lote.stream().map(MovimientoAplicado::getId).toArray()));
+        List<MovimientoAplicado> pendientes = new ArrayList<>(lote.size());
+        for (MovimientoAplicado movimiento : lote) {
+            if (!existentes.contains(movimiento.getId())) {
+                pendientes.add(movimiento);
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            escribir(pendientes);
+        }
+        return pendientes.size();
+    }
+
+    private void insertarMovimientos(List<MovimientoAplicado> lote) {
+        if (lote.get(0).getId() != null) {
+            List<Object[]> filas = new ArrayList<>(lote.size());
+            for (MovimientoAplicado movimiento : lote) {
+                filas.add(new Object[]{movimiento.getId(), movimiento.getFecha(), movimiento.getTipoMovimiento(),
+                        movimiento.getValor(), movimiento.getSaldo(), movimiento.getCuentaId()});
+            }
+            jdbcTemplate.batchUpdate(INSERTAR_MOVIMIENTO_CON_ID, filas);
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+            try (PreparedStatement ps = conexion.prepareStatement(INSERTAR_MOVIMIENTO, Statement.RETURN_GENERATED_KEYS)) {
+                for (MovimientoAplicado movimiento : lote) {
+                    ps.setObject(1, movimiento.getFecha());
+                    ps.setString(2, movimiento.getTipoMovimiento());
+                    ps.setDouble(3, movimiento.getValor());
+                    ps.setDouble(4, movimiento.getSaldo());
+                    ps.setLong(5, movimiento.getCuentaId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet claves = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (claves.next()) {
+                        lote.get(i++).asignarId(claves.getLong(1));
+                    }
+                    if (i != lote.size()) {
+                        throw new IllegalStateException("Se esperaban " + lote.size() + " claves generadas y se obtuvieron " + i);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private String payload(MovimientoAplicado movimiento) {
+        MovimientoEventoDto evento = new MovimientoEventoDto(
+                MovimientoOutboxService.MOVIMIENTO_CREADO,
+                movimiento.getId(),
+                movimiento.getCuentaId(),
+                movimiento.getNumeroCuenta(),
+                movimiento.getFecha(),
+                movimiento.getTipoMovimiento(),
+                movimiento.getValor(),
+                movimiento.getSaldo()
+        );
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento del movimiento " + movimiento.getId(), e);
+        }
+    }
+}
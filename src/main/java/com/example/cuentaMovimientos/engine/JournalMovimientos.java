@@ -0,0 +1,346 @@
+package com.example.cuentaMovimientos.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario de escritura anticipada (WAL) de movimientos en ficheros segmentados proyectados en memoria.
+ * <p>
+ * Cada movimiento ocupa un registro binario de {@value #TAMANO_REGISTRO} bytes:
+ * </p>
+ * <pre>
+ *  0  long   id del movimiento
+ *  8  long   id de la cuenta
+ * 16  int    fecha (días desde 1970-01-01)
+ * 20  int    CRC32C del registro con este campo a cero
+ * 24  double valor
+ * 32  double saldo resultante
+ * 40  byte   longitud del tipo de movimiento (UTF-8, hasta 23 bytes)
+ * 41  byte[] tipo de movimiento
+ * </pre>
+ * <p>
+ * Los registros se añaden con {@link #agregar(List)} y se hacen durables con {@link #esperarDurable(long)}: un único
+ * hilo sincronizador fuerza a disco ({@code msync}) todo lo escrito desde la sincronización anterior, de modo que
+ * las esperas concurrentes comparten un solo {@code fsync} (group commit). Un segmento cuyos registros ya están en
+ * la base de datos se elimina con {@link #liberarHasta(long)}. Al abrir, {@link #leer()} devuelve los registros
+ * válidos de los segmentos existentes; la lectura de un segmento se detiene en el primer registro vacío o con
+ * CRC incorrecto (escritura interrumpida).
+ * </p>
+ */
+@Slf4j
+public class JournalMovimientos implements AutoCloseable {
+
+    static final int TAMANO_REGISTRO = 64;
+    private static final int MAX_BYTES_TIPO = 23;
+    private static final String PREFIJO = "movimientos-";
+    private static final String SUFIJO = ".wal";
+
+    private final Path directorio;
+    private final int registrosPorSegmento;
+    private final List<Segmento> segmentos = new ArrayList<>();
+    private final byte[] registro = new byte[TAMANO_REGISTRO];
+    private final ByteBuffer bufferRegistro = ByteBuffer.wrap(registro);
+    private final CRC32C crc = new CRC32C();
+    private final Object monitor = new Object();
+    private final Thread sincronizador;
+
+    // Protegidos por this
+    private Segmento actual;
+    private int ranura;
+    private int bytesForzados;
+    private long siguienteSegmento;
+
+    private volatile long escritos;
+    private volatile long durables;
+    private volatile boolean activo = true;
+
+    /**
+     * Abre el diario en {@code directorio}. Los segmentos existentes se conservan hasta que se liberen.
+     *
+     * @param directorio Directorio de los segmentos; se crea si no existe.
+     * @param registrosPorSegmento Registros por fichero de segmento.
+     */
+    public JournalMovimientos(Path directorio, int registrosPorSegmento) {
+        if ((long) registrosPorSegmento * TAMANO_REGISTRO > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segmento demasiado grande: " + registrosPorSegmento + " registros");
+        }
+        this.directorio = directorio;
+        this.registrosPorSegmento = registrosPorSegmento;
+        try {
+            Files.createDirectories(directorio);
+            try (Stream<Path> ficheros = Files.list(directorio)) {
+                ficheros.filter(f -> f.getFileName().toString().startsWith(PREFIJO) && f.getFileName().toString().endsWith(SUFIJO))
+                        .sorted()
+                        .forEach(f -> segmentos.add(new Segmento(f, -1, mapear(f))));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.siguienteSegmento = segmentos.isEmpty() ? 0 : numero(segmentos.get(segmentos.size() - 1).fichero) + 1;
+        this.sincronizador = new Thread(this::sincronizar, "journal-movimientos-sync");
+        this.sincronizador.setDaemon(true);
+        this.sincronizador.start();
+    }
+
+    /**
+     * Lee los registros válidos de los segmentos que había al abrir el diario, en orden de escritura.
+     */
+    public synchronized List<RegistroJournal> leer() {
+        List<RegistroJournal> registros = new ArrayList<>();
+        byte[] leido = new byte[TAMANO_REGISTRO];
+        for (Segmento segmento : segmentos) {
+            if (segmento.base >= 0) {
+                continue;
+            }
+            for (int i = 0; i < registrosPorSegmento; i++) {
+                segmento.buffer.get(i * TAMANO_REGISTRO, leido);
+                RegistroJournal registroLeido = decodificar(leido);
+                if (registroLeido == null) {
+                    break;
+                }
+                registros.add(registroLeido);
+            }
+        }
+        return registros;
+    }
+
+    /**
+     * Elimina los segmentos que había al abrir el diario. Solo debe llamarse cuando sus registros ya estén en la
+     * base de datos.
+     */
+    public synchronized void descartarRecuperados() {
+        Iterator<Segmento> iterador = segmentos.iterator();
+        while (iterador.hasNext()) {
+            Segmento segmento = iterador.next();
+            if (segmento.base < 0) {
+                eliminar(segmento.fichero);
+                iterador.remove();
+            }
+        }
+    }
+
+    /**
+     * Añade un lote de movimientos (ya con ID y saldo).
+     *
+     * @return Posición tras el último registro del lote, para {@link #esperarDurable(long)} y {@link #liberarHasta(long)}.
+     */
+    public synchronized long agregar(List<MovimientoAplicado> lote) {
+        for (MovimientoAplicado movimiento : lote) {
+            if (actual == null || ranura == registrosPorSegmento) {
+                rotar();
+            }
+            codificar(movimiento);
+            actual.buffer.put(ranura * TAMANO_REGISTRO, registro);
+            ranura++;
+        }
+        escritos += lote.size();
+        return escritos;
+    }
+
+    /**
+     * Espera a que todos los registros hasta {@code posicion} estén forzados a disco.
+     */
+    public void esperarDurable(long posicion) {
+        if (durables >= posicion) {
+            return;
+        }
+        synchronized (monitor) {
+            monitor.notifyAll();
+            while (durables < posicion) {
+                if (!activo) {
+                    throw new IllegalStateException("El diario de movimientos está cerrado");
+                }
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrumpido esperando la sincronización del diario", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Elimina los segmentos completos cuyos registros están todos antes de {@code posicion}.
+     */
+    public synchronized void liberarHasta(long posicion) {
+        Iterator<Segmento> iterador = segmentos.iterator();
+        while (iterador.hasNext()) {
+            Segmento segmento = iterador.next();
+            if (segmento != actual && segmento.base >= 0 && segmento.base + registrosPorSegmento <= posicion) {
+                eliminar(segmento.fichero);
+                iterador.remove();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        activo = false;
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+        try {
+            sincronizador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        forzar();
+    }
+
+    private void sincronizar() {
+        while (activo) {
+            synchronized (monitor) {
+                while (activo && durables >= escritos) {
+                    try {
+                        monitor.wait(10);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            try {
+                forzar();
+            } catch (RuntimeException e) {
+                log.error("Fallo al sincronizar el diario de movimientos", e);
+            }
+        }
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
+    private void forzar() {
+        MappedByteBuffer buffer;
+        int desde;
+        int hasta;
+        long objetivo;
+        synchronized (this) {
+            if (actual == null) {
+                return;
+            }
+            buffer = actual.buffer;
+            desde = bytesForzados;
+            hasta = ranura * TAMANO_REGISTRO;
+            objetivo = escritos;
+            bytesForzados = hasta;
+        }
+        if (hasta > desde) {
+            buffer.force(desde, hasta - desde);
+        }
+        synchronized (monitor) {
+            if (objetivo > durables) {
+                durables = objetivo;
+            }
+            monitor.notifyAll();
+        }
+    }
+
+    private void rotar() {
+        if (actual != null) {
+            // Lo escrito en el segmento saliente debe ser durable antes de que otro segmento lo sea
+            actual.buffer.force();
+        }
+        Path fichero = directorio.resolve(String.format("%s%020d%s", PREFIJO, siguienteSegmento++, SUFIJO));
+        actual = new Segmento(fichero, escritos, mapear(fichero));
+        segmentos.add(actual);
+        ranura = 0;
+        bytesForzados = 0;
+    }
+
+    private MappedByteBuffer mapear(Path fichero) {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return canal.map(FileChannel.MapMode.READ_WRITE, 0, (long) registrosPorSegmento * TAMANO_REGISTRO);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void codificar(MovimientoAplicado movimiento) {
+        byte[] tipo = movimiento.getTipoMovimiento() != null
+                ? movimiento.getTipoMovimiento().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int longitudTipo = Math.min(tipo.length, MAX_BYTES_TIPO);
+
+        bufferRegistro.clear();
+        bufferRegistro.putLong(0, movimiento.getId());
+        bufferRegistro.putLong(8, movimiento.getCuentaId());
+        bufferRegistro.putInt(16, (int) movimiento.getFecha().toEpochDay());
+        bufferRegistro.putInt(20, 0);
+        bufferRegistro.putDouble(24, movimiento.getValor());
+        bufferRegistro.putDouble(32, movimiento.getSaldo());
+        bufferRegistro.put(40, (byte) longitudTipo);
+        bufferRegistro.put(41, tipo, 0, longitudTipo);
+        for (int i = 41 + longitudTipo; i < TAMANO_REGISTRO; i++) {
+            registro[i] = 0;
+        }
+        crc.reset();
+        crc.update(registro, 0, TAMANO_REGISTRO);
+        bufferRegistro.putInt(20, (int) crc.getValue());
+    }
+
+    private static RegistroJournal decodificar(byte[] leido) {
+        ByteBuffer buffer = ByteBuffer.wrap(leido);
+        long id = buffer.getLong(0);
+        if (id == 0) {
+            return null;
+        }
+        int crcGuardado = buffer.getInt(20);
+        buffer.putInt(20, 0);
+        CRC32C calculado = new CRC32C();
+        calculado.update(leido, 0, TAMANO_REGISTRO);
+        if ((int) calculado.getValue() != crcGuardado) {
+            return null;
+        }
+        int longitudTipo = Math.min(leido[40], MAX_BYTES_TIPO);
+        return new RegistroJournal(
+                id,
+                buffer.getLong(8),
+                LocalDate.ofEpochDay(buffer.getInt(16)),
+                new String(leido, 41, Math.max(longitudTipo, 0), StandardCharsets.UTF_8),
+                buffer.getDouble(24),
+                buffer.getDouble(32));
+    }
+
+    private static long numero(Path fichero) {
+        String nombre = fichero.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - SUFIJO.length()));
+    }
+
+    private static void eliminar(Path fichero) {
+        try {
+            Files.deleteIfExists(fichero);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el segmento {}", fichero, e);
+        }
+    }
+
+    /**
+     * Fichero de segmento y posición global de su primer registro ({@code -1} para los recuperados al abrir).
+     */
+    private static final class Segmento {
+        private final Path fichero;
+        private final long base;
+        private final MappedByteBuffer buffer;
+
+        private Segmento(Path fichero, long base, MappedByteBuffer buffer) {
+            this.fichero = fichero;
+            this.base = base;
+            this.buffer = buffer;
+        }
+    }
+}
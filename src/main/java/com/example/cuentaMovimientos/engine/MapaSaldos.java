@@ -0,0 +1,112 @@
+package com.example.cuentaMovimientos.engine;
+
+import java.util.Arrays;
+
+/**
+ * Mapa {@code long -> long} de direccionamiento abierto (sondeo lineal) sin objetos por entrada.
+ * <p>
+ * Las claves son IDs de cuenta (positivos); los valores, los bits de un {@code double}
+ * ({@link Double#doubleToRawLongBits}), de modo que los saldos se operan con la misma aritmética que
+ * {@code MovimientoService}. No es seguro para uso concurrente: cada partición del motor tiene el suyo.
+ * </p>
+ */
+final class MapaSaldos {
+
+    private static final long VACIO = 0L;
+    private static final double CARGA_MAXIMA = 0.6;
+
+    private long[] claves;
+    private long[] valores;
+    private int mascara;
+    private int tamano;
+    private int umbral;
+
+    MapaSaldos(int capacidadInicial) {
+        int capacidad = Integer.highestOneBit(Math.max(16, (int) (capacidadInicial / CARGA_MAXIMA)) * 2 - 1);
+        asignar(capacidad);
+    }
+
+    boolean contiene(long clave) {
+        return claves[posicion(clave)] != VACIO;
+    }
+
+    double obtener(long clave) {
+        int i = posicion(clave);
+        return claves[i] != VACIO ? Double.longBitsToDouble(valores[i]) : Double.NaN;
+    }
+
+    void poner(long clave, double saldo) {
+        int i = posicion(clave);
+        if (claves[i] == VACIO) {
+            claves[i] = clave;
+            if (++tamano > umbral) {
+                valores[i] = Double.doubleToRawLongBits(saldo);
+                redimensionar();
+                return;
+            }
+        }
+        valores[i] = Double.doubleToRawLongBits(saldo);
+    }
+
+    void eliminar(long clave) {
+        int i = posicion(clave);
+        if (claves[i] == VACIO) {
+            return;
+        }
+        // Borrado por desplazamiento hacia atrás: no deja marcas de borrado que alarguen los sondeos
+        int hueco = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (claves[j] == VACIO) {
+                break;
+            }
+            int ideal = mezclar(claves[j]) & mascara;
+            if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                claves[hueco] = claves[j];
+                valores[hueco] = valores[j];
+                hueco = j;
+            }
+        }
+        claves[hueco] = VACIO;
+        tamano--;
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    private int posicion(long clave) {
+        int i = mezclar(clave) & mascara;
+        while (claves[i] != VACIO && claves[i] != clave) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void redimensionar() {
+        long[] clavesAnteriores = claves;
+        long[] valoresAnteriores = valores;
+        asignar(claves.length * 2);
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (clavesAnteriores[i] != VACIO) {
+                int j = posicion(clavesAnteriores[i]);
+                claves[j] = clavesAnteriores[i];
+                valores[j] = valoresAnteriores[i];
+            }
+        }
+    }
+
+    private void asignar(int capacidad) {
+        claves = new long[capacidad];
+        valores = new long[capacidad];
+        Arrays.fill(claves, VACIO);
+        mascara = capacidad - 1;
+        umbral = (int) (capacidad * CARGA_MAXIMA);
+    }
+
+    private static int mezclar(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.cuentaMovimientos.engine;
+
+import com.example.cuentaMovimientos.exception.ResourceNotFoundException;
+import com.example.cuentaMovimientos.exception.SaldoInsuficienteException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Motor de saldos en memoria con un único escritor por partición.
+ * <p>
+ * Las cuentas se reparten en {@code particiones} por ID. Cada partición tiene su propio hilo, su cola sin bloqueos y
+ * su {@link MapaSaldos}; solo ese hilo lee y modifica los saldos de sus cuentas, por lo que aplicar un movimiento
+ * no requiere bloqueos ni acceso a la base de datos. El hilo aplica los movimientos pendientes (hasta
+ * {@code loteMaximo}), escribe el lote en el {@link DiarioMovimientos} y solo entonces completa los futuros de los
+ * llamantes. Si la escritura falla, los saldos del lote se restauran y todos sus movimientos fallan; si el resultado
+ * es indeterminado ({@link ResultadoIndeterminadoException}), los movimientos también fallan pero los saldos en
+ * memoria los conservan, porque el diario puede guardarlos igualmente.
+ * </p>
+ * <p>
+ * Las cuentas que no están en memoria se cargan con {@code fuenteSaldos} la primera vez que se usan.
+ * {@link #ajustar(AjusteSaldo)} aplica en la partición un cambio de saldo que no es un movimiento nuevo, y
+ * {@link #invalidar(long)} descarta el saldo en memoria de una cuenta tras modificarla por otro camino.
+ * </p>
+ */
+@Slf4j
+public class MotorSaldos {
+
+    private final Particion[] particiones;
+    private final int loteMaximo;
+    private final DiarioMovimientos diario;
+    private final LongFunction<Double> fuenteSaldos;
+
+    /**
+     * @param particiones Número de particiones (hilos escritores).
+     * @param loteMaximo Movimientos máximos por escritura en el diario.
+     * @param diario Destino durable de los movimientos.
+     * @param fuenteSaldos Saldo actual de una cuenta en la base de datos, o {@code null} si no existe.
+     */
+    public MotorSaldos(int particiones, int loteMaximo, DiarioMovimientos diario, LongFunction<Double> fuenteSaldos) {
+        this.loteMaximo = loteMaximo;
+        this.diario = diario;
+        this.fuenteSaldos = fuenteSaldos;
+        this.particiones = new Particion[particiones];
+        for (int i = 0; i < particiones; i++) {
+            this.particiones[i] = new Particion(i);
+        }
+    }
+
+    /**
+     * Precarga el saldo de una cuenta. Solo debe llamarse antes de {@link #iniciar()}.
+     */
+    public void cargar(long cuentaId, double saldo) {
+        particion(cuentaId).saldos.poner(cuentaId, saldo);
+    }
+
+    public void iniciar() {
+        for (Particion particion : particiones) {
+            particion.hilo.start();
+        }
+    }
+
+    public void detener() {
+        for (Particion particion : particiones) {
+            particion.activo = false;
+            LockSupport.unpark(particion.hilo);
+        }
+        for (Particion particion : particiones) {
+            try {
+                particion.hilo.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Envía un movimiento a la partición de su cuenta.
+     *
+     * @param movimiento Movimiento a aplicar.
+     * @return El mismo movimiento, con {@link MovimientoAplicado#getResultado()} pendiente de completarse.
+     */
+    public MovimientoAplicado enviar(MovimientoAplicado movimiento) {
+        particion(movimiento.getCuentaId()).enviar(movimiento);
+        return movimiento;
+    }
+
+    /**
+     * Envía un ajuste de saldo a la partición de su cuenta. Se procesa en orden con los movimientos ya enviados:
+     * antes de escribirlo, la partición escribe su lote en curso y espera a que lo aplicado a la cuenta esté en la
+     * base de datos.
+     *
+     * @param ajuste Ajuste a aplicar.
+     * @return El mismo ajuste, con {@link AjusteSaldo#getResultado()} pendiente de completarse.
+     */
+    public AjusteSaldo ajustar(AjusteSaldo ajuste) {
+        particion(ajuste.getCuentaId()).enviar(ajuste);
+        return ajuste;
+    }
+
+    /**
+     * Descarta el saldo en memoria de una cuenta; se recargará de la base de datos en su próximo movimiento.
+     * Se procesa en orden con los movimientos ya enviados a la partición.
+     */
+    public void invalidar(long cuentaId) {
+        particion(cuentaId).enviar(cuentaId);
+    }
+
+    /**
+     * @return Número de cuentas con saldo en memoria (aproximado mientras el motor está en marcha).
+     */
+    public long cuentasEnMemoria() {
+        long total = 0;
+        for (Particion particion : particiones) {
+            total += particion.saldos.tamano();
+        }
+        return total;
+    }
+
+    private Particion particion(long cuentaId) {
+        return particiones[(int) Math.floorMod(cuentaId, (long) particiones.length)];
+    }
+
+    private final class Particion implements Runnable {
+
+        private final ConcurrentLinkedQueue<Object> cola = new ConcurrentLinkedQueue<>();
+        private final MapaSaldos saldos = new MapaSaldos(1024);
+        private final List<MovimientoAplicado> lote = new ArrayList<>();
+        private final Thread hilo;
+        private volatile boolean activo = true;
+        private volatile boolean dormido;
+
+        private Particion(int indice) {
+            this.hilo = new Thread(this, "motor-saldos-" + indice);
+            this.hilo.setDaemon(true);
+        }
+
+        private void enviar(Object elemento) {
+            cola.offer(elemento);
+            if (dormido) {
+                LockSupport.unpark(hilo);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (activo || !cola.isEmpty()) {
+                Object elemento;
+                while (lote.size() < loteMaximo && (elemento = cola.poll()) != null) {
+                    if (elemento instanceof MovimientoAplicado movimiento) {
+                        aplicar(movimiento);
+                    } else if (elemento instanceof AjusteSaldo ajuste) {
+                        ajustar(ajuste);
+                    } else {
+                        invalidarSaldo((Long) elemento);
+                    }
+                }
+                if (!lote.isEmpty()) {
+                    escribirLote();
+                } else {
+                    dormido = true;
+                    if (cola.isEmpty() && activo) {
+                        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+                    }
+                    dormido = false;
+                }
+            }
+        }
+
+        /**
+         * Lo aplicado antes de la invalidación debe estar en la base de datos (no solo ser durable en el diario)
+         * antes de releer el saldo de allí; si no se puede confirmar, se conserva el saldo en memoria, que incluye
+         * esos movimientos.
+         */
+        private void invalidarSaldo(long cuentaId) {
+            escribirLote();
+            try {
+                diario.esperarVolcado(cuentaId);
+                saldos.eliminar(cuentaId);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo confirmar el volcado de la cuenta {}; se conserva su saldo en memoria", cuentaId, e);
+            }
+        }
+
+        /**
+         * El ajuste escribe en la base de datos un delta sobre {@code saldo_actual} junto con el movimiento que
+         * modifica, así que lo aplicado antes a la cuenta debe estar ya allí. Si la escritura falla se descarta el
+         * saldo en memoria, que se relee (ya completo) de la base de datos en el siguiente movimiento.
+         */
+        private void ajustar(AjusteSaldo ajuste) {
+            escribirLote();
+            long cuentaId = ajuste.getCuentaId();
+            try {
+                diario.esperarVolcado(cuentaId);
+                if (!saldos.contiene(cuentaId)) {
+                    Double saldo = fuenteSaldos.apply(cuentaId);
+                    if (saldo == null) {
+                        throw new ResourceNotFoundException("Cuenta no encontrada");
+                    }
+                    saldos.poner(cuentaId, saldo);
+                }
+            } catch (RuntimeException e) {
+                ajuste.getResultado().completeExceptionally(e);
+                return;
+            }
+
+            try {
+                double saldo = ajuste.getEscritura().escribir(saldos.obtener(cuentaId));
+                saldos.poner(cuentaId, saldo);
+                ajuste.getResultado().complete(saldo);
+            } catch (RuntimeException e) {
+                saldos.eliminar(cuentaId);
+                ajuste.getResultado().completeExceptionally(e);
+            }
+        }
+
+        private void aplicar(MovimientoAplicado movimiento) {
+            long cuentaId = movimiento.getCuentaId();
+            try {
+                if (!saldos.contiene(cuentaId)) {
+                    Double saldo = fuenteSaldos.apply(cuentaId);
+                    if (saldo == null) {
+                        movimiento.getResultado().completeExceptionally(new ResourceNotFoundException("Cuenta no encontrada"));
+                        return;
+                    }
+                    saldos.poner(cuentaId, saldo);
+                }
+            } catch (RuntimeException e) {
+                movimiento.getResultado().completeExceptionally(e);
+                return;
+            }
+
+            movimiento.aplicar(saldos.obtener(cuentaId));
+            if (movimiento.getSaldo() < 0) {
+                movimiento.getResultado().completeExceptionally(new SaldoInsuficienteException("Saldo no disponible"));
+                return;
+            }
+            saldos.poner(cuentaId, movimiento.getSaldo());
+            lote.add(movimiento);
+        }
+
+        private void escribirLote() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            try {
+                diario.escribir(lote);
+                for (MovimientoAplicado movimiento : lote) {
+                    movimiento.getResultado().complete(movimiento);
+                }
+            } catch (ResultadoIndeterminadoException e) {
+                log.error("Resultado indeterminado al escribir en el diario un lote de {} movimientos; se conservan sus saldos",
+                        lote.size(), e);
+                for (MovimientoAplicado movimiento : lote) {
+                    movimiento.getResultado().completeExceptionally(e);
+                }
+            } catch (RuntimeException e) {
+                log.warn("No se pudo escribir en el diario un lote de {} movimientos; se restauran sus saldos", lote.size(), e);
+                for (int i = lote.size() - 1; i >= 0; i--) {
+                    MovimientoAplicado movimiento = lote.get(i);
+                    saldos.poner(movimiento.getCuentaId(), movimiento.getSaldoAnterior());
+                }
+                for (MovimientoAplicado movimiento : lote) {
+                    movimiento.getResultado().completeExceptionally(e);
+                }
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+}
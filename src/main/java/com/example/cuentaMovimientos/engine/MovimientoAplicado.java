@@ -0,0 +1,67 @@
+package com.example.cuentaMovimientos.engine;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Movimiento enviado al {@link MotorSaldos}. La partición rellena el saldo resultante y, tras escribirlo en el
+ * diario, el ID asignado; el futuro se completa solo cuando el movimiento es durable.
+ */
+@Getter
+public final class MovimientoAplicado {
+
+    private final long cuentaId;
+    private final String numeroCuenta;
+    private final LocalDate fecha;
+    private final String tipoMovimiento;
+    private final double valor;
+    private final CompletableFuture<MovimientoAplicado> resultado = new CompletableFuture<>();
+
+    private double saldoAnterior;
+    private double saldo;
+    private Long id;
+
+    public MovimientoAplicado(long cuentaId, String numeroCuenta, LocalDate fecha, String tipoMovimiento, double valor) {
+        this.cuentaId = cuentaId;
+        this.numeroCuenta = numeroCuenta;
+        this.fecha = fecha;
+        this.tipoMovimiento = tipoMovimiento;
+        this.valor = valor;
+    }
+
+    /**
+     * Reconstruye un movimiento ya aplicado a partir de su registro en el {@link JournalMovimientos}.
+     *
+     * @param registro Registro recuperado.
+     * @param numeroCuenta Número de la cuenta, para el evento del outbox.
+     */
+    public static MovimientoAplicado recuperado(RegistroJournal registro, String numeroCuenta) {
+        MovimientoAplicado movimiento = new MovimientoAplicado(registro.getCuentaId(), numeroCuenta, registro.getFecha(),
+                registro.getTipoMovimiento(), registro.getValor());
+        movimiento.saldoAnterior = registro.getSaldo() - registro.getValor();
+        movimiento.saldo = registro.getSaldo();
+        movimiento.id = registro.getId();
+        return movimiento;
+    }
+
+    /**
+     * Fija el saldo previo y calcula el saldo resultante del movimiento.
+     *
+     * @param saldoAnterior Saldo de la cuenta antes del movimiento.
+     */
+    public void aplicar(double saldoAnterior) {
+        this.saldoAnterior = saldoAnterior;
+        this.saldo = saldoAnterior + valor;
+    }
+
+    /**
+     * Asigna el ID generado al escribir el movimiento en el diario.
+     *
+     * @param id ID del movimiento.
+     */
+    public void asignarId(long id) {
+        this.id = id;
+    }
+}
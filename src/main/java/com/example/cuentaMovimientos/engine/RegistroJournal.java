@@ -0,0 +1,20 @@
+package com.example.cuentaMovimientos.engine;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Movimiento leído del {@link JournalMovimientos} al recuperar.
+ */
+@Getter
+@AllArgsConstructor
+public final class RegistroJournal {
+    private final long id;
+    private final long cuentaId;
+    private final LocalDate fecha;
+    private final String tipoMovimiento;
+    private final double valor;
+    private final double saldo;
+}
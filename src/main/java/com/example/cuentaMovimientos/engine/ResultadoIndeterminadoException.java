@@ -0,0 +1,16 @@
+package com.example.cuentaMovimientos.engine;
+
+/**
+ * Excepción que lanza un {@link DiarioMovimientos} cuando no puede confirmar que un lote es durable después de
+ * haberlo aceptado: el lote puede quedar guardado igualmente, por lo que el fallo no equivale a revertirlo.
+ */
+public class ResultadoIndeterminadoException extends RuntimeException {
+
+    /**
+     * @param message Mensaje que describe el error.
+     * @param cause Fallo de la espera de durabilidad.
+     */
+    public ResultadoIndeterminadoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
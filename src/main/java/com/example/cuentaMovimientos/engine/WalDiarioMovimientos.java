@@ -0,0 +1,275 @@
+package com.example.cuentaMovimientos.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.TransactionException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link DiarioMovimientos} que confirma cada lote en un {@link JournalMovimientos} local y lo vuelca a la base de
+ * datos en segundo plano.
+ * <p>
+ * Los IDs de los movimientos se asignan en memoria a partir de {@link #iniciar(long)}, de modo que la respuesta no
+ * espera a la base de datos: un lote está confirmado en cuanto su {@code fsync} termina, y el hilo de volcado lo
+ * escribe después con {@link JdbcDiarioMovimientos}, agrupando los lotes pendientes. Los segmentos del diario se
+ * eliminan solo cuando todos sus registros están en la base de datos. Tras una caída, los registros aún no volcados se
+ * recuperan con {@link JournalMovimientos#leer()}.
+ * </p>
+ * <p>
+ * Si el volcado falla porque la base de datos no está disponible se reintenta indefinidamente. Si un lote falla
+ * {@code maxReintentos} veces seguidas por otra causa, se escriben sus movimientos uno a uno y los que siguen
+ * fallando se guardan en el diario de {@code cuarentena} para repararlos a mano, de modo que un registro erróneo no
+ * bloquea los volcados siguientes. {@link #esperarVolcado(long)} permite releer el saldo de una cuenta de la base de
+ * datos sabiendo que ya incluye todos sus movimientos.
+ * </p>
+ */
+@Slf4j
+public class WalDiarioMovimientos implements DiarioMovimientos, AutoCloseable {
+
+    private static final long ESPERA_REINTENTO_MS = 1000;
+
+    private final JournalMovimientos journal;
+    private final JdbcDiarioMovimientos destino;
+    private final int loteVolcado;
+    private final JournalMovimientos cuarentena;
+    private final int maxReintentos;
+    private final AtomicLong siguienteId = new AtomicLong();
+    private final AtomicLong pendientes = new AtomicLong();
+    private final AtomicLong enCuarentena = new AtomicLong();
+    // Movimientos escritos en el diario y aún no volcados, por cuenta; protegido por sí mismo
+    private final Map<Long, Integer> pendientesPorCuenta = new HashMap<>();
+    private final LinkedBlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+    private final Thread volcador;
+
+    private volatile boolean activo = true;
+
+    /**
+     * @param journal Diario local de los movimientos confirmados.
+     * @param destino Escritura en la base de datos.
+     * @param loteVolcado Movimientos máximos por volcado.
+     * @param cuarentena Diario donde quedan los movimientos que no se pueden volcar.
+     * @param maxReintentos Fallos seguidos (no debidos a la disponibilidad de la base de datos) antes de aislar un lote.
+     */
+    public WalDiarioMovimientos(JournalMovimientos journal, JdbcDiarioMovimientos destino, int loteVolcado,
+                                JournalMovimientos cuarentena, int maxReintentos) {
+        this.journal = journal;
+        this.destino = destino;
+        this.loteVolcado = loteVolcado;
+        this.cuarentena = cuarentena;
+        this.maxReintentos = maxReintentos;
+        this.volcador = new Thread(this::volcar, "journal-movimientos-volcado");
+        this.volcador.setDaemon(true);
+    }
+
+    /**
+     * Arranca el volcado a la base de datos.
+     *
+     * @param primerId Primer ID libre para los movimientos nuevos.
+     */
+    public void iniciar(long primerId) {
+        siguienteId.set(primerId);
+        volcador.start();
+    }
+
+    /**
+     * Movimientos confirmados en el diario local y aún no escritos en la base de datos.
+     */
+    public long pendientes() {
+        return pendientes.get();
+    }
+
+    /**
+     * Movimientos que no se pudieron volcar y quedaron en cuarentena desde el arranque.
+     */
+    public long enCuarentena() {
+        return enCuarentena.get();
+    }
+
+    /**
+     * Añade el lote al diario y a la cola de volcado, y espera a que sea durable. Una vez añadido, el lote se volcará
+     * aunque la espera falle (diario cerrado o hilo interrumpido), por lo que ese fallo se notifica como
+     * {@link ResultadoIndeterminadoException}.
+     */
+    @Override
+    public void escribir(List<MovimientoAplicado> lote) {
+        long posicion;
+        synchronized (this) {
+            // La cola de volcado queda en el mismo orden que el diario, para liberar segmentos por posición
+            long id = siguienteId.getAndAdd(lote.size());
+            for (MovimientoAplicado movimiento : lote) {
+                movimiento.asignarId(id++);
+            }
+            posicion = journal.agregar(lote);
+            cola.add(new Pendiente(new ArrayList<>(lote), posicion));
+            pendientes.addAndGet(lote.size());
+            actualizarPendientes(lote, 1);
+        }
+        try {
+            journal.esperarDurable(posicion);
+        } catch (RuntimeException e) {
+            throw new ResultadoIndeterminadoException("No se pudo confirmar la durabilidad de un lote de " + lote.size()
+                    + " movimientos ya añadido al diario local", e);
+        }
+    }
+
+    /**
+     * Espera a que el hilo de volcado haya escrito en la base de datos (o puesto en cuarentena) todos los movimientos
+     * de la cuenta confirmados hasta ahora.
+     *
+     * @throws IllegalStateException si el volcado está detenido o el hilo se interrumpe.
+     */
+    @Override
+    public void esperarVolcado(long cuentaId) {
+        synchronized (pendientesPorCuenta) {
+            while (pendientesPorCuenta.containsKey(cuentaId)) {
+                if (!volcador.isAlive()) {
+                    throw new IllegalStateException("El volcado del diario local está detenido");
+                }
+                try {
+                    pendientesPorCuenta.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrumpido esperando el volcado del diario local", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Detiene el volcado tras escribir lo pendiente (mientras la base de datos responda) y cierra el diario.
+     */
+    @Override
+    public void close() {
+        activo = false;
+        try {
+            volcador.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pendientes.get() > 0) {
+            log.warn("{} movimientos quedan en el diario local sin volcar; se recuperarán al arrancar", pendientes.get());
+        }
+        journal.close();
+        cuarentena.close();
+    }
+
+    private void volcar() {
+        List<MovimientoAplicado> movimientos = new ArrayList<>(loteVolcado);
+        long posicion = 0;
+        int fallos = 0;
+        while (activo || !cola.isEmpty()) {
+            try {
+                if (movimientos.isEmpty()) {
+                    Pendiente pendiente = activo ? cola.poll(100, TimeUnit.MILLISECONDS) : cola.poll();
+                    if (pendiente == null) {
+                        continue;
+                    }
+                    movimientos.addAll(pendiente.movimientos);
+                    posicion = pendiente.posicion;
+                    Pendiente siguiente;
+                    while (movimientos.size() < loteVolcado && (siguiente = cola.poll()) != null) {
+                        movimientos.addAll(siguiente.movimientos);
+                        posicion = siguiente.posicion;
+                    }
+                }
+                journal.esperarDurable(posicion);
+                if (fallos < maxReintentos) {
+                    destino.escribir(movimientos);
+                } else {
+                    aislar(movimientos);
+                }
+                completar(movimientos, posicion);
+                fallos = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!esTransitorio(e)) {
+                    fallos++;
+                }
+                log.warn("Fallo al volcar {} movimientos del diario local, se reintentará", movimientos.size(), e);
+                if (!activo) {
+                    return;
+                }
+                try {
+                    Thread.sleep(ESPERA_REINTENTO_MS);
+                } catch (InterruptedException interrumpido) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe los movimientos de un lote que falla repetidamente uno a uno (omitiendo los que ya estén en la base de
+     * datos) y pone en cuarentena los que siguen fallando.
+     */
+    private void aislar(List<MovimientoAplicado> movimientos) {
+        List<MovimientoAplicado> fallidos = new ArrayList<>();
+        RuntimeException causa = null;
+        for (MovimientoAplicado movimiento : movimientos) {
+            try {
+                destino.escribirPendientes(List.of(movimiento));
+            } catch (RuntimeException e) {
+                if (esTransitorio(e)) {
+                    throw e;
+                }
+                fallidos.add(movimiento);
+                causa = e;
+            }
+        }
+        if (!fallidos.isEmpty()) {
+            cuarentena.esperarDurable(cuarentena.agregar(fallidos));
+            enCuarentena.addAndGet(fallidos.size());
+            log.error("{} movimientos del diario local no se pudieron volcar tras {} intentos y quedan en cuarentena (primer ID {}); "
+                    + "el saldo en memoria de sus cuentas no coincide con la base de datos hasta repararlos",
+                    fallidos.size(), maxReintentos, fallidos.get(0).getId(), causa);
+        }
+    }
+
+    private void completar(List<MovimientoAplicado> movimientos, long posicion) {
+        pendientes.addAndGet(-movimientos.size());
+        journal.liberarHasta(posicion);
+        actualizarPendientes(movimientos, -1);
+        movimientos.clear();
+    }
+
+    private void actualizarPendientes(List<MovimientoAplicado> movimientos, int signo) {
+        synchronized (pendientesPorCuenta) {
+            for (MovimientoAplicado movimiento : movimientos) {
+                pendientesPorCuenta.merge(movimiento.getCuentaId(), signo, (actual, delta) -> actual + delta == 0 ? null : actual + delta);
+            }
+            if (signo < 0) {
+                pendientesPorCuenta.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Fallos de disponibilidad de la base de datos, que se reintentan sin límite.
+     */
+    private static boolean esTransitorio(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransactionException;
+    }
+
+    private static final class Pendiente {
+        private final List<MovimientoAplicado> movimientos;
+        private final long posicion;
+
+        private Pendiente(List<MovimientoAplicado> movimientos, long posicion) {
+            this.movimientos = movimientos;
+            this.posicion = posicion;
+        }
+    }
+}
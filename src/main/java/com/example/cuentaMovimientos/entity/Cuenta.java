@@ -11,7 +11,10 @@ import lombok.Setter;
  * Incluye información sobre el número de cuenta, tipo, saldos, estado y el ID del cliente asociado.
  */
 @Entity
-@Table(name = "cuentas")
+@Table(name = "cuentas", indexes = {
+        @Index(name = "idx_cuentas_cliente", columnList = "cliente_id, id"),
+        @Index(name = "idx_cuentas_tipo_estado", columnList = "tipo_cuenta, estado, id")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -39,5 +42,15 @@ public class Cuenta {
 
     @Column(name = "cliente_id", nullable = false)
     private Long clienteId;
+
+    /**
+     * Contador de cambios de la cuenta y de sus movimientos, usado para derivar ETags.
+     * Se incrementa en el mismo {@code UPDATE} que el cambio: con sumas atómicas en la base de datos
+     * ({@link com.example.cuentaMovimientos.repository.CuentaRepository#ajustarSaldo}, volcados por lotes) o desde la
+     * entidad, solo si se cargó con la fila bloqueada ({@link com.example.cuentaMovimientos.repository.CuentaRepository#findByIdParaActualizar}).
+     */
+    @Column(name = "version_datos", nullable = false, insertable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long versionDatos;
 }
 
@@ -10,7 +10,7 @@ import java.time.LocalDate;
  * Incluye información sobre la fecha, tipo, valor, saldo y la cuenta asociada al movimiento.
  */
 @Entity
-@Table(name = "movimientos")
+@Table(name = "movimientos", indexes = @Index(name = "idx_movimientos_cuenta_fecha", columnList = "cuenta_id, fecha"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -25,6 +25,13 @@ public class Movimiento {
     private Double valor;
     private Double saldo;
 
+    /**
+     * Indica si el valor del movimiento ya fue aplicado a {@code cuentas.saldo_actual}.
+     * Los créditos diferidos por el buffer de escritura quedan en {@code false} hasta su volcado.
+     */
+    @Column(name = "aplicado")
+    private Boolean aplicado;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cuenta_id", nullable = false)
     private Cuenta cuenta;
@@ -0,0 +1,47 @@
+package com.example.cuentaMovimientos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Entidad JPA que representa un evento de movimiento pendiente de publicar (patrón outbox).
+ * Se escribe en la misma transacción que el movimiento y un relay la publica de forma asíncrona.
+ */
+@Entity
+@Table(name = "movimientos_outbox", indexes = @Index(name = "idx_outbox_enviado_id", columnList = "enviado, id"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovimientoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tipo_evento", nullable = false)
+    private String tipoEvento;
+
+    @Column(name = "movimiento_id", nullable = false)
+    private Long movimientoId;
+
+    @Column(name = "cuenta_id", nullable = false)
+    private Long cuentaId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private Instant fechaCreacion;
+
+    @Column(nullable = false)
+    private Boolean enviado;
+
+    @Column(name = "fecha_envio")
+    private Instant fechaEnvio;
+}
@@ -0,0 +1,20 @@
+package com.example.cuentaMovimientos.exception;
+
+/**
+ * Excepción personalizada que se lanza cuando se intenta modificar un movimiento que ya está en el nivel de archivo.
+ *
+ * <p>Esta excepción extiende `RuntimeException` y se utiliza para indicar que un movimiento de un periodo cerrado
+ * (copiado a {@code movimientos_archivo}) es de solo lectura y no puede actualizarse ni eliminarse.</p>
+ */
+public class MovimientoArchivadoException extends RuntimeException {
+
+    /**
+     * Constructor que inicializa la excepción con un mensaje específico.
+     *
+     * @param message Mensaje que describe el error. Este mensaje es utilizado para proporcionar detalles
+     *                sobre la razón por la cual se lanzó la excepción.
+     */
+    public MovimientoArchivadoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.cuentaMovimientos.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Escritura de {@link LocalDate} en formato ISO ({@code yyyy-MM-dd}) sin crear un {@code String} ni un
+ * formateador por fecha: los dígitos se escriben en un búfer de caracteres reutilizado por hilo.
+ */
+final class FechaJson {
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[10]);
+
+    private FechaJson() {
+    }
+
+    static void escribir(JsonGenerator gen, LocalDate fecha) throws IOException {
+        if (fecha == null) {
+            gen.writeNull();
+            return;
+        }
+        int anio = fecha.getYear();
+        if (anio < 0 || anio > 9999) {
+            gen.writeString(fecha.toString());
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        escribirDigitos(buffer, 0, anio, 4);
+        buffer[4] = '-';
+        escribirDigitos(buffer, 5, fecha.getMonthValue(), 2);
+        buffer[7] = '-';
+        escribirDigitos(buffer, 8, fecha.getDayOfMonth(), 2);
+        gen.writeString(buffer, 0, 10);
+    }
+
+    private static void escribirDigitos(char[] buffer, int desde, int valor, int digitos) {
+        for (int i = desde + digitos - 1; i >= desde; i--) {
+            buffer[i] = (char) ('0' + valor % 10);
+            valor /= 10;
+        }
+    }
+}
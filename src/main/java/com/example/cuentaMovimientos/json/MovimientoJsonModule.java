@@ -0,0 +1,222 @@
+package com.example.cuentaMovimientos.json;
+
+import com.example.cuentaMovimientos.dto.response.CuentaReporteDto;
+import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoResponseDto;
+import com.example.cuentaMovimientos.dto.response.ReporteResponseDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Serializadores escritos a mano para los DTOs que se devuelven en listas grandes (movimientos y reportes).
+ * <p>
+ * Escriben directamente sobre el {@link JsonGenerator}, sin introspección por campo, con los nombres de campo
+ * precodificados y las fechas formateadas por {@link FechaJson}. Los búferes del generador son los que recicla
+ * Jackson por hilo. El JSON producido es idéntico al de la serialización por reflexión (mismo orden de campos,
+ * nulos incluidos y fechas ISO), por lo que cualquier campo nuevo en estos DTOs debe añadirse también aquí.
+ * </p>
+ */
+public class MovimientoJsonModule extends SimpleModule {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString CUENTA_ID = new SerializedString("cuentaId");
+    private static final SerializableString FECHA = new SerializedString("fecha");
+    private static final SerializableString TIPO_MOVIMIENTO = new SerializedString("tipoMovimiento");
+    private static final SerializableString VALOR = new SerializedString("valor");
+    private static final SerializableString SALDO = new SerializedString("saldo");
+    private static final SerializableString CLIENTE_NOMBRE = new SerializedString("clienteNombre");
+    private static final SerializableString NUMERO_CUENTA = new SerializedString("numeroCuenta");
+    private static final SerializableString TIPO_CUENTA = new SerializedString("tipoCuenta");
+    private static final SerializableString SALDO_INICIAL = new SerializedString("saldoInicial");
+    private static final SerializableString SALDO_ACTUAL = new SerializedString("saldoActual");
+    private static final SerializableString ESTADO = new SerializedString("estado");
+    private static final SerializableString CLIENTE_ID = new SerializedString("clienteId");
+    private static final SerializableString MOVIMIENTOS = new SerializedString("movimientos");
+    private static final SerializableString CLIENTE = new SerializedString("cliente");
+    private static final SerializableString CUENTAS = new SerializedString("cuentas");
+
+    public MovimientoJsonModule() {
+        super("MovimientoJsonModule");
+        addSerializer(MovimientoResponseDto.class, new MovimientoResponseSerializer());
+        addSerializer(MovimientoReporteDto.class, new MovimientoReporteSerializer());
+        addSerializer(CuentaReporteDto.class, new CuentaReporteSerializer());
+        addSerializer(ReporteResponseDto.class, new ReporteResponseSerializer());
+    }
+
+    static final class MovimientoResponseSerializer extends StdSerializer<MovimientoResponseDto> {
+
+        MovimientoResponseSerializer() {
+            super(MovimientoResponseDto.class);
+        }
+
+        @Override
+        public void serialize(MovimientoResponseDto movimiento, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(movimiento);
+            gen.writeFieldName(ID);
+            escribir(gen, movimiento.getId());
+            gen.writeFieldName(CUENTA_ID);
+            escribirCuenta(gen, movimiento.getCuentaId());
+            gen.writeFieldName(FECHA);
+            FechaJson.escribir(gen, movimiento.getFecha());
+            gen.writeFieldName(TIPO_MOVIMIENTO);
+            escribir(gen, movimiento.getTipoMovimiento());
+            gen.writeFieldName(VALOR);
+            gen.writeNumber(movimiento.getValor());
+            gen.writeFieldName(SALDO);
+            gen.writeNumber(movimiento.getSaldo());
+            gen.writeFieldName(CLIENTE_NOMBRE);
+            escribir(gen, movimiento.getClienteNombre());
+            gen.writeEndObject();
+        }
+
+        /**
+         * La cuenta anidada se escribe completa: el filtro de campos de {@link CuentaResponseDto} solo se aplica
+         * en GET /cuentas.
+         */
+        private void escribirCuenta(JsonGenerator gen, CuentaResponseDto cuenta) throws IOException {
+            if (cuenta == null) {
+                gen.writeNull();
+                return;
+            }
+            gen.writeStartObject(cuenta);
+            gen.writeFieldName(ID);
+            escribir(gen, cuenta.getId());
+            gen.writeFieldName(NUMERO_CUENTA);
+            escribir(gen, cuenta.getNumeroCuenta());
+            gen.writeFieldName(TIPO_CUENTA);
+            escribir(gen, cuenta.getTipoCuenta());
+            gen.writeFieldName(SALDO_INICIAL);
+            gen.writeNumber(cuenta.getSaldoInicial());
+            gen.writeFieldName(SALDO_ACTUAL);
+            gen.writeNumber(cuenta.getSaldoActual());
+            gen.writeFieldName(ESTADO);
+            escribir(gen, cuenta.getEstado());
+            gen.writeFieldName(CLIENTE_ID);
+            escribir(gen, cuenta.getClienteId());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class MovimientoReporteSerializer extends StdSerializer<MovimientoReporteDto> {
+
+        MovimientoReporteSerializer() {
+            super(MovimientoReporteDto.class);
+        }
+
+        @Override
+        public void serialize(MovimientoReporteDto movimiento, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(movimiento);
+            gen.writeFieldName(FECHA);
+            FechaJson.escribir(gen, movimiento.getFecha());
+            gen.writeFieldName(TIPO_MOVIMIENTO);
+            escribir(gen, movimiento.getTipoMovimiento());
+            gen.writeFieldName(VALOR);
+            gen.writeNumber(movimiento.getValor());
+            gen.writeFieldName(SALDO);
+            gen.writeNumber(movimiento.getSaldo());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class CuentaReporteSerializer extends StdSerializer<CuentaReporteDto> {
+
+        private final MovimientoReporteSerializer movimientoSerializer = new MovimientoReporteSerializer();
+
+        CuentaReporteSerializer() {
+            super(CuentaReporteDto.class);
+        }
+
+        @Override
+        public void serialize(CuentaReporteDto cuenta, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(cuenta);
+            gen.writeFieldName(NUMERO_CUENTA);
+            escribir(gen, cuenta.getNumeroCuenta());
+            gen.writeFieldName(TIPO_CUENTA);
+            escribir(gen, cuenta.getTipoCuenta());
+            gen.writeFieldName(SALDO_INICIAL);
+            gen.writeNumber(cuenta.getSaldoInicial());
+            gen.writeFieldName(ESTADO);
+            escribir(gen, cuenta.getEstado());
+            gen.writeFieldName(MOVIMIENTOS);
+            List<MovimientoReporteDto> movimientos = cuenta.getMovimientos();
+            if (movimientos == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(movimientos, movimientos.size());
+                for (MovimientoReporteDto movimiento : movimientos) {
+                    if (movimiento == null) {
+                        gen.writeNull();
+                    } else {
+                        movimientoSerializer.serialize(movimiento, gen, provider);
+                    }
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static final class ReporteResponseSerializer extends StdSerializer<ReporteResponseDto> {
+
+        private final CuentaReporteSerializer cuentaSerializer = new CuentaReporteSerializer();
+
+        ReporteResponseSerializer() {
+            super(ReporteResponseDto.class);
+        }
+
+        @Override
+        public void serialize(ReporteResponseDto reporte, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(reporte);
+            gen.writeFieldName(CLIENTE);
+            escribir(gen, reporte.getCliente());
+            gen.writeFieldName(CUENTAS);
+            List<CuentaReporteDto> cuentas = reporte.getCuentas();
+            if (cuentas == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(cuentas, cuentas.size());
+                for (CuentaReporteDto cuenta : cuentas) {
+                    if (cuenta == null) {
+                        gen.writeNull();
+                    } else {
+                        cuentaSerializer.serialize(cuenta, gen, provider);
+                    }
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static void escribir(JsonGenerator gen, String valor) throws IOException {
+        if (valor == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(valor);
+        }
+    }
+
+    private static void escribir(JsonGenerator gen, Long valor) throws IOException {
+        if (valor == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(valor.longValue());
+        }
+    }
+
+    private static void escribir(JsonGenerator gen, Boolean valor) throws IOException {
+        if (valor == null) {
+            gen.writeNull();
+        } else {
+            gen.writeBoolean(valor);
+        }
+    }
+}
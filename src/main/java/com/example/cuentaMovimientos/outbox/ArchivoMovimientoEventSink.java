@@ -0,0 +1,43 @@
+package com.example.cuentaMovimientos.outbox;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Sink que agrega los eventos a un archivo local, un JSON por línea.
+ * Cada lote se escribe con un único {@code flush}.
+ */
+@Component
+@ConditionalOnProperty(name = "cuenta-movimientos.outbox.sink", havingValue = "archivo")
+public class ArchivoMovimientoEventSink implements MovimientoEventSink {
+
+    private final Path archivo;
+
+    public ArchivoMovimientoEventSink(@Value("${cuenta-movimientos.outbox.archivo:movimientos-eventos.jsonl}") String archivo) {
+        this.archivo = Path.of(archivo);
+    }
+
+    @Override
+    public synchronized void publicar(List<MovimientoOutbox> eventos) {
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (MovimientoOutbox evento : eventos) {
+                writer.write(evento.getPayload());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en " + archivo, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.cuentaMovimientos.outbox;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Sink en proceso que sustituye a un broker: los eventos quedan en una cola acotada
+ * que los consumidores locales (o las pruebas) pueden leer.
+ * <p>
+ * Si la cola no tiene espacio para el lote completo, el lote se rechaza y el relay lo reintenta.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "cuenta-movimientos.outbox.sink", havingValue = "memoria")
+public class EnMemoriaMovimientoEventSink implements MovimientoEventSink {
+
+    private final BlockingQueue<String> cola;
+
+    public EnMemoriaMovimientoEventSink(@Value("${cuenta-movimientos.outbox.memoria.capacidad:10000}") int capacidad) {
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+    }
+
+    @Override
+    public synchronized void publicar(List<MovimientoOutbox> eventos) {
+        if (cola.remainingCapacity() < eventos.size()) {
+            throw new IllegalStateException("Cola de eventos llena");
+        }
+        for (MovimientoOutbox evento : eventos) {
+            cola.add(evento.getPayload());
+        }
+    }
+
+    /**
+     * @return La cola con los payloads publicados, en orden de publicación.
+     */
+    public BlockingQueue<String> getCola() {
+        return cola;
+    }
+}
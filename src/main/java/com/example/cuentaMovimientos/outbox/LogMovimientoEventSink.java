@@ -0,0 +1,24 @@
+package com.example.cuentaMovimientos.outbox;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sink que escribe cada evento en el log de la aplicación. Es el destino por defecto.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cuenta-movimientos.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogMovimientoEventSink implements MovimientoEventSink {
+
+    @Override
+    public void publicar(List<MovimientoOutbox> eventos) {
+        for (MovimientoOutbox evento : eventos) {
+            log.info("{} {}", evento.getTipoEvento(), evento.getPayload());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.cuentaMovimientos.outbox;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+
+import java.util.List;
+
+/**
+ * Destino al que el relay del outbox publica los eventos de movimientos.
+ * <p>
+ * La implementación activa se elige con {@code cuenta-movimientos.outbox.sink}
+ * ({@code log}, {@code archivo} o {@code memoria}). Si {@link #publicar(List)} lanza una excepción,
+ * el lote completo queda pendiente y se reintenta en el siguiente sondeo.
+ * </p>
+ */
+public interface MovimientoEventSink {
+
+    /**
+     * Publica un lote de eventos en orden.
+     *
+     * @param eventos Eventos a publicar, ordenados por ID.
+     */
+    void publicar(List<MovimientoOutbox> eventos);
+}
@@ -0,0 +1,21 @@
+package com.example.cuentaMovimientos.profiling;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Resumen de la actividad SQL de una petición que excedió el presupuesto.
+ */
+@Getter
+@AllArgsConstructor
+public final class InformeSqlPeticion {
+    private final String peticion;
+    private final Instant fecha;
+    private final int sentencias;
+    private final long milisegundos;
+    private final Map<String, Long> sentenciasPorMetodo;
+    private final Map<String, Long> milisegundosPorMetodo;
+}
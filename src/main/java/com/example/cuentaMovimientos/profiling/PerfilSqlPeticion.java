@@ -0,0 +1,66 @@
+package com.example.cuentaMovimientos.profiling;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sentencias SQL ejecutadas durante una petición, agrupadas por el método de servicio que las originó.
+ * Solo lo usa el hilo que atiende la petición.
+ */
+final class PerfilSqlPeticion {
+
+    static final String SIN_METODO = "sin-metodo";
+
+    private final String peticion;
+    private final Instant inicio = Instant.now();
+    private final Deque<String> metodos = new ArrayDeque<>();
+    private final Map<String, long[]> porMetodo = new LinkedHashMap<>();
+    private int sentencias;
+    private long milisegundos;
+
+    PerfilSqlPeticion(String peticion) {
+        this.peticion = peticion;
+    }
+
+    void entrar(String metodo) {
+        metodos.push(metodo);
+    }
+
+    void salir() {
+        metodos.poll();
+    }
+
+    String metodoActual() {
+        String metodo = metodos.peek();
+        return metodo != null ? metodo : SIN_METODO;
+    }
+
+    void registrar(String metodo, long ms) {
+        long[] totales = porMetodo.computeIfAbsent(metodo, clave -> new long[2]);
+        totales[0]++;
+        totales[1] += ms;
+        sentencias++;
+        milisegundos += ms;
+    }
+
+    int getSentencias() {
+        return sentencias;
+    }
+
+    long getMilisegundos() {
+        return milisegundos;
+    }
+
+    InformeSqlPeticion informe() {
+        Map<String, Long> sentenciasPorMetodo = new LinkedHashMap<>();
+        Map<String, Long> msPorMetodo = new LinkedHashMap<>();
+        porMetodo.forEach((metodo, totales) -> {
+            sentenciasPorMetodo.put(metodo, totales[0]);
+            msPorMetodo.put(metodo, totales[1]);
+        });
+        return new InformeSqlPeticion(peticion, inicio, sentencias, milisegundos, sentenciasPorMetodo, msPorMetodo);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.cuentaMovimientos.profiling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perfilador que atribuye cada sentencia JDBC a la petición HTTP en curso y al método de servicio que la ejecuta.
+ * <p>
+ * Al terminar cada petición publica {@code sql.sentencias.peticion} (histograma de sentencias por petición) y
+ * {@code sql.tiempo.peticion}; por método de servicio, {@code sql.sentencias} (número y duración). Las peticiones que
+ * superan {@code max-statements} o {@code max-time-ms} se registran en el log con el desglose por método, incrementan
+ * {@code sql.presupuesto.excedido} y se conservan las últimas {@code recent-size} para el endpoint
+ * {@code /actuator/sqlprofiler}. Las sentencias que superan {@code slow-statement-ms} se registran individualmente.
+ * </p>
+ */
+@Slf4j
+public class SqlProfiler {
+
+    private static final String FUERA_DE_PETICION = "fuera-de-peticion";
+
+    private static final ThreadLocal<PerfilSqlPeticion> ACTUAL = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final int maxSentencias;
+    private final long maxMilisegundos;
+    private final long sentenciaLentaMs;
+    private final int maxRecientes;
+    private final Deque<InformeSqlPeticion> recientes = new ArrayDeque<>();
+
+    public SqlProfiler(MeterRegistry meterRegistry, int maxSentencias, long maxMilisegundos,
+                       long sentenciaLentaMs, int maxRecientes) {
+        this.meterRegistry = meterRegistry;
+        this.maxSentencias = maxSentencias;
+        this.maxMilisegundos = maxMilisegundos;
+        this.sentenciaLentaMs = sentenciaLentaMs;
+        this.maxRecientes = maxRecientes;
+    }
+
+    /**
+     * Empieza a contabilizar las sentencias del hilo actual.
+     *
+     * @param peticion Descripción de la petición para el log (método y URI).
+     */
+    public void iniciar(String peticion) {
+        ACTUAL.set(new PerfilSqlPeticion(peticion));
+    }
+
+    /**
+     * Cierra la petición del hilo actual, publica sus métricas y comprueba el presupuesto.
+     *
+     * @param metodoHttp Método HTTP.
+     * @param uri Patrón de la URI atendida (sin valores de las variables, para acotar la cardinalidad).
+     */
+    public void finalizar(String metodoHttp, String uri) {
+        PerfilSqlPeticion perfil = ACTUAL.get();
+        if (perfil == null) {
+            return;
+        }
+        ACTUAL.remove();
+
+        DistributionSummary.builder("sql.sentencias.peticion")
+                .description("Sentencias SQL ejecutadas por petición")
+                .tags("method", metodoHttp, "uri", uri)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(perfil.getSentencias());
+        Timer.builder("sql.tiempo.peticion")
+                .tags("method", metodoHttp, "uri", uri)
+                .register(meterRegistry)
+                .record(perfil.getMilisegundos(), TimeUnit.MILLISECONDS);
+
+        if (perfil.getSentencias() > maxSentencias || perfil.getMilisegundos() > maxMilisegundos) {
+            Counter.builder("sql.presupuesto.excedido").tags("method", metodoHttp, "uri", uri)
+                    .register(meterRegistry).increment();
+            InformeSqlPeticion informe = perfil.informe();
+            log.warn("La petición {} excedió el presupuesto SQL: {} sentencias en {} ms (límite {} sentencias / {} ms); por método: {}",
+                    informe.getPeticion(), informe.getSentencias(), informe.getMilisegundos(),
+                    maxSentencias, maxMilisegundos, informe.getSentenciasPorMetodo());
+            synchronized (recientes) {
+                recientes.addFirst(informe);
+                while (recientes.size() > maxRecientes) {
+                    recientes.removeLast();
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica si el hilo actual está atendiendo una petición perfilada.
+     */
+    public boolean isActivo() {
+        return ACTUAL.get() != null;
+    }
+
+    public void entrarMetodo(String metodo) {
+        PerfilSqlPeticion perfil = ACTUAL.get();
+        if (perfil != null) {
+            perfil.entrar(metodo);
+        }
+    }
+
+    public void salirMetodo() {
+        PerfilSqlPeticion perfil = ACTUAL.get();
+        if (perfil != null) {
+            perfil.salir();
+        }
+    }
+
+    /**
+     * Registra una sentencia ejecutada en el hilo actual.
+     *
+     * @param milisegundos Duración de la ejecución.
+     * @param sql Texto de la sentencia, solo para el log de sentencias lentas.
+     */
+    public void registrarSentencia(long milisegundos, String sql) {
+        PerfilSqlPeticion perfil = ACTUAL.get();
+        String metodo = perfil != null ? perfil.metodoActual() : FUERA_DE_PETICION;
+        if (perfil != null) {
+            perfil.registrar(metodo, milisegundos);
+        }
+
+        Timer.builder("sql.sentencias").tag("metodo", metodo).register(meterRegistry)
+                .record(milisegundos, TimeUnit.MILLISECONDS);
+
+        if (milisegundos >= sentenciaLentaMs) {
+            log.warn("Sentencia lenta ({} ms) en {}: {}", milisegundos, metodo, sql);
+        }
+    }
+
+    /**
+     * Últimas peticiones que excedieron el presupuesto, de la más reciente a la más antigua.
+     */
+    public List<InformeSqlPeticion> recientes() {
+        synchronized (recientes) {
+            return new ArrayList<>(recientes);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.cuentaMovimientos.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Anota en el perfil de la petición el método de servicio en ejecución ({@code ReporteService.generarReporte},
+ * {@code MovimientoService.crearMovimiento}...), de modo que cada sentencia se atribuya al más interno.
+ */
+@Aspect
+public class SqlProfilerAspect {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfilerAspect(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @Around("execution(public * com.example.cuentaMovimientos.service..*.*(..))")
+    public Object atribuir(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!sqlProfiler.isActivo()) {
+            return joinPoint.proceed();
+        }
+        sqlProfiler.entrarMetodo(joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            sqlProfiler.salirMetodo();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.cuentaMovimientos.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Endpoint {@code /actuator/sqlprofiler} con las últimas peticiones que excedieron el presupuesto SQL.
+ */
+@Endpoint(id = "sqlprofiler")
+public class SqlProfilerEndpoint {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfilerEndpoint(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @ReadOperation
+    public List<InformeSqlPeticion> excedidas() {
+        return sqlProfiler.recientes();
+    }
+}
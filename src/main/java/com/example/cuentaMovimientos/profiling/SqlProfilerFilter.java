@@ -0,0 +1,34 @@
+package com.example.cuentaMovimientos.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Delimita cada petición HTTP para el {@link SqlProfiler}.
+ */
+public class SqlProfilerFilter extends OncePerRequestFilter {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfilerFilter(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        sqlProfiler.iniciar(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            sqlProfiler.finalizar(request.getMethod(), patron != null ? patron.toString() : "UNKNOWN");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.cuentaMovimientos.profiling;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Listener de datasource-proxy que entrega cada ejecución JDBC al {@link SqlProfiler}.
+ * Un lote JDBC cuenta como una sentencia (un viaje a la base de datos).
+ */
+public class SqlProfilerListener implements QueryExecutionListener {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfilerListener(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        sqlProfiler.registrarSentencia(execInfo.getElapsedTime(), sql);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.cuentaMovimientos.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión: limita la tasa por cliente y por API key y la concurrencia por grupo de endpoints.
+ * <p>
+ * Cada petición consume tokens de los buckets que le correspondan: el del {@code clienteId} (parámetro de la
+ * petición) y el de la API key (cabecera {@code X-Api-Key}); si no trae ninguno de los dos, el de su dirección IP.
+ * Si el bucket de la API key rechaza la petición, se devuelven los tokens ya consumidos del bucket del cliente.
+ * Un reporte consume un token más por cada {@code cuentas-por-token} cuentas solicitadas, como mucho la ráfaga del
+ * bucket (si no, un reporte grande no se admitiría nunca, por mucho que esperase). Después entra en su
+ * bulkhead: consultas pesadas ({@code GET /reportes}, {@code GET /movimientos/listado}, {@code GET /cuentas}) o
+ * escrituras (el resto de métodos distintos de GET), de modo que una ráfaga de reportes no agote los hilos que
+ * necesitan las escrituras. Lo que no cabe se rechaza de inmediato con 429 y {@code Retry-After}.
+ * </p>
+ * <p>
+ * Métricas: {@code admision.rechazos} (etiqueta {@code motivo}: cliente, apikey, ip, consultas, escrituras) y
+ * {@code admision.bulkhead.en.uso} (etiqueta {@code bulkhead}).
+ * </p>
+ */
+public class AdmisionFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA_API_KEY = "X-Api-Key";
+
+    private final Cache<String, TokenBucket> buckets;
+    private final LimiteTasa limiteCliente;
+    private final LimiteTasa limiteApiKey;
+    private final int cuentasPorToken;
+    private final Bulkhead consultas;
+    private final Bulkhead escrituras;
+    private final MeterRegistry meterRegistry;
+
+    public AdmisionFilter(LimiteTasa limiteCliente, LimiteTasa limiteApiKey, int cuentasPorToken,
+                          Bulkhead consultas, Bulkhead escrituras, long maxClaves, Duration inactividad,
+                          MeterRegistry meterRegistry) {
+        this.buckets = Caffeine.newBuilder().maximumSize(maxClaves).expireAfterAccess(inactividad).build();
+        this.limiteCliente = limiteCliente;
+        this.limiteApiKey = limiteApiKey;
+        this.cuentasPorToken = cuentasPorToken;
+        this.consultas = consultas;
+        this.escrituras = escrituras;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("admision.bulkhead.en.uso", consultas, Bulkhead::getEnUso).tag("bulkhead", consultas.getNombre()).register(meterRegistry);
+        Gauge.builder("admision.bulkhead.en.uso", escrituras, Bulkhead::getEnUso).tag("bulkhead", escrituras.getNombre()).register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int tokens = tokens(request);
+        String clienteId = request.getParameter("clienteId");
+        String apiKey = request.getHeader(CABECERA_API_KEY);
+
+        long espera = 0;
+        String motivo = null;
+        TokenBucket bucketCliente = null;
+        if (clienteId != null) {
+            bucketCliente = bucket("cliente:" + clienteId, limiteCliente);
+            espera = bucketCliente.intentarConsumir(coste(tokens, limiteCliente));
+            motivo = "cliente";
+        }
+        if (espera == 0 && apiKey != null) {
+            espera = bucket("apikey:" + apiKey, limiteApiKey).intentarConsumir(coste(tokens, limiteApiKey));
+            motivo = "apikey";
+            if (espera > 0 && bucketCliente != null) {
+                bucketCliente.devolver(coste(tokens, limiteCliente));
+            }
+        }
+        if (espera == 0 && clienteId == null && apiKey == null) {
+            espera = bucket("ip:" + request.getRemoteAddr(), limiteCliente).intentarConsumir(coste(tokens, limiteCliente));
+            motivo = "ip";
+        }
+        if (espera > 0) {
+            rechazar(response, motivo, TimeUnit.NANOSECONDS.toSeconds(espera) + 1);
+            return;
+        }
+
+        Bulkhead bulkhead = bulkhead(request);
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!bulkhead.intentarEntrar()) {
+            rechazar(response, bulkhead.getNombre(), 1);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.liberar();
+        }
+    }
+
+    private TokenBucket bucket(String clave, LimiteTasa limite) {
+        return buckets.get(clave, k -> new TokenBucket(limite.getPorSegundo(), limite.getRafaga()));
+    }
+
+    private static int coste(int tokens, LimiteTasa limite) {
+        return Math.min(tokens, limite.getRafaga());
+    }
+
+    private int tokens(HttpServletRequest request) {
+        if (!request.getRequestURI().startsWith("/reportes")) {
+            return 1;
+        }
+        String[] valores = request.getParameterValues("cuentasIds");
+        int cuentas = 0;
+        if (valores != null) {
+            for (String valor : valores) {
+                cuentas += valor.split(",").length;
+            }
+        }
+        return 1 + cuentas / cuentasPorToken;
+    }
+
+    private Bulkhead bulkhead(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return escrituras;
+        }
+        String uri = request.getRequestURI();
+        if (uri.startsWith("/reportes") || uri.equals("/movimientos/listado") || uri.equals("/cuentas")) {
+            return consultas;
+        }
+        return null;
+    }
+
+    private void rechazar(HttpServletResponse response, String motivo, long reintentarEnSegundos) {
+        Counter.builder("admision.rechazos").tag("motivo", motivo).register(meterRegistry).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(reintentarEnSegundos));
+    }
+
+    /**
+     * Tasa sostenida y ráfaga máxima de un tipo de bucket.
+     */
+    public static final class LimiteTasa {
+        private final double porSegundo;
+        private final int rafaga;
+
+        public LimiteTasa(double porSegundo, int rafaga) {
+            this.porSegundo = porSegundo;
+            this.rafaga = rafaga;
+        }
+
+        public double getPorSegundo() {
+            return porSegundo;
+        }
+
+        public int getRafaga() {
+            return rafaga;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.cuentaMovimientos.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de peticiones concurrentes para un grupo de endpoints. Si está lleno se rechaza de inmediato, sin cola.
+ */
+public final class Bulkhead {
+
+    private final String nombre;
+    private final int maximo;
+    private final AtomicInteger enUso = new AtomicInteger();
+
+    public Bulkhead(String nombre, int maximo) {
+        this.nombre = nombre;
+        this.maximo = maximo;
+    }
+
+    /**
+     * @return {@code true} si se obtuvo un permiso, que debe devolverse con {@link #liberar()}.
+     */
+    public boolean intentarEntrar() {
+        if (enUso.incrementAndGet() > maximo) {
+            enUso.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void liberar() {
+        enUso.decrementAndGet();
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getEnUso() {
+        return enUso.get();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.cuentaMovimientos.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket sin bloqueos implementado con GCRA (generic cell rate algorithm).
+ * <p>
+ * En lugar de contar tokens, guarda en un único {@link AtomicLong} el instante teórico en que el bucket volvería a
+ * estar lleno; adquirir es una lectura del reloj y un CAS. Equivale a un bucket de capacidad {@code rafaga} que se
+ * rellena a {@code porSegundo} tokens por segundo.
+ * </p>
+ */
+public final class TokenBucket {
+
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final LongSupplier reloj;
+    private final AtomicLong llenoEn;
+
+    public TokenBucket(double porSegundo, int rafaga) {
+        this(porSegundo, rafaga, System::nanoTime);
+    }
+
+    TokenBucket(double porSegundo, int rafaga, LongSupplier reloj) {
+        this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / porSegundo);
+        this.toleranciaNanos = intervaloNanos * rafaga;
+        this.reloj = reloj;
+        this.llenoEn = new AtomicLong(reloj.getAsLong());
+    }
+
+    /**
+     * Intenta consumir {@code tokens}.
+     *
+     * @param tokens Tokens a consumir.
+     * @return 0 si se concedieron; si no, los nanosegundos que faltan para disponer de ellos.
+     */
+    public long intentarConsumir(int tokens) {
+        long incremento = intervaloNanos * tokens;
+        while (true) {
+            long ahora = reloj.getAsLong();
+            long actual = llenoEn.get();
+            long nuevo = Math.max(actual, ahora) + incremento;
+            long exceso = nuevo - ahora - toleranciaNanos;
+            if (exceso > 0) {
+                return exceso;
+            }
+            if (llenoEn.compareAndSet(actual, nuevo)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Devuelve {@code tokens} consumidos con {@link #intentarConsumir(int)} por una petición que finalmente se rechazó.
+     * Nunca deja el bucket por encima de su capacidad: el instante de lleno no retrocede más allá de ahora.
+     *
+     * @param tokens Tokens a devolver.
+     */
+    public void devolver(int tokens) {
+        long decremento = intervaloNanos * tokens;
+        while (true) {
+            long ahora = reloj.getAsLong();
+            long actual = llenoEn.get();
+            long nuevo = Math.max(actual - decremento, ahora);
+            if (nuevo >= actual || llenoEn.compareAndSet(actual, nuevo)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.cuentaMovimientos.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Consultas agregadas ({@code GROUP BY}) sobre los movimientos de todas las cuentas de un tipo.
+ * <p>
+ * Las consultas se limitan a un rango de IDs de cuenta para poder repartir un periodo grande en varios recorridos
+ * paralelos; cada uno usa el índice {@code (cuenta_id, fecha)} de la tabla de movimientos.
+ * </p>
+ */
+@Repository
+public class AnaliticaMovimientosRepository {
+
+    /**
+     * Recibe cada fila agregada {@code (fecha, tipoMovimiento, cantidad, total)}.
+     */
+    @FunctionalInterface
+    public interface ConsumidorAgregado {
+        void aceptar(LocalDate fecha, String tipoMovimiento, long cantidad, double total);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnaliticaMovimientosRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Rango de IDs de las cuentas de un tipo.
+     *
+     * @return {@code [minimo, maximo]}, o {@code null} si no hay cuentas del tipo.
+     */
+    public long[] rangoIds(String tipoCuenta) {
+        return jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM cuentas WHERE tipo_cuenta = ?",
+                rs -> rs.next() && rs.getObject(1) != null ? new long[]{rs.getLong(1), rs.getLong(2)} : null,
+                tipoCuenta);
+    }
+
+    /**
+     * Totales por día y tipo de movimiento de las cuentas de un tipo con ID en {@code [idDesde, idHasta]}.
+     *
+     * @param tabla {@code movimientos} o {@code movimientos_archivo}.
+     */
+    public void agregar(String tabla, String tipoCuenta, LocalDate fechaInicio, LocalDate fechaFin,
+                        long idDesde, long idHasta, ConsumidorAgregado consumidor) {
+        if (!"movimientos".equals(tabla) && !"movimientos_archivo".equals(tabla)) {
+            throw new IllegalArgumentException("Tabla no permitida: " + tabla);
+        }
+        jdbcTemplate.query("SELECT m.fecha, m.tipo_movimiento, COUNT(*) AS cantidad, SUM(m.valor) AS total "
+                        + "FROM " + tabla + " m JOIN cuentas c ON c.id = m.cuenta_id "
+                        + "WHERE c.tipo_cuenta = ? AND m.cuenta_id BETWEEN ? AND ? AND m.fecha BETWEEN ? AND ? "
+                        + "GROUP BY m.fecha, m.tipo_movimiento",
+                (RowCallbackHandler) rs -> consumidor.aceptar(rs.getObject("fecha", LocalDate.class), rs.getString("tipo_movimiento"),
+                        rs.getLong("cantidad"), rs.getDouble("total")),
+                tipoCuenta, idDesde, idHasta, fechaInicio, fechaFin);
+    }
+}
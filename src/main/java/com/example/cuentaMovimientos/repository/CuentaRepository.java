@@ -1,9 +1,16 @@
 package com.example.cuentaMovimientos.repository;
 
 import com.example.cuentaMovimientos.entity.Cuenta;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,9 +22,58 @@ import java.util.Optional;
  * </p>
  */
 @Repository
-public interface  CuentaRepository extends JpaRepository<Cuenta, Long> {
+public interface  CuentaRepository extends JpaRepository<Cuenta, Long>, CuentaRepositoryCustom {
 
-    Optional<Cuenta> findByClienteId(Long clienteId);
+    boolean existsByClienteId(Long clienteId);
 
     Optional<Cuenta> findByNumeroCuenta(String numeroCuenta);
+
+    /**
+     * Obtiene la cuenta bloqueando su fila hasta el fin de la transacción (SELECT ... FOR UPDATE).
+     *
+     * @param numeroCuenta Número de la cuenta a bloquear.
+     * @return La cuenta encontrada, si existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cuenta c WHERE c.numeroCuenta = :numeroCuenta")
+    Optional<Cuenta> findByNumeroCuentaParaActualizar(@Param("numeroCuenta") String numeroCuenta);
+
+    /**
+     * Obtiene la cuenta por su ID bloqueando su fila hasta el fin de la transacción (SELECT ... FOR UPDATE).
+     *
+     * @param id ID de la cuenta a bloquear.
+     * @return La cuenta encontrada, si existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cuenta c WHERE c.id = :id")
+    Optional<Cuenta> findByIdParaActualizar(@Param("id") Long id);
+
+    /**
+     * Obtiene las versiones de datos de varias cuentas en una sola consulta.
+     *
+     * @param ids IDs de las cuentas.
+     * @return Pares {@code [id, versionDatos]} de las cuentas existentes.
+     */
+    @Query("SELECT c.id, c.versionDatos FROM Cuenta c WHERE c.id IN :ids")
+    List<Object[]> findVersionesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Suma atómicamente una diferencia al saldo actual de una cuenta e incrementa su versión de datos.
+     *
+     * @param id ID de la cuenta.
+     * @param delta Diferencia a sumar.
+     * @return Número de filas actualizadas.
+     */
+    @Modifying
+    @Query("UPDATE Cuenta c SET c.saldoActual = c.saldoActual + :delta, c.versionDatos = c.versionDatos + 1 WHERE c.id = :id")
+    int ajustarSaldo(@Param("id") Long id, @Param("delta") double delta);
+
+    /**
+     * Lee el saldo actual de una cuenta en la base de datos, sin pasar por el contexto de persistencia.
+     *
+     * @param id ID de la cuenta.
+     * @return Valor de {@code saldo_actual}.
+     */
+    @Query("SELECT c.saldoActual FROM Cuenta c WHERE c.id = :id")
+    double findSaldoActualById(@Param("id") Long id);
 }
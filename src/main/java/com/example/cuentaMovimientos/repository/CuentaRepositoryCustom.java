@@ -0,0 +1,31 @@
+package com.example.cuentaMovimientos.repository;
+
+import com.example.cuentaMovimientos.dto.request.CuentaFiltroDto;
+import com.example.cuentaMovimientos.entity.Cuenta;
+
+import java.util.List;
+
+/**
+ * Consultas de {@link CuentaRepository} con filtros dinámicos para el listado paginado de cuentas.
+ */
+public interface CuentaRepositoryCustom {
+
+    /**
+     * Busca cuentas aplicando los filtros no nulos. Con {@code despuesDe} se devuelven las cuentas con ID mayor
+     * ordenadas por ID (paginación por clave); si no, se ordena por {@code orden} y se aplica {@code desplazamiento}.
+     *
+     * @param filtro Filtros, orden y cursor.
+     * @param desplazamiento Número de filas a omitir (solo sin cursor); el llamador valida que {@code page * size} no desborde.
+     * @param limite Número máximo de cuentas a devolver.
+     * @return Cuentas encontradas.
+     */
+    List<Cuenta> buscar(CuentaFiltroDto filtro, int desplazamiento, int limite);
+
+    /**
+     * Cuenta las cuentas que cumplen los filtros, sin tener en cuenta el cursor.
+     *
+     * @param filtro Filtros a aplicar.
+     * @return Número de cuentas.
+     */
+    long contar(CuentaFiltroDto filtro);
+}
@@ -0,0 +1,76 @@
+package com.example.cuentaMovimientos.repository;
+
+import com.example.cuentaMovimientos.dto.request.CuentaFiltroDto;
+import com.example.cuentaMovimientos.entity.Cuenta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de {@link CuentaRepositoryCustom}.
+ * <p>
+ * El orden se limita a columnas con índice único ({@code id}, {@code numeroCuenta}) y los filtros por cliente y por
+ * tipo/estado se apoyan en los índices declarados en {@link Cuenta}.
+ * </p>
+ */
+public class CuentaRepositoryImpl implements CuentaRepositoryCustom {
+
+    private static final Map<String, String> ORDENES = Map.of(
+            "id", "c.id",
+            "numeroCuenta", "c.numeroCuenta"
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Cuenta> buscar(CuentaFiltroDto filtro, int desplazamiento, int limite) {
+        Map<String, Object> parametros = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT c FROM Cuenta c WHERE 1 = 1");
+        agregarFiltros(jpql, parametros, filtro);
+
+        if (filtro.getDespuesDe() != null) {
+            jpql.append(" AND c.id > :despuesDe ORDER BY c.id");
+            parametros.put("despuesDe", filtro.getDespuesDe());
+        } else {
+            jpql.append(" ORDER BY ").append(ORDENES.getOrDefault(filtro.getOrden(), "c.id"));
+        }
+
+        TypedQuery<Cuenta> query = entityManager.createQuery(jpql.toString(), Cuenta.class);
+        parametros.forEach(query::setParameter);
+        if (filtro.getDespuesDe() == null) {
+            query.setFirstResult(desplazamiento);
+        }
+        return query.setMaxResults(limite).getResultList();
+    }
+
+    @Override
+    public long contar(CuentaFiltroDto filtro) {
+        Map<String, Object> parametros = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(c) FROM Cuenta c WHERE 1 = 1");
+        agregarFiltros(jpql, parametros, filtro);
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        parametros.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    private void agregarFiltros(StringBuilder jpql, Map<String, Object> parametros, CuentaFiltroDto filtro) {
+        if (filtro.getClienteId() != null) {
+            jpql.append(" AND c.clienteId = :clienteId");
+            parametros.put("clienteId", filtro.getClienteId());
+        }
+        if (filtro.getTipoCuenta() != null) {
+            jpql.append(" AND c.tipoCuenta = :tipoCuenta");
+            parametros.put("tipoCuenta", filtro.getTipoCuenta());
+        }
+        if (filtro.getEstado() != null) {
+            jpql.append(" AND c.estado = :estado");
+            parametros.put("estado", filtro.getEstado());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.cuentaMovimientos.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repositorio de los extractos mensuales precalculados ({@code extractos_mensuales}).
+ * <p>
+ * Cada fila es el extracto inmutable de una cuenta en un mes cerrado, identificado por el primer día del mes.
+ * Cualquier escritura con fecha en un mes cerrado debe llamar a {@link #invalidar(Collection)} en su transacción
+ * para que el extracto afectado se regenere.
+ * </p>
+ */
+@Repository
+public class ExtractoMensualRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+
+    public ExtractoMensualRepository(JdbcTemplate jdbcTemplate,
+                                     @Value("${cuenta-movimientos.extractos.enabled:false}") boolean habilitado) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Obtiene el contenido comprimido de los extractos de una cuenta entre dos meses.
+     *
+     * @param cuentaId ID de la cuenta.
+     * @param desde Primer mes (inclusive).
+     * @param hasta Último mes (inclusive).
+     * @return Contenido por mes; los meses sin extracto no aparecen.
+     */
+    public Map<YearMonth, byte[]> buscar(Long cuentaId, YearMonth desde, YearMonth hasta) {
+        Map<YearMonth, byte[]> extractos = new HashMap<>();
+        jdbcTemplate.query("SELECT periodo, contenido FROM extractos_mensuales WHERE cuenta_id = ? AND periodo BETWEEN ? AND ?",
+                (RowCallbackHandler) rs -> extractos.put(YearMonth.from(rs.getDate("periodo").toLocalDate()), rs.getBytes("contenido")),
+                cuentaId, desde.atDay(1), hasta.atDay(1));
+        return extractos;
+    }
+
+    /**
+     * Meses con extracto generado de cada cuenta entre dos meses.
+     */
+    public Map<Long, Set<YearMonth>> periodosGenerados(YearMonth desde, YearMonth hasta) {
+        Map<Long, Set<YearMonth>> periodos = new HashMap<>();
+        jdbcTemplate.query("SELECT cuenta_id, periodo FROM extractos_mensuales WHERE periodo BETWEEN ? AND ?",
+                (RowCallbackHandler) rs -> periodos.computeIfAbsent(rs.getLong("cuenta_id"), id -> new HashSet<>())
+                        .add(YearMonth.from(rs.getDate("periodo").toLocalDate())),
+                desde.atDay(1), hasta.atDay(1));
+        return periodos;
+    }
+
+    /**
+     * Guarda un extracto solo si la cuenta sigue en {@code versionDatos}, de modo que un movimiento escrito mientras
+     * se generaba (que invalida y cambia la versión) impide guardar un extracto obsoleto.
+     *
+     * @return {@code true} si se guardó.
+     */
+    public boolean guardar(Long cuentaId, YearMonth periodo, double saldoApertura, double saldoCierre,
+                           int numMovimientos, byte[] contenido, long versionDatos) {
+        int filas = jdbcTemplate.update("INSERT INTO extractos_mensuales "
+                        + "(cuenta_id, periodo, saldo_apertura, saldo_cierre, num_movimientos, contenido, fecha_generacion) "
+                        + "SELECT id, ?, ?, ?, ?, ?, ? FROM cuentas WHERE id = ? AND version_datos = ?",
+                periodo.atDay(1), saldoApertura, saldoCierre, numMovimientos, contenido, Timestamp.from(Instant.now()),
+                cuentaId, versionDatos);
+        return filas == 1;
+    }
+
+    /**
+     * Elimina los extractos de los meses cerrados afectados por escrituras con las fechas indicadas.
+     *
+     * @param cuentasYFechas Pares {@code [cuentaId, fecha]}; los de meses abiertos se ignoran.
+     */
+    public void invalidar(Collection<Object[]> cuentasYFechas) {
+        if (!habilitado) {
+            return;
+        }
+        LocalDate inicioMesActual = YearMonth.now().atDay(1);
+        Set<List<Object>> periodos = new LinkedHashSet<>();
+        for (Object[] cuentaYFecha : cuentasYFechas) {
+            LocalDate fecha = (LocalDate) cuentaYFecha[1];
+            if (fecha != null && fecha.isBefore(inicioMesActual)) {
+                periodos.add(List.of(cuentaYFecha[0], YearMonth.from(fecha).atDay(1)));
+            }
+        }
+        if (periodos.isEmpty()) {
+            return;
+        }
+        List<Object[]> argumentos = new ArrayList<>(periodos.size());
+        periodos.forEach(periodo -> argumentos.add(periodo.toArray()));
+        jdbcTemplate.batchUpdate("DELETE FROM extractos_mensuales WHERE cuenta_id = ? AND periodo = ?", argumentos);
+    }
+
+    /**
+     * Atajo de {@link #invalidar(Collection)} para un único movimiento.
+     */
+    public void invalidar(Long cuentaId, LocalDate fecha) {
+        invalidar(List.<Object[]>of(new Object[]{cuentaId, fecha}));
+    }
+}
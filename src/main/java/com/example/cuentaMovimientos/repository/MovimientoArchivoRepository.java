@@ -0,0 +1,212 @@
+package com.example.cuentaMovimientos.repository;
+
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.entity.Movimiento;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Repositorio del nivel frío de movimientos ({@code movimientos_archivo}).
+ * <p>
+ * Los periodos cerrados se copian aquí desde {@code movimientos} y luego se eliminan del nivel caliente.
+ * Las lecturas de {@link MovimientoRepository} consultan este nivel solo cuando el rango pedido comienza antes del
+ * periodo de retención o en o antes de la fecha más reciente archivada. Esa fecha se relee de la base de datos tras
+ * {@code max-date-ttl}, de modo que las instancias que no ejecutan el archivado también ven los periodos nuevos.
+ * </p>
+ */
+@Repository
+public class MovimientoArchivoRepository {
+
+    private static final String COLUMNAS = "id, cuenta_id, fecha, tipo_movimiento, valor, saldo, aplicado";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+    private final int mesesRetencion;
+    private final long ttlFechaMaximaNanos;
+    private volatile LocalDate fechaMaximaArchivada;
+    private volatile boolean fechaMaximaCargada;
+    private volatile long fechaMaximaCargadaEn;
+
+    public MovimientoArchivoRepository(JdbcTemplate jdbcTemplate,
+                                       @Value("${cuenta-movimientos.archivo.enabled:false}") boolean habilitado,
+                                       @Value("${cuenta-movimientos.archivo.retention-months:13}") int mesesRetencion,
+                                       @Value("${cuenta-movimientos.archivo.max-date-ttl:1m}") Duration ttlFechaMaxima) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado;
+        this.mesesRetencion = mesesRetencion;
+        this.ttlFechaMaximaNanos = ttlFechaMaxima.toNanos();
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Indica si un rango que empieza en {@code fechaInicio} puede tener movimientos archivados: siempre que empiece
+     * antes del primer mes retenido (el archivado de otra instancia puede haberlo movido ya) y, si no, cuando empiece
+     * en o antes de la fecha más reciente archivada.
+     *
+     * @param fechaInicio Fecha de inicio del rango consultado.
+     * @return {@code true} si hay que consultar el nivel frío.
+     */
+    public boolean cubre(LocalDate fechaInicio) {
+        if (!habilitado) {
+            return false;
+        }
+        if (fechaInicio.isBefore(YearMonth.now().minusMonths(mesesRetencion).atDay(1))) {
+            return true;
+        }
+        LocalDate fechaMaxima = fechaMaximaArchivada();
+        return fechaMaxima != null && !fechaInicio.isAfter(fechaMaxima);
+    }
+
+    /**
+     * Busca un movimiento archivado por su ID.
+     *
+     * @param id ID del movimiento.
+     * @param cuentas Función que resuelve la cuenta (o referencia) a partir de su ID.
+     * @return El movimiento archivado, o vacío si no está en el nivel frío (o el archivado está deshabilitado).
+     */
+    public Optional<Movimiento> findById(Long id, Function<Long, Cuenta> cuentas) {
+        if (!habilitado) {
+            return Optional.empty();
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNAS + " FROM movimientos_archivo WHERE id = ?",
+                (rs, rowNum) -> mapear(rs, cuentas.apply(rs.getLong("cuenta_id"))), id).stream().findFirst();
+    }
+
+    /**
+     * Indica si un movimiento está en el nivel frío.
+     *
+     * @param id ID del movimiento.
+     * @return {@code true} si el movimiento está archivado.
+     */
+    public boolean existe(Long id) {
+        if (!habilitado) {
+            return false;
+        }
+        Integer filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos_archivo WHERE id = ?", Integer.class, id);
+        return filas != null && filas > 0;
+    }
+
+    /**
+     * Busca los movimientos archivados de una cuenta en un rango de fechas.
+     * Las entidades devueltas no están gestionadas por el contexto de persistencia; solo se archivan
+     * movimientos ya aplicados al saldo.
+     *
+     * @param cuenta Cuenta (o referencia) a la que pertenecen los movimientos.
+     * @param fechaInicio Fecha de inicio del rango (inclusive).
+     * @param fechaFin Fecha de fin del rango (inclusive).
+     * @return Movimientos archivados ordenados por fecha e ID.
+     */
+    public List<Movimiento> findByCuentaAndFechaBetween(Cuenta cuenta, LocalDate fechaInicio, LocalDate fechaFin) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNAS + " FROM movimientos_archivo WHERE cuenta_id = ? AND fecha BETWEEN ? AND ? ORDER BY fecha, id",
+                (rs, rowNum) -> mapear(rs, cuenta),
+                cuenta.getId(), Date.valueOf(fechaInicio), Date.valueOf(fechaFin));
+    }
+
+    /**
+     * Busca los movimientos archivados de todas las cuentas de un cliente en un rango de fechas.
+     *
+     * @param clienteId ID del cliente.
+     * @param fechaInicio Fecha de inicio del rango (inclusive).
+     * @param fechaFin Fecha de fin del rango (inclusive).
+     * @param cuentas Función que resuelve la cuenta (o referencia) a partir de su ID.
+     * @return Movimientos archivados ordenados por fecha e ID.
+     */
+    public List<Movimiento> findByClienteIdAndFechaBetween(Long clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                           Function<Long, Cuenta> cuentas) {
+        return jdbcTemplate.query(
+                "SELECT a.id, a.cuenta_id, a.fecha, a.tipo_movimiento, a.valor, a.saldo, a.aplicado FROM movimientos_archivo a " +
+                        "JOIN cuentas c ON c.id = a.cuenta_id WHERE c.cliente_id = ? AND a.fecha BETWEEN ? AND ? ORDER BY a.fecha, a.id",
+                (rs, rowNum) -> mapear(rs, cuentas.apply(rs.getLong("cuenta_id"))),
+                clienteId, Date.valueOf(fechaInicio), Date.valueOf(fechaFin));
+    }
+
+    /**
+     * Calcula el siguiente bloque de la copia de un periodo: el mayor ID entre los {@code limite} movimientos del
+     * periodo con ID mayor que {@code despuesDeId}.
+     *
+     * @param desde Primer día del periodo (inclusive).
+     * @param hasta Primer día del periodo siguiente (exclusive).
+     * @param despuesDeId Último ID del bloque anterior (0 en el primero).
+     * @param limite Máximo de filas del bloque.
+     * @return Último ID del bloque, o {@code null} si no quedan movimientos en el periodo.
+     */
+    public Long siguienteBloqueDelPeriodo(LocalDate desde, LocalDate hasta, long despuesDeId, int limite) {
+        return jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM (SELECT id FROM movimientos WHERE fecha >= ? AND fecha < ? AND id > ? ORDER BY id LIMIT ?) b",
+                Long.class, Date.valueOf(desde), Date.valueOf(hasta), despuesDeId, limite);
+    }
+
+    /**
+     * Copia al nivel frío los movimientos aplicados de un periodo con ID en {@code (despuesDeId, hastaId]}.
+     * Es idempotente: los ya copiados se ignoran.
+     *
+     * @param desde Primer día del periodo (inclusive).
+     * @param hasta Primer día del periodo siguiente (exclusive).
+     * @param despuesDeId Último ID del bloque anterior (exclusive).
+     * @param hastaId Último ID de este bloque (inclusive).
+     * @return Número de movimientos copiados.
+     */
+    public int copiarBloqueDelPeriodo(LocalDate desde, LocalDate hasta, long despuesDeId, long hastaId) {
+        return jdbcTemplate.update(
+                "INSERT IGNORE INTO movimientos_archivo (" + COLUMNAS + ") SELECT " + COLUMNAS + " FROM movimientos " +
+                        "WHERE fecha >= ? AND fecha < ? AND id > ? AND id <= ? AND (aplicado IS NULL OR aplicado = TRUE)",
+                Date.valueOf(desde), Date.valueOf(hasta), despuesDeId, hastaId);
+    }
+
+    /**
+     * Elimina del nivel caliente hasta {@code limite} movimientos del periodo que ya existen en el archivo.
+     *
+     * @param desde Primer día del periodo (inclusive).
+     * @param hasta Primer día del periodo siguiente (exclusive).
+     * @param limite Máximo de filas a eliminar en esta sentencia.
+     * @return Número de movimientos eliminados.
+     */
+    public int eliminarArchivadosDelPeriodo(LocalDate desde, LocalDate hasta, int limite) {
+        return jdbcTemplate.update(
+                "DELETE FROM movimientos WHERE fecha >= ? AND fecha < ? AND id IN " +
+                        "(SELECT id FROM movimientos_archivo WHERE fecha >= ? AND fecha < ?) LIMIT ?",
+                Date.valueOf(desde), Date.valueOf(hasta), Date.valueOf(desde), Date.valueOf(hasta), limite);
+    }
+
+    private Movimiento mapear(ResultSet rs, Cuenta cuenta) throws SQLException {
+        return new Movimiento(
+                rs.getLong("id"),
+                rs.getObject("fecha", LocalDate.class),
+                rs.getString("tipo_movimiento"),
+                rs.getDouble("valor"),
+                rs.getDouble("saldo"),
+                Boolean.TRUE,
+                cuenta);
+    }
+
+    private LocalDate fechaMaximaArchivada() {
+        if (!fechaMaximaCargada || System.nanoTime() - fechaMaximaCargadaEn >= ttlFechaMaximaNanos) {
+            fechaMaximaArchivada = jdbcTemplate.queryForObject("SELECT MAX(fecha) FROM movimientos_archivo", LocalDate.class);
+            fechaMaximaCargadaEn = System.nanoTime();
+            fechaMaximaCargada = true;
+        }
+        return fechaMaximaArchivada;
+    }
+
+    /**
+     * Invalida la fecha máxima archivada para que se recalcule en la siguiente lectura.
+     */
+    public void refrescarFechaMaxima() {
+        fechaMaximaCargada = false;
+    }
+}
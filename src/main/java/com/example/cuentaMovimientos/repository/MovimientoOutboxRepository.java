@@ -0,0 +1,45 @@
+package com.example.cuentaMovimientos.repository;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repositorio para manejar operaciones de persistencia relacionadas con la entidad {@link MovimientoOutbox}.
+ * <p>
+ * Los lotes pendientes se leen con bloqueo {@code SKIP LOCKED}, de modo que varias instancias del relay
+ * pueden sondear la tabla sin publicar dos veces el mismo evento.
+ * </p>
+ */
+@Repository
+public interface MovimientoOutboxRepository extends JpaRepository<MovimientoOutbox, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM MovimientoOutbox o WHERE o.enviado = false ORDER BY o.id")
+    List<MovimientoOutbox> findPendientes(Pageable pageable);
+
+    long countByEnviadoFalse();
+
+    @Modifying
+    @Query("UPDATE MovimientoOutbox o SET o.enviado = true, o.fechaEnvio = :fechaEnvio WHERE o.id IN :ids")
+    int marcarEnviados(@Param("ids") List<Long> ids, @Param("fechaEnvio") Instant fechaEnvio);
+
+    /**
+     * Elimina un bloque de eventos ya enviados antes de {@code limite}. Los pendientes nunca se eliminan.
+     *
+     * @param limite Fecha de envío máxima (exclusive).
+     * @param lote Número máximo de filas a eliminar.
+     * @return Número de filas eliminadas.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM movimientos_outbox WHERE enviado = true AND fecha_envio < :limite LIMIT :lote", nativeQuery = true)
+    int eliminarEnviados(@Param("limite") Instant limite, @Param("lote") int lote);
+}
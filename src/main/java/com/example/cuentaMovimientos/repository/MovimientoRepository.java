@@ -4,9 +4,6 @@ import com.example.cuentaMovimientos.entity.Movimiento;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
-import java.util.List;
-
 /**
  * Repositorio para manejar operaciones de persistencia relacionadas con la entidad {@link Movimiento}.
  * <p>
@@ -14,9 +11,11 @@ import java.util.List;
  * específicas sobre la entidad {@link Movimiento}. Utiliza la implementación proporcionada por Spring Data JPA
  * para realizar operaciones CRUD y consultas personalizadas.
  * </p>
+ * <p>
+ * Las consultas por rango de fechas se resuelven en {@link MovimientoRepositoryImpl}, que combina el nivel
+ * caliente y el de archivo de forma transparente.
+ * </p>
  */
 @Repository
-public interface MovimientoRepository extends JpaRepository<Movimiento, Long> {
-
-    List<Movimiento> findByCuentaIdAndFechaBetween(Long cuentaId, LocalDate fechaInicio, LocalDate fechaFin);
+public interface MovimientoRepository extends JpaRepository<Movimiento, Long>, MovimientoRepositoryCustom {
 }
@@ -0,0 +1,52 @@
+package com.example.cuentaMovimientos.repository;
+
+import com.example.cuentaMovimientos.entity.Movimiento;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Consultas de {@link MovimientoRepository} con implementación propia, que combinan el nivel caliente
+ * ({@code movimientos}) y el nivel de archivo ({@code movimientos_archivo}).
+ */
+public interface MovimientoRepositoryCustom {
+
+    /**
+     * Busca los movimientos de una cuenta en un rango de fechas en ambos niveles de almacenamiento.
+     *
+     * @param cuentaId ID de la cuenta.
+     * @param fechaInicio Fecha de inicio del rango (inclusive).
+     * @param fechaFin Fecha de fin del rango (inclusive).
+     * @return Movimientos ordenados por fecha e ID.
+     */
+    List<Movimiento> findByCuentaIdAndFechaBetween(Long cuentaId, LocalDate fechaInicio, LocalDate fechaFin);
+
+    /**
+     * Busca los movimientos de todas las cuentas de un cliente en un rango de fechas, con una consulta por nivel
+     * de almacenamiento (nunca una por cuenta). Las cuentas se cargan en la misma consulta.
+     *
+     * @param clienteId ID del cliente.
+     * @param fechaInicio Fecha de inicio del rango (inclusive).
+     * @param fechaFin Fecha de fin del rango (inclusive).
+     * @return Movimientos ordenados por fecha e ID.
+     */
+    List<Movimiento> findByClienteIdAndFechaBetween(Long clienteId, LocalDate fechaInicio, LocalDate fechaFin);
+
+    /**
+     * Busca un movimiento por su ID en el nivel caliente y, si no está, en el de archivo. Los movimientos
+     * archivados se devuelven sin gestionar por el contexto de persistencia: son de solo lectura.
+     *
+     * @param id ID del movimiento.
+     * @return El movimiento, o vacío si no existe en ningún nivel.
+     */
+    Optional<Movimiento> findByIdIncluyendoArchivo(Long id);
+
+    /**
+     * Indica si un movimiento está en el nivel de archivo.
+     *
+     * @param id ID del movimiento.
+     * @return {@code true} si el movimiento está archivado.
+     */
+    boolean existeArchivado(Long id);
+}
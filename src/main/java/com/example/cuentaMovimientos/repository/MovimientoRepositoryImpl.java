@@ -0,0 +1,117 @@
+package com.example.cuentaMovimientos.repository;
+
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.entity.Movimiento;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación de {@link MovimientoRepositoryCustom}.
+ * <p>
+ * La consulta sobre {@code movimientos} filtra por {@code cuenta_id} y {@code fecha}, lo que permite a MySQL
+ * podar las particiones mensuales fuera del rango. El nivel de archivo solo se consulta si el rango lo alcanza.
+ * </p>
+ */
+public class MovimientoRepositoryImpl implements MovimientoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final MovimientoArchivoRepository movimientoArchivoRepository;
+
+    public MovimientoRepositoryImpl(MovimientoArchivoRepository movimientoArchivoRepository) {
+        this.movimientoArchivoRepository = movimientoArchivoRepository;
+    }
+
+    @Override
+    public List<Movimiento> findByCuentaIdAndFechaBetween(Long cuentaId, LocalDate fechaInicio, LocalDate fechaFin) {
+        List<Movimiento> calientes = entityManager.createQuery(
+                        "SELECT m FROM Movimiento m WHERE m.cuenta.id = :cuentaId AND m.fecha BETWEEN :fechaInicio AND :fechaFin " +
+                                "ORDER BY m.fecha, m.id", Movimiento.class)
+                .setParameter("cuentaId", cuentaId)
+                .setParameter("fechaInicio", fechaInicio)
+                .setParameter("fechaFin", fechaFin)
+                .getResultList();
+
+        if (!movimientoArchivoRepository.cubre(fechaInicio)) {
+            return calientes;
+        }
+
+        Cuenta cuenta = entityManager.getReference(Cuenta.class, cuentaId);
+        return mezclar(movimientoArchivoRepository.findByCuentaAndFechaBetween(cuenta, fechaInicio, fechaFin), calientes);
+    }
+
+    @Override
+    public List<Movimiento> findByClienteIdAndFechaBetween(Long clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        List<Movimiento> calientes = entityManager.createQuery(
+                        "SELECT m FROM Movimiento m JOIN FETCH m.cuenta c WHERE c.clienteId = :clienteId " +
+                                "AND m.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY m.fecha, m.id", Movimiento.class)
+                .setParameter("clienteId", clienteId)
+                .setParameter("fechaInicio", fechaInicio)
+                .setParameter("fechaFin", fechaFin)
+                .getResultList();
+
+        if (!movimientoArchivoRepository.cubre(fechaInicio)) {
+            return calientes;
+        }
+
+        // Las cuentas del cliente se cargan de una vez para asociarlas a los movimientos archivados
+        Map<Long, Cuenta> cuentas = entityManager.createQuery("SELECT c FROM Cuenta c WHERE c.clienteId = :clienteId", Cuenta.class)
+                .setParameter("clienteId", clienteId)
+                .getResultStream()
+                .collect(Collectors.toMap(Cuenta::getId, Function.identity()));
+        return mezclar(movimientoArchivoRepository.findByClienteIdAndFechaBetween(clienteId, fechaInicio, fechaFin, cuentas::get),
+                calientes);
+    }
+
+    @Override
+    public Optional<Movimiento> findByIdIncluyendoArchivo(Long id) {
+        Movimiento caliente = entityManager.find(Movimiento.class, id);
+        if (caliente != null) {
+            return Optional.of(caliente);
+        }
+        return movimientoArchivoRepository.findById(id, cuentaId -> entityManager.getReference(Cuenta.class, cuentaId));
+    }
+
+    @Override
+    public boolean existeArchivado(Long id) {
+        return movimientoArchivoRepository.existe(id);
+    }
+
+    /**
+     * Mezcla dos listas ordenadas por fecha e ID. Los archivados son siempre de periodos anteriores, pero un
+     * movimiento con fecha retroactiva puede seguir en el nivel caliente.
+     */
+    private List<Movimiento> mezclar(List<Movimiento> archivados, List<Movimiento> calientes) {
+        if (archivados.isEmpty()) {
+            return calientes;
+        }
+
+        List<Movimiento> resultado = new ArrayList<>(archivados.size() + calientes.size());
+        int i = 0;
+        int j = 0;
+        while (i < archivados.size() && j < calientes.size()) {
+            Movimiento archivado = archivados.get(i);
+            Movimiento caliente = calientes.get(j);
+            int orden = archivado.getFecha().compareTo(caliente.getFecha());
+            if (orden < 0 || (orden == 0 && archivado.getId() < caliente.getId())) {
+                resultado.add(archivado);
+                i++;
+            } else {
+                resultado.add(caliente);
+                j++;
+            }
+        }
+        resultado.addAll(archivados.subList(i, archivados.size()));
+        resultado.addAll(calientes.subList(j, calientes.size()));
+        return resultado;
+    }
+}
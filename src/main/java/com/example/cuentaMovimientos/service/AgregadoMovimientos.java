@@ -0,0 +1,63 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.dto.response.AnaliticaMovimientosDto;
+import com.example.cuentaMovimientos.dto.response.TotalDiaDto;
+import com.example.cuentaMovimientos.dto.response.TotalTipoMovimientoDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Acumulador de totales por día y tipo de movimiento. Los resultados parciales (tramos de cuentas, meses en caché,
+ * nivel de archivo) se combinan con {@link #sumar(AgregadoMovimientos)}; una instancia guardada en caché no se
+ * vuelve a modificar.
+ */
+final class AgregadoMovimientos {
+
+    private static final String SIN_TIPO = "desconocido";
+
+    // Por día y tipo: {cantidad, total}
+    private final TreeMap<LocalDate, TreeMap<String, double[]>> porDia = new TreeMap<>();
+
+    void sumar(LocalDate fecha, String tipoMovimiento, long cantidad, double total) {
+        double[] acumulado = porDia.computeIfAbsent(fecha, dia -> new TreeMap<>())
+                .computeIfAbsent(tipoMovimiento != null ? tipoMovimiento : SIN_TIPO, tipo -> new double[2]);
+        acumulado[0] += cantidad;
+        acumulado[1] += total;
+    }
+
+    void sumar(AgregadoMovimientos otro) {
+        otro.porDia.forEach((fecha, tipos) -> tipos.forEach((tipo, valores) -> sumar(fecha, tipo, (long) valores[0], valores[1])));
+    }
+
+    AnaliticaMovimientosDto aDto(String tipoCuenta, LocalDate fechaInicio, LocalDate fechaFin) {
+        Map<String, double[]> porTipo = new TreeMap<>();
+        List<TotalDiaDto> dias = new ArrayList<>(porDia.size());
+        long cantidad = 0;
+        double total = 0;
+        for (Map.Entry<LocalDate, TreeMap<String, double[]>> dia : porDia.entrySet()) {
+            List<TotalTipoMovimientoDto> tiposDia = new ArrayList<>(dia.getValue().size());
+            long cantidadDia = 0;
+            double totalDia = 0;
+            for (Map.Entry<String, double[]> tipo : dia.getValue().entrySet()) {
+                double[] valores = tipo.getValue();
+                tiposDia.add(new TotalTipoMovimientoDto(tipo.getKey(), (long) valores[0], valores[1]));
+                cantidadDia += (long) valores[0];
+                totalDia += valores[1];
+                double[] acumulado = porTipo.computeIfAbsent(tipo.getKey(), clave -> new double[2]);
+                acumulado[0] += valores[0];
+                acumulado[1] += valores[1];
+            }
+            dias.add(new TotalDiaDto(dia.getKey(), cantidadDia, totalDia, tiposDia));
+            cantidad += cantidadDia;
+            total += totalDia;
+        }
+
+        List<TotalTipoMovimientoDto> tipos = new ArrayList<>(porTipo.size());
+        porTipo.forEach((tipo, valores) -> tipos.add(new TotalTipoMovimientoDto(tipo, (long) valores[0], valores[1])));
+        return new AnaliticaMovimientosDto(tipoCuenta, fechaInicio, fechaFin, cantidad, total, tipos, dias);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.dto.response.AnaliticaMovimientosDto;
+import com.example.cuentaMovimientos.repository.AnaliticaMovimientosRepository;
+import com.example.cuentaMovimientos.repository.MovimientoArchivoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Totales de movimientos por tipo de movimiento y por día de todas las cuentas de un {@code tipoCuenta}.
+ * <p>
+ * El periodo se divide en meses cerrados completos, cuyo resultado se guarda en caché por {@code (tipoCuenta, mes)},
+ * y en tramos abiertos o parciales, que se calculan en cada petición. Cada cálculo es una consulta {@code GROUP BY}
+ * sobre los movimientos; si abarca más de {@code parallel-threshold-days} días, el rango de IDs de las cuentas se
+ * reparte en {@code partitions} recorridos que se ejecutan en paralelo (en transacciones de solo lectura, que van a
+ * la réplica si está activa) y se combinan en memoria.
+ * </p>
+ * <p>
+ * Los meses en caché expiran tras {@code cache-ttl}, que acota cuánto tarda en verse una corrección con fecha
+ * retroactiva.
+ * </p>
+ */
+@Service
+public class AnaliticaMovimientosService {
+
+    private final AnaliticaMovimientosRepository analiticaMovimientosRepository;
+    private final MovimientoArchivoRepository movimientoArchivoRepository;
+    private final TransactionTemplate lectura;
+    private final int particiones;
+    private final int umbralDias;
+    private final ExecutorService ejecutor;
+    private final Cache<MesTipoCuenta, AgregadoMovimientos> meses;
+
+    public AnaliticaMovimientosService(AnaliticaMovimientosRepository analiticaMovimientosRepository,
+                                       MovimientoArchivoRepository movimientoArchivoRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${cuenta-movimientos.analitica.partitions:8}") int particiones,
+                                       @Value("${cuenta-movimientos.analitica.parallel-threshold-days:31}") int umbralDias,
+                                       @Value("${cuenta-movimientos.analitica.threads:4}") int hilos,
+                                       @Value("${cuenta-movimientos.analitica.cache-max-size:10000}") long tamanoCache,
+                                       @Value("${cuenta-movimientos.analitica.cache-ttl:6h}") Duration ttlCache) {
+        this.analiticaMovimientosRepository = analiticaMovimientosRepository;
+        this.movimientoArchivoRepository = movimientoArchivoRepository;
+        this.lectura = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.lectura.setReadOnly(true);
+        this.particiones = particiones;
+        this.umbralDias = umbralDias;
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "analitica-" + contador.getAndIncrement());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.meses = Caffeine.newBuilder().maximumSize(tamanoCache).expireAfterWrite(ttlCache).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, meses, "analitica.meses");
+    }
+
+    /**
+     * Calcula los totales de un periodo.
+     *
+     * @param tipoCuenta Tipo de las cuentas incluidas.
+     * @param fechaInicio Fecha de inicio del periodo (inclusive).
+     * @param fechaFin Fecha de fin del periodo (inclusive).
+     * @return AnaliticaMovimientosDto con los totales por tipo de movimiento y por día.
+     */
+    public AnaliticaMovimientosDto analizar(String tipoCuenta, LocalDate fechaInicio, LocalDate fechaFin) {
+        AgregadoMovimientos resultado = new AgregadoMovimientos();
+        long[] ids = analiticaMovimientosRepository.rangoIds(tipoCuenta);
+        if (ids == null) {
+            return resultado.aDto(tipoCuenta, fechaInicio, fechaFin);
+        }
+
+        YearMonth ultimoCerrado = YearMonth.now().minusMonths(1);
+        LocalDate pendienteDesde = fechaInicio;
+        for (YearMonth mes = YearMonth.from(fechaInicio); !mes.isAfter(YearMonth.from(fechaFin)); mes = mes.plusMonths(1)) {
+            boolean completo = !mes.atDay(1).isBefore(fechaInicio) && !mes.atEndOfMonth().isAfter(fechaFin);
+            if (!completo || mes.isAfter(ultimoCerrado)) {
+                continue;
+            }
+            if (pendienteDesde.isBefore(mes.atDay(1))) {
+                resultado.sumar(calcular(tipoCuenta, pendienteDesde, mes.atDay(1).minusDays(1), ids));
+            }
+            YearMonth cerrado = mes;
+            resultado.sumar(meses.get(new MesTipoCuenta(tipoCuenta, mes),
+                    clave -> calcular(tipoCuenta, cerrado.atDay(1), cerrado.atEndOfMonth(), ids)));
+            pendienteDesde = mes.plusMonths(1).atDay(1);
+        }
+        if (!pendienteDesde.isAfter(fechaFin)) {
+            resultado.sumar(calcular(tipoCuenta, pendienteDesde, fechaFin, ids));
+        }
+        return resultado.aDto(tipoCuenta, fechaInicio, fechaFin);
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private AgregadoMovimientos calcular(String tipoCuenta, LocalDate fechaInicio, LocalDate fechaFin, long[] ids) {
+        boolean archivo = movimientoArchivoRepository.cubre(fechaInicio);
+        long dias = ChronoUnit.DAYS.between(fechaInicio, fechaFin) + 1;
+        int tramos = (int) Math.min(dias > umbralDias ? particiones : 1, ids[1] - ids[0] + 1);
+        if (tramos <= 1) {
+            return recorrer(tipoCuenta, fechaInicio, fechaFin, ids[0], ids[1], archivo);
+        }
+
+        long tamano = (ids[1] - ids[0] + tramos) / tramos;
+        List<CompletableFuture<AgregadoMovimientos>> parciales = new ArrayList<>(tramos);
+        for (long desde = ids[0]; desde <= ids[1]; desde += tamano) {
+            long inicio = desde;
+            long fin = Math.min(desde + tamano - 1, ids[1]);
+            parciales.add(CompletableFuture.supplyAsync(() -> recorrer(tipoCuenta, fechaInicio, fechaFin, inicio, fin, archivo), ejecutor));
+        }
+
+        AgregadoMovimientos total = new AgregadoMovimientos();
+        try {
+            for (CompletableFuture<AgregadoMovimientos> parcial : parciales) {
+                total.sumar(parcial.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+        return total;
+    }
+
+    private AgregadoMovimientos recorrer(String tipoCuenta, LocalDate fechaInicio, LocalDate fechaFin,
+                                         long idDesde, long idHasta, boolean archivo) {
+        return lectura.execute(status -> {
+            AgregadoMovimientos agregado = new AgregadoMovimientos();
+            analiticaMovimientosRepository.agregar("movimientos", tipoCuenta, fechaInicio, fechaFin, idDesde, idHasta, agregado::sumar);
+            if (archivo) {
+                analiticaMovimientosRepository.agregar("movimientos_archivo", tipoCuenta, fechaInicio, fechaFin, idDesde, idHasta, agregado::sumar);
+            }
+            return agregado;
+        });
+    }
+
+    private record MesTipoCuenta(String tipoCuenta, YearMonth mes) {
+    }
+}
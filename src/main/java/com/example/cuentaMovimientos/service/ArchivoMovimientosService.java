@@ -0,0 +1,168 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.repository.MovimientoArchivoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Servicio que mantiene las particiones mensuales de {@code movimientos} y archiva los periodos cerrados.
+ * <p>
+ * Se activa con {@code cuenta-movimientos.archivo.enabled=true} una vez aplicada la migración
+ * {@code db/particionado-movimientos.sql}. En cada ejecución:
+ * <ol>
+ *     <li>crea por adelantado las particiones de los próximos meses dividiendo {@code pmax};</li>
+ *     <li>copia a {@code movimientos_archivo} cada mes anterior al periodo de retención en bloques de
+ *     {@code copy-chunk-size} filas por ID, elimina del nivel caliente las filas ya copiadas en bloques de
+ *     {@code delete-chunk-size} y descarta la partición del mes si quedó vacía.</li>
+ * </ol>
+ * </p>
+ */
+@Slf4j
+@Lazy(false)
+@Service
+public class ArchivoMovimientosService {
+
+    private static final DateTimeFormatter NOMBRE_PARTICION = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MovimientoArchivoRepository movimientoArchivoRepository;
+    private final int mesesRetencion;
+    private final int mesesFuturos;
+    private final int tamanoBloqueCopia;
+    private final int tamanoBloque;
+
+    public ArchivoMovimientosService(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     MovimientoArchivoRepository movimientoArchivoRepository,
+                                     @Value("${cuenta-movimientos.archivo.retention-months:13}") int mesesRetencion,
+                                     @Value("${cuenta-movimientos.archivo.future-partitions:3}") int mesesFuturos,
+                                     @Value("${cuenta-movimientos.archivo.copy-chunk-size:10000}") int tamanoBloqueCopia,
+                                     @Value("${cuenta-movimientos.archivo.delete-chunk-size:10000}") int tamanoBloque) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.movimientoArchivoRepository = movimientoArchivoRepository;
+        this.mesesRetencion = mesesRetencion;
+        this.mesesFuturos = mesesFuturos;
+        this.tamanoBloqueCopia = tamanoBloqueCopia;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    /**
+     * Ejecuta el mantenimiento de particiones y el archivado de periodos cerrados.
+     */
+    @Scheduled(cron = "${cuenta-movimientos.archivo.cron:0 30 2 * * *}")
+    public void ejecutar() {
+        if (!movimientoArchivoRepository.isHabilitado()) {
+            return;
+        }
+        YearMonth mesActual = YearMonth.now();
+        mantenerParticiones(mesActual);
+        archivarPeriodosCerrados(mesActual.minusMonths(mesesRetencion));
+    }
+
+    /**
+     * Garantiza que existan particiones para el mes actual y los {@code mesesFuturos} siguientes.
+     *
+     * @param mesActual Mes en curso.
+     */
+    public void mantenerParticiones(YearMonth mesActual) {
+        Set<String> existentes = particionesExistentes();
+        if (existentes.isEmpty()) {
+            log.warn("La tabla movimientos no está particionada; se omite el mantenimiento de particiones");
+            return;
+        }
+        for (int i = 0; i <= mesesFuturos; i++) {
+            YearMonth mes = mesActual.plusMonths(i);
+            String nombre = mes.format(NOMBRE_PARTICION);
+            if (!existentes.contains(nombre)) {
+                jdbcTemplate.execute("ALTER TABLE movimientos REORGANIZE PARTITION pmax INTO ("
+                        + "PARTITION " + nombre + " VALUES LESS THAN ('" + mes.plusMonths(1).atDay(1) + "'), "
+                        + "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+                log.info("Creada la partición {} de movimientos", nombre);
+            }
+        }
+    }
+
+    /**
+     * Archiva, mes a mes, todos los movimientos anteriores a {@code primerMesRetenido}.
+     *
+     * @param primerMesRetenido Primer mes que permanece en el nivel caliente.
+     */
+    public void archivarPeriodosCerrados(YearMonth primerMesRetenido) {
+        LocalDate fechaMinima = jdbcTemplate.queryForObject("SELECT MIN(fecha) FROM movimientos", LocalDate.class);
+        if (fechaMinima == null) {
+            return;
+        }
+
+        Set<String> particiones = particionesExistentes();
+        for (YearMonth mes = YearMonth.from(fechaMinima); mes.isBefore(primerMesRetenido); mes = mes.plusMonths(1)) {
+            archivarMes(mes, particiones.contains(mes.format(NOMBRE_PARTICION)));
+        }
+        movimientoArchivoRepository.refrescarFechaMaxima();
+    }
+
+    private void archivarMes(YearMonth mes, boolean tieneParticion) {
+        LocalDate desde = mes.atDay(1);
+        LocalDate hasta = mes.plusMonths(1).atDay(1);
+
+        int copiados = copiarMes(desde, hasta);
+        movimientoArchivoRepository.refrescarFechaMaxima();
+
+        int eliminados = 0;
+        int bloque;
+        do {
+            bloque = transactionTemplate.execute(status ->
+                    movimientoArchivoRepository.eliminarArchivadosDelPeriodo(desde, hasta, tamanoBloque));
+            eliminados += bloque;
+        } while (bloque == tamanoBloque);
+
+        log.info("Archivado el periodo {}: {} copiados, {} eliminados del nivel caliente", mes, copiados, eliminados);
+
+        if (tieneParticion) {
+            Integer restantes = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM movimientos WHERE fecha >= ? AND fecha < ?", Integer.class, desde, hasta);
+            if (restantes != null && restantes == 0) {
+                jdbcTemplate.execute("ALTER TABLE movimientos DROP PARTITION " + mes.format(NOMBRE_PARTICION));
+            }
+        }
+    }
+
+    /**
+     * Copia el mes al nivel frío por rangos de ID, cada uno en su propia transacción, para no mantener bloqueos ni
+     * generar un undo log del tamaño del mes entero.
+     */
+    private int copiarMes(LocalDate desde, LocalDate hasta) {
+        int copiados = 0;
+        long ultimoId = 0;
+        Long hastaId;
+        while ((hastaId = movimientoArchivoRepository.siguienteBloqueDelPeriodo(desde, hasta, ultimoId, tamanoBloqueCopia)) != null) {
+            long despuesDeId = ultimoId;
+            long limiteId = hastaId;
+            copiados += transactionTemplate.execute(status ->
+                    movimientoArchivoRepository.copiarBloqueDelPeriodo(desde, hasta, despuesDeId, limiteId));
+            ultimoId = hastaId;
+        }
+        return copiados;
+    }
+
+    private Set<String> particionesExistentes() {
+        List<String> nombres = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM INFORMATION_SCHEMA.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'movimientos' AND PARTITION_NAME IS NOT NULL",
+                String.class);
+        return new HashSet<>(nombres);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.cache.ClienteNombreCache;
+import com.example.cuentaMovimientos.cache.CuentaMetadata;
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.dto.response.ReporteResponseDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calentamiento de las cachés en proceso al arrancar, antes de que la aplicación acepte tráfico.
+ * <p>
+ * Se activa con {@code cuenta-movimientos.warmup.enabled=true}. Se ejecuta como {@link ApplicationRunner}: Spring Boot
+ * no publica {@code ReadinessState.ACCEPTING_TRAFFIC} hasta que terminan los runners, de modo que
+ * {@code /actuator/health/readiness} responde {@code OUT_OF_SERVICE} mientras dura. Las etapas son:
+ * </p>
+ * <ol>
+ *     <li>Las {@code accounts} cuentas con más movimientos en los últimos {@code days} días, en una consulta.</li>
+ *     <li>Sus metadatos en {@link CuentaMetadataCache}, por bloques de {@code chunk-size} en paralelo.</li>
+ *     <li>Los nombres de sus clientes en {@link ClienteNombreCache}, en paralelo.</li>
+ *     <li>{@code jit-iterations} reportes del último mes de esas cuentas, con su ETag y su serialización JSON, para que
+ *     el JIT compile el camino de lectura (y, si está activa, se cargue la caché columnar).</li>
+ * </ol>
+ * <p>
+ * Todas las etapas comparten el presupuesto {@code budget}; al agotarse, las tareas pendientes se cancelan y la
+ * aplicación arranca con lo que se haya cargado. Un fallo (base de datos o clientePersona caídos) se registra y nunca
+ * impide el arranque. Métricas: {@code calentamiento.cuentas}, {@code calentamiento.clientes},
+ * {@code calentamiento.iteraciones} y {@code calentamiento.duracion} (ms).
+ * </p>
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class CalentamientoService implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CuentaMetadataCache cuentaMetadataCache;
+    private final ClienteNombreCache clienteNombreCache;
+    private final ReporteService reporteService;
+    private final ObjectMapper objectMapper;
+    private final boolean habilitado;
+    private final int maxCuentas;
+    private final int dias;
+    private final int hilos;
+    private final int tamanoBloque;
+    private final int iteraciones;
+    private final Duration presupuesto;
+
+    private final AtomicLong cuentas = new AtomicLong();
+    private final AtomicLong clientes = new AtomicLong();
+    private final AtomicLong iteracionesEjecutadas = new AtomicLong();
+    private final AtomicLong duracionMs = new AtomicLong();
+
+    public CalentamientoService(JdbcTemplate jdbcTemplate,
+                                CuentaMetadataCache cuentaMetadataCache,
+                                ClienteNombreCache clienteNombreCache,
+                                ReporteService reporteService,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${cuenta-movimientos.warmup.enabled:false}") boolean habilitado,
+                                @Value("${cuenta-movimientos.warmup.accounts:1000}") int maxCuentas,
+                                @Value("${cuenta-movimientos.warmup.days:7}") int dias,
+                                @Value("${cuenta-movimientos.warmup.threads:8}") int hilos,
+                                @Value("${cuenta-movimientos.warmup.chunk-size:200}") int tamanoBloque,
+                                @Value("${cuenta-movimientos.warmup.jit-iterations:2000}") int iteraciones,
+                                @Value("${cuenta-movimientos.warmup.budget:30s}") Duration presupuesto) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cuentaMetadataCache = cuentaMetadataCache;
+        this.clienteNombreCache = clienteNombreCache;
+        this.reporteService = reporteService;
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+        this.maxCuentas = maxCuentas;
+        this.dias = dias;
+        this.hilos = hilos;
+        this.tamanoBloque = tamanoBloque;
+        this.iteraciones = iteraciones;
+        this.presupuesto = presupuesto;
+
+        Gauge.builder("calentamiento.cuentas", cuentas, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("calentamiento.clientes", clientes, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("calentamiento.iteraciones", iteracionesEjecutadas, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("calentamiento.duracion", duracionMs, AtomicLong::get).baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (habilitado) {
+            calentar();
+        }
+    }
+
+    /**
+     * Ejecuta las etapas del calentamiento dentro del presupuesto de tiempo.
+     */
+    public void calentar() {
+        long inicio = System.nanoTime();
+        long limite = inicio + presupuesto.toNanos();
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "calentamiento-" + contador.getAndIncrement());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        boolean completo = false;
+        try {
+            List<Long> ids = cuentasMasActivas();
+            Set<Long> clientesIds = ConcurrentHashMap.newKeySet();
+            completo = precargarCuentas(ids, clientesIds, ejecutor, limite)
+                    && precargarClientes(clientesIds, ejecutor, limite)
+                    && ejecutarRutasCalientes(ids, ejecutor, limite);
+        } catch (RuntimeException e) {
+            log.warn("Calentamiento interrumpido por un error; la aplicación arranca con las cachés parcialmente cargadas", e);
+        } finally {
+            ejecutor.shutdownNow();
+            duracionMs.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        }
+        log.info("Calentamiento {} en {} ms: {} cuentas, {} clientes, {} iteraciones", completo ? "completado" : "incompleto",
+                duracionMs.get(), cuentas.get(), clientes.get(), iteracionesEjecutadas.get());
+    }
+
+    private List<Long> cuentasMasActivas() {
+        return jdbcTemplate.queryForList("SELECT cuenta_id FROM movimientos WHERE fecha >= ? "
+                + "GROUP BY cuenta_id ORDER BY COUNT(*) DESC LIMIT ?", Long.class, LocalDate.now().minusDays(dias), maxCuentas);
+    }
+
+    private boolean precargarCuentas(List<Long> ids, Set<Long> clientesIds, ExecutorService ejecutor, long limite) {
+        List<CompletableFuture<Void>> tareas = new ArrayList<>();
+        for (int desde = 0; desde < ids.size(); desde += tamanoBloque) {
+            List<Long> bloque = ids.subList(desde, Math.min(desde + tamanoBloque, ids.size()));
+            tareas.add(CompletableFuture.runAsync(() -> {
+                if (System.nanoTime() - limite >= 0) {
+                    return;
+                }
+                for (CuentaMetadata cuenta : cuentaMetadataCache.precargar(bloque)) {
+                    cuentas.incrementAndGet();
+                    if (cuenta.getClienteId() != null) {
+                        clientesIds.add(cuenta.getClienteId());
+                    }
+                }
+            }, ejecutor));
+        }
+        return esperar(tareas, limite, "cuentas");
+    }
+
+    private boolean precargarClientes(Set<Long> clientesIds, ExecutorService ejecutor, long limite) {
+        List<CompletableFuture<Void>> tareas = new ArrayList<>(clientesIds.size());
+        for (Long clienteId : clientesIds) {
+            tareas.add(CompletableFuture.runAsync(() -> {
+                if (System.nanoTime() - limite >= 0) {
+                    return;
+                }
+                try {
+                    clienteNombreCache.nombre(clienteId);
+                    clientes.incrementAndGet();
+                } catch (RuntimeException e) {
+                    log.debug("No se pudo precargar el cliente {}: {}", clienteId, e.getMessage());
+                }
+            }, ejecutor));
+        }
+        return esperar(tareas, limite, "clientes");
+    }
+
+    private boolean ejecutarRutasCalientes(List<Long> ids, ExecutorService ejecutor, long limite) {
+        if (ids.isEmpty()) {
+            return true;
+        }
+        LocalDate fechaFin = LocalDate.now();
+        LocalDate fechaInicio = fechaFin.minusMonths(1);
+        AtomicInteger siguiente = new AtomicInteger();
+        List<CompletableFuture<Void>> tareas = new ArrayList<>(hilos);
+        for (int i = 0; i < hilos; i++) {
+            tareas.add(CompletableFuture.runAsync(() -> {
+                int n;
+                while ((n = siguiente.getAndIncrement()) < iteraciones && System.nanoTime() - limite < 0) {
+                    List<Long> cuentasIds = List.of(ids.get(n % ids.size()));
+                    try {
+                        ReporteResponseDto reporte = reporteService.generarReporte(cuentasIds, fechaInicio, fechaFin);
+                        reporteService.calcularEtag(reporte);
+                        objectMapper.writeValueAsBytes(reporte);
+                        iteracionesEjecutadas.incrementAndGet();
+                    } catch (JsonProcessingException | RuntimeException e) {
+                        log.debug("Iteración de calentamiento fallida para la cuenta {}: {}", cuentasIds.get(0), e.getMessage());
+                    }
+                }
+            }, ejecutor));
+        }
+        return esperar(tareas, limite, "rutas calientes");
+    }
+
+    /**
+     * Espera a que terminen las tareas de una etapa, como mucho hasta el límite; si se alcanza, las cancela.
+     *
+     * @return {@code true} si la etapa terminó dentro del presupuesto.
+     */
+    private boolean esperar(List<CompletableFuture<Void>> tareas, long limite, String etapa) {
+        try {
+            CompletableFuture.allOf(tareas.toArray(new CompletableFuture[0])).get(Math.max(limite - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            return System.nanoTime() - limite < 0;
+        } catch (TimeoutException e) {
+            log.warn("Presupuesto de calentamiento ({}) agotado en la etapa de {}", presupuesto, etapa);
+        } catch (ExecutionException e) {
+            log.warn("Fallo en la etapa de {} del calentamiento", etapa, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        tareas.forEach(tarea -> tarea.cancel(true));
+        return false;
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.cache.CuentaMetadata;
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.dto.request.MovimientoRequestDto;
+import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoResponseDto;
+import com.example.cuentaMovimientos.engine.AgrupadorMovimientos;
+import com.example.cuentaMovimientos.engine.JdbcDiarioMovimientos;
+import com.example.cuentaMovimientos.engine.MovimientoAplicado;
+import com.example.cuentaMovimientos.exception.ResourceNotFoundException;
+import com.example.cuentaMovimientos.exception.SaldoInsuficienteException;
+import com.example.cuentaMovimientos.repository.ExtractoMensualRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Confirmación agrupada (group commit) de los movimientos creados por peticiones concurrentes.
+ * <p>
+ * Con {@code cuenta-movimientos.group-commit.enabled=true}, {@link MovimientoService#crearMovimiento} delega aquí:
+ * los movimientos que llegan dentro de {@code window-us} (o hasta {@code max-batch}) se aplican en una sola
+ * transacción, de modo que comparten el coste de la confirmación. En esa transacción se bloquean las cuentas del
+ * lote en orden de ID ({@code SELECT ... FOR UPDATE}), se calculan los saldos en orden de llegada y los movimientos
+ * aceptados se escriben con sentencias por lotes ({@link JdbcDiarioMovimientos}).
+ * </p>
+ * <p>
+ * Los fallos se aíslan por movimiento: una cuenta inexistente o un saldo insuficiente solo rechazan ese movimiento.
+ * Si la transacción del lote falla, cada movimiento pendiente se reintenta en su propia transacción.
+ * Es incompatible con el buffer write-behind y con el motor de saldos.
+ * </p>
+ * <p>
+ * El lote suma sus deltas a {@code saldo_actual} sin pasar por la entidad {@code Cuenta}, así que ninguna otra
+ * escritura puede guardar un saldo absoluto leído sin bloqueo: la actualización y la eliminación de movimientos de
+ * {@link MovimientoService} también aplican su diferencia con un {@code UPDATE} atómico sobre la fila.
+ * </p>
+ */
+@Slf4j
+@Lazy(false)
+@Service
+public class CommitAgrupadoService {
+
+    private final boolean habilitado;
+    private final long timeoutMs;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CuentaMetadataCache cuentaMetadataCache;
+    private final JdbcDiarioMovimientos diario;
+    private final AgrupadorMovimientos agrupador;
+    private final DistributionSummary tamanoLote;
+
+    public CommitAgrupadoService(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper,
+                                 CuentaMetadataCache cuentaMetadataCache,
+                                 ExtractoMensualRepository extractoMensualRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cuenta-movimientos.group-commit.enabled:false}") boolean habilitado,
+                                 @Value("${cuenta-movimientos.write-behind.enabled:false}") boolean writeBehind,
+                                 @Value("${cuenta-movimientos.motor-saldos.enabled:false}") boolean motorSaldos,
+                                 @Value("${cuenta-movimientos.group-commit.threads:2}") int hilos,
+                                 @Value("${cuenta-movimientos.group-commit.window-us:500}") long ventanaMicros,
+                                 @Value("${cuenta-movimientos.group-commit.max-batch:64}") int loteMaximo,
+                                 @Value("${cuenta-movimientos.group-commit.timeout-ms:5000}") long timeoutMs) {
+        if (habilitado && (writeBehind || motorSaldos)) {
+            throw new IllegalStateException("cuenta-movimientos.group-commit no puede activarse junto con write-behind ni motor-saldos");
+        }
+        this.habilitado = habilitado;
+        this.timeoutMs = timeoutMs;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cuentaMetadataCache = cuentaMetadataCache;
+        this.diario = new JdbcDiarioMovimientos(jdbcTemplate, transactionTemplate, objectMapper, extractoMensualRepository);
+        this.agrupador = habilitado ? new AgrupadorMovimientos(hilos, ventanaMicros, loteMaximo, this::confirmar) : null;
+        this.tamanoLote = DistributionSummary.builder("movimientos.group.commit.lote")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void iniciar() {
+        if (agrupador != null) {
+            agrupador.iniciar();
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (agrupador != null) {
+            agrupador.detener();
+        }
+    }
+
+    /**
+     * Encola un movimiento en el siguiente lote y espera a que se confirme.
+     *
+     * @param movimientoRequestDto Datos del movimiento a crear.
+     * @return MovimientoResponseDto con los detalles del movimiento creado.
+     * @throws ResourceNotFoundException si la cuenta no existe.
+     * @throws SaldoInsuficienteException si el saldo no es suficiente.
+     * @throws IllegalStateException si el movimiento no se confirma en {@code timeout-ms}; en ese caso su resultado
+     *                               es desconocido.
+     */
+    public MovimientoResponseDto crearMovimiento(MovimientoRequestDto movimientoRequestDto) {
+        CuentaMetadata cuenta = cuentaMetadataCache.idPorNumero(movimientoRequestDto.getNumeroCuenta())
+                .flatMap(cuentaMetadataCache::porId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cuenta no encontrada"));
+
+        MovimientoAplicado enviado = agrupador.enviar(new MovimientoAplicado(cuenta.getId(), cuenta.getNumeroCuenta(),
+                movimientoRequestDto.getFecha(), movimientoRequestDto.getTipo(), movimientoRequestDto.getMovimiento()));
+        MovimientoAplicado movimiento;
+        try {
+            movimiento = enviado.getResultado().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("El movimiento no se confirmó en " + timeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return convertToDto(movimiento, cuenta);
+    }
+
+    /**
+     * Confirma un lote y completa el futuro de cada movimiento. Si la transacción del lote falla, los movimientos se
+     * reintentan de uno en uno para que el fallo afecte solo a los que lo provocan.
+     */
+    private void confirmar(List<MovimientoAplicado> lote) {
+        tamanoLote.record(lote.size());
+        List<MovimientoAplicado> copias = copiar(lote);
+        try {
+            completar(lote, copias, transactionTemplate.execute(status -> aplicar(copias)));
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                lote.get(0).getResultado().completeExceptionally(e);
+                return;
+            }
+            log.warn("Fallo al confirmar un lote de {} movimientos, se reintentan por separado", lote.size(), e);
+            for (MovimientoAplicado movimiento : lote) {
+                List<MovimientoAplicado> individual = copiar(List.of(movimiento));
+                try {
+                    completar(List.of(movimiento), individual, transactionTemplate.execute(status -> aplicar(individual)));
+                } catch (RuntimeException fallo) {
+                    movimiento.getResultado().completeExceptionally(fallo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica el lote en la transacción actual.
+     *
+     * @return Para cada movimiento, {@code null} si se escribió o la excepción que lo rechaza.
+     */
+    private List<RuntimeException> aplicar(List<MovimientoAplicado> lote) {
+        Map<Long, Double> saldos = bloquearCuentas(lote);
+        List<RuntimeException> rechazos = new ArrayList<>(Collections.nCopies(lote.size(), null));
+        List<MovimientoAplicado> aceptados = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            MovimientoAplicado movimiento = lote.get(i);
+            Double saldo = saldos.get(movimiento.getCuentaId());
+            if (saldo == null) {
+                rechazos.set(i, new ResourceNotFoundException("Cuenta no encontrada"));
+            } else if (saldo + movimiento.getValor() < 0) {
+                rechazos.set(i, new SaldoInsuficienteException("Saldo no disponible"));
+            } else {
+                movimiento.aplicar(saldo);
+                saldos.put(movimiento.getCuentaId(), movimiento.getSaldo());
+                aceptados.add(movimiento);
+            }
+        }
+        if (!aceptados.isEmpty()) {
+            diario.escribir(aceptados);
+        }
+        return rechazos;
+    }
+
+    private Map<Long, Double> bloquearCuentas(List<MovimientoAplicado> lote) {
+        TreeSet<Long> ids = new TreeSet<>();
+        lote.forEach(movimiento -> ids.add(movimiento.getCuentaId()));
+        String marcadores = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Map<Long, Double> saldos = new HashMap<>();
+        jdbcTemplate.query("SELECT id, saldo_actual FROM cuentas WHERE id IN (" + marcadores + ") ORDER BY id FOR UPDATE",
+                (RowCallbackHandler) rs -> saldos.put(rs.getLong("id"), rs.getDouble("saldo_actual")),
+                ids.toArray());
+        return saldos;
+    }
+
+    /**
+     * Copias sin ID ni saldo, para que un reintento no herede el estado de una transacción revertida.
+     */
+    private static List<MovimientoAplicado> copiar(List<MovimientoAplicado> lote) {
+        List<MovimientoAplicado> copias = new ArrayList<>(lote.size());
+        for (MovimientoAplicado movimiento : lote) {
+            copias.add(new MovimientoAplicado(movimiento.getCuentaId(), movimiento.getNumeroCuenta(), movimiento.getFecha(),
+                    movimiento.getTipoMovimiento(), movimiento.getValor()));
+        }
+        return copias;
+    }
+
+    private static void completar(List<MovimientoAplicado> originales, List<MovimientoAplicado> copias, List<RuntimeException> rechazos) {
+        for (int i = 0; i < originales.size(); i++) {
+            if (rechazos.get(i) != null) {
+                originales.get(i).getResultado().completeExceptionally(rechazos.get(i));
+            } else {
+                originales.get(i).getResultado().complete(copias.get(i));
+            }
+        }
+    }
+
+    private MovimientoResponseDto convertToDto(MovimientoAplicado movimiento, CuentaMetadata cuenta) {
+        CuentaResponseDto cuentaDto = new CuentaResponseDto(cuenta.getId(), cuenta.getNumeroCuenta(), cuenta.getTipoCuenta(),
+                cuenta.getSaldoInicial(), movimiento.getSaldo(), cuenta.getEstado(), cuenta.getClienteId());
+        return new MovimientoResponseDto(movimiento.getId(), cuentaDto, movimiento.getFecha(),
+                movimiento.getTipoMovimiento(), movimiento.getValor(), movimiento.getSaldo(), null);
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.cuentaMovimientos.service;
 
+import com.example.cuentaMovimientos.cache.CuentaMetadata;
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.dto.request.CuentaFiltroDto;
 import com.example.cuentaMovimientos.dto.request.CuentaRequestDto;
 import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
+import com.example.cuentaMovimientos.dto.response.PaginaCuentasDto;
 import com.example.cuentaMovimientos.entity.Cuenta;
 import com.example.cuentaMovimientos.exception.ResourceNotFoundException;
 import com.example.cuentaMovimientos.repository.CuentaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,10 +22,15 @@ import java.util.stream.Collectors;
 @Service
 public class CuentaService {
 
+    private static final int TAMANO_PAGINA = 50;
+    private static final int TAMANO_MAXIMO_PAGINA = 500;
+
     private final CuentaRepository cuentaRepository;
+    private final CuentaMetadataCache cuentaMetadataCache;
 
-    public CuentaService(CuentaRepository cuentaRepository) {
+    public CuentaService(CuentaRepository cuentaRepository, CuentaMetadataCache cuentaMetadataCache) {
         this.cuentaRepository = cuentaRepository;
+        this.cuentaMetadataCache = cuentaMetadataCache;
     }
 
     /**
@@ -42,56 +52,85 @@ public class CuentaService {
     }
 
     /**
-     * Actualiza una cuenta existente con los nuevos datos proporcionados.
+     * Actualiza una cuenta existente con los nuevos datos proporcionados. La cuenta se lee con su fila bloqueada, de
+     * modo que el saldo y la versión de datos que se escriben con ella son los vigentes y la versión se incrementa en
+     * el mismo {@code UPDATE}.
      *
      * @param id ID de la cuenta a actualizar.
      * @param cuentaRequestDto Datos actualizados de la cuenta.
      * @return CuentaResponseDto con la cuenta actualizada.
      */
+    @Transactional
     public CuentaResponseDto actualizarCuenta(Long id, CuentaRequestDto cuentaRequestDto) {
-        Cuenta cuenta = cuentaRepository.findById(id)
+        Cuenta cuenta = cuentaRepository.findByIdParaActualizar(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cuenta no encontrada"));
+        String numeroAnterior = cuenta.getNumeroCuenta();
         cuenta.setNumeroCuenta(cuentaRequestDto.getNumeroCuenta());
         cuenta.setTipoCuenta(cuentaRequestDto.getTipoCuenta());
         cuenta.setSaldoInicial(cuentaRequestDto.getSaldoInicial());
         cuenta.setEstado(cuentaRequestDto.getEstado());
+        cuenta.setVersionDatos(cuenta.getVersionDatos() + 1);
         Cuenta updatedCuenta = cuentaRepository.save(cuenta);
+        cuentaMetadataCache.invalidar(id, numeroAnterior);
         return convertToDto(updatedCuenta);
     }
 
     /**
-     * Elimina una cuenta específica por su ID.
+     * Elimina una cuenta específica por su ID. Como en la actualización, la caché de metadatos se invalida también
+     * tras la confirmación, para descartar lo que otra petición cargue antes de que el borrado sea visible.
      *
      * @param id ID de la cuenta a eliminar.
      */
+    @Transactional
     public void eliminarCuenta(Long id) {
-        cuentaRepository.findById(id)
+        Cuenta cuenta = cuentaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cuenta no encontrada"));
-        cuentaRepository.deleteById(id);
+        cuentaRepository.delete(cuenta);
+        cuentaMetadataCache.invalidar(id, cuenta.getNumeroCuenta());
     }
 
     /**
-     * Obtiene los detalles de una cuenta específica por su ID.
+     * Obtiene los detalles de una cuenta específica por su ID. Los datos se sirven desde la caché de metadatos.
      *
      * @param id ID de la cuenta a buscar.
      * @return CuentaResponseDto con la cuenta encontrada.
      */
+    @Transactional(readOnly = true)
     public CuentaResponseDto obtenerCuentaPorId(Long id) {
-        Cuenta cuenta = cuentaRepository.findById(id)
+        CuentaMetadata cuenta = cuentaMetadataCache.porId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cuenta no encontrada"));
         return convertToDto(cuenta);
     }
 
     /**
-     * Obtiene una lista de todas las cuentas.
+     * Obtiene una página de cuentas que cumplen los filtros indicados. Si la página llega incompleta (y no vacía, o es
+     * la primera) es la última, y el total se deduce sin la consulta de conteo.
      *
-     * @return List<CuentaResponseDto> con todas las cuentas.
+     * @param filtro Filtros, orden y parámetros de paginación.
+     * @return PaginaCuentasDto con las cuentas de la página y, según el modo, el total o el siguiente cursor.
+     * @throws IllegalArgumentException si el desplazamiento de la página no cabe en un {@code int}.
      */
-    public List<CuentaResponseDto> obtenerTodasLasCuentas() {
-        List<Cuenta> cuentas = cuentaRepository.findAll();
-        return cuentas.stream()
+    @Transactional(readOnly = true)
+    public PaginaCuentasDto buscarCuentas(CuentaFiltroDto filtro) {
+        int size = filtro.getSize() != null ? Math.max(1, Math.min(filtro.getSize(), TAMANO_MAXIMO_PAGINA)) : TAMANO_PAGINA;
+        int page = filtro.getPage() != null ? Math.max(0, filtro.getPage()) : 0;
+        long desplazamiento = filtro.getDespuesDe() == null ? (long) page * size : 0;
+        if (desplazamiento > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Página fuera de rango: " + page);
+        }
+
+        List<CuentaResponseDto> cuentas = cuentaRepository.buscar(filtro, (int) desplazamiento, size).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
+
+        if (filtro.getDespuesDe() != null) {
+            Long siguienteCursor = cuentas.size() == size ? cuentas.get(cuentas.size() - 1).getId() : null;
+            return new PaginaCuentasDto(cuentas, null, siguienteCursor);
+        }
+        long total = cuentas.size() < size && (!cuentas.isEmpty() || page == 0)
+                ? desplazamiento + cuentas.size()
+                : cuentaRepository.contar(filtro);
+        return new PaginaCuentasDto(cuentas, total, null);
     }
 
     /**
@@ -110,4 +149,21 @@ public class CuentaService {
         dto.setClienteId(cuenta.getClienteId());
         return dto;
     }
+
+    /**
+     * Convierte los metadatos cacheados de una cuenta a un DTO CuentaResponseDto.
+     *
+     * @param cuenta Metadatos de la cuenta.
+     * @return CuentaResponseDto con los datos de la cuenta.
+     */
+    private CuentaResponseDto convertToDto(CuentaMetadata cuenta) {
+        CuentaResponseDto dto = new CuentaResponseDto();
+        dto.setId(cuenta.getId());
+        dto.setNumeroCuenta(cuenta.getNumeroCuenta());
+        dto.setTipoCuenta(cuenta.getTipoCuenta());
+        dto.setSaldoInicial(cuenta.getSaldoInicial());
+        dto.setEstado(cuenta.getEstado());
+        dto.setClienteId(cuenta.getClienteId());
+        return dto;
+    }
 }
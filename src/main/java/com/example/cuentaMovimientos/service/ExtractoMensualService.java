@@ -0,0 +1,268 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.dto.response.CuentaReporteDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import com.example.cuentaMovimientos.entity.Movimiento;
+import com.example.cuentaMovimientos.repository.ExtractoMensualRepository;
+import com.example.cuentaMovimientos.repository.MovimientoArchivoRepository;
+import com.example.cuentaMovimientos.repository.MovimientoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Extractos mensuales precalculados para los reportes sobre periodos cerrados.
+ * <p>
+ * Con {@code cuenta-movimientos.extractos.enabled=true} (y la migración {@code db/extractos-mensuales.sql} aplicada),
+ * una tarea programada genera el extracto de cada cuenta en cada mes cerrado de los últimos {@code history-months}:
+ * sus movimientos, los saldos de apertura y cierre y el {@link CuentaReporteDto} del mes serializado y comprimido.
+ * Los extractos ya generados no se recalculan; una escritura con fecha en un mes cerrado elimina el extracto de ese
+ * mes, que se vuelve a generar en la siguiente ejecución.
+ * </p>
+ * <p>
+ * {@link #movimientos(Long, LocalDate, LocalDate)} compone los movimientos de un rango con los extractos de los meses
+ * completos que lo tengan y consultas en vivo para el resto (meses parciales, el mes en curso y los extractos
+ * pendientes). Métricas: {@code extractos.generados} y {@code extractos.meses.leidos{origen=extracto|vivo}}.
+ * </p>
+ */
+@Slf4j
+@Lazy(false)
+@Service
+public class ExtractoMensualService {
+
+    private final ExtractoMensualRepository extractoMensualRepository;
+    private final MovimientoRepository movimientoRepository;
+    private final MovimientoArchivoRepository movimientoArchivoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int mesesHistorico;
+
+    private final Counter generados;
+    private final Counter lecturasExtracto;
+    private final Counter lecturasVivo;
+
+    public ExtractoMensualService(ExtractoMensualRepository extractoMensualRepository,
+                                  MovimientoRepository movimientoRepository,
+                                  MovimientoArchivoRepository movimientoArchivoRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${cuenta-movimientos.extractos.history-months:13}") int mesesHistorico) {
+        this.extractoMensualRepository = extractoMensualRepository;
+        this.movimientoRepository = movimientoRepository;
+        this.movimientoArchivoRepository = movimientoArchivoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.mesesHistorico = mesesHistorico;
+
+        this.generados = Counter.builder("extractos.generados").register(meterRegistry);
+        this.lecturasExtracto = Counter.builder("extractos.meses.leidos").tag("origen", "extracto").register(meterRegistry);
+        this.lecturasVivo = Counter.builder("extractos.meses.leidos").tag("origen", "vivo").register(meterRegistry);
+    }
+
+    public boolean isHabilitado() {
+        return extractoMensualRepository.isHabilitado();
+    }
+
+    /**
+     * Genera los extractos que faltan en los meses cerrados del histórico configurado.
+     */
+    @Scheduled(cron = "${cuenta-movimientos.extractos.cron:0 15 3 * * *}")
+    public void ejecutar() {
+        if (!isHabilitado()) {
+            return;
+        }
+        YearMonth ultimo = YearMonth.now().minusMonths(1);
+        long inicio = System.currentTimeMillis();
+        int total = generar(ultimo.minusMonths(mesesHistorico - 1L), ultimo);
+        log.info("Generados {} extractos mensuales en {} ms", total, System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Genera los extractos que faltan entre dos meses cerrados.
+     *
+     * @param primero Primer mes (inclusive).
+     * @param ultimo Último mes (inclusive); debe ser anterior al mes en curso.
+     * @return Número de extractos generados.
+     */
+    public int generar(YearMonth primero, YearMonth ultimo) {
+        Map<Long, Set<YearMonth>> existentes = extractoMensualRepository.periodosGenerados(primero, ultimo);
+        List<CuentaExtracto> cuentas = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, numero_cuenta, tipo_cuenta, saldo_inicial, estado FROM cuentas",
+                (RowCallbackHandler) rs -> cuentas.add(new CuentaExtracto(rs.getLong("id"), rs.getString("numero_cuenta"),
+                        rs.getString("tipo_cuenta"), rs.getDouble("saldo_inicial"), rs.getBoolean("estado"))));
+
+        int total = 0;
+        for (CuentaExtracto cuenta : cuentas) {
+            Set<YearMonth> generadosCuenta = existentes.getOrDefault(cuenta.id, Set.of());
+            YearMonth primeroPendiente = primero;
+            while (!primeroPendiente.isAfter(ultimo) && generadosCuenta.contains(primeroPendiente)) {
+                primeroPendiente = primeroPendiente.plusMonths(1);
+            }
+            if (primeroPendiente.isAfter(ultimo)) {
+                continue;
+            }
+            try {
+                total += generarCuenta(cuenta, primeroPendiente, ultimo, generadosCuenta);
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron generar los extractos de la cuenta {}", cuenta.id, e);
+            }
+        }
+        generados.increment(total);
+        return total;
+    }
+
+    /**
+     * Movimientos de una cuenta en un rango, tomando de los extractos los meses cerrados completos disponibles.
+     *
+     * @param cuentaId ID de la cuenta.
+     * @param fechaInicio Fecha de inicio del rango (inclusive).
+     * @param fechaFin Fecha de fin del rango (inclusive).
+     * @return Movimientos ordenados por fecha.
+     */
+    public List<MovimientoReporteDto> movimientos(Long cuentaId, LocalDate fechaInicio, LocalDate fechaFin) {
+        YearMonth primerCompleto = fechaInicio.getDayOfMonth() == 1 ? YearMonth.from(fechaInicio) : YearMonth.from(fechaInicio).plusMonths(1);
+        YearMonth ultimoCompleto = fechaFin.equals(YearMonth.from(fechaFin).atEndOfMonth()) ? YearMonth.from(fechaFin) : YearMonth.from(fechaFin).minusMonths(1);
+        YearMonth ultimoCerrado = YearMonth.now().minusMonths(1);
+        if (ultimoCompleto.isAfter(ultimoCerrado)) {
+            ultimoCompleto = ultimoCerrado;
+        }
+
+        Map<YearMonth, byte[]> extractos = primerCompleto.isAfter(ultimoCompleto)
+                ? Map.of()
+                : new TreeMap<>(extractoMensualRepository.buscar(cuentaId, primerCompleto, ultimoCompleto));
+        if (extractos.isEmpty()) {
+            return enVivo(cuentaId, fechaInicio, fechaFin);
+        }
+
+        List<MovimientoReporteDto> resultado = new ArrayList<>();
+        LocalDate pendienteDesde = fechaInicio;
+        for (Map.Entry<YearMonth, byte[]> extracto : extractos.entrySet()) {
+            LocalDate inicioMes = extracto.getKey().atDay(1);
+            if (pendienteDesde.isBefore(inicioMes)) {
+                resultado.addAll(enVivo(cuentaId, pendienteDesde, inicioMes.minusDays(1)));
+            }
+            resultado.addAll(descomprimir(extracto.getValue()).getMovimientos());
+            lecturasExtracto.increment();
+            pendienteDesde = extracto.getKey().plusMonths(1).atDay(1);
+        }
+        if (!pendienteDesde.isAfter(fechaFin)) {
+            resultado.addAll(enVivo(cuentaId, pendienteDesde, fechaFin));
+        }
+        return resultado;
+    }
+
+    /**
+     * Genera los extractos pendientes de una cuenta desde {@code primero}. Los movimientos del rango se leen de una
+     * vez; el saldo de apertura del primer mes es el saldo inicial más todos los movimientos anteriores. La versión
+     * de la cuenta se lee justo antes que sus movimientos: leída al inicio de la ejecución, cualquier escritura en
+     * la cuenta durante el recorrido de las anteriores impediría guardar sus extractos hasta la ejecución siguiente.
+     */
+    private int generarCuenta(CuentaExtracto cuenta, YearMonth primero, YearMonth ultimo, Set<YearMonth> existentes) {
+        Long versionDatos = jdbcTemplate.queryForObject("SELECT version_datos FROM cuentas WHERE id = ?", Long.class, cuenta.id);
+        List<Movimiento> movimientos = movimientoRepository.findByCuentaIdAndFechaBetween(cuenta.id, primero.atDay(1), ultimo.atEndOfMonth());
+        double saldo = cuenta.saldoInicial + sumaAnterior(cuenta.id, primero.atDay(1));
+
+        int total = 0;
+        int indice = 0;
+        for (YearMonth mes = primero; !mes.isAfter(ultimo); mes = mes.plusMonths(1)) {
+            double apertura = saldo;
+            List<MovimientoReporteDto> delMes = new ArrayList<>();
+            while (indice < movimientos.size() && YearMonth.from(movimientos.get(indice).getFecha()).equals(mes)) {
+                Movimiento movimiento = movimientos.get(indice++);
+                delMes.add(new MovimientoReporteDto(movimiento.getFecha(), movimiento.getTipoMovimiento(),
+                        movimiento.getValor(), movimiento.getSaldo()));
+                saldo += movimiento.getValor();
+            }
+            if (existentes.contains(mes)) {
+                continue;
+            }
+            CuentaReporteDto extracto = new CuentaReporteDto(cuenta.numeroCuenta, cuenta.tipoCuenta, cuenta.saldoInicial,
+                    cuenta.estado, delMes);
+            if (!extractoMensualRepository.guardar(cuenta.id, mes, apertura, saldo, delMes.size(), comprimir(extracto), versionDatos)) {
+                // La cuenta cambió durante la generación: se reintenta en la siguiente ejecución
+                break;
+            }
+            total++;
+        }
+        return total;
+    }
+
+    private double sumaAnterior(Long cuentaId, LocalDate fecha) {
+        double suma = sumar("movimientos", cuentaId, fecha);
+        if (movimientoArchivoRepository.isHabilitado()) {
+            suma += sumar("movimientos_archivo", cuentaId, fecha);
+        }
+        return suma;
+    }
+
+    private double sumar(String tabla, Long cuentaId, LocalDate fecha) {
+        Double suma = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(valor), 0) FROM " + tabla + " WHERE cuenta_id = ? AND fecha < ?",
+                Double.class, cuentaId, fecha);
+        return suma != null ? suma : 0.0;
+    }
+
+    private List<MovimientoReporteDto> enVivo(Long cuentaId, LocalDate fechaInicio, LocalDate fechaFin) {
+        lecturasVivo.increment();
+        return movimientoRepository.findByCuentaIdAndFechaBetween(cuentaId, fechaInicio, fechaFin).stream()
+                .map(movimiento -> new MovimientoReporteDto(movimiento.getFecha(), movimiento.getTipoMovimiento(),
+                        movimiento.getValor(), movimiento.getSaldo()))
+                .collect(Collectors.toList());
+    }
+
+    private byte[] comprimir(CuentaReporteDto extracto) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            objectMapper.writeValue(gzip, extracto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private CuentaReporteDto descomprimir(byte[] contenido) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(contenido))) {
+            return objectMapper.readValue(gzip, CuentaReporteDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class CuentaExtracto {
+        private final long id;
+        private final String numeroCuenta;
+        private final String tipoCuenta;
+        private final double saldoInicial;
+        private final boolean estado;
+
+        private CuentaExtracto(long id, String numeroCuenta, String tipoCuenta, double saldoInicial, boolean estado) {
+            this.id = id;
+            this.numeroCuenta = numeroCuenta;
+            this.tipoCuenta = tipoCuenta;
+            this.saldoInicial = saldoInicial;
+            this.estado = estado;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.cache.CuentaMetadata;
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.dto.request.MovimientoRequestDto;
+import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoResponseDto;
+import com.example.cuentaMovimientos.engine.AjusteSaldo;
+import com.example.cuentaMovimientos.engine.JdbcDiarioMovimientos;
+import com.example.cuentaMovimientos.engine.JournalMovimientos;
+import com.example.cuentaMovimientos.engine.MotorSaldos;
+import com.example.cuentaMovimientos.engine.MovimientoAplicado;
+import com.example.cuentaMovimientos.engine.RegistroJournal;
+import com.example.cuentaMovimientos.engine.WalDiarioMovimientos;
+import com.example.cuentaMovimientos.exception.ResourceNotFoundException;
+import com.example.cuentaMovimientos.repository.CuentaRepository;
+import com.example.cuentaMovimientos.repository.ExtractoMensualRepository;
+import com.example.cuentaMovimientos.repository.MovimientoArchivoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Integración del {@link MotorSaldos} con la aplicación para el modo de alto volumen.
+ * <p>
+ * Con {@code cuenta-movimientos.motor-saldos.enabled=true}, {@link MovimientoService#crearMovimiento} delega aquí:
+ * el saldo se calcula en memoria y el movimiento se confirma cuando su lote está escrito en la base de datos, que
+ * actúa como diario. Al arrancar se cargan los saldos de las cuentas activas; el resto se leen de
+ * {@link CuentaRepository} en su primer movimiento. La actualización y la eliminación de movimientos también pasan
+ * por la partición de la cuenta ({@link #ajustarSaldo}), que escribe en {@code saldo_actual} solo la diferencia, de
+ * modo que nunca se pisa un delta del motor con un saldo leído antes.
+ * </p>
+ * <p>
+ * Los saldos en memoria son la fuente de verdad mientras el motor está activo: solo puede haber una instancia de la
+ * aplicación con el motor habilitado, y ningún otro proceso debe escribir movimientos ni {@code saldo_actual}.
+ * </p>
+ * <p>
+ * Con {@code cuenta-movimientos.motor-saldos.journal.enabled=true} el diario pasa a ser un
+ * {@link JournalMovimientos} local proyectado en memoria: el movimiento se confirma tras el {@code fsync} del
+ * diario y se vuelca a la base de datos en segundo plano ({@link WalDiarioMovimientos}). Al arrancar, antes de
+ * cargar los saldos, los registros del diario que no llegaron a la base de datos se escriben en ella. Los IDs de
+ * movimiento se asignan en memoria. Los lotes que fallan {@code journal.max-retries} veces por algo distinto de la disponibilidad de la base de datos se
+ * aíslan y sus movimientos irrecuperables se guardan en {@code journal.quarantine-directory} (métrica
+ * {@code motor.saldos.journal.cuarentena}).
+ * </p>
+ * <p>
+ * Es incompatible con el buffer write-behind. No debe ejecutarse la reparación de la reconciliación con el motor
+ * activo, porque corrige {@code saldo_actual} sin pasar por él.
+ * </p>
+ */
+@Slf4j
+@Lazy(false)
+@Service
+public class MotorSaldosService {
+
+    private final boolean habilitado;
+    private final long timeoutMs;
+    private final MotorSaldos motor;
+    private final JdbcTemplate jdbcTemplate;
+    private final CuentaMetadataCache cuentaMetadataCache;
+    private final MovimientoArchivoRepository movimientoArchivoRepository;
+    private final JdbcDiarioMovimientos jdbcDiario;
+    private final JournalMovimientos journal;
+    private final WalDiarioMovimientos walDiario;
+    private final int loteVolcado;
+
+    public MotorSaldosService(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              CuentaRepository cuentaRepository,
+                              CuentaMetadataCache cuentaMetadataCache,
+                              MovimientoArchivoRepository movimientoArchivoRepository,
+                              ExtractoMensualRepository extractoMensualRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${cuenta-movimientos.motor-saldos.enabled:false}") boolean habilitado,
+                              @Value("${cuenta-movimientos.write-behind.enabled:false}") boolean writeBehind,
+                              @Value("${cuenta-movimientos.motor-saldos.partitions:8}") int particiones,
+                              @Value("${cuenta-movimientos.motor-saldos.max-batch:1000}") int loteMaximo,
+                              @Value("${cuenta-movimientos.motor-saldos.timeout-ms:5000}") long timeoutMs,
+                              @Value("${cuenta-movimientos.motor-saldos.journal.enabled:false}") boolean journalHabilitado,
+                              @Value("${cuenta-movimientos.motor-saldos.journal.directory:data/journal}") String directorioJournal,
+                              @Value("${cuenta-movimientos.motor-saldos.journal.records-per-segment:1048576}") int registrosPorSegmento,
+                              @Value("${cuenta-movimientos.motor-saldos.journal.flush-batch:5000}") int loteVolcado,
+                              @Value("${cuenta-movimientos.motor-saldos.journal.max-retries:5}") int maxReintentos,
+                              @Value("${cuenta-movimientos.motor-saldos.journal.quarantine-directory:data/journal-cuarentena}") String directorioCuarentena) {
+        if (habilitado && writeBehind) {
+            throw new IllegalStateException("cuenta-movimientos.motor-saldos y cuenta-movimientos.write-behind no pueden activarse a la vez");
+        }
+        this.habilitado = habilitado;
+        this.timeoutMs = timeoutMs;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cuentaMetadataCache = cuentaMetadataCache;
+        this.movimientoArchivoRepository = movimientoArchivoRepository;
+        this.loteVolcado = loteVolcado;
+        this.jdbcDiario = new JdbcDiarioMovimientos(jdbcTemplate, transactionTemplate, objectMapper, extractoMensualRepository);
+        this.journal = habilitado && journalHabilitado ? new JournalMovimientos(Path.of(directorioJournal), registrosPorSegmento) : null;
+        this.walDiario = journal != null
+                ? new WalDiarioMovimientos(journal, jdbcDiario, loteVolcado, new JournalMovimientos(Path.of(directorioCuarentena), 4096), maxReintentos)
+                : null;
+        this.motor = habilitado
+                ? new MotorSaldos(particiones, loteMaximo,
+                        walDiario != null ? walDiario : jdbcDiario,
+                        cuentaId -> cuentaRepository.findById(cuentaId)
+                                .map(cuenta -> cuenta.getSaldoActual() != null ? cuenta.getSaldoActual() : 0.0)
+                                .orElse(null))
+                : null;
+        if (motor != null) {
+            Gauge.builder("motor.saldos.cuentas", motor, MotorSaldos::cuentasEnMemoria).register(meterRegistry);
+        }
+        if (walDiario != null) {
+            Gauge.builder("motor.saldos.journal.pendientes", walDiario, WalDiarioMovimientos::pendientes).register(meterRegistry);
+            Gauge.builder("motor.saldos.journal.cuarentena", walDiario, WalDiarioMovimientos::enCuarentena).register(meterRegistry);
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Recupera el diario local si está activo, carga los saldos de las cuentas activas y arranca las particiones.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        if (walDiario != null) {
+            recuperarJournal();
+        }
+        long inicio = System.currentTimeMillis();
+        long[] cargadas = {0};
+        jdbcTemplate.query("SELECT id, saldo_actual FROM cuentas WHERE estado = TRUE", (RowCallbackHandler) rs -> {
+            motor.cargar(rs.getLong("id"), rs.getDouble("saldo_actual"));
+            cargadas[0]++;
+        });
+        motor.iniciar();
+        log.info("Motor de saldos iniciado con {} cuentas en {} ms", cargadas[0], System.currentTimeMillis() - inicio);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (motor != null) {
+            motor.detener();
+        }
+        if (walDiario != null) {
+            walDiario.close();
+        }
+    }
+
+    /**
+     * Registra un movimiento a través del motor y espera a que sea durable.
+     *
+     * @param movimientoRequestDto Datos del movimiento a crear.
+     * @return MovimientoResponseDto con los detalles del movimiento creado.
+     * @throws ResourceNotFoundException si la cuenta no existe.
+     * @throws com.example.cuentaMovimientos.exception.SaldoInsuficienteException si el saldo no es suficiente.
+     * @throws IllegalStateException si el movimiento no se confirma en {@code timeout-ms}; en ese caso su resultado
+     *                               es desconocido.
+     */
+    public MovimientoResponseDto crearMovimiento(MovimientoRequestDto movimientoRequestDto) {
+        CuentaMetadata cuenta = cuentaMetadataCache.idPorNumero(movimientoRequestDto.getNumeroCuenta())
+                .flatMap(cuentaMetadataCache::porId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cuenta no encontrada"));
+
+        MovimientoAplicado movimiento = motor.enviar(new MovimientoAplicado(cuenta.getId(), cuenta.getNumeroCuenta(),
+                movimientoRequestDto.getFecha(), movimientoRequestDto.getTipo(), movimientoRequestDto.getMovimiento()));
+        esperar(movimiento.getResultado(), "El movimiento");
+        return convertToDto(movimiento, cuenta);
+    }
+
+    /**
+     * Aplica un ajuste de saldo (actualización o eliminación de un movimiento) en la partición de la cuenta y espera a
+     * que se confirme.
+     *
+     * @param cuentaId ID de la cuenta.
+     * @param escritura Escritura transaccional del ajuste; recibe el saldo en memoria y devuelve el resultante.
+     * @return Saldo de la cuenta tras el ajuste.
+     * @throws IllegalStateException si el ajuste no se confirma en {@code timeout-ms}; en ese caso su resultado es
+     *                               desconocido.
+     */
+    public double ajustarSaldo(long cuentaId, AjusteSaldo.Escritura escritura) {
+        return esperar(motor.ajustar(new AjusteSaldo(cuentaId, escritura)).getResultado(), "El ajuste de saldo");
+    }
+
+    private <T> T esperar(CompletableFuture<T> resultado, String operacion) {
+        try {
+            return resultado.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(operacion + " no se confirmó en " + timeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Escribe en la base de datos los registros del diario local que no llegaron a volcarse, elimina los segmentos
+     * recuperados y arranca el volcado a partir del siguiente ID libre. Los saldos se reconstruyen al aplicar el
+     * delta de esos movimientos sobre {@code saldo_actual}, antes de cargarlos en el motor.
+     */
+    private void recuperarJournal() {
+        long inicio = System.currentTimeMillis();
+        List<RegistroJournal> registros = journal.leer();
+        long maxId = 0;
+        int volcados = 0;
+        for (int desde = 0; desde < registros.size(); desde += loteVolcado) {
+            List<RegistroJournal> tramo = registros.subList(desde, Math.min(desde + loteVolcado, registros.size()));
+            List<MovimientoAplicado> lote = new ArrayList<>(tramo.size());
+            for (RegistroJournal registro : tramo) {
+                String numeroCuenta = cuentaMetadataCache.porId(registro.getCuentaId())
+                        .map(CuentaMetadata::getNumeroCuenta)
+                        .orElse(null);
+                lote.add(MovimientoAplicado.recuperado(registro, numeroCuenta));
+                maxId = Math.max(maxId, registro.getId());
+            }
+            volcados += jdbcDiario.escribirPendientes(lote);
+        }
+        journal.descartarRecuperados();
+
+        maxId = Math.max(maxId, maximoId("movimientos"));
+        if (movimientoArchivoRepository.isHabilitado()) {
+            maxId = Math.max(maxId, maximoId("movimientos_archivo"));
+        }
+        walDiario.iniciar(maxId + 1);
+        log.info("Diario de movimientos recuperado: {} registros leídos, {} escritos en la base de datos, en {} ms",
+                registros.size(), volcados, System.currentTimeMillis() - inicio);
+    }
+
+    private long maximoId(String tabla) {
+        Long maximo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabla, Long.class);
+        return maximo != null ? maximo : 0;
+    }
+
+    private MovimientoResponseDto convertToDto(MovimientoAplicado movimiento, CuentaMetadata cuenta) {
+        CuentaResponseDto cuentaDto = new CuentaResponseDto(cuenta.getId(), cuenta.getNumeroCuenta(), cuenta.getTipoCuenta(),
+                cuenta.getSaldoInicial(), movimiento.getSaldo(), cuenta.getEstado(), cuenta.getClienteId());
+        return new MovimientoResponseDto(movimiento.getId(), cuentaDto, movimiento.getFecha(),
+                movimiento.getTipoMovimiento(), movimiento.getValor(), movimiento.getSaldo(), null);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import com.example.cuentaMovimientos.outbox.MovimientoEventSink;
+import com.example.cuentaMovimientos.repository.MovimientoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Relay que sondea la tabla outbox y publica los eventos pendientes en el {@link MovimientoEventSink} activo.
+ * <p>
+ * Cada lote se lee, publica y marca como enviado en una misma transacción; si la publicación falla,
+ * la transacción se revierte y el lote se reintenta (entrega al menos una vez). Mientras los lotes salgan
+ * completos se siguen procesando en el mismo ciclo, hasta {@code max-batches-per-poll}.
+ * </p>
+ * <p>
+ * El número de pendientes no se cuenta en cada sondeo: si el ciclo vacía el outbox (último lote incompleto) es cero, y
+ * solo cuando queda trabajo tras {@code max-batches-per-poll} lotes se consulta, como mucho una vez cada
+ * {@code pending-count-interval}. Los eventos enviados hace más de {@code retention} se eliminan por bloques de
+ * {@code purge-batch-size} filas cada {@code purge-interval-ms}.
+ * </p>
+ * <p>
+ * Métricas publicadas: {@code outbox.eventos.enviados}, {@code outbox.eventos.purgados}, {@code outbox.publicacion}
+ * (tiempo por lote), {@code outbox.pendientes} y {@code outbox.lag} (antigüedad en ms del evento más antiguo publicado
+ * en el último lote).
+ * </p>
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class MovimientoOutboxRelay {
+
+    private final MovimientoOutboxRepository outboxRepository;
+    private final MovimientoEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+    private final int maxLotesPorCiclo;
+    private final long intervaloConteoNanos;
+    private final Duration retencion;
+    private final int loteBorrado;
+
+    private final Counter enviados;
+    private final Counter purgados;
+    private final Timer publicacion;
+    private final AtomicLong pendientes = new AtomicLong();
+    private final AtomicLong lagMs = new AtomicLong();
+    private volatile long ultimoConteo;
+
+    public MovimientoOutboxRelay(MovimientoOutboxRepository outboxRepository,
+                                 MovimientoEventSink sink,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cuenta-movimientos.outbox.batch-size:500}") int tamanoLote,
+                                 @Value("${cuenta-movimientos.outbox.max-batches-per-poll:20}") int maxLotesPorCiclo,
+                                 @Value("${cuenta-movimientos.outbox.pending-count-interval:10s}") Duration intervaloConteo,
+                                 @Value("${cuenta-movimientos.outbox.retention:7d}") Duration retencion,
+                                 @Value("${cuenta-movimientos.outbox.purge-batch-size:5000}") int loteBorrado) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanoLote = tamanoLote;
+        this.maxLotesPorCiclo = maxLotesPorCiclo;
+        this.intervaloConteoNanos = intervaloConteo.toNanos();
+        this.retencion = retencion;
+        this.loteBorrado = loteBorrado;
+        this.ultimoConteo = System.nanoTime() - intervaloConteoNanos;
+
+        this.enviados = Counter.builder("outbox.eventos.enviados").register(meterRegistry);
+        this.purgados = Counter.builder("outbox.eventos.purgados").register(meterRegistry);
+        this.publicacion = Timer.builder("outbox.publicacion").register(meterRegistry);
+        Gauge.builder("outbox.pendientes", pendientes, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("outbox.lag", lagMs, AtomicLong::get).baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    /**
+     * Procesa lotes de eventos pendientes hasta vaciar el outbox o alcanzar el máximo de lotes por ciclo.
+     */
+    @Scheduled(fixedDelayString = "${cuenta-movimientos.outbox.poll-interval-ms:200}")
+    public void sondear() {
+        try {
+            int lotes = 0;
+            int procesados;
+            do {
+                procesados = procesarLote();
+                lotes++;
+            } while (procesados == tamanoLote && lotes < maxLotesPorCiclo);
+
+            if (procesados < tamanoLote) {
+                pendientes.set(0);
+            } else {
+                long ahora = System.nanoTime();
+                if (ahora - ultimoConteo >= intervaloConteoNanos) {
+                    pendientes.set(outboxRepository.countByEnviadoFalse());
+                    ultimoConteo = ahora;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Fallo al publicar eventos del outbox, se reintentará en el siguiente ciclo", e);
+        }
+    }
+
+    /**
+     * Elimina los eventos enviados hace más de {@code retention}, un bloque por transacción para no mantener bloqueos
+     * largos sobre la tabla que escriben los movimientos.
+     */
+    @Scheduled(fixedDelayString = "${cuenta-movimientos.outbox.purge-interval-ms:60000}")
+    public void purgar() {
+        try {
+            Instant limite = Instant.now().minus(retencion);
+            int eliminados;
+            do {
+                Integer bloque = transactionTemplate.execute(status -> outboxRepository.eliminarEnviados(limite, loteBorrado));
+                eliminados = bloque != null ? bloque : 0;
+                purgados.increment(eliminados);
+            } while (eliminados == loteBorrado);
+        } catch (RuntimeException e) {
+            log.warn("Fallo al purgar eventos enviados del outbox", e);
+        }
+    }
+
+    private int procesarLote() {
+        Integer procesados = transactionTemplate.execute(status -> {
+            List<MovimientoOutbox> lote = outboxRepository.findPendientes(PageRequest.of(0, tamanoLote));
+            if (lote.isEmpty()) {
+                lagMs.set(0);
+                return 0;
+            }
+
+            publicacion.record(() -> sink.publicar(lote));
+
+            Instant ahora = Instant.now();
+            List<Long> ids = lote.stream().map(MovimientoOutbox::getId).collect(Collectors.toList());
+            outboxRepository.marcarEnviados(ids, ahora);
+
+            lagMs.set(Duration.between(lote.get(0).getFechaCreacion(), ahora).toMillis());
+            return lote.size();
+        });
+        int total = procesados != null ? procesados : 0;
+        enviados.increment(total);
+        return total;
+    }
+}
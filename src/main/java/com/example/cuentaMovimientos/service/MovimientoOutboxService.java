@@ -0,0 +1,77 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.dto.event.MovimientoEventoDto;
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.entity.Movimiento;
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import com.example.cuentaMovimientos.repository.MovimientoOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Servicio que registra los eventos de movimientos en la tabla outbox.
+ * <p>
+ * Debe invocarse dentro de la transacción que modifica el movimiento, de modo que el evento
+ * se confirma o se revierte junto con él. La publicación la realiza {@link MovimientoOutboxRelay}.
+ * </p>
+ */
+@Service
+public class MovimientoOutboxService {
+
+    public static final String MOVIMIENTO_CREADO = "MOVIMIENTO_CREADO";
+    public static final String MOVIMIENTO_ACTUALIZADO = "MOVIMIENTO_ACTUALIZADO";
+    public static final String MOVIMIENTO_ELIMINADO = "MOVIMIENTO_ELIMINADO";
+
+    private final MovimientoOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public MovimientoOutboxService(MovimientoOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registra un evento para el movimiento indicado en la transacción actual.
+     *
+     * @param tipoEvento Tipo de evento ({@link #MOVIMIENTO_CREADO}, {@link #MOVIMIENTO_ACTUALIZADO}
+     *                   o {@link #MOVIMIENTO_ELIMINADO}).
+     * @param movimiento Movimiento ya persistido.
+     * @throws IllegalStateException si no hay una transacción activa o el evento no se puede serializar.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String tipoEvento, Movimiento movimiento) {
+        Cuenta cuenta = movimiento.getCuenta();
+        MovimientoEventoDto evento = new MovimientoEventoDto(
+                tipoEvento,
+                movimiento.getId(),
+                cuenta.getId(),
+                cuenta.getNumeroCuenta(),
+                movimiento.getFecha(),
+                movimiento.getTipoMovimiento(),
+                movimiento.getValor(),
+                movimiento.getSaldo()
+        );
+
+        MovimientoOutbox outbox = new MovimientoOutbox();
+        outbox.setTipoEvento(tipoEvento);
+        outbox.setMovimientoId(movimiento.getId());
+        outbox.setCuentaId(cuenta.getId());
+        outbox.setPayload(serializar(evento));
+        outbox.setFechaCreacion(Instant.now());
+        outbox.setEnviado(false);
+        outboxRepository.save(outbox);
+    }
+
+    private String serializar(MovimientoEventoDto evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento del movimiento " + evento.getMovimientoId(), e);
+        }
+    }
+}
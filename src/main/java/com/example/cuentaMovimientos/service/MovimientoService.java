@@ -1,20 +1,25 @@
 package com.example.cuentaMovimientos.service;
 
-import com.example.common.dto.response.ClienteResponseDto;
+import com.example.cuentaMovimientos.cache.ClienteNombreCache;
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.cache.MovimientosColumnaresCache;
+import com.example.cuentaMovimientos.dto.event.CambioCuentaDto;
 import com.example.cuentaMovimientos.dto.request.MovimientoRequestDto;
 import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
 import com.example.cuentaMovimientos.dto.response.MovimientoResponseDto;
 import com.example.cuentaMovimientos.entity.Cuenta;
 import com.example.cuentaMovimientos.entity.Movimiento;
+import com.example.cuentaMovimientos.exception.MovimientoArchivadoException;
 import com.example.cuentaMovimientos.exception.ResourceNotFoundException;
 import com.example.cuentaMovimientos.exception.SaldoInsuficienteException;
 import com.example.cuentaMovimientos.repository.CuentaRepository;
+import com.example.cuentaMovimientos.repository.ExtractoMensualRepository;
 import com.example.cuentaMovimientos.repository.MovimientoRepository;
+import com.example.cuentaMovimientos.stream.HubCambiosCuenta;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -29,30 +34,92 @@ public class MovimientoService {
 
     private final MovimientoRepository movimientoRepository;
     private final CuentaRepository cuentaRepository;
-    private final WebClient webClient; // Usamos WebClient para comunicación entre microservicios
+    private final SaldoWriteBehindBuffer saldoWriteBehindBuffer;
+    private final MovimientoOutboxService movimientoOutboxService;
+    private final CuentaMetadataCache cuentaMetadataCache;
+    private final MotorSaldosService motorSaldosService;
+    private final CommitAgrupadoService commitAgrupadoService;
+    private final ExtractoMensualRepository extractoMensualRepository;
+    private final HubCambiosCuenta hubCambiosCuenta;
+    private final MovimientosColumnaresCache movimientosColumnaresCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ClienteNombreCache clienteNombreCache;
 
     @Autowired
-    public MovimientoService(MovimientoRepository movimientoRepository, CuentaRepository cuentaRepository, WebClient.Builder webClientBuilder) {
+    public MovimientoService(MovimientoRepository movimientoRepository, CuentaRepository cuentaRepository,
+                             SaldoWriteBehindBuffer saldoWriteBehindBuffer, MovimientoOutboxService movimientoOutboxService,
+                             CuentaMetadataCache cuentaMetadataCache, MotorSaldosService motorSaldosService,
+                             CommitAgrupadoService commitAgrupadoService, ExtractoMensualRepository extractoMensualRepository,
+                             HubCambiosCuenta hubCambiosCuenta, MovimientosColumnaresCache movimientosColumnaresCache,
+                             TransactionTemplate transactionTemplate, ClienteNombreCache clienteNombreCache) {
         this.movimientoRepository = movimientoRepository;
         this.cuentaRepository = cuentaRepository;
-        this.webClient = webClientBuilder.baseUrl("http://localhost:8080").build();
+        this.saldoWriteBehindBuffer = saldoWriteBehindBuffer;
+        this.movimientoOutboxService = movimientoOutboxService;
+        this.cuentaMetadataCache = cuentaMetadataCache;
+        this.motorSaldosService = motorSaldosService;
+        this.commitAgrupadoService = commitAgrupadoService;
+        this.extractoMensualRepository = extractoMensualRepository;
+        this.hubCambiosCuenta = hubCambiosCuenta;
+        this.movimientosColumnaresCache = movimientosColumnaresCache;
+        this.transactionTemplate = transactionTemplate;
+        this.clienteNombreCache = clienteNombreCache;
     }
 
     /**
      * Crea un nuevo movimiento con los datos proporcionados.
+     * Con el motor de saldos habilitado, el movimiento se aplica en memoria y se escribe por lotes
+     * ({@link MotorSaldosService}); con el group commit habilitado, se confirma en una transacción compartida con
+     * otras peticiones concurrentes ({@link CommitAgrupadoService}); en otro caso se registra en su propia transacción.
+     * Una vez confirmado, el cambio se publica a los suscriptores de la cuenta ({@link HubCambiosCuenta}) y se añade a
+     * la caché columnar de movimientos ({@link MovimientosColumnaresCache}).
      *
      * @param movimientoRequestDto Datos del movimiento a crear.
      * @return MovimientoResponseDto con los detalles del movimiento creado.
      * @throws SaldoInsuficienteException si el saldo no es suficiente para realizar el movimiento.
      */
-    @Transactional
     public MovimientoResponseDto crearMovimiento(MovimientoRequestDto movimientoRequestDto) {
-        // Encontrar la cuenta
-        Cuenta cuenta = cuentaRepository.findByNumeroCuenta(movimientoRequestDto.getNumeroCuenta())
+        MovimientoResponseDto creado;
+        if (motorSaldosService.isHabilitado()) {
+            creado = motorSaldosService.crearMovimiento(movimientoRequestDto);
+        } else if (commitAgrupadoService.isHabilitado()) {
+            creado = commitAgrupadoService.crearMovimiento(movimientoRequestDto);
+        } else {
+            creado = transactionTemplate.execute(status -> registrarMovimiento(movimientoRequestDto));
+        }
+
+        CuentaResponseDto cuenta = creado.getCuentaId();
+        movimientosColumnaresCache.registrar(cuenta.getId(), creado.getId(), creado.getFecha(), creado.getTipoMovimiento(),
+                creado.getValor(), creado.getSaldo());
+        hubCambiosCuenta.publicar(new CambioCuentaDto(MovimientoOutboxService.MOVIMIENTO_CREADO, cuenta.getId(),
+                cuenta.getNumeroCuenta(), creado.getSaldo(), creado.getId(), creado.getFecha(), creado.getTipoMovimiento(),
+                creado.getValor()));
+        return creado;
+    }
+
+    /**
+     * Registra un movimiento en la transacción actual, actualizando el saldo de la cuenta.
+     *
+     * @param movimientoRequestDto Datos del movimiento a crear.
+     * @return MovimientoResponseDto con los detalles del movimiento creado.
+     * @throws SaldoInsuficienteException si el saldo no es suficiente para realizar el movimiento.
+     */
+    private MovimientoResponseDto registrarMovimiento(MovimientoRequestDto movimientoRequestDto) {
+        boolean writeBehind = saldoWriteBehindBuffer.isHabilitado();
+        boolean diferido = writeBehind && movimientoRequestDto.getMovimiento() > 0;
+
+        // Encontrar la cuenta; con write-behind todos los movimientos bloquean la fila, para que saldo_actual y los
+        // créditos pendientes del buffer se lean juntos y la cadena de saldos quede ordenada (los movimientos de una
+        // cuenta se siguen serializando: el buffer solo ahorra el UPDATE de cada crédito). En el resto de casos
+        // el número se resuelve en caché y la cuenta se lee por clave primaria
+        Cuenta cuenta = (writeBehind
+                ? cuentaRepository.findByNumeroCuentaParaActualizar(movimientoRequestDto.getNumeroCuenta())
+                : cuentaMetadataCache.idPorNumero(movimientoRequestDto.getNumeroCuenta()).flatMap(cuentaRepository::findById))
                 .orElseThrow(() -> new ResourceNotFoundException("Cuenta no encontrada"));
 
-        // Calcular el nuevo saldo con el saldo actual
-        double nuevoSaldo = cuenta.getSaldoActual() + movimientoRequestDto.getMovimiento();
+        // Calcular el nuevo saldo con el saldo actual más los créditos aún no volcados
+        double pendiente = writeBehind ? saldoWriteBehindBuffer.pendiente(cuenta.getId()) : 0.0;
+        double nuevoSaldo = cuenta.getSaldoActual() + pendiente + movimientoRequestDto.getMovimiento();
 
         if (nuevoSaldo < 0) {
             throw new SaldoInsuficienteException("Saldo no disponible");
@@ -65,30 +132,43 @@ public class MovimientoService {
         movimiento.setValor(movimientoRequestDto.getMovimiento());
         movimiento.setSaldo(nuevoSaldo);
         movimiento.setCuenta(cuenta);
+        movimiento.setAplicado(!diferido);
         Movimiento savedMovimiento = movimientoRepository.save(movimiento);
+        movimientoOutboxService.registrar(MovimientoOutboxService.MOVIMIENTO_CREADO, savedMovimiento);
+        extractoMensualRepository.invalidar(cuenta.getId(), movimiento.getFecha());
+
+        MovimientoResponseDto dto = convertToDto(savedMovimiento);
+        if (diferido) {
+            // El crédito se acumula en memoria (visible ya para quien bloquee la fila después) y se vuelca por lotes
+            saldoWriteBehindBuffer.acumularAlConfirmar(cuenta.getId(), savedMovimiento.getId(), movimientoRequestDto.getMovimiento());
+        } else {
+            // Sumar el movimiento al saldo actual de la cuenta e incrementar su versión en un solo UPDATE (los créditos
+            // pendientes los suma el volcado)
+            cuentaRepository.ajustarSaldo(cuenta.getId(), movimientoRequestDto.getMovimiento());
+            dto.getCuentaId().setSaldoActual(nuevoSaldo - pendiente);
+        }
 
-        // Actualizar el saldo actual de la cuenta
-        cuenta.setSaldoActual(nuevoSaldo);
-        cuentaRepository.save(cuenta);
-
-        return convertToDto(savedMovimiento);
+        return dto;
     }
 
     /**
-     * Obtiene los detalles de un movimiento específico por su ID.
+     * Obtiene los detalles de un movimiento específico por su ID, también si ya está archivado.
      *
      * @param id ID del movimiento a buscar.
      * @return MovimientoResponseDto con los detalles del movimiento encontrado.
      * @throws ResourceNotFoundException si el movimiento no se encuentra.
      */
+    @Transactional(readOnly = true)
     public MovimientoResponseDto obtenerMovimientoPorId(Long id) {
-        Movimiento movimiento = movimientoRepository.findById(id)
+        Movimiento movimiento = movimientoRepository.findByIdIncluyendoArchivo(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movimiento no encontrado"));
         return convertToDto(movimiento);
     }
 
     /**
      * Obtiene una lista de movimientos filtrados por fecha y cliente.
+     * Incluye los movimientos de todas las cuentas del cliente, obtenidos con una única consulta y
+     * ordenados por fecha.
      *
      * @param fechaInicio Fecha de inicio del rango.
      * @param fechaFin Fecha de fin del rango.
@@ -96,25 +176,25 @@ public class MovimientoService {
      * @return Lista de MovimientoResponseDto con los movimientos encontrados.
      * @throws ResourceNotFoundException si la cuenta o cliente no se encuentran.
      */
+    @Transactional(readOnly = true)
     public List<MovimientoResponseDto> obtenerMovimientosPorFechaYCliente(String fechaInicio, String fechaFin, Long clienteId) {
-        // Obtener la cuenta del cliente
-        Cuenta cuenta = cuentaRepository.findByClienteId(clienteId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cuenta no encontrada para el cliente"));
-
         // Convertir fechas de String a LocalDate
         LocalDate fechaInicioDate = LocalDate.parse(fechaInicio);
         LocalDate fechaFinDate = LocalDate.parse(fechaFin);
 
-        // Buscar movimientos
-        List<Movimiento> movimientos = movimientoRepository.findByCuentaIdAndFechaBetween(cuenta.getId(), fechaInicioDate, fechaFinDate);
+        // Buscar los movimientos de todas las cuentas del cliente
+        List<Movimiento> movimientos = movimientoRepository.findByClienteIdAndFechaBetween(clienteId, fechaInicioDate, fechaFinDate);
+        if (movimientos.isEmpty() && !cuentaRepository.existsByClienteId(clienteId)) {
+            throw new ResourceNotFoundException("Cuenta no encontrada para el cliente");
+        }
         List<MovimientoResponseDto> movimientosDto = movimientos.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
 
         // Obtener el nombre del cliente
-        ClienteResponseDto cliente = obtenerClientePorId(cuenta.getClienteId());
+        String clienteNombre = clienteNombreCache.nombre(clienteId);
         for (MovimientoResponseDto dto : movimientosDto) {
-            dto.setClienteNombre(cliente.getNombre());
+            dto.setClienteNombre(clienteNombre);
         }
 
         return movimientosDto;
@@ -122,77 +202,156 @@ public class MovimientoService {
 
     /**
      * Actualiza un movimiento existente con los nuevos datos proporcionados.
+     * Con el motor de saldos habilitado, el cambio se aplica en la partición de la cuenta ({@link MotorSaldosService#ajustarSaldo}).
      *
      * @param id ID del movimiento a actualizar.
      * @param movimientoRequestDto Datos actualizados del movimiento.
      * @return MovimientoResponseDto con los detalles del movimiento actualizado.
      * @throws ResourceNotFoundException si el movimiento no se encuentra.
+     * @throws MovimientoArchivadoException si el movimiento pertenece a un periodo archivado.
      * @throws SaldoInsuficienteException si el saldo no es suficiente para realizar el movimiento.
      */
-    @Transactional
     public MovimientoResponseDto actualizarMovimiento(Long id, MovimientoRequestDto movimientoRequestDto) {
-        Movimiento movimiento = movimientoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Movimiento no encontrado"));
+        if (!motorSaldosService.isHabilitado()) {
+            return transactionTemplate.execute(status -> actualizar(id, movimientoRequestDto, null));
+        }
+        MovimientoResponseDto[] actualizado = new MovimientoResponseDto[1];
+        motorSaldosService.ajustarSaldo(cuentaDelMovimiento(id), saldoActual -> {
+            actualizado[0] = transactionTemplate.execute(status -> actualizar(id, movimientoRequestDto, saldoActual));
+            return actualizado[0].getCuentaId().getSaldoActual();
+        });
+        return actualizado[0];
+    }
 
-        // Verificar y actualizar la cuenta relacionada
+    /**
+     * Actualiza un movimiento en la transacción actual.
+     *
+     * @param saldoMotor Saldo de la cuenta en el motor de saldos, o {@code null} si el motor no está habilitado.
+     */
+    private MovimientoResponseDto actualizar(Long id, MovimientoRequestDto movimientoRequestDto, Double saldoMotor) {
+        Movimiento movimiento = movimientoModificable(id);
+
+        // Actualizar y verificar el saldo de la cuenta relacionada; si no alcanza, la transacción revierte el ajuste
         Cuenta cuenta = movimiento.getCuenta();
-        double nuevoSaldo = cuenta.getSaldoActual() + movimientoRequestDto.getMovimiento() - movimiento.getValor();
+        double delta = movimientoRequestDto.getMovimiento() - movimiento.getValor();
+        double nuevoSaldo = ajustarSaldo(cuenta.getId(), delta, saldoMotor);
 
         if (nuevoSaldo < 0) {
             throw new SaldoInsuficienteException("Saldo no disponible");
         }
 
+        // Los extractos de los meses cerrados de la fecha anterior y la nueva dejan de ser válidos
+        extractoMensualRepository.invalidar(List.of(new Object[]{cuenta.getId(), movimiento.getFecha()},
+                new Object[]{cuenta.getId(), movimientoRequestDto.getFecha()}));
+
         // Actualizar movimiento
         movimiento.setFecha(movimientoRequestDto.getFecha());
         movimiento.setTipoMovimiento(movimientoRequestDto.getTipo());
         movimiento.setValor(movimientoRequestDto.getMovimiento());
         movimiento.setSaldo(nuevoSaldo);
         Movimiento updatedMovimiento = movimientoRepository.save(movimiento);
+        movimientoOutboxService.registrar(MovimientoOutboxService.MOVIMIENTO_ACTUALIZADO, updatedMovimiento);
+        hubCambiosCuenta.publicarAlConfirmar(cambio(MovimientoOutboxService.MOVIMIENTO_ACTUALIZADO, updatedMovimiento, nuevoSaldo));
 
-        // Actualizar el saldo actual de la cuenta
-        cuenta.setSaldoActual(nuevoSaldo);
-        cuentaRepository.save(cuenta);
+        MovimientoResponseDto dto = convertToDto(updatedMovimiento);
+        dto.getCuentaId().setSaldoActual(nuevoSaldo);
+        movimientosColumnaresCache.invalidar(cuenta.getId());
 
-        return convertToDto(updatedMovimiento);
+        return dto;
     }
 
     /**
      * Elimina un movimiento específico por su ID.
+     * Con el motor de saldos habilitado, el cambio se aplica en la partición de la cuenta ({@link MotorSaldosService#ajustarSaldo}).
      *
      * @param id ID del movimiento a eliminar.
      * @throws ResourceNotFoundException si el movimiento no se encuentra.
+     * @throws MovimientoArchivadoException si el movimiento pertenece a un periodo archivado.
      */
-    @Transactional
     public void eliminarMovimiento(Long id) {
-        Movimiento movimiento = movimientoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Movimiento no encontrado"));
+        if (!motorSaldosService.isHabilitado()) {
+            transactionTemplate.executeWithoutResult(status -> eliminar(id, null));
+            return;
+        }
+        motorSaldosService.ajustarSaldo(cuentaDelMovimiento(id),
+                saldoActual -> transactionTemplate.execute(status -> eliminar(id, saldoActual)));
+    }
+
+    /**
+     * Elimina un movimiento en la transacción actual.
+     *
+     * @param saldoMotor Saldo de la cuenta en el motor de saldos, o {@code null} si el motor no está habilitado.
+     * @return Saldo de la cuenta tras la eliminación.
+     */
+    private double eliminar(Long id, Double saldoMotor) {
+        Movimiento movimiento = movimientoModificable(id);
 
         // Actualizar el saldo de la cuenta
         Cuenta cuenta = movimiento.getCuenta();
-        double nuevoSaldo = cuenta.getSaldoActual() - movimiento.getValor();
-        cuenta.setSaldoActual(nuevoSaldo);
-        cuentaRepository.save(cuenta);
+        double nuevoSaldo = ajustarSaldo(cuenta.getId(), -movimiento.getValor(), saldoMotor);
+        movimientosColumnaresCache.invalidar(cuenta.getId());
+        extractoMensualRepository.invalidar(cuenta.getId(), movimiento.getFecha());
 
+        movimientoOutboxService.registrar(MovimientoOutboxService.MOVIMIENTO_ELIMINADO, movimiento);
+        hubCambiosCuenta.publicarAlConfirmar(cambio(MovimientoOutboxService.MOVIMIENTO_ELIMINADO, movimiento, nuevoSaldo));
         movimientoRepository.deleteById(id);
+        return nuevoSaldo;
     }
 
     /**
-     * Obtiene la información de un cliente desde el microservicio clientePersona.
+     * Suma una diferencia al saldo de la cuenta con un único {@code UPDATE} atómico, que además bloquea su fila hasta
+     * el fin de la transacción. Nunca se escribe un saldo absoluto leído antes: el motor de saldos, el group commit y
+     * el volcado del buffer write-behind suman sus propios deltas a {@code saldo_actual} sin pasar por la entidad.
      *
-     * @param clienteId ID del cliente cuya información se desea obtener.
-     * @return ClienteResponseDto con los detalles del cliente obtenido.
-     * @throws RuntimeException si ocurre un error al intentar obtener el cliente (errores 4xx o 5xx).
+     * @param cuentaId ID de la cuenta.
+     * @param delta Diferencia a sumar.
+     * @param saldoMotor Saldo de la cuenta en el motor de saldos, o {@code null} si el motor no está habilitado.
+     * @return Saldo de la cuenta tras el ajuste, incluidos los créditos aún no volcados por el buffer write-behind.
      */
-    private ClienteResponseDto obtenerClientePorId(Long clienteId) {
-        return webClient.get()
-                .uri("/clientes/{id}", clienteId)  // Endpoint del microservicio clientePersona
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError(), response -> Mono.error(new RuntimeException("Cliente no encontrado")))
-                .onStatus(status -> status.is5xxServerError(), response -> Mono.error(new RuntimeException("Error en el servidor de clientePersona")))
-                .bodyToMono(ClienteResponseDto.class)
-                .block();  // Bloqueamos para obtener el resultado sincrónicamente (podrías hacerlo de forma reactiva también)
+    private double ajustarSaldo(Long cuentaId, double delta, Double saldoMotor) {
+        cuentaRepository.ajustarSaldo(cuentaId, delta);
+        if (saldoMotor != null) {
+            return saldoMotor + delta;
+        }
+        // Con la fila ya bloqueada, saldo_actual y los créditos pendientes del buffer se leen coherentes
+        return cuentaRepository.findSaldoActualById(cuentaId) + saldoWriteBehindBuffer.pendiente(cuentaId);
     }
 
+    /**
+     * ID de la cuenta de un movimiento modificable, para elegir la partición del motor que aplicará el cambio.
+     */
+    private long cuentaDelMovimiento(Long id) {
+        return movimientoModificable(id).getCuenta().getId();
+    }
+
+    /**
+     * Busca en el nivel caliente un movimiento que se va a modificar. Los archivados son de solo lectura: sus saldos
+     * y los extractos de su periodo ya están cerrados.
+     *
+     * @param id ID del movimiento.
+     * @return El movimiento, gestionado por el contexto de persistencia.
+     * @throws MovimientoArchivadoException si el movimiento está archivado.
+     * @throws ResourceNotFoundException si el movimiento no existe.
+     */
+    private Movimiento movimientoModificable(Long id) {
+        return movimientoRepository.findById(id).orElseThrow(() -> movimientoRepository.existeArchivado(id)
+                ? new MovimientoArchivadoException("Movimiento archivado: no se puede modificar")
+                : new ResourceNotFoundException("Movimiento no encontrado"));
+    }
+
+    /**
+     * Construye el cambio publicado a los suscriptores de la cuenta del movimiento.
+     *
+     * @param tipoEvento Tipo de evento.
+     * @param movimiento Movimiento modificado.
+     * @param saldoActual Saldo de la cuenta tras el cambio.
+     * @return CambioCuentaDto con los datos del movimiento.
+     */
+    private CambioCuentaDto cambio(String tipoEvento, Movimiento movimiento, double saldoActual) {
+        Cuenta cuenta = movimiento.getCuenta();
+        return new CambioCuentaDto(tipoEvento, cuenta.getId(), cuenta.getNumeroCuenta(), saldoActual, movimiento.getId(),
+                movimiento.getFecha(), movimiento.getTipoMovimiento(), movimiento.getValor());
+    }
 
     /**
      * Convierte una entidad Movimiento en un DTO MovimientoResponseDto.
@@ -0,0 +1,380 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.dto.response.ReconciliacionResultadoDto;
+import com.example.cuentaMovimientos.repository.ExtractoMensualRepository;
+import com.example.cuentaMovimientos.repository.MovimientoArchivoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconciliación de {@code cuentas.saldo_actual} y de la cadena de saldos de {@code movimientos} con el historial.
+ * <p>
+ * El rango de IDs de cuentas se divide en tramos de {@code range-size} cuentas que se procesan en un
+ * {@link ForkJoinPool} de {@code parallelism} hilos (cada hilo ocupa una conexión del pool mientras procesa su tramo,
+ * y una segunda mientras escribe reparaciones).
+ * Por tramo se leen los saldos de las cuentas y se recorren sus movimientos en orden ({@code cuenta_id, fecha, id},
+ * apoyado en {@code idx_movimientos_cuenta_fecha}) con {@code fetch-size} filas por viaje. Connector/J solo respeta
+ * un fetch size positivo con {@code useCursorFetch=true} (activado en el perfil {@code performance}); sin él
+ * carga el resultado completo del tramo en memoria, acotado por {@code range-size}. Si el archivo está habilitado, se incluyen los movimientos
+ * de {@code movimientos_archivo}.
+ * </p>
+ * <p>
+ * Se detectan dos tipos de descuadre:
+ * <ul>
+ *     <li>saldo de cuenta: {@code saldo_actual} distinto de {@code saldo_inicial} más los movimientos aplicados
+ *     (los créditos pendientes del buffer write-behind aún no forman parte de {@code saldo_actual});</li>
+ *     <li>cadena rota: el {@code saldo} de un movimiento no es el saldo anterior más su valor.</li>
+ * </ul>
+ * Con {@code repair=true} las correcciones se escriben en lotes de {@code repair-batch-size}. Cada actualización
+ * exige que el valor siga siendo el leído, de modo que no se pisa un saldo modificado durante la reconciliación. Los
+ * extractos mensuales de los meses cerrados con movimientos reparados se invalidan en la misma transacción.
+ * </p>
+ * <p>
+ * Métricas: {@code reconciliacion.cuentas.procesadas}, {@code reconciliacion.progreso} (0..1),
+ * {@code reconciliacion.descuadres} (etiqueta {@code tipo}) y {@code reconciliacion.reparaciones} (etiqueta {@code tipo}).
+ * </p>
+ */
+@Slf4j
+@Lazy(false)
+@Service
+public class ReconciliacionService {
+
+    private static final String COLUMNAS = "cuenta_id, fecha, id, valor, saldo, aplicado";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate lecturaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MovimientoArchivoRepository movimientoArchivoRepository;
+    private final ExtractoMensualRepository extractoMensualRepository;
+    private final boolean habilitado;
+    private final boolean reparar;
+    private final int paralelismo;
+    private final long tamanoTramo;
+    private final int tamanoLoteReparacion;
+    private final double tolerancia;
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean();
+    private final AtomicLong cuentasProcesadas = new AtomicLong();
+    private final AtomicLong cuentasTotales = new AtomicLong();
+    private final Counter descuadresSaldo;
+    private final Counter descuadresCadena;
+    private final Counter reparacionesSaldo;
+    private final Counter reparacionesCadena;
+
+    public ReconciliacionService(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 MovimientoArchivoRepository movimientoArchivoRepository,
+                                 ExtractoMensualRepository extractoMensualRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cuenta-movimientos.reconciliacion.enabled:false}") boolean habilitado,
+                                 @Value("${cuenta-movimientos.reconciliacion.repair:false}") boolean reparar,
+                                 @Value("${cuenta-movimientos.reconciliacion.parallelism:4}") int paralelismo,
+                                 @Value("${cuenta-movimientos.reconciliacion.range-size:10000}") long tamanoTramo,
+                                 @Value("${cuenta-movimientos.reconciliacion.fetch-size:1000}") int fetchSize,
+                                 @Value("${cuenta-movimientos.reconciliacion.repair-batch-size:500}") int tamanoLoteReparacion,
+                                 @Value("${cuenta-movimientos.reconciliacion.tolerance:0.005}") double tolerancia) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lecturaTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.lecturaTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = transactionTemplate;
+        this.movimientoArchivoRepository = movimientoArchivoRepository;
+        this.extractoMensualRepository = extractoMensualRepository;
+        this.habilitado = habilitado;
+        this.reparar = reparar;
+        this.paralelismo = paralelismo;
+        this.tamanoTramo = tamanoTramo;
+        this.tamanoLoteReparacion = tamanoLoteReparacion;
+        this.tolerancia = tolerancia;
+
+        Gauge.builder("reconciliacion.cuentas.procesadas", cuentasProcesadas, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("reconciliacion.progreso", this, ReconciliacionService::progreso).register(meterRegistry);
+        this.descuadresSaldo = Counter.builder("reconciliacion.descuadres").tag("tipo", "saldo").register(meterRegistry);
+        this.descuadresCadena = Counter.builder("reconciliacion.descuadres").tag("tipo", "cadena").register(meterRegistry);
+        this.reparacionesSaldo = Counter.builder("reconciliacion.reparaciones").tag("tipo", "saldo").register(meterRegistry);
+        this.reparacionesCadena = Counter.builder("reconciliacion.reparaciones").tag("tipo", "cadena").register(meterRegistry);
+    }
+
+    /**
+     * Ejecución nocturna programada.
+     */
+    @Scheduled(cron = "${cuenta-movimientos.reconciliacion.cron:0 0 1 * * *}")
+    public void ejecutar() {
+        if (habilitado) {
+            reconciliar(reparar);
+        }
+    }
+
+    /**
+     * Reconcilia todas las cuentas. Si ya hay una reconciliación en curso, no hace nada.
+     *
+     * @param reparar {@code true} para corregir los descuadres encontrados.
+     * @return Resumen de la ejecución, o {@code null} si ya había una en curso.
+     */
+    public ReconciliacionResultadoDto reconciliar(boolean reparar) {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            log.warn("Ya hay una reconciliación en curso");
+            return null;
+        }
+        try {
+            return reconciliarTodo(reparar);
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+
+    private ReconciliacionResultadoDto reconciliarTodo(boolean reparar) {
+        long inicio = System.currentTimeMillis();
+        Map<String, Object> limites = jdbcTemplate.queryForMap("SELECT MIN(id) AS minimo, MAX(id) AS maximo, COUNT(*) AS total FROM cuentas");
+        cuentasProcesadas.set(0);
+        cuentasTotales.set(((Number) limites.get("total")).longValue());
+        Totales totales = new Totales();
+
+        if (limites.get("minimo") != null) {
+            long desde = ((Number) limites.get("minimo")).longValue();
+            long hasta = ((Number) limites.get("maximo")).longValue() + 1;
+            boolean conArchivo = movimientoArchivoRepository.isHabilitado();
+            ForkJoinPool pool = new ForkJoinPool(paralelismo);
+            try {
+                pool.invoke(new Tramo(desde, hasta, reparar, conArchivo, totales));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        ReconciliacionResultadoDto resultado = new ReconciliacionResultadoDto(
+                totales.cuentas.get(), totales.movimientos.get(), totales.saldosDescuadrados.get(),
+                totales.movimientosDescuadrados.get(), totales.saldosReparados.get(), totales.movimientosReparados.get(),
+                System.currentTimeMillis() - inicio);
+        log.info("Reconciliación terminada en {} ms: {} cuentas, {} movimientos, {} saldos descuadrados, "
+                        + "{} movimientos con saldo incorrecto, {} saldos y {} movimientos reparados",
+                resultado.getDuracionMs(), resultado.getCuentasRevisadas(), resultado.getMovimientosRevisados(),
+                resultado.getSaldosDescuadrados(), resultado.getMovimientosConSaldoIncorrecto(),
+                resultado.getSaldosReparados(), resultado.getMovimientosReparados());
+        return resultado;
+    }
+
+    private double progreso() {
+        long total = cuentasTotales.get();
+        return total == 0 ? 0.0 : (double) cuentasProcesadas.get() / total;
+    }
+
+    /**
+     * Tramo {@code [desde, hasta)} de IDs de cuenta; se divide en dos hasta alcanzar {@code tamanoTramo}.
+     */
+    private final class Tramo extends RecursiveAction {
+
+        private final long desde;
+        private final long hasta;
+        private final boolean reparar;
+        private final boolean conArchivo;
+        private final Totales totales;
+
+        private Tramo(long desde, long hasta, boolean reparar, boolean conArchivo, Totales totales) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.reparar = reparar;
+            this.conArchivo = conArchivo;
+            this.totales = totales;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= tamanoTramo) {
+                try {
+                    new Revision(reparar, conArchivo, totales).revisar(desde, hasta);
+                } catch (RuntimeException e) {
+                    log.error("Fallo al reconciliar las cuentas [{}, {})", desde, hasta, e);
+                }
+                return;
+            }
+            long mitad = desde + (hasta - desde) / 2;
+            invokeAll(new Tramo(desde, mitad, reparar, conArchivo, totales),
+                    new Tramo(mitad, hasta, reparar, conArchivo, totales));
+        }
+    }
+
+    /**
+     * Revisión de un tramo: recorre los movimientos en orden manteniendo el saldo esperado de la cuenta en curso.
+     * Solo la usa un hilo.
+     */
+    private final class Revision {
+
+        private final boolean reparar;
+        private final boolean conArchivo;
+        private final Totales totales;
+        private final List<Object[]> saldosAReparar = new ArrayList<>();
+        private final List<Object[]> movimientosAReparar = new ArrayList<>();
+        // [cuentaId, fecha] de cada movimiento de movimientosAReparar, en el mismo orden
+        private final List<Object[]> fechasAReparar = new ArrayList<>();
+        private final List<Object[]> versionesAIncrementar = new ArrayList<>();
+
+        private Map<Long, double[]> cuentas;
+        private long cuentaActual = -1;
+        private double saldoEsperado;
+        private double saldoAplicado;
+        private boolean cadenaReparada;
+
+        private Revision(boolean reparar, boolean conArchivo, Totales totales) {
+            this.reparar = reparar;
+            this.conArchivo = conArchivo;
+            this.totales = totales;
+        }
+
+        private void revisar(long desde, long hasta) {
+            cuentas = new HashMap<>();
+            jdbcTemplate.query("SELECT id, saldo_inicial, saldo_actual FROM cuentas WHERE id >= ? AND id < ?",
+                    (RowCallbackHandler) rs -> cuentas.put(rs.getLong("id"),
+                            new double[]{rs.getDouble("saldo_inicial"), rs.getDouble("saldo_actual")}),
+                    desde, hasta);
+            if (cuentas.isEmpty()) {
+                return;
+            }
+
+            String sql = conArchivo
+                    ? "SELECT " + COLUMNAS + " FROM movimientos_archivo WHERE cuenta_id >= ? AND cuenta_id < ? "
+                    + "UNION SELECT " + COLUMNAS + " FROM movimientos WHERE cuenta_id >= ? AND cuenta_id < ? "
+                    + "ORDER BY cuenta_id, fecha, id"
+                    : "SELECT " + COLUMNAS + " FROM movimientos WHERE cuenta_id >= ? AND cuenta_id < ? ORDER BY cuenta_id, fecha, id";
+            Object[] parametros = conArchivo ? new Object[]{desde, hasta, desde, hasta} : new Object[]{desde, hasta};
+            lecturaTemplate.query(sql, (RowCallbackHandler) rs -> {
+                long cuentaId = rs.getLong("cuenta_id");
+                if (cuentaId != cuentaActual) {
+                    cerrarCuenta();
+                    abrirCuenta(cuentaId);
+                }
+                double valor = rs.getDouble("valor");
+                double saldo = rs.getDouble("saldo");
+                Object aplicado = rs.getObject("aplicado");
+                saldoEsperado += valor;
+                if (aplicado == null || rs.getBoolean("aplicado")) {
+                    saldoAplicado += valor;
+                }
+                if (Math.abs(saldo - saldoEsperado) > tolerancia) {
+                    totales.movimientosDescuadrados.incrementAndGet();
+                    descuadresCadena.increment();
+                    if (reparar) {
+                        movimientosAReparar.add(new Object[]{saldoEsperado, rs.getLong("id"), saldo});
+                        fechasAReparar.add(new Object[]{cuentaId, rs.getObject("fecha", LocalDate.class)});
+                        cadenaReparada = true;
+                    }
+                }
+                totales.movimientos.incrementAndGet();
+            }, parametros);
+            cerrarCuenta();
+
+            // Cuentas sin movimientos
+            new ArrayList<>(cuentas.keySet()).forEach(id -> {
+                abrirCuenta(id);
+                cerrarCuenta();
+            });
+            escribirReparaciones();
+        }
+
+        private void abrirCuenta(long cuentaId) {
+            cuentaActual = cuentaId;
+            double[] saldos = cuentas.get(cuentaId);
+            saldoEsperado = saldos != null ? saldos[0] : 0.0;
+            saldoAplicado = saldoEsperado;
+            cadenaReparada = false;
+        }
+
+        private void cerrarCuenta() {
+            if (cuentaActual < 0) {
+                return;
+            }
+            double[] saldos = cuentas.remove(cuentaActual);
+            if (saldos != null) {
+                if (Math.abs(saldos[1] - saldoAplicado) > tolerancia) {
+                    totales.saldosDescuadrados.incrementAndGet();
+                    descuadresSaldo.increment();
+                    if (reparar) {
+                        saldosAReparar.add(new Object[]{saldoAplicado, cuentaActual, saldos[1]});
+                    }
+                } else if (cadenaReparada) {
+                    versionesAIncrementar.add(new Object[]{cuentaActual});
+                }
+                totales.cuentas.incrementAndGet();
+                cuentasProcesadas.incrementAndGet();
+            }
+            cuentaActual = -1;
+            if (saldosAReparar.size() + movimientosAReparar.size() >= tamanoLoteReparacion) {
+                escribirReparaciones();
+            }
+        }
+
+        private void escribirReparaciones() {
+            if (saldosAReparar.isEmpty() && movimientosAReparar.isEmpty() && versionesAIncrementar.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                int saldos = contar(jdbcTemplate.batchUpdate(
+                        "UPDATE cuentas SET saldo_actual = ?, version_datos = version_datos + 1 WHERE id = ? AND saldo_actual = ?",
+                        saldosAReparar));
+                int[] filas = jdbcTemplate.batchUpdate("UPDATE movimientos SET saldo = ? WHERE id = ? AND saldo = ?", movimientosAReparar);
+                if (conArchivo) {
+                    int[] archivadas = jdbcTemplate.batchUpdate(
+                            "UPDATE movimientos_archivo SET saldo = ? WHERE id = ? AND saldo = ?", movimientosAReparar);
+                    for (int i = 0; i < filas.length; i++) {
+                        filas[i] = filas[i] != 0 ? filas[i] : archivadas[i];
+                    }
+                }
+                int movimientos = contar(filas);
+                jdbcTemplate.batchUpdate("UPDATE cuentas SET version_datos = version_datos + 1 WHERE id = ?", versionesAIncrementar);
+
+                // Solo los meses de los movimientos realmente reparados (SUCCESS_NO_INFO cuenta como reparado)
+                List<Object[]> reparados = new ArrayList<>();
+                for (int i = 0; i < filas.length; i++) {
+                    if (filas[i] != 0) {
+                        reparados.add(fechasAReparar.get(i));
+                    }
+                }
+                extractoMensualRepository.invalidar(reparados);
+
+                totales.saldosReparados.addAndGet(saldos);
+                totales.movimientosReparados.addAndGet(movimientos);
+                reparacionesSaldo.increment(saldos);
+                reparacionesCadena.increment(movimientos);
+            });
+            saldosAReparar.clear();
+            movimientosAReparar.clear();
+            fechasAReparar.clear();
+            versionesAIncrementar.clear();
+        }
+
+        private int contar(int[] filas) {
+            int total = 0;
+            for (int f : filas) {
+                total += Math.max(f, 0);
+            }
+            return total;
+        }
+    }
+
+    private static final class Totales {
+        private final AtomicLong cuentas = new AtomicLong();
+        private final AtomicLong movimientos = new AtomicLong();
+        private final AtomicLong saldosDescuadrados = new AtomicLong();
+        private final AtomicLong movimientosDescuadrados = new AtomicLong();
+        private final AtomicLong saldosReparados = new AtomicLong();
+        private final AtomicLong movimientosReparados = new AtomicLong();
+    }
+}
@@ -1,16 +1,18 @@
 package com.example.cuentaMovimientos.service;
 
-import com.example.common.dto.response.ClienteResponseDto;
+import com.example.cuentaMovimientos.cache.ClienteNombreCache;
+import com.example.cuentaMovimientos.cache.CuentaMetadata;
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.cache.MovimientosColumnaresCache;
 import com.example.cuentaMovimientos.dto.response.*;
-import com.example.cuentaMovimientos.entity.Cuenta;
 import com.example.cuentaMovimientos.entity.Movimiento;
-import com.example.cuentaMovimientos.repository.CuentaRepository;
 import com.example.cuentaMovimientos.repository.MovimientoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -20,29 +22,37 @@ import java.util.stream.Collectors;
  * Servicio para la generación de reportes que consolidan la información de movimientos y cuentas.
  * <p>
  * Este servicio obtiene la información de cuentas y movimientos, y genera un reporte que incluye
- * detalles de las cuentas y sus movimientos dentro de un rango de fechas. Utiliza {@link WebClient}
- * para la comunicación con el microservicio de clientes.
+ * detalles de las cuentas y sus movimientos dentro de un rango de fechas. Los nombres de cliente se obtienen del
+ * microservicio de clientes a través de {@link ClienteNombreCache}.
  * </p>
  */
 @Service
 public class ReporteService {
 
-    private final CuentaRepository cuentaRepository;
+    private final CuentaMetadataCache cuentaMetadataCache;
     private final MovimientoRepository movimientoRepository;
-    private final WebClient webClient; // Usamos WebClient para comunicación entre microservicios
+    private final ExtractoMensualService extractoMensualService;
+    private final MovimientosColumnaresCache movimientosColumnaresCache;
+    private final ClienteNombreCache clienteNombreCache;
 
     /**
      * Constructor para inyectar las dependencias necesarias para la generación de reportes.
      *
-     * @param cuentaRepository Repositorio para acceder a la información de cuentas.
+     * @param cuentaMetadataCache Caché de metadatos de cuentas.
      * @param movimientoRepository Repositorio para acceder a la información de movimientos.
-     * @param webClientBuilder Builder para configurar WebClient.
+     * @param extractoMensualService Extractos precalculados de los meses cerrados.
+     * @param movimientosColumnaresCache Caché columnar de los movimientos recientes.
+     * @param clienteNombreCache Caché de nombres de cliente de clientePersona.
      */
     @Autowired
-    public ReporteService(CuentaRepository cuentaRepository, MovimientoRepository movimientoRepository, WebClient.Builder webClientBuilder) {
-        this.cuentaRepository = cuentaRepository;
+    public ReporteService(CuentaMetadataCache cuentaMetadataCache, MovimientoRepository movimientoRepository,
+                          ExtractoMensualService extractoMensualService, MovimientosColumnaresCache movimientosColumnaresCache,
+                          ClienteNombreCache clienteNombreCache) {
+        this.cuentaMetadataCache = cuentaMetadataCache;
         this.movimientoRepository = movimientoRepository;
-        this.webClient = webClientBuilder.baseUrl("http://localhost:8080").build();
+        this.extractoMensualService = extractoMensualService;
+        this.movimientosColumnaresCache = movimientosColumnaresCache;
+        this.clienteNombreCache = clienteNombreCache;
     }
 
     /**
@@ -53,28 +63,31 @@ public class ReporteService {
      * @param fechaFin Fecha de fin del rango para el reporte.
      * @return {@link ReporteResponseDto} con la información del reporte generado.
      */
+    @Transactional(readOnly = true)
     public ReporteResponseDto generarReporte(List<Long> cuentasIds, LocalDate fechaInicio, LocalDate fechaFin) {
         ReporteResponseDto reporte = new ReporteResponseDto();
 
         for (Long cuentaId : cuentasIds) {
-            Optional<Cuenta> cuentaOpt = cuentaRepository.findById(cuentaId);
+            Optional<CuentaMetadata> cuentaOpt = cuentaMetadataCache.porId(cuentaId);
 
             if (cuentaOpt.isPresent()) {
-                Cuenta cuenta = cuentaOpt.get();
+                CuentaMetadata cuenta = cuentaOpt.get();
 
                 // Usar clienteId en lugar de Cliente
-                ClienteResponseDto cliente = obtenerClientePorId(cuenta.getClienteId());
-                reporte.setCliente(cliente.getNombre());
+                reporte.setCliente(clienteNombreCache.nombre(cuenta.getClienteId()));
 
-                // Obtener movimientos en el rango de fechas
-                List<Movimiento> movimientos = movimientoRepository.findByCuentaIdAndFechaBetween(cuentaId, fechaInicio, fechaFin);
-                List<MovimientoReporteDto> movimientosDto = convertirMovimientosAReporteDto(movimientos);
+                // Obtener movimientos en el rango de fechas: los rangos recientes salen de la caché columnar y, si no,
+                // los meses cerrados salen de sus extractos si están activos
+                List<MovimientoReporteDto> movimientosDto = movimientosColumnaresCache.movimientos(cuentaId, fechaInicio, fechaFin)
+                        .orElseGet(() -> extractoMensualService.isHabilitado()
+                                ? extractoMensualService.movimientos(cuentaId, fechaInicio, fechaFin)
+                                : convertirMovimientosAReporteDto(movimientoRepository.findByCuentaIdAndFechaBetween(cuentaId, fechaInicio, fechaFin)));
 
                 // Establecer el saldo inicial y calcular el saldo actual
                 double saldoInicial = cuenta.getSaldoInicial();
                 double saldoActual = saldoInicial;
 
-                for (Movimiento movimiento : movimientos) {
+                for (MovimientoReporteDto movimiento : movimientosDto) {
                     saldoActual += movimiento.getValor();
                 }
 
@@ -95,20 +108,25 @@ public class ReporteService {
     }
 
     /**
-     * Obtiene información del cliente desde el microservicio clientePersona.
+     * Calcula un ETag fuerte a partir del reporte ya generado, con los mismos campos que se serializan: cambia si y
+     * solo si cambia el cuerpo de la respuesta, sin consultas ni llamadas a clientePersona adicionales.
      *
-     * @param clienteId ID del cliente cuyo detalle se desea obtener.
-     * @return {@link ClienteResponseDto} con la información del cliente.
-     * @throws RuntimeException Si el cliente no se encuentra o hay un error en el servidor.
+     * @param reporte Reporte generado por {@link #generarReporte}.
+     * @return ETag entre comillas.
      */
-    private ClienteResponseDto obtenerClientePorId(Long clienteId) {
-        return webClient.get()
-                .uri("/clientes/{id}", clienteId)  // Endpoint del microservicio clientePersona
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError(), response -> Mono.error(new RuntimeException("Cliente no encontrado")))
-                .onStatus(status -> status.is5xxServerError(), response -> Mono.error(new RuntimeException("Error en el servidor de clientePersona")))
-                .bodyToMono(ClienteResponseDto.class)
-                .block();  // Bloqueamos para obtener el resultado sincrónicamente (podrías hacerlo de forma reactiva también)
+    public String calcularEtag(ReporteResponseDto reporte) {
+        StringBuilder clave = new StringBuilder().append(reporte.getCliente());
+        if (reporte.getCuentas() != null) {
+            for (CuentaReporteDto cuenta : reporte.getCuentas()) {
+                clave.append('|').append(cuenta.getNumeroCuenta()).append(':').append(cuenta.getTipoCuenta())
+                        .append(':').append(cuenta.getSaldoInicial()).append(':').append(cuenta.getEstado());
+                for (MovimientoReporteDto movimiento : cuenta.getMovimientos()) {
+                    clave.append(';').append(movimiento.getFecha()).append(':').append(movimiento.getTipoMovimiento())
+                            .append(':').append(movimiento.getValor()).append(':').append(movimiento.getSaldo());
+                }
+            }
+        }
+        return "\"reporte-" + DigestUtils.md5DigestAsHex(clave.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
     }
 
     /**
@@ -0,0 +1,300 @@
+package com.example.cuentaMovimientos.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer de escritura diferida (write-behind) para los saldos de las cuentas.
+ * <p>
+ * Cuando está habilitado, los créditos registrados por {@link MovimientoService} no actualizan
+ * {@code cuentas.saldo_actual} en cada petición: el delta se acumula en memoria por cuenta y un hilo propio
+ * ({@code write-behind-volcado}, separado del planificador compartido con los procesos nocturnos) lo vuelca cada
+ * {@code flush-interval-ms} en lotes de {@code UPDATE}. Los movimientos diferidos se guardan con
+ * {@code aplicado = false} y se marcan como aplicados en la misma transacción del volcado, de modo que al reiniciar
+ * se recuperan los deltas pendientes a partir de la tabla {@code movimientos}.
+ * </p>
+ * <p>
+ * {@link #pendiente(Long)} incluye en todo momento los créditos de transacciones aún abiertas, los acumulados y los
+ * que se están volcando: estos últimos se descuentan justo antes de confirmar el volcado, mientras conserva los
+ * bloqueos de fila. Así, quien lea el saldo con la fila de la cuenta bloqueada ({@code saldo_actual + pendiente})
+ * nunca cuenta un delta dos veces ni lo pierde. Por eso todos los movimientos, créditos incluidos, bloquean la fila
+ * de la cuenta mientras calculan su saldo. Un volcado fallido devuelve sus deltas al buffer.
+ * </p>
+ * <p>
+ * En consecuencia, el write-behind no elimina la contención sobre la fila de una cuenta muy activa: los movimientos
+ * de una misma cuenta siguen serializados por su bloqueo. Lo que ahorra es el {@code UPDATE} de {@code cuentas} de
+ * cada crédito, que se agrupa en el volcado.
+ * </p>
+ * <p>
+ * La versión de datos de la cuenta (ETag) se incrementa al volcar, no al registrar el crédito. El buffer es local a la
+ * instancia, por lo que el modo write-behind admite una única instancia registrando movimientos.
+ * </p>
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class SaldoWriteBehindBuffer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final long intervaloMs;
+    private final Map<Long, Pendiente> pendientes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService volcador;
+
+    public SaldoWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${cuenta-movimientos.write-behind.enabled:false}") boolean habilitado,
+                                  @Value("${cuenta-movimientos.write-behind.flush-interval-ms:5}") long intervaloMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.habilitado = habilitado;
+        this.intervaloMs = intervaloMs;
+        this.volcador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "write-behind-volcado");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * @return {@code true} si los créditos deben registrarse de forma diferida.
+     */
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Obtiene el delta que aún no está en {@code saldo_actual} para una cuenta. Solo es coherente con
+     * {@code saldo_actual} si se lee con la fila de la cuenta bloqueada.
+     *
+     * @param cuentaId ID de la cuenta.
+     * @return Suma de los créditos registrados pendientes de aplicar a {@code saldo_actual}.
+     */
+    public double pendiente(Long cuentaId) {
+        Pendiente pendiente = pendientes.get(cuentaId);
+        return pendiente != null ? pendiente.total : 0.0;
+    }
+
+    /**
+     * Registra un crédito diferido de la transacción actual. El delta cuenta desde ya en {@link #pendiente(Long)}
+     * (la transacción mantiene bloqueada la fila de la cuenta), pero solo se vuelca cuando la transacción se confirma;
+     * si se revierte, se descarta.
+     *
+     * @param cuentaId ID de la cuenta acreditada.
+     * @param movimientoId ID del movimiento guardado con {@code aplicado = false}.
+     * @param valor Valor del crédito.
+     */
+    public void acumularAlConfirmar(Long cuentaId, Long movimientoId, double valor) {
+        pendientes.compute(cuentaId, (id, pendiente) -> {
+            Pendiente actual = pendiente != null ? pendiente : new Pendiente();
+            actual.reservar(valor);
+            return actual;
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                pendientes.compute(cuentaId, (id, pendiente) -> {
+                    pendiente.liberarReserva(movimientoId, valor, status == STATUS_COMMITTED);
+                    return pendiente.vacio() ? null : pendiente;
+                });
+            }
+        });
+    }
+
+    /**
+     * Vuelca los deltas acumulados a la tabla {@code cuentas} en una única transacción con
+     * sentencias por lotes. Si el volcado falla, los deltas se reincorporan al buffer.
+     */
+    public void volcar() {
+        // Ordenado por ID para que los bloqueos de fila se tomen siempre en el mismo orden
+        Map<Long, Volcado> lote = new TreeMap<>();
+        for (Long cuentaId : pendientes.keySet()) {
+            pendientes.computeIfPresent(cuentaId, (id, pendiente) -> {
+                Volcado volcado = pendiente.iniciarVolcado();
+                if (volcado != null) {
+                    lote.put(id, volcado);
+                }
+                return pendiente;
+            });
+        }
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        boolean[] descontado = {false};
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                escribirLote(lote);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        // Aún con las filas bloqueadas: quien las bloquee después ya ve el saldo_actual nuevo
+                        lote.forEach((cuentaId, volcado) -> pendientes.computeIfPresent(cuentaId, (id, pendiente) -> {
+                            pendiente.descontar(volcado);
+                            return pendiente;
+                        }));
+                        descontado[0] = true;
+                    }
+                });
+            });
+            lote.keySet().forEach(cuentaId -> pendientes.computeIfPresent(cuentaId, (id, pendiente) -> {
+                pendiente.terminarVolcado();
+                return pendiente.vacio() ? null : pendiente;
+            }));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo volcar el buffer de saldos ({} cuentas), se reintentará", lote.size(), e);
+            lote.forEach((cuentaId, volcado) -> pendientes.computeIfPresent(cuentaId, (id, pendiente) -> {
+                pendiente.revertirVolcado(volcado, descontado[0]);
+                return pendiente;
+            }));
+        }
+    }
+
+    /**
+     * Recupera al arrancar los créditos que quedaron sin volcar en una ejecución anterior y arranca el volcado
+     * periódico.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void recuperarPendientes() {
+        if (!habilitado) {
+            return;
+        }
+        jdbcTemplate.query("SELECT id, cuenta_id, valor FROM movimientos WHERE aplicado = FALSE",
+                (RowCallbackHandler) rs -> {
+                    long cuentaId = rs.getLong("cuenta_id");
+                    long movimientoId = rs.getLong("id");
+                    double valor = rs.getDouble("valor");
+                    pendientes.compute(cuentaId, (id, pendiente) -> {
+                        Pendiente actual = pendiente != null ? pendiente : new Pendiente();
+                        actual.recuperar(movimientoId, valor);
+                        return actual;
+                    });
+                });
+        if (!pendientes.isEmpty()) {
+            log.info("Recuperados créditos pendientes de volcado para {} cuentas", pendientes.size());
+        }
+        volcador.scheduleWithFixedDelay(this::volcarSinPropagar, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        volcador.shutdown();
+        try {
+            if (volcador.awaitTermination(5, TimeUnit.SECONDS)) {
+                volcar();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void volcarSinPropagar() {
+        try {
+            volcar();
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría las ejecuciones siguientes del ScheduledExecutorService
+            log.error("Error inesperado en el volcado del buffer de saldos", e);
+        }
+    }
+
+    private void escribirLote(Map<Long, Volcado> lote) {
+        List<Object[]> saldos = new ArrayList<>(lote.size());
+        List<Object[]> movimientos = new ArrayList<>();
+        lote.forEach((cuentaId, volcado) -> {
+            saldos.add(new Object[]{volcado.delta, cuentaId});
+            for (Long movimientoId : volcado.movimientoIds) {
+                movimientos.add(new Object[]{movimientoId});
+            }
+        });
+        jdbcTemplate.batchUpdate("UPDATE cuentas SET saldo_actual = saldo_actual + ?, version_datos = version_datos + 1 WHERE id = ?", saldos);
+        jdbcTemplate.batchUpdate("UPDATE movimientos SET aplicado = TRUE WHERE id = ?", movimientos);
+    }
+
+    /**
+     * Estado de los créditos de una cuenta: reservados por transacciones abiertas, acumulados (confirmados y listos
+     * para volcar) y en vuelo. {@code total} es la suma de los tres hasta que el volcado en vuelo se confirma.
+     * Solo se modifica dentro de {@link ConcurrentHashMap#compute} y métodos análogos.
+     */
+    private static final class Pendiente {
+        private volatile double total;
+        private int reservas;
+        private double delta;
+        private final List<Long> movimientoIds = new ArrayList<>();
+        private Volcado enVuelo;
+
+        private void reservar(double valor) {
+            reservas++;
+            total += valor;
+        }
+
+        private void liberarReserva(Long movimientoId, double valor, boolean confirmada) {
+            reservas--;
+            if (confirmada) {
+                delta += valor;
+                movimientoIds.add(movimientoId);
+            } else {
+                total -= valor;
+            }
+        }
+
+        private void recuperar(Long movimientoId, double valor) {
+            delta += valor;
+            total += valor;
+            movimientoIds.add(movimientoId);
+        }
+
+        private Volcado iniciarVolcado() {
+            if (enVuelo != null || movimientoIds.isEmpty()) {
+                return null;
+            }
+            enVuelo = new Volcado(delta, new ArrayList<>(movimientoIds));
+            delta = 0;
+            movimientoIds.clear();
+            return enVuelo;
+        }
+
+        private void descontar(Volcado volcado) {
+            total -= volcado.delta;
+        }
+
+        private void terminarVolcado() {
+            enVuelo = null;
+        }
+
+        private void revertirVolcado(Volcado volcado, boolean descontado) {
+            delta += volcado.delta;
+            movimientoIds.addAll(volcado.movimientoIds);
+            if (descontado) {
+                total += volcado.delta;
+            }
+            enVuelo = null;
+        }
+
+        private boolean vacio() {
+            return reservas == 0 && movimientoIds.isEmpty() && enVuelo == null;
+        }
+    }
+
+    private record Volcado(double delta, List<Long> movimientoIds) {
+    }
+}
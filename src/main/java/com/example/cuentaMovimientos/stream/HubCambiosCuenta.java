@@ -0,0 +1,221 @@
+package com.example.cuentaMovimientos.stream;
+
+import com.example.cuentaMovimientos.dto.event.CambioCuentaDto;
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.repository.CuentaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hub en proceso que reparte los cambios de cuentas a las conexiones SSE suscritas.
+ * <p>
+ * Los servicios publican cada cambio tras confirmar su transacción ({@link #publicarAlConfirmar}); el hub lo encola
+ * en el buffer acotado de cada suscriptor de la cuenta y programa su entrega en un pequeño pool de hilos, de modo que
+ * quien publica nunca espera a un cliente lento. Cada entrega envía como mucho {@code delivery-batch} eventos y se
+ * vuelve a programar, para repartir los hilos entre suscriptores. Una suscripción inactiva no ocupa hilos (petición
+ * asíncrona del servlet); un latido periódico mantiene abiertas las conexiones y detecta las cerradas.
+ * </p>
+ * <p>
+ * Métricas: {@code cambios.suscriptores}, {@code cambios.eventos.enviados} y {@code cambios.eventos.descartados}.
+ * </p>
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class HubCambiosCuenta {
+
+    public static final String SALDO_ACTUAL = "SALDO_ACTUAL";
+
+    private final CuentaRepository cuentaRepository;
+    private final int maxSuscriptores;
+    private final int capacidadBuffer;
+    private final int loteEntrega;
+    private final long timeoutMs;
+    private final ConcurrentHashMap<Long, Set<SuscriptorCambios>> suscripciones = new ConcurrentHashMap<>();
+    private final Set<SuscriptorCambios> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalSuscriptores = new AtomicInteger();
+    private final ExecutorService entregador;
+
+    private final Counter enviados;
+    private final Counter descartados;
+
+    public HubCambiosCuenta(CuentaRepository cuentaRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${cuenta-movimientos.cambios.max-subscribers:50000}") int maxSuscriptores,
+                            @Value("${cuenta-movimientos.cambios.buffer-size:256}") int capacidadBuffer,
+                            @Value("${cuenta-movimientos.cambios.delivery-batch:64}") int loteEntrega,
+                            @Value("${cuenta-movimientos.cambios.delivery-threads:8}") int hilosEntrega,
+                            @Value("${cuenta-movimientos.cambios.timeout:30m}") Duration timeout) {
+        this.cuentaRepository = cuentaRepository;
+        this.maxSuscriptores = maxSuscriptores;
+        this.capacidadBuffer = capacidadBuffer;
+        this.loteEntrega = loteEntrega;
+        this.timeoutMs = timeout.toMillis();
+        AtomicInteger contador = new AtomicInteger();
+        this.entregador = Executors.newFixedThreadPool(hilosEntrega, tarea -> {
+            Thread hilo = new Thread(tarea, "cambios-entrega-" + contador.getAndIncrement());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        this.enviados = Counter.builder("cambios.eventos.enviados").register(meterRegistry);
+        this.descartados = Counter.builder("cambios.eventos.descartados").register(meterRegistry);
+        Gauge.builder("cambios.suscriptores", totalSuscriptores, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Abre una suscripción a los cambios de las cuentas indicadas. El primer evento de cada cuenta es su saldo actual.
+     *
+     * @param cuentasIds IDs de las cuentas.
+     * @param politica Política para cuando el cliente no consume a tiempo.
+     * @return El emisor SSE, o vacío si el nodo ya tiene el máximo de suscriptores.
+     */
+    public Optional<SseEmitter> suscribir(Collection<Long> cuentasIds, PoliticaDesborde politica) {
+        if (totalSuscriptores.incrementAndGet() > maxSuscriptores) {
+            totalSuscriptores.decrementAndGet();
+            return Optional.empty();
+        }
+        SseEmitter emisor = new SseEmitter(timeoutMs);
+        SuscriptorCambios suscriptor = new SuscriptorCambios(emisor, Set.copyOf(cuentasIds), politica, capacidadBuffer);
+        emisor.onCompletion(() -> cancelar(suscriptor));
+        emisor.onTimeout(() -> cancelar(suscriptor));
+        emisor.onError(error -> cancelar(suscriptor));
+
+        // Registrar antes de leer los saldos para no perder cambios confirmados entretanto; si la lectura falla, la
+        // suscripción se deshace para no dejar un suscriptor sin conexión ocupando una plaza
+        suscriptores.add(suscriptor);
+        List<CambioCuentaDto> iniciales = new ArrayList<>();
+        try {
+            for (Long cuentaId : suscriptor.getCuentas()) {
+                suscripciones.compute(cuentaId, (id, conjunto) -> {
+                    Set<SuscriptorCambios> destino = conjunto != null ? conjunto : ConcurrentHashMap.newKeySet();
+                    destino.add(suscriptor);
+                    return destino;
+                });
+            }
+            for (Cuenta cuenta : cuentaRepository.findAllById(suscriptor.getCuentas())) {
+                iniciales.add(new CambioCuentaDto(SALDO_ACTUAL, cuenta.getId(), cuenta.getNumeroCuenta(), cuenta.getSaldoActual(),
+                        null, null, null, null));
+            }
+        } catch (RuntimeException e) {
+            cancelar(suscriptor);
+            throw e;
+        }
+        suscriptor.encolarPrimero(iniciales);
+        programar(suscriptor);
+        return Optional.of(emisor);
+    }
+
+    /**
+     * Publica un cambio cuando la transacción actual se confirme, o inmediatamente si no hay ninguna.
+     */
+    public void publicarAlConfirmar(CambioCuentaDto cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar(cambio);
+                }
+            });
+        } else {
+            publicar(cambio);
+        }
+    }
+
+    /**
+     * Encola un cambio ya confirmado en los suscriptores de su cuenta.
+     */
+    public void publicar(CambioCuentaDto cambio) {
+        Set<SuscriptorCambios> interesados = suscripciones.get(cambio.getCuentaId());
+        if (interesados == null) {
+            return;
+        }
+        for (SuscriptorCambios suscriptor : interesados) {
+            int perdidos = suscriptor.encolar(cambio);
+            if (perdidos > 0) {
+                descartados.increment(perdidos);
+            }
+            programar(suscriptor);
+        }
+    }
+
+    public int suscriptores() {
+        return totalSuscriptores.get();
+    }
+
+    /**
+     * Envía un latido a todas las conexiones; las que fallan se cierran.
+     */
+    @Scheduled(fixedDelayString = "${cuenta-movimientos.cambios.heartbeat-ms:20000}")
+    public void latir() {
+        for (SuscriptorCambios suscriptor : suscriptores) {
+            suscriptor.marcarLatido();
+            programar(suscriptor);
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        entregador.shutdownNow();
+        for (SuscriptorCambios suscriptor : suscriptores) {
+            suscriptor.getEmisor().complete();
+        }
+    }
+
+    private void programar(SuscriptorCambios suscriptor) {
+        if (suscriptor.programar()) {
+            entregador.execute(() -> entregar(suscriptor));
+        }
+    }
+
+    private void entregar(SuscriptorCambios suscriptor) {
+        try {
+            enviados.increment(suscriptor.entregar(loteEntrega));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Conexión de cambios cerrada: {}", e.getMessage());
+            cancelar(suscriptor);
+            suscriptor.getEmisor().completeWithError(e);
+            return;
+        } finally {
+            suscriptor.liberar();
+        }
+        if (suscriptor.tienePendientes()) {
+            programar(suscriptor);
+        }
+    }
+
+    private void cancelar(SuscriptorCambios suscriptor) {
+        if (!suscriptores.remove(suscriptor)) {
+            return;
+        }
+        totalSuscriptores.decrementAndGet();
+        for (Long cuentaId : suscriptor.getCuentas()) {
+            suscripciones.computeIfPresent(cuentaId, (id, conjunto) -> {
+                conjunto.remove(suscriptor);
+                return conjunto.isEmpty() ? null : conjunto;
+            });
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.cuentaMovimientos.stream;
+
+/**
+ * Qué hacer cuando el buffer de un suscriptor lento se llena.
+ */
+public enum PoliticaDesborde {
+
+    /**
+     * Descarta los eventos más antiguos.
+     */
+    DESCARTAR,
+
+    /**
+     * Conserva solo el último evento pendiente de cada cuenta (que lleva el saldo más reciente) y, si aún no hay
+     * sitio, descarta los más antiguos.
+     */
+    COALESCER
+}
@@ -0,0 +1,146 @@
+package com.example.cuentaMovimientos.stream;
+
+import com.example.cuentaMovimientos.dto.event.CambioCuentaDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Conexión SSE suscrita a un conjunto de cuentas, con su buffer acotado de eventos pendientes.
+ * <p>
+ * Los eventos se encolan desde los hilos que confirman movimientos y los envía un hilo de entrega; como mucho hay
+ * una entrega programada por suscriptor a la vez. Los eventos descartados por la {@link PoliticaDesborde} se
+ * notifican al cliente con un evento {@code perdidos}, tras el cual debe releer el estado.
+ * </p>
+ */
+final class SuscriptorCambios {
+
+    private final SseEmitter emisor;
+    private final Set<Long> cuentas;
+    private final PoliticaDesborde politica;
+    private final int capacidad;
+    private final ArrayDeque<CambioCuentaDto> pendientes = new ArrayDeque<>();
+    private final AtomicBoolean programado = new AtomicBoolean();
+
+    // Protegidos por this
+    private long perdidos;
+    private boolean latido;
+
+    SuscriptorCambios(SseEmitter emisor, Set<Long> cuentas, PoliticaDesborde politica, int capacidad) {
+        this.emisor = emisor;
+        this.cuentas = cuentas;
+        this.politica = politica;
+        this.capacidad = capacidad;
+    }
+
+    SseEmitter getEmisor() {
+        return emisor;
+    }
+
+    Set<Long> getCuentas() {
+        return cuentas;
+    }
+
+    /**
+     * Encola un evento aplicando la política de desborde.
+     *
+     * @return Eventos descartados para hacerle sitio.
+     */
+    synchronized int encolar(CambioCuentaDto evento) {
+        int descartados = 0;
+        if (pendientes.size() >= capacidad) {
+            if (politica == PoliticaDesborde.COALESCER) {
+                descartados = compactar();
+            }
+            while (pendientes.size() >= capacidad) {
+                pendientes.pollFirst();
+                descartados++;
+            }
+        }
+        pendientes.addLast(evento);
+        perdidos += descartados;
+        return descartados;
+    }
+
+    /**
+     * Encola eventos por delante de los pendientes (el estado inicial de la suscripción).
+     */
+    synchronized void encolarPrimero(List<CambioCuentaDto> eventos) {
+        for (int i = eventos.size() - 1; i >= 0; i--) {
+            pendientes.addFirst(eventos.get(i));
+        }
+    }
+
+    synchronized void marcarLatido() {
+        latido = true;
+    }
+
+    synchronized boolean tienePendientes() {
+        return !pendientes.isEmpty() || perdidos > 0 || latido;
+    }
+
+    /**
+     * @return {@code true} si el llamante debe programar la entrega (no había otra en curso).
+     */
+    boolean programar() {
+        return programado.compareAndSet(false, true);
+    }
+
+    void liberar() {
+        programado.set(false);
+    }
+
+    /**
+     * Envía hasta {@code maximo} eventos pendientes. Se ejecuta en un hilo de entrega.
+     *
+     * @return Eventos enviados.
+     * @throws IOException si la conexión se cerró.
+     */
+    int entregar(int maximo) throws IOException {
+        List<CambioCuentaDto> lote;
+        long perdidosAEnviar;
+        boolean latidoAEnviar;
+        synchronized (this) {
+            int cantidad = Math.min(maximo, pendientes.size());
+            lote = cantidad == 0 ? Collections.emptyList() : new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                lote.add(pendientes.pollFirst());
+            }
+            perdidosAEnviar = perdidos;
+            perdidos = 0;
+            latidoAEnviar = latido && lote.isEmpty() && perdidosAEnviar == 0;
+            latido = false;
+        }
+
+        if (perdidosAEnviar > 0) {
+            emisor.send(SseEmitter.event().name("perdidos").data(Map.of("perdidos", perdidosAEnviar)));
+        }
+        for (CambioCuentaDto evento : lote) {
+            emisor.send(SseEmitter.event().name(evento.getTipoEvento()).data(evento));
+        }
+        if (latidoAEnviar) {
+            emisor.send(SseEmitter.event().comment("latido"));
+        }
+        return lote.size();
+    }
+
+    private int compactar() {
+        Map<Long, CambioCuentaDto> ultimos = new LinkedHashMap<>();
+        for (CambioCuentaDto evento : pendientes) {
+            ultimos.remove(evento.getCuentaId());
+            ultimos.put(evento.getCuentaId(), evento);
+        }
+        int descartados = pendientes.size() - ultimos.size();
+        pendientes.clear();
+        pendientes.addAll(ultimos.values());
+        return descartados;
+    }
+}
@@ -0,0 +1,15 @@
+-- Migración (MySQL 8) para los extractos precalculados de periodos cerrados.
+-- Los genera y lee ExtractoMensualService cuando cuenta-movimientos.extractos.enabled=true.
+
+CREATE TABLE IF NOT EXISTS extractos_mensuales (
+    cuenta_id        BIGINT    NOT NULL,
+    periodo          DATE      NOT NULL,
+    saldo_apertura   DOUBLE    NOT NULL,
+    saldo_cierre     DOUBLE    NOT NULL,
+    num_movimientos  INT       NOT NULL,
+    -- CuentaReporteDto del mes serializado en JSON y comprimido con gzip; BLOB (64 KB) no basta para una cuenta
+    -- con miles de movimientos en el mes
+    contenido        MEDIUMBLOB NOT NULL,
+    fecha_generacion TIMESTAMP NOT NULL,
+    PRIMARY KEY (cuenta_id, periodo)
+);
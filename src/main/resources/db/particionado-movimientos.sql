@@ -0,0 +1,49 @@
+-- Migración única (MySQL 8) para particionar movimientos por mes y crear el nivel de archivo.
+-- Ejecutar con la aplicación detenida. Las particiones futuras y el archivado los mantiene
+-- ArchivoMovimientosService cuando cuenta-movimientos.archivo.enabled=true.
+
+-- Las tablas particionadas no admiten claves foráneas: eliminar la generada por Hibernate hacia cuentas
+-- (con nombre generado, se busca en information_schema) y usar ddl-auto=validate o none.
+SET @fk_cuenta = (SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS
+                  WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'movimientos'
+                    AND REFERENCED_TABLE_NAME = 'cuentas' LIMIT 1);
+SET @sentencia = IF(@fk_cuenta IS NULL, 'DO 0', CONCAT('ALTER TABLE movimientos DROP FOREIGN KEY `', @fk_cuenta, '`'));
+PREPARE sentencia FROM @sentencia;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
+
+-- MySQL exige que la columna de partición forme parte de toda clave única.
+-- idx_movimientos_cuenta_fecha ya lo crea Hibernate a partir del @Index de Movimiento
+ALTER TABLE movimientos MODIFY fecha DATE NOT NULL;
+ALTER TABLE movimientos DROP PRIMARY KEY, ADD PRIMARY KEY (id, fecha);
+
+-- Una partición por mes (p<yyyyMM>, el formato de ArchivoMovimientosService) desde el movimiento más antiguo
+-- hasta el mes actual; los meses siguientes los crea el servicio dividiendo pmax
+SET SESSION group_concat_max_len = 1048576;
+SET @primer_mes = (SELECT DATE_FORMAT(COALESCE(MIN(fecha), CURDATE()), '%Y-%m-01') FROM movimientos);
+WITH RECURSIVE meses (mes) AS (
+    SELECT CAST(@primer_mes AS DATE)
+    UNION ALL
+    SELECT mes + INTERVAL 1 MONTH FROM meses WHERE mes < DATE_FORMAT(CURDATE(), '%Y-%m-01')
+)
+SELECT GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(mes, '%Y%m'), ' VALUES LESS THAN (''',
+                           mes + INTERVAL 1 MONTH, ''')') ORDER BY mes SEPARATOR ', ')
+INTO @particiones
+FROM meses;
+SET @sentencia = CONCAT('ALTER TABLE movimientos PARTITION BY RANGE COLUMNS (fecha) (', @particiones,
+                        ', PARTITION pmax VALUES LESS THAN (MAXVALUE))');
+PREPARE sentencia FROM @sentencia;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
+
+-- Nivel frío: mismas columnas, comprimido y sin claves foráneas
+CREATE TABLE IF NOT EXISTS movimientos_archivo (
+    id              BIGINT       NOT NULL PRIMARY KEY,
+    cuenta_id       BIGINT       NOT NULL,
+    fecha           DATE         NOT NULL,
+    tipo_movimiento VARCHAR(255),
+    valor           DOUBLE,
+    saldo           DOUBLE,
+    aplicado        BIT(1),
+    INDEX idx_movimientos_archivo_cuenta_fecha (cuenta_id, fecha)
+) ROW_FORMAT = COMPRESSED KEY_BLOCK_SIZE = 8;
@@ -0,0 +1,64 @@
+package com.example.cuentaMovimientos.cache;
+
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnasMovimientosTest {
+
+    private static final LocalDate DESDE = LocalDate.of(2024, 1, 1);
+
+    private final DiccionarioTipos diccionario = new DiccionarioTipos();
+
+    @Test
+    public void testBuscaRangosPorFecha() {
+        ColumnasMovimientos bloque = ColumnasMovimientos.vacio(diccionario, DESDE, 0);
+        for (int i = 0; i < 100; i++) {
+            bloque = bloque.con(i + 1, DESDE.plusDays(i / 2), i % 2 == 0 ? "Deposito" : "Retiro", 10.0, 100.0 + i);
+        }
+
+        List<MovimientoReporteDto> movimientos = bloque.entre(DESDE.plusDays(10), DESDE.plusDays(12));
+
+        assertEquals(6, movimientos.size());
+        assertEquals(DESDE.plusDays(10), movimientos.get(0).getFecha());
+        assertEquals("Deposito", movimientos.get(0).getTipoMovimiento());
+        assertEquals(120.0, movimientos.get(0).getSaldo());
+        assertEquals("Retiro", movimientos.get(5).getTipoMovimiento());
+        assertEquals(60.0, bloque.sumaValores(DESDE.plusDays(10), DESDE.plusDays(12)));
+        assertTrue(bloque.entre(DESDE.plusDays(60), DESDE.plusDays(90)).isEmpty());
+        assertEquals(2, diccionario.tamano());
+    }
+
+    @Test
+    public void testInsertaMovimientosRetroactivosSinAlterarVersionesAnteriores() {
+        ColumnasMovimientos anterior = ColumnasMovimientos.vacio(diccionario, DESDE, 0)
+                .con(1, DESDE.plusDays(1), "Deposito", 10.0, 10.0)
+                .con(3, DESDE.plusDays(3), "Deposito", 30.0, 40.0);
+
+        ColumnasMovimientos siguiente = anterior.con(2, DESDE.plusDays(2), "Retiro", -5.0, 35.0)
+                .con(4, DESDE.plusDays(3), null, 1.0, 41.0);
+
+        assertEquals(2, anterior.tamano());
+        assertEquals(4, siguiente.tamano());
+        List<MovimientoReporteDto> movimientos = siguiente.entre(DESDE, DESDE.plusDays(3));
+        assertEquals(-5.0, movimientos.get(1).getValor());
+        assertNull(movimientos.get(3).getTipoMovimiento());
+        assertEquals(2, anterior.entre(DESDE, DESDE.plusDays(3)).size());
+    }
+
+    @Test
+    public void testIgnoraDuplicadosYFechasAnterioresAlBloque() {
+        ColumnasMovimientos bloque = ColumnasMovimientos.vacio(diccionario, DESDE, 0)
+                .con(1, DESDE, "Deposito", 10.0, 10.0)
+                .con(2, DESDE, "Deposito", 10.0, 20.0);
+
+        assertSame(bloque, bloque.con(1, DESDE, "Deposito", 10.0, 10.0));
+        assertSame(bloque, bloque.con(9, DESDE.minusDays(1), "Deposito", 10.0, 10.0));
+        assertTrue(bloque.cubre(DESDE));
+        assertFalse(bloque.cubre(DESDE.minusDays(1)));
+    }
+}
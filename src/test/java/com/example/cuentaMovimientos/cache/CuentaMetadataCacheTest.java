@@ -0,0 +1,82 @@
+package com.example.cuentaMovimientos.cache;
+
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.repository.CuentaRepository;
+import com.example.cuentaMovimientos.service.CuentaService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * La confirmación de la transacción se simula registrando y ejecutando las sincronizaciones a mano.
+ */
+public class CuentaMetadataCacheTest {
+
+    private CuentaRepository cuentaRepository;
+    private CuentaMetadataCache cache;
+    private final Cuenta cuenta = new Cuenta(1L, "478758", "Ahorros", 100.0, 100.0, true, 7L, 0L);
+
+    @BeforeEach
+    public void setUp() {
+        cuentaRepository = mock(CuentaRepository.class);
+        cache = new CuentaMetadataCache(cuentaRepository, new SimpleMeterRegistry(), 100, Duration.ofHours(1));
+        when(cuentaRepository.findById(1L)).thenReturn(Optional.of(cuenta));
+        when(cuentaRepository.findByNumeroCuenta("478758")).thenReturn(Optional.of(cuenta));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testSirveDesdeCacheHastaInvalidar() {
+        assertEquals("Ahorros", cache.porId(1L).orElseThrow().getTipoCuenta());
+        assertEquals(1L, cache.idPorNumero("478758").orElseThrow());
+        verify(cuentaRepository, times(1)).findById(1L);
+        verify(cuentaRepository, never()).findByNumeroCuenta("478758");
+
+        cache.invalidar(1L, "478758");
+        cache.porId(1L);
+        verify(cuentaRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void testEliminarCuentaInvalidaDeNuevoTrasConfirmar() {
+        cache.porId(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        new CuentaService(cuentaRepository, cache).eliminarCuenta(1L);
+        verify(cuentaRepository).delete(cuenta);
+
+        // Otra petición lee la cuenta antes de que el borrado se confirme y la vuelve a cachear
+        assertTrue(cache.porId(1L).isPresent());
+        assertTrue(cache.idPorNumero("478758").isPresent());
+
+        when(cuentaRepository.findById(1L)).thenReturn(Optional.empty());
+        when(cuentaRepository.findByNumeroCuenta("478758")).thenReturn(Optional.empty());
+        confirmar();
+
+        assertTrue(cache.porId(1L).isEmpty());
+        assertTrue(cache.idPorNumero("478758").isEmpty());
+    }
+
+    private static void confirmar() {
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
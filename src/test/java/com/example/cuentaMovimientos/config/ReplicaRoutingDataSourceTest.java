@@ -0,0 +1,94 @@
+package com.example.cuentaMovimientos.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primaria;
+    private EmbeddedDatabase replica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate escritura;
+    private TransactionTemplate lectura;
+
+    @BeforeEach
+    public void setUp() {
+        primaria = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        replica = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        crearOrigen(primaria, "primaria");
+        crearOrigen(replica, "replica");
+
+        routingDataSource = new ReplicaRoutingDataSource(primaria, replica);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        escritura = new TransactionTemplate(transactionManager);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        primaria.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    public void testLecturaVaAReplicaYEscrituraAPrimaria() {
+        assertEquals("replica", lectura.execute(status -> consultarOrigen()));
+        assertEquals("primaria", escritura.execute(status -> consultarOrigen()));
+    }
+
+    @Test
+    public void testSinReplicaDisponibleLecturaVaAPrimaria() {
+        routingDataSource.setReplicaDisponible(false);
+
+        assertEquals("primaria", lectura.execute(status -> consultarOrigen()));
+    }
+
+    @Test
+    public void testMonitorDesactivaReplicaConLagExcesivo() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primaria, replica, routingDataSource, 1000, new SimpleMeterRegistry());
+        monitor.inicializar();
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, marca BIGINT NOT NULL)");
+
+        // La réplica solo tiene un latido de hace un minuto
+        replicaJdbc.update("INSERT INTO replica_heartbeat (id, marca) VALUES (1, ?)", System.currentTimeMillis() - 60_000);
+        monitor.verificar();
+        assertFalse(routingDataSource.isReplicaDisponible());
+        assertEquals("primaria", lectura.execute(status -> consultarOrigen()));
+
+        // La réplica alcanza el último latido escrito en la primaria
+        Long marcaPrimaria = new JdbcTemplate(primaria).queryForObject("SELECT marca FROM replica_heartbeat WHERE id = 1", Long.class);
+        replicaJdbc.update("UPDATE replica_heartbeat SET marca = ? WHERE id = 1", marcaPrimaria);
+        monitor.verificar();
+        assertTrue(routingDataSource.isReplicaDisponible());
+        assertEquals(0, monitor.getLagMs());
+    }
+
+    private void crearOrigen(EmbeddedDatabase database, String nombre) {
+        JdbcTemplate template = new JdbcTemplate(database);
+        template.execute("CREATE TABLE origen (nombre VARCHAR(20))");
+        template.update("INSERT INTO origen VALUES (?)", nombre);
+    }
+
+    private String consultarOrigen() {
+        return jdbcTemplate.queryForObject("SELECT nombre FROM origen", String.class);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.cuentaMovimientos.controller;
+
+import com.example.cuentaMovimientos.dto.response.AnaliticaMovimientosDto;
+import com.example.cuentaMovimientos.service.AnaliticaMovimientosService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AnaliticaControllerTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+
+    private final AnaliticaMovimientosService analiticaMovimientosService = mock(AnaliticaMovimientosService.class);
+    private final AnaliticaController analiticaController = new AnaliticaController(analiticaMovimientosService, 31);
+
+    @Test
+    public void testPeriodoDentroDelMaximo() {
+        AnaliticaMovimientosDto totales = new AnaliticaMovimientosDto();
+        when(analiticaMovimientosService.analizar("Ahorros", INICIO, INICIO.plusDays(30))).thenReturn(totales);
+
+        assertEquals(HttpStatus.OK, analiticaController.obtenerTotales("Ahorros", INICIO, INICIO.plusDays(30)).getStatusCode());
+    }
+
+    @Test
+    public void testPeriodoMayorQueElMaximo() {
+        assertEquals(HttpStatus.BAD_REQUEST, analiticaController.obtenerTotales("Ahorros", INICIO, INICIO.plusDays(31)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, analiticaController.obtenerTotales("Ahorros", INICIO, LocalDate.MAX).getStatusCode());
+        verify(analiticaMovimientosService, never()).analizar(any(), any(), any());
+    }
+
+    @Test
+    public void testFechaInicioPosteriorALaDeFin() {
+        assertEquals(HttpStatus.BAD_REQUEST, analiticaController.obtenerTotales("Ahorros", INICIO, INICIO.minusDays(1)).getStatusCode());
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.cuentaMovimientos.controller;
 
+import com.example.cuentaMovimientos.dto.request.CuentaFiltroDto;
 import com.example.cuentaMovimientos.dto.request.CuentaRequestDto;
 import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
+import com.example.cuentaMovimientos.dto.response.PaginaCuentasDto;
 import com.example.cuentaMovimientos.exception.ResourceNotFoundException;
 import com.example.cuentaMovimientos.service.CuentaService;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,11 +13,14 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -80,19 +85,46 @@ public class CuentaControllerTest {
 
         when(cuentaService.obtenerCuentaPorId(id)).thenReturn(responseDto);
 
-        ResponseEntity<CuentaResponseDto> response = cuentaController.obtenerCuenta(id);
+        ResponseEntity<CuentaResponseDto> response = cuentaController.obtenerCuenta(id, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(responseDto, response.getBody());
     }
 
+    @Test
+    public void testObtenerCuentaNoModificada() {
+        Long id = 1L;
+        when(cuentaService.obtenerCuentaPorId(id)).thenReturn(new CuentaResponseDto(id, "123456", "Ahorros", 1000.0, 1000.0, true, 1L));
+        String etag = cuentaController.obtenerCuenta(id, null).getHeaders().getETag();
+
+        ResponseEntity<CuentaResponseDto> response = cuentaController.obtenerCuenta(id, etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertEquals(null, response.getBody());
+    }
+
+    @Test
+    public void testEtagDeCuentaCambiaConLosDatosServidos() {
+        Long id = 1L;
+        when(cuentaService.obtenerCuentaPorId(id)).thenReturn(new CuentaResponseDto(id, "123456", "Ahorros", 1000.0, 1000.0, true, 1L));
+        String etag = cuentaController.obtenerCuenta(id, null).getHeaders().getETag();
+
+        when(cuentaService.obtenerCuentaPorId(id)).thenReturn(new CuentaResponseDto(id, "123456", "Corriente", 1000.0, 1000.0, true, 1L));
+        ResponseEntity<CuentaResponseDto> response = cuentaController.obtenerCuenta(id, etag);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Corriente", response.getBody().getTipoCuenta());
+        assertNotEquals(etag, response.getHeaders().getETag());
+    }
+
     @Test
     public void testObtenerCuentaNotFound() {
         Long id = 1L;
 
         when(cuentaService.obtenerCuentaPorId(id)).thenThrow(new ResourceNotFoundException("Cuenta no encontrada"));
 
-        ResponseEntity<CuentaResponseDto> response = cuentaController.obtenerCuenta(id);
+        ResponseEntity<CuentaResponseDto> response = cuentaController.obtenerCuenta(id, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertEquals(null, response.getBody());
@@ -104,11 +136,39 @@ public class CuentaControllerTest {
         CuentaResponseDto cuenta2 = new CuentaResponseDto(2L, "654321", "Corriente", 2000.0, 2000.0, true, 2L);
         List<CuentaResponseDto> cuentas = Arrays.asList(cuenta1, cuenta2);
 
-        when(cuentaService.obtenerTodasLasCuentas()).thenReturn(cuentas);
+        when(cuentaService.buscarCuentas(any(CuentaFiltroDto.class))).thenReturn(new PaginaCuentasDto(cuentas, 2L, null));
 
-        ResponseEntity<List<CuentaResponseDto>> response = cuentaController.obtenerTodasLasCuentas();
+        ResponseEntity<MappingJacksonValue> response = cuentaController.obtenerTodasLasCuentas(new CuentaFiltroDto(), null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(cuentas, response.getBody());
+        assertEquals(cuentas, response.getBody().getValue());
+        assertEquals("2", response.getHeaders().getFirst("X-Total-Count"));
+    }
+
+    @Test
+    public void testObtenerCuentasPorCursor() {
+        CuentaResponseDto cuenta = new CuentaResponseDto(7L, "123456", "Ahorros", 1000.0, 1000.0, true, 1L);
+        CuentaFiltroDto filtro = new CuentaFiltroDto();
+        filtro.setDespuesDe(6L);
+        filtro.setSize(1);
+
+        when(cuentaService.buscarCuentas(filtro)).thenReturn(new PaginaCuentasDto(List.of(cuenta), null, 7L));
+
+        ResponseEntity<MappingJacksonValue> response = cuentaController.obtenerTodasLasCuentas(filtro, Set.of("id", "numeroCuenta"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("7", response.getHeaders().getFirst("X-Siguiente-Cursor"));
+        assertEquals(null, response.getHeaders().getFirst("X-Total-Count"));
+    }
+
+    @Test
+    public void testObtenerCuentasPaginaFueraDeRango() {
+        CuentaFiltroDto filtro = new CuentaFiltroDto();
+        filtro.setPage(Integer.MAX_VALUE);
+        when(cuentaService.buscarCuentas(filtro)).thenThrow(new IllegalArgumentException("Página fuera de rango"));
+
+        ResponseEntity<MappingJacksonValue> response = cuentaController.obtenerTodasLasCuentas(filtro, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 }
@@ -3,6 +3,7 @@ package com.example.cuentaMovimientos.controller;
 import com.example.cuentaMovimientos.controller.MovimientoController;
 import com.example.cuentaMovimientos.dto.request.MovimientoRequestDto;
 import com.example.cuentaMovimientos.dto.response.MovimientoResponseDto;
+import com.example.cuentaMovimientos.exception.MovimientoArchivadoException;
 import com.example.cuentaMovimientos.exception.ResourceNotFoundException;
 import com.example.cuentaMovimientos.exception.SaldoInsuficienteException;
 import com.example.cuentaMovimientos.service.MovimientoService;
@@ -132,6 +133,19 @@ public class MovimientoControllerTest {
         assertEquals(null, response.getBody());
     }
 
+    @Test
+    public void testActualizarMovimientoArchivado() {
+        Long id = 1L;
+        MovimientoRequestDto requestDto = new MovimientoRequestDto();
+
+        when(movimientoService.actualizarMovimiento(eq(id), any(MovimientoRequestDto.class))).thenThrow(new MovimientoArchivadoException("Movimiento archivado: no se puede modificar"));
+
+        ResponseEntity<MovimientoResponseDto> response = movimientoController.actualizarMovimiento(id, requestDto);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(null, response.getBody());
+    }
+
     @Test
     public void testEliminarMovimiento() {
         Long id = 1L;
@@ -155,4 +169,16 @@ public class MovimientoControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertEquals("Movimiento no encontrado", response.getBody());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEliminarMovimientoArchivado() {
+        Long id = 1L;
+
+        doThrow(new MovimientoArchivadoException("Movimiento archivado: no se puede modificar")).when(movimientoService).eliminarMovimiento(id);
+
+        ResponseEntity<String> response = movimientoController.eliminarMovimiento(id);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Movimiento archivado: no se puede modificar", response.getBody());
+    }
+}
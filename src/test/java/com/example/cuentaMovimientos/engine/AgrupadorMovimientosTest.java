@@ -0,0 +1,74 @@
+package com.example.cuentaMovimientos.engine;
+
+import com.example.cuentaMovimientos.exception.SaldoInsuficienteException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AgrupadorMovimientosTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2024, 1, 1);
+
+    @Test
+    public void testAgrupaHastaLoteMaximo() {
+        List<Integer> tamanos = new CopyOnWriteArrayList<>();
+        AgrupadorMovimientos agrupador = new AgrupadorMovimientos(1, 50_000, 10, lote -> {
+            tamanos.add(lote.size());
+            lote.forEach(movimiento -> movimiento.getResultado().complete(movimiento));
+        });
+        agrupador.iniciar();
+
+        List<MovimientoAplicado> enviados = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            enviados.add(agrupador.enviar(new MovimientoAplicado(1L, "C-1", FECHA, "Deposito", 10.0)));
+        }
+        enviados.forEach(movimiento -> movimiento.getResultado().join());
+        agrupador.detener();
+
+        assertEquals(25, tamanos.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(tamanos.stream().allMatch(tamano -> tamano <= 10));
+        assertTrue(tamanos.size() < 25);
+    }
+
+    @Test
+    public void testFallosPorMovimiento() {
+        AgrupadorMovimientos agrupador = new AgrupadorMovimientos(1, 1_000, 10, lote -> lote.forEach(movimiento -> {
+            if (movimiento.getValor() < 0) {
+                movimiento.getResultado().completeExceptionally(new SaldoInsuficienteException("Saldo no disponible"));
+            } else {
+                movimiento.getResultado().complete(movimiento);
+            }
+        }));
+        agrupador.iniciar();
+
+        MovimientoAplicado deposito = agrupador.enviar(new MovimientoAplicado(1L, "C-1", FECHA, "Deposito", 10.0));
+        MovimientoAplicado retiro = agrupador.enviar(new MovimientoAplicado(1L, "C-1", FECHA, "Retiro", -10.0));
+
+        assertEquals(deposito, deposito.getResultado().join());
+        CompletionException fallo = assertThrows(CompletionException.class, () -> retiro.getResultado().join());
+        assertTrue(fallo.getCause() instanceof SaldoInsuficienteException);
+        agrupador.detener();
+    }
+
+    @Test
+    public void testErrorDelProcesadorFallaElLote() {
+        AgrupadorMovimientos agrupador = new AgrupadorMovimientos(1, 1_000, 10, lote -> {
+            throw new IllegalStateException("Base de datos no disponible");
+        });
+        agrupador.iniciar();
+
+        MovimientoAplicado movimiento = agrupador.enviar(new MovimientoAplicado(1L, "C-1", FECHA, "Deposito", 10.0));
+
+        CompletionException fallo = assertThrows(CompletionException.class, () -> movimiento.getResultado().join());
+        assertTrue(fallo.getCause() instanceof IllegalStateException);
+        agrupador.detener();
+    }
+}
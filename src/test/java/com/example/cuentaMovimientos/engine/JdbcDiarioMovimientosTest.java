@@ -0,0 +1,95 @@
+package com.example.cuentaMovimientos.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sentencias que envía {@link JdbcDiarioMovimientos} por lote: con {@code rewriteBatchedStatements=true} (perfil
+ * {@code performance}) cada ejecución por lotes llega a MySQL como una sola sentencia multi-fila.
+ */
+public class JdbcDiarioMovimientosTest {
+
+    private final List<ExecutionInfo> ejecuciones = new ArrayList<>();
+
+    private EmbeddedDatabase baseDatos;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcDiarioMovimientos diario;
+
+    @BeforeEach
+    public void setUp() {
+        baseDatos = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        DataSource dataSource = ProxyDataSourceBuilder.create(baseDatos)
+                .listener(new QueryExecutionListener() {
+                    @Override
+                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                    }
+
+                    @Override
+                    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                        ejecuciones.add(execInfo);
+                    }
+                })
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE cuentas (id BIGINT PRIMARY KEY, saldo_actual DOUBLE, version_datos BIGINT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE movimientos (id BIGINT AUTO_INCREMENT PRIMARY KEY, fecha DATE, tipo_movimiento VARCHAR(255), "
+                + "valor DOUBLE, saldo DOUBLE, aplicado BOOLEAN, cuenta_id BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE movimientos_outbox (id BIGINT AUTO_INCREMENT PRIMARY KEY, tipo_evento VARCHAR(255), "
+                + "movimiento_id BIGINT, cuenta_id BIGINT, payload CLOB, fecha_creacion TIMESTAMP, enviado BOOLEAN, fecha_envio TIMESTAMP)");
+        for (long id = 1; id <= 10; id++) {
+            jdbcTemplate.update("INSERT INTO cuentas (id, saldo_actual) VALUES (?, 1000)", id);
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        diario = new JdbcDiarioMovimientos(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)), objectMapper);
+        ejecuciones.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        baseDatos.shutdown();
+    }
+
+    @Test
+    public void testEscribeCadaLoteConTresSentenciasPorLotes() {
+        List<MovimientoAplicado> lote = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            MovimientoAplicado movimiento = new MovimientoAplicado(1 + i % 10, "C-" + (1 + i % 10), LocalDate.of(2024, 1, 1), "Deposito", 5.0);
+            movimiento.aplicar(1000.0);
+            lote.add(movimiento);
+        }
+
+        diario.escribir(lote);
+
+        // Movimientos, saldos de las 10 cuentas y eventos del outbox: una ejecución por lotes de cada sentencia,
+        // frente a las 5 sentencias por movimiento del alta individual con JPA
+        assertEquals(3, ejecuciones.size());
+        assertTrue(ejecuciones.stream().allMatch(ExecutionInfo::isBatch));
+        assertEquals(List.of(100, 10, 100), ejecuciones.stream().map(ExecutionInfo::getBatchSize).toList());
+        assertTrue(lote.stream().allMatch(movimiento -> movimiento.getId() != null));
+        assertEquals(1050.0, jdbcTemplate.queryForObject("SELECT saldo_actual FROM cuentas WHERE id = 1", Double.class));
+        assertEquals(100, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos_outbox", Integer.class));
+    }
+}
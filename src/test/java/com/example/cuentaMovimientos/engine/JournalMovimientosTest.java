@@ -0,0 +1,110 @@
+package com.example.cuentaMovimientos.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JournalMovimientosTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2024, 3, 15);
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    public void testRecuperaRegistrosTrasReabrir() {
+        try (JournalMovimientos journal = new JournalMovimientos(directorio, 4)) {
+            journal.esperarDurable(journal.agregar(movimientos(1, 10)));
+        }
+
+        try (JournalMovimientos journal = new JournalMovimientos(directorio, 4)) {
+            List<RegistroJournal> registros = journal.leer();
+
+            assertEquals(10, registros.size());
+            for (int i = 0; i < 10; i++) {
+                RegistroJournal registro = registros.get(i);
+                assertEquals(i + 1, registro.getId());
+                assertEquals(100 + i, registro.getCuentaId());
+                assertEquals(FECHA, registro.getFecha());
+                assertEquals("Deposito", registro.getTipoMovimiento());
+                assertEquals(25.5, registro.getValor());
+                assertEquals(1000.0 + i, registro.getSaldo());
+            }
+        }
+    }
+
+    @Test
+    public void testLecturaSeDetieneEnRegistroCorrupto() throws IOException {
+        try (JournalMovimientos journal = new JournalMovimientos(directorio, 8)) {
+            journal.esperarDurable(journal.agregar(movimientos(1, 5)));
+        }
+        Path segmento;
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            segmento = ficheros.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile fichero = new RandomAccessFile(segmento.toFile(), "rw")) {
+            fichero.seek(3L * JournalMovimientos.TAMANO_REGISTRO + 30);
+            fichero.write(0x7f);
+        }
+
+        try (JournalMovimientos journal = new JournalMovimientos(directorio, 8)) {
+            assertEquals(3, journal.leer().size());
+        }
+    }
+
+    @Test
+    public void testLiberaSegmentosVolcados() throws IOException {
+        try (JournalMovimientos journal = new JournalMovimientos(directorio, 4)) {
+            long posicion = journal.agregar(movimientos(1, 10));
+            journal.esperarDurable(posicion);
+            assertEquals(3, contarSegmentos());
+
+            journal.liberarHasta(8);
+            assertEquals(1, contarSegmentos());
+        }
+    }
+
+    @Test
+    public void testDescartarRecuperadosConservaLosNuevos() throws IOException {
+        try (JournalMovimientos journal = new JournalMovimientos(directorio, 4)) {
+            journal.esperarDurable(journal.agregar(movimientos(1, 6)));
+        }
+        try (JournalMovimientos journal = new JournalMovimientos(directorio, 4)) {
+            assertEquals(6, journal.leer().size());
+            journal.descartarRecuperados();
+            journal.esperarDurable(journal.agregar(movimientos(7, 2)));
+        }
+        try (JournalMovimientos journal = new JournalMovimientos(directorio, 4)) {
+            List<RegistroJournal> registros = journal.leer();
+            assertEquals(2, registros.size());
+            assertEquals(7, registros.get(0).getId());
+        }
+        assertEquals(1, contarSegmentos());
+    }
+
+    private long contarSegmentos() throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            return ficheros.count();
+        }
+    }
+
+    private static List<MovimientoAplicado> movimientos(long primerId, int cantidad) {
+        List<MovimientoAplicado> movimientos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            long id = primerId + i;
+            movimientos.add(MovimientoAplicado.recuperado(
+                    new RegistroJournal(id, 99 + id, FECHA, "Deposito", 25.5, 999.0 + id), "C-" + id));
+        }
+        return movimientos;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.cuentaMovimientos.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MapaSaldosTest {
+
+    @Test
+    public void testCoincideConHashMap() {
+        MapaSaldos mapa = new MapaSaldos(4);
+        Map<Long, Double> referencia = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long clave = 1 + random.nextInt(5_000);
+            if (random.nextInt(4) == 0) {
+                mapa.eliminar(clave);
+                referencia.remove(clave);
+            } else {
+                double saldo = random.nextDouble() * 1000;
+                mapa.poner(clave, saldo);
+                referencia.put(clave, saldo);
+            }
+        }
+
+        assertEquals(referencia.size(), mapa.tamano());
+        for (long clave = 1; clave <= 5_000; clave++) {
+            assertEquals(referencia.containsKey(clave), mapa.contiene(clave));
+            if (referencia.containsKey(clave)) {
+                assertEquals(referencia.get(clave), mapa.obtener(clave));
+            }
+        }
+    }
+
+    @Test
+    public void testEliminarInexistente() {
+        MapaSaldos mapa = new MapaSaldos(16);
+        mapa.poner(3L, 1.5);
+        mapa.eliminar(4L);
+
+        assertTrue(mapa.contiene(3L));
+        assertFalse(mapa.contiene(4L));
+        assertEquals(1, mapa.tamano());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.cuentaMovimientos.engine;
+
+import com.example.cuentaMovimientos.exception.SaldoInsuficienteException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MotorSaldosTest {
+
+    private final AtomicLong ids = new AtomicLong();
+    private final List<MovimientoAplicado> escritos = new ArrayList<>();
+    private MotorSaldos motor;
+
+    @AfterEach
+    public void tearDown() {
+        motor.detener();
+    }
+
+    @Test
+    public void testAplicaMovimientosEnOrdenYLosEscribeEnElDiario() {
+        motor = new MotorSaldos(2, 100, this::escribir, cuentaId -> null);
+        motor.cargar(1L, 100.0);
+        motor.iniciar();
+
+        MovimientoAplicado deposito = motor.enviar(movimiento(1L, 50.0));
+        MovimientoAplicado retiro = motor.enviar(movimiento(1L, -120.0));
+        retiro.getResultado().join();
+
+        assertEquals(150.0, deposito.getResultado().join().getSaldo());
+        assertEquals(30.0, retiro.getSaldo());
+        assertEquals(2, escritos.size());
+        assertTrue(retiro.getId() > deposito.getId());
+    }
+
+    @Test
+    public void testSaldoInsuficienteSoloFallaEseMovimiento() {
+        motor = new MotorSaldos(1, 100, this::escribir, cuentaId -> null);
+        motor.cargar(1L, 10.0);
+        motor.iniciar();
+
+        MovimientoAplicado excesivo = motor.enviar(movimiento(1L, -20.0));
+        MovimientoAplicado valido = motor.enviar(movimiento(1L, -5.0));
+
+        CompletionException error = assertThrows(CompletionException.class, () -> excesivo.getResultado().join());
+        assertTrue(error.getCause() instanceof SaldoInsuficienteException);
+        assertEquals(5.0, valido.getResultado().join().getSaldo());
+    }
+
+    @Test
+    public void testCargaDeLaFuenteYRestauraSiFallaElDiario() {
+        motor = new MotorSaldos(1, 100, lote -> {
+            throw new IllegalStateException("base de datos no disponible");
+        }, cuentaId -> 40.0);
+        motor.iniciar();
+
+        MovimientoAplicado fallido = motor.enviar(movimiento(7L, -30.0));
+        assertThrows(CompletionException.class, () -> fallido.getResultado().join());
+
+        // El saldo se restauró: un segundo retiro de 30 sigue teniendo fondos
+        MovimientoAplicado otro = motor.enviar(movimiento(7L, -30.0));
+        CompletionException error = assertThrows(CompletionException.class, () -> otro.getResultado().join());
+        assertFalse(error.getCause() instanceof SaldoInsuficienteException);
+        assertEquals(10.0, otro.getSaldo());
+    }
+
+    @Test
+    public void testResultadoIndeterminadoConservaLosSaldos() {
+        motor = new MotorSaldos(1, 100, lote -> {
+            throw new ResultadoIndeterminadoException("diario cerrado", new IllegalStateException());
+        }, cuentaId -> 40.0);
+        motor.iniciar();
+
+        MovimientoAplicado indeterminado = motor.enviar(movimiento(7L, -30.0));
+        CompletionException error = assertThrows(CompletionException.class, () -> indeterminado.getResultado().join());
+        assertTrue(error.getCause() instanceof ResultadoIndeterminadoException);
+
+        // El retiro puede quedar guardado: el saldo en memoria lo sigue incluyendo
+        MovimientoAplicado otro = motor.enviar(movimiento(7L, -30.0));
+        error = assertThrows(CompletionException.class, () -> otro.getResultado().join());
+        assertTrue(error.getCause() instanceof SaldoInsuficienteException);
+    }
+
+    @Test
+    public void testAjusteSeAplicaEnOrdenConLosMovimientos() {
+        motor = new MotorSaldos(1, 100, this::escribir, cuentaId -> null);
+        motor.cargar(1L, 100.0);
+        motor.iniciar();
+
+        MovimientoAplicado deposito = motor.enviar(movimiento(1L, 50.0));
+        AjusteSaldo ajuste = motor.ajustar(new AjusteSaldo(1L, saldo -> {
+            // El lote con el depósito ya está escrito cuando se ejecuta el ajuste
+            assertTrue(deposito.getResultado().isDone());
+            return saldo - 30.0;
+        }));
+        MovimientoAplicado retiro = motor.enviar(movimiento(1L, -100.0));
+
+        assertEquals(120.0, ajuste.getResultado().join());
+        assertEquals(20.0, retiro.getResultado().join().getSaldo());
+    }
+
+    @Test
+    public void testAjusteFallidoRecargaElSaldoDeLaFuente() {
+        motor = new MotorSaldos(1, 100, this::escribir, cuentaId -> 77.0);
+        motor.cargar(1L, 100.0);
+        motor.iniciar();
+
+        AjusteSaldo fallido = motor.ajustar(new AjusteSaldo(1L, saldo -> {
+            throw new SaldoInsuficienteException("Saldo no disponible");
+        }));
+        CompletionException error = assertThrows(CompletionException.class, () -> fallido.getResultado().join());
+        assertTrue(error.getCause() instanceof SaldoInsuficienteException);
+
+        assertEquals(80.0, motor.enviar(movimiento(1L, 3.0)).getResultado().join().getSaldo());
+    }
+
+    private synchronized void escribir(List<MovimientoAplicado> lote) {
+        for (MovimientoAplicado movimiento : lote) {
+            movimiento.asignarId(ids.incrementAndGet());
+            escritos.add(movimiento);
+        }
+    }
+
+    private static MovimientoAplicado movimiento(long cuentaId, double valor) {
+        return new MovimientoAplicado(cuentaId, "C-" + cuentaId, LocalDate.of(2024, 1, 1), valor > 0 ? "Deposito" : "Retiro", valor);
+    }
+}
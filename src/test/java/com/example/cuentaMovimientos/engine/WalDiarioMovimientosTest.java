@@ -0,0 +1,112 @@
+package com.example.cuentaMovimientos.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class WalDiarioMovimientosTest {
+
+    @TempDir
+    Path directorio;
+
+    // Saldo de cada cuenta en la "base de datos": solo cambia cuando el volcado escribe un lote
+    private final Map<Long, Double> baseDatos = new ConcurrentHashMap<>();
+    private final CountDownLatch volcadoPermitido = new CountDownLatch(1);
+    private JdbcDiarioMovimientos destino;
+    private WalDiarioMovimientos wal;
+    private MotorSaldos motor;
+
+    @BeforeEach
+    public void setUp() {
+        destino = mock(JdbcDiarioMovimientos.class);
+        doAnswer(invocation -> {
+            volcadoPermitido.await();
+            List<MovimientoAplicado> lote = invocation.getArgument(0);
+            if (lote.stream().anyMatch(movimiento -> movimiento.getCuentaId() == 9L)) {
+                throw new IllegalStateException("Violación de restricción");
+            }
+            lote.forEach(movimiento -> baseDatos.merge(movimiento.getCuentaId(), movimiento.getValor(), Double::sum));
+            return null;
+        }).when(destino).escribir(anyList());
+        doAnswer(invocation -> {
+            List<MovimientoAplicado> lote = invocation.getArgument(0);
+            destino.escribir(lote);
+            return lote.size();
+        }).when(destino).escribirPendientes(anyList());
+
+        wal = new WalDiarioMovimientos(new JournalMovimientos(directorio.resolve("journal"), 1024), destino, 100,
+                new JournalMovimientos(directorio.resolve("cuarentena"), 64), 2);
+        motor = new MotorSaldos(1, 100, wal, cuentaId -> baseDatos.get(cuentaId));
+        baseDatos.put(1L, 100.0);
+        baseDatos.put(9L, 100.0);
+        motor.cargar(1L, 100.0);
+        motor.cargar(9L, 100.0);
+        wal.iniciar(1);
+        motor.iniciar();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        volcadoPermitido.countDown();
+        motor.detener();
+        wal.close();
+    }
+
+    @Test
+    public void testInvalidarEsperaAlVolcadoAntesDeReleerElSaldo() {
+        // Confirmado en el diario local, todavía sin volcar
+        assertEquals(150.0, motor.enviar(movimiento(1L, 50.0)).getResultado().join().getSaldo());
+        assertEquals(100.0, baseDatos.get(1L));
+
+        motor.invalidar(1L);
+        MovimientoAplicado siguiente = motor.enviar(movimiento(1L, 10.0));
+        assertFalse(siguiente.getResultado().isDone());
+
+        volcadoPermitido.countDown();
+        assertEquals(160.0, siguiente.getResultado().join().getSaldo());
+    }
+
+    @Test
+    public void testLoteErroneoQuedaEnCuarentenaSinBloquearLosSiguientes() throws InterruptedException {
+        volcadoPermitido.countDown();
+        motor.enviar(movimiento(9L, 5.0)).getResultado().join();
+        motor.enviar(movimiento(1L, 20.0)).getResultado().join();
+
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (wal.pendientes() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(0, wal.pendientes());
+        assertEquals(1, wal.enCuarentena());
+        assertEquals(120.0, baseDatos.get(1L));
+        assertEquals(100.0, baseDatos.get(9L));
+
+        motor.detener();
+        wal.close();
+        try (JournalMovimientos cuarentena = new JournalMovimientos(directorio.resolve("cuarentena"), 64)) {
+            List<RegistroJournal> registros = cuarentena.leer();
+            assertEquals(1, registros.size());
+            assertEquals(9L, registros.get(0).getCuentaId());
+        }
+    }
+
+    private static MovimientoAplicado movimiento(long cuentaId, double valor) {
+        return new MovimientoAplicado(cuentaId, "C-" + cuentaId, LocalDate.of(2024, 1, 1), "Deposito", valor);
+    }
+}
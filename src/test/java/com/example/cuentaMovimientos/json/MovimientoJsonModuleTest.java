@@ -0,0 +1,73 @@
+package com.example.cuentaMovimientos.json;
+
+import com.example.cuentaMovimientos.dto.response.CuentaReporteDto;
+import com.example.cuentaMovimientos.dto.response.CuentaResponseDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoResponseDto;
+import com.example.cuentaMovimientos.dto.response.ReporteResponseDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MovimientoJsonModuleTest {
+
+    private final ObjectMapper reflexion = crearObjectMapper();
+    private final ObjectMapper optimizado = crearObjectMapper().registerModule(new MovimientoJsonModule());
+
+    @Test
+    public void testMovimientosIgualQueReflexion() throws Exception {
+        CuentaResponseDto cuenta = new CuentaResponseDto(1L, "478758", "Ahorros", 2000, 1425.5, true, 7L);
+        List<MovimientoResponseDto> movimientos = Arrays.asList(
+                new MovimientoResponseDto(10L, cuenta, LocalDate.of(2024, 2, 9), "Retiro", -575.5, 1425.5, "José \"Lema\""),
+                new MovimientoResponseDto(null, null, null, null, 0.1, 0, null));
+
+        assertEquals(reflexion.writeValueAsString(movimientos), optimizado.writeValueAsString(movimientos));
+    }
+
+    @Test
+    public void testReporteIgualQueReflexion() throws Exception {
+        ReporteResponseDto reporte = new ReporteResponseDto("Marianela Montalvo", null);
+        reporte.addCuenta(new CuentaReporteDto("225487", "Corriente", 100, true, List.of(
+                new MovimientoReporteDto(LocalDate.of(2024, 12, 31), "Deposito", 600, 700),
+                new MovimientoReporteDto(LocalDate.of(987, 1, 1), "Retiro", -50.25, 649.75))));
+        reporte.addCuenta(new CuentaReporteDto("496825", null, 540, null, null));
+
+        assertEquals(reflexion.writeValueAsString(reporte), optimizado.writeValueAsString(reporte));
+    }
+
+    @Test
+    public void testMovimientosEnCbor() throws Exception {
+        ObjectMapper cbor = crearObjectMapper(new CBORFactory()).registerModule(new MovimientoJsonModule());
+        CuentaResponseDto cuenta = new CuentaResponseDto(1L, "478758", "Ahorros", 2000, 1425.5, true, 7L);
+        List<MovimientoResponseDto> movimientos = List.of(
+                new MovimientoResponseDto(10L, cuenta, LocalDate.of(2024, 2, 9), "Retiro", -575.5, 1425.5, "Jose Lema"));
+
+        byte[] binario = cbor.writeValueAsBytes(movimientos);
+        List<MovimientoResponseDto> leidos = cbor.readValue(binario, new TypeReference<List<MovimientoResponseDto>>() { });
+
+        assertEquals(reflexion.writeValueAsString(movimientos), reflexion.writeValueAsString(leidos));
+    }
+
+    private static ObjectMapper crearObjectMapper() {
+        return crearObjectMapper(new JsonFactory());
+    }
+
+    private static ObjectMapper crearObjectMapper(JsonFactory factory) {
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.cuentaMovimientos.outbox;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ArchivoMovimientoEventSinkTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    public void testAgregaUnaLineaPorEventoEnOrden() throws IOException {
+        Path archivo = directorio.resolve("eventos.jsonl");
+        ArchivoMovimientoEventSink sink = new ArchivoMovimientoEventSink(archivo.toString());
+
+        sink.publicar(List.of(evento(1, "{\"id\":1}"), evento(2, "{\"id\":2}")));
+        sink.publicar(List.of(evento(3, "{\"id\":3}")));
+
+        assertEquals(List.of("{\"id\":1}", "{\"id\":2}", "{\"id\":3}"), Files.readAllLines(archivo));
+    }
+
+    @Test
+    public void testErrorDeEscrituraRechazaElLote() {
+        // Un directorio no se puede abrir como archivo: el relay debe revertir y reintentar el lote
+        ArchivoMovimientoEventSink sink = new ArchivoMovimientoEventSink(directorio.toString());
+
+        assertThrows(UncheckedIOException.class, () -> sink.publicar(List.of(evento(1, "{}"))));
+    }
+
+    private static MovimientoOutbox evento(long id, String payload) {
+        return new MovimientoOutbox(id, "MOVIMIENTO_CREADO", id, 1L, payload, Instant.now(), false, null);
+    }
+}
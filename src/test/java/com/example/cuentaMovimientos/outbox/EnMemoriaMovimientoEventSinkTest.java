@@ -0,0 +1,30 @@
+package com.example.cuentaMovimientos.outbox;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EnMemoriaMovimientoEventSinkTest {
+
+    @Test
+    public void testRechazaElLoteCompletoSiNoCabe() {
+        EnMemoriaMovimientoEventSink sink = new EnMemoriaMovimientoEventSink(3);
+        sink.publicar(List.of(evento(1), evento(2)));
+
+        assertThrows(IllegalStateException.class, () -> sink.publicar(List.of(evento(3), evento(4))));
+
+        // Ningún evento del lote rechazado queda en la cola: el reintento no los duplica
+        assertEquals(List.of("1", "2"), List.copyOf(sink.getCola()));
+        sink.publicar(List.of(evento(3)));
+        assertEquals(List.of("1", "2", "3"), List.copyOf(sink.getCola()));
+    }
+
+    private static MovimientoOutbox evento(long id) {
+        return new MovimientoOutbox(id, "MOVIMIENTO_CREADO", id, 1L, String.valueOf(id), Instant.now(), false, null);
+    }
+}
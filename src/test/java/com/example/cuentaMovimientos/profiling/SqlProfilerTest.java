@@ -0,0 +1,53 @@
+package com.example.cuentaMovimientos.profiling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SqlProfilerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlProfiler sqlProfiler;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sqlProfiler = new SqlProfiler(meterRegistry, 2, 1000, 1000, 10);
+    }
+
+    @Test
+    public void testAtribuyeSentenciasAlMetodoMasInterno() {
+        sqlProfiler.iniciar("POST /movimientos");
+        sqlProfiler.entrarMetodo("MovimientoService.crearMovimiento");
+        sqlProfiler.registrarSentencia(3, "select");
+        sqlProfiler.entrarMetodo("MovimientoOutboxService.registrar");
+        sqlProfiler.registrarSentencia(1, "insert");
+        sqlProfiler.salirMetodo();
+        sqlProfiler.registrarSentencia(2, "update");
+        sqlProfiler.salirMetodo();
+        sqlProfiler.finalizar("POST", "/movimientos");
+
+        assertEquals(1, sqlProfiler.recientes().size());
+        InformeSqlPeticion informe = sqlProfiler.recientes().get(0);
+        assertEquals(3, informe.getSentencias());
+        assertEquals(6, informe.getMilisegundos());
+        assertEquals(2L, informe.getSentenciasPorMetodo().get("MovimientoService.crearMovimiento"));
+        assertEquals(1L, informe.getSentenciasPorMetodo().get("MovimientoOutboxService.registrar"));
+        assertEquals(1.0, meterRegistry.get("sql.presupuesto.excedido").counter().count());
+        assertEquals(3.0, meterRegistry.get("sql.sentencias.peticion").summary().totalAmount());
+    }
+
+    @Test
+    public void testPeticionDentroDelPresupuesto() {
+        sqlProfiler.iniciar("GET /cuentas/1");
+        sqlProfiler.registrarSentencia(1, "select");
+        sqlProfiler.finalizar("GET", "/cuentas/{id}");
+
+        assertTrue(sqlProfiler.recientes().isEmpty());
+        assertEquals(1, meterRegistry.get("sql.sentencias.peticion").summary().count());
+        assertEquals(1, meterRegistry.get("sql.sentencias").tag("metodo", PerfilSqlPeticion.SIN_METODO).timer().count());
+    }
+}
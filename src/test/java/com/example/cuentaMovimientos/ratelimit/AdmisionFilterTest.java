@@ -0,0 +1,102 @@
+package com.example.cuentaMovimientos.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tasas de relleno muy bajas (una por cada 1000 s) para que las pruebas no dependan del reloj.
+ */
+public class AdmisionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testRechazaCon429YRetryAfterAlAgotarLaRafaga() throws Exception {
+        AdmisionFilter filtro = filtro(new AdmisionFilter.LimiteTasa(1, 2), new AdmisionFilter.LimiteTasa(1, 2));
+
+        assertEquals(HttpStatus.OK.value(), ejecutar(filtro, peticion("/movimientos/1", "7", null)).getStatus());
+        assertEquals(HttpStatus.OK.value(), ejecutar(filtro, peticion("/movimientos/1", "7", null)).getStatus());
+
+        MockFilterChain cadena = new MockFilterChain();
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filtro.doFilter(peticion("/movimientos/1", "7", null), respuesta, cadena);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), respuesta.getStatus());
+        assertEquals("1", respuesta.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(cadena.getRequest());
+        assertEquals(1.0, meterRegistry.get("admision.rechazos").tag("motivo", "cliente").counter().count());
+    }
+
+    @Test
+    public void testReporteConsumeUnTokenMasPorCadaBloqueDeCuentas() throws Exception {
+        AdmisionFilter filtro = filtro(new AdmisionFilter.LimiteTasa(0.001, 4), new AdmisionFilter.LimiteTasa(0.001, 100));
+
+        // 1 + 3 / 2 = 2 tokens por reporte
+        MockHttpServletRequest reporte = peticion("/reportes", "7", null);
+        reporte.addParameter("cuentasIds", "1,2,3");
+        assertEquals(HttpStatus.OK.value(), ejecutar(filtro, reporte).getStatus());
+        assertEquals(HttpStatus.OK.value(), ejecutar(filtro, reporte).getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), ejecutar(filtro, reporte).getStatus());
+    }
+
+    @Test
+    public void testReporteMayorQueLaRafagaSeLimitaALaRafaga() throws Exception {
+        AdmisionFilter filtro = filtro(new AdmisionFilter.LimiteTasa(0.001, 4), new AdmisionFilter.LimiteTasa(0.001, 100));
+
+        // 1 + 100 / 2 = 51 tokens, más que la ráfaga: cuesta la ráfaga completa
+        MockHttpServletRequest reporte = peticion("/reportes", "7", null);
+        reporte.addParameter("cuentasIds", IntStream.rangeClosed(1, 100).mapToObj(String::valueOf).collect(Collectors.joining(",")));
+        assertEquals(HttpStatus.OK.value(), ejecutar(filtro, reporte).getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), ejecutar(filtro, peticion("/movimientos/1", "7", null)).getStatus());
+    }
+
+    @Test
+    public void testRechazoPorApiKeyDevuelveLosTokensDelCliente() throws Exception {
+        AdmisionFilter filtro = filtro(new AdmisionFilter.LimiteTasa(0.001, 2), new AdmisionFilter.LimiteTasa(0.001, 1));
+
+        assertEquals(HttpStatus.OK.value(), ejecutar(filtro, peticion("/movimientos/1", "7", "clave")).getStatus());
+        MockHttpServletResponse rechazada = ejecutar(filtro, peticion("/movimientos/1", "7", "clave"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rechazada.getStatus());
+        assertNotNull(rechazada.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("admision.rechazos").tag("motivo", "apikey").counter().count());
+
+        // El cliente conserva el token que la petición rechazada había consumido
+        assertEquals(HttpStatus.OK.value(), ejecutar(filtro, peticion("/movimientos/1", "7", null)).getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), ejecutar(filtro, peticion("/movimientos/1", "7", null)).getStatus());
+    }
+
+    private AdmisionFilter filtro(AdmisionFilter.LimiteTasa limiteCliente, AdmisionFilter.LimiteTasa limiteApiKey) {
+        return new AdmisionFilter(limiteCliente, limiteApiKey, 2, new Bulkhead("consultas", 10), new Bulkhead("escrituras", 10),
+                1000, Duration.ofMinutes(10), meterRegistry);
+    }
+
+    private static MockHttpServletRequest peticion(String uri, String clienteId, String apiKey) {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", uri);
+        if (clienteId != null) {
+            peticion.addParameter("clienteId", clienteId);
+        }
+        if (apiKey != null) {
+            peticion.addHeader(AdmisionFilter.CABECERA_API_KEY, apiKey);
+        }
+        return peticion;
+    }
+
+    private static MockHttpServletResponse ejecutar(AdmisionFilter filtro, MockHttpServletRequest peticion) throws Exception {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filtro.doFilter(peticion, respuesta, new MockFilterChain());
+        return respuesta;
+    }
+}
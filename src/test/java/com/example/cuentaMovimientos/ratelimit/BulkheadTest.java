@@ -0,0 +1,21 @@
+package com.example.cuentaMovimientos.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkheadTest {
+
+    @Test
+    public void testBulkheadRechazaAlLlenarse() {
+        Bulkhead bulkhead = new Bulkhead("consultas", 1);
+
+        assertTrue(bulkhead.intentarEntrar());
+        assertFalse(bulkhead.intentarEntrar());
+        bulkhead.liberar();
+        assertTrue(bulkhead.intentarEntrar());
+        assertEquals(1, bulkhead.getEnUso());
+    }
+}
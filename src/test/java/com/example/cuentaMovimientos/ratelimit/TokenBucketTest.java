@@ -0,0 +1,54 @@
+package com.example.cuentaMovimientos.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000_000L);
+
+    @Test
+    public void testPermiteRafagaYLuegoRechaza() {
+        TokenBucket bucket = new TokenBucket(10, 5, reloj::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.intentarConsumir(1));
+        }
+        long espera = bucket.intentarConsumir(1);
+        assertTrue(espera > 0);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), espera);
+    }
+
+    @Test
+    public void testSeRellenaConElTiempo() {
+        TokenBucket bucket = new TokenBucket(10, 5, reloj::get);
+        assertEquals(0, bucket.intentarConsumir(5));
+        assertTrue(bucket.intentarConsumir(1) > 0);
+
+        reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertEquals(0, bucket.intentarConsumir(2));
+        assertTrue(bucket.intentarConsumir(1) > 0);
+    }
+
+    @Test
+    public void testDevolverNoSuperaLaCapacidad() {
+        TokenBucket bucket = new TokenBucket(10, 5, reloj::get);
+        assertEquals(0, bucket.intentarConsumir(5));
+
+        bucket.devolver(2);
+        assertEquals(0, bucket.intentarConsumir(2));
+        assertTrue(bucket.intentarConsumir(1) > 0);
+
+        // Con el bucket lleno, devolver no concede tokens extra
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        bucket.devolver(3);
+        assertEquals(0, bucket.intentarConsumir(5));
+        assertTrue(bucket.intentarConsumir(1) > 0);
+    }
+}
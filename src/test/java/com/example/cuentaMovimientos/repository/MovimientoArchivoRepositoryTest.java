@@ -0,0 +1,119 @@
+package com.example.cuentaMovimientos.repository;
+
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.entity.Movimiento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Nivel de archivo sobre H2 en modo MySQL ({@code INSERT IGNORE}).
+ */
+public class MovimientoArchivoRepositoryTest {
+
+    private static final LocalDate DESDE = LocalDate.of(2020, 1, 1);
+    private static final LocalDate HASTA = LocalDate.of(2020, 2, 1);
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE movimientos (id BIGINT PRIMARY KEY, cuenta_id BIGINT, fecha DATE, "
+                + "tipo_movimiento VARCHAR(255), valor DOUBLE, saldo DOUBLE, aplicado BOOLEAN)");
+        jdbcTemplate.execute("CREATE TABLE movimientos_archivo (id BIGINT PRIMARY KEY, cuenta_id BIGINT, fecha DATE, "
+                + "tipo_movimiento VARCHAR(255), valor DOUBLE, saldo DOUBLE, aplicado BOOLEAN)");
+        for (long id = 1; id <= 25; id++) {
+            // El 13 no está aplicado todavía (write-behind): no se archiva
+            jdbcTemplate.update("INSERT INTO movimientos VALUES (?, 1, ?, 'Deposito', 10, ?, ?)",
+                    id, Date.valueOf(DESDE.plusDays(id)), id * 10.0, id != 13);
+        }
+        jdbcTemplate.update("INSERT INTO movimientos VALUES (26, 1, ?, 'Deposito', 10, 260, TRUE)", Date.valueOf(HASTA));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    public void testCopiaElPeriodoPorBloquesDeId() {
+        MovimientoArchivoRepository repositorio = repositorio(Duration.ofMinutes(1));
+
+        List<Long> limites = new ArrayList<>();
+        int copiados = 0;
+        long ultimoId = 0;
+        Long hastaId;
+        while ((hastaId = repositorio.siguienteBloqueDelPeriodo(DESDE, HASTA, ultimoId, 10)) != null) {
+            copiados += repositorio.copiarBloqueDelPeriodo(DESDE, HASTA, ultimoId, hastaId);
+            limites.add(hastaId);
+            ultimoId = hastaId;
+        }
+
+        assertEquals(List.of(10L, 20L, 25L), limites);
+        assertEquals(24, copiados);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos_archivo WHERE id IN (13, 26)", Integer.class));
+
+        // Repetir un bloque no duplica filas
+        assertEquals(0, repositorio.copiarBloqueDelPeriodo(DESDE, HASTA, 0, 10));
+    }
+
+    @Test
+    public void testCubreRelecturaLaFechaMaximaTrasElTtl() {
+        MovimientoArchivoRepository conCache = repositorio(Duration.ofHours(1));
+        MovimientoArchivoRepository sinCache = repositorio(Duration.ZERO);
+        LocalDate enRetencion = YearMonth.now().atDay(1);
+
+        assertFalse(conCache.cubre(enRetencion));
+        assertFalse(sinCache.cubre(enRetencion));
+
+        // Otra instancia archiva un periodo dentro de la retención (p. ej. tras reducir retention-months)
+        jdbcTemplate.update("INSERT INTO movimientos_archivo VALUES (100, 1, ?, 'Deposito', 10, 10, TRUE)", Date.valueOf(enRetencion));
+
+        assertFalse(conCache.cubre(enRetencion));
+        assertTrue(sinCache.cubre(enRetencion));
+    }
+
+    @Test
+    public void testCubreSiempreLosRangosAnterioresALaRetencion() {
+        MovimientoArchivoRepository repositorio = repositorio(Duration.ofHours(1));
+
+        assertTrue(repositorio.cubre(DESDE));
+        assertFalse(new MovimientoArchivoRepository(jdbcTemplate, false, 13, Duration.ofHours(1)).cubre(DESDE));
+    }
+
+    @Test
+    public void testBuscaPorIdEnElArchivo() {
+        MovimientoArchivoRepository repositorio = repositorio(Duration.ofMinutes(1));
+        repositorio.copiarBloqueDelPeriodo(DESDE, HASTA, 0, 5);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setId(1L);
+
+        Optional<Movimiento> movimiento = repositorio.findById(3L, cuentaId -> cuenta);
+
+        assertTrue(movimiento.isPresent());
+        assertEquals(30.0, movimiento.get().getSaldo());
+        assertSame(cuenta, movimiento.get().getCuenta());
+        assertTrue(repositorio.existe(3L));
+        assertFalse(repositorio.existe(6L));
+        assertTrue(repositorio.findById(6L, cuentaId -> cuenta).isEmpty());
+    }
+
+    private MovimientoArchivoRepository repositorio(Duration ttlFechaMaxima) {
+        return new MovimientoArchivoRepository(jdbcTemplate, true, 13, ttlFechaMaxima);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.cuentaMovimientos.repository;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(MovimientoArchivoRepository.class)
+public class MovimientoOutboxRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MovimientoOutboxRepository outboxRepository;
+
+    @Test
+    public void testPurgaSoloEnviadosAnterioresAlLimitePorBloques() {
+        Instant ahora = Instant.now();
+        Instant hace10Dias = ahora.minus(Duration.ofDays(10));
+        for (int i = 0; i < 3; i++) {
+            evento(true, hace10Dias);
+        }
+        evento(true, ahora);
+        evento(false, null);
+        entityManager.flush();
+
+        Instant limite = ahora.minus(Duration.ofDays(7));
+        assertEquals(2, outboxRepository.eliminarEnviados(limite, 2));
+        assertEquals(1, outboxRepository.eliminarEnviados(limite, 2));
+        assertEquals(0, outboxRepository.eliminarEnviados(limite, 2));
+        entityManager.clear();
+
+        List<MovimientoOutbox> restantes = outboxRepository.findAll();
+        assertEquals(2, restantes.size());
+        assertEquals(1L, outboxRepository.countByEnviadoFalse());
+    }
+
+    private void evento(boolean enviado, Instant fechaEnvio) {
+        entityManager.persist(new MovimientoOutbox(null, "MOVIMIENTO_CREADO", 1L, 1L, "{}",
+                fechaEnvio != null ? fechaEnvio : Instant.now(), enviado, fechaEnvio));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.cuentaMovimientos.repository;
+
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.entity.Movimiento;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Movimientos de un cliente con varias cuentas, combinando el nivel caliente y el de archivo. Las fechas son de 2020,
+ * anteriores a la retención, así que el rango siempre incluye el archivo.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cuenta-movimientos.archivo.enabled=true"
+})
+@Import(MovimientoArchivoRepository.class)
+public class MovimientoRepositoryImplTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2020, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2020, 1, 31);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    private Cuenta ahorros;
+    private Cuenta corriente;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS movimientos_archivo (id BIGINT PRIMARY KEY, cuenta_id BIGINT, "
+                + "fecha DATE, tipo_movimiento VARCHAR(255), valor DOUBLE, saldo DOUBLE, aplicado BOOLEAN)");
+        ahorros = cuenta("A-1", 7L);
+        corriente = cuenta("C-1", 7L);
+        Cuenta otroCliente = cuenta("O-1", 8L);
+
+        movimiento(ahorros, LocalDate.of(2020, 1, 10));
+        movimiento(corriente, LocalDate.of(2020, 1, 5));
+        movimiento(ahorros, LocalDate.of(2020, 2, 1));
+        movimiento(otroCliente, LocalDate.of(2020, 1, 7));
+        entityManager.flush();
+        entityManager.clear();
+
+        archivado(1001L, corriente, LocalDate.of(2020, 1, 3));
+        archivado(1002L, ahorros, LocalDate.of(2020, 1, 8));
+        archivado(1003L, otroCliente, LocalDate.of(2020, 1, 4));
+    }
+
+    @Test
+    public void testIncluyeTodasLasCuentasDelClienteOrdenadasPorFecha() {
+        List<Movimiento> movimientos = movimientoRepository.findByClienteIdAndFechaBetween(7L, INICIO, FIN);
+
+        assertEquals(List.of(LocalDate.of(2020, 1, 3), LocalDate.of(2020, 1, 5), LocalDate.of(2020, 1, 8), LocalDate.of(2020, 1, 10)),
+                movimientos.stream().map(Movimiento::getFecha).toList());
+        assertEquals(List.of("C-1", "C-1", "A-1", "A-1"),
+                movimientos.stream().map(movimiento -> movimiento.getCuenta().getNumeroCuenta()).toList());
+        assertEquals(List.of(1001L, 1002L), movimientos.stream().map(Movimiento::getId).filter(id -> id > 1000).toList());
+    }
+
+    @Test
+    public void testClienteSinCuentas() {
+        assertTrue(movimientoRepository.findByClienteIdAndFechaBetween(9L, INICIO, FIN).isEmpty());
+    }
+
+    private Cuenta cuenta(String numero, Long clienteId) {
+        Cuenta cuenta = new Cuenta(null, numero, "Ahorros", 100.0, 100.0, true, clienteId, null);
+        entityManager.persist(cuenta);
+        return cuenta;
+    }
+
+    private void movimiento(Cuenta cuenta, LocalDate fecha) {
+        entityManager.persist(new Movimiento(null, fecha, "Deposito", 10.0, 110.0, true, cuenta));
+    }
+
+    private void archivado(Long id, Cuenta cuenta, LocalDate fecha) {
+        jdbcTemplate.update("INSERT INTO movimientos_archivo VALUES (?, ?, ?, 'Deposito', 10, 110, TRUE)",
+                id, cuenta.getId(), Date.valueOf(fecha));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.dto.response.AnaliticaMovimientosDto;
+import com.example.cuentaMovimientos.repository.AnaliticaMovimientosRepository;
+import com.example.cuentaMovimientos.repository.AnaliticaMovimientosRepository.ConsumidorAgregado;
+import com.example.cuentaMovimientos.repository.MovimientoArchivoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AnaliticaMovimientosServiceTest {
+
+    @Mock
+    private AnaliticaMovimientosRepository analiticaMovimientosRepository;
+
+    @Mock
+    private MovimientoArchivoRepository movimientoArchivoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AnaliticaMovimientosService analiticaMovimientosService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        analiticaMovimientosService = new AnaliticaMovimientosService(analiticaMovimientosRepository, movimientoArchivoRepository,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 4, 10, 2, 100, Duration.ofHours(1));
+        when(analiticaMovimientosRepository.rangoIds("Ahorros")).thenReturn(new long[]{1, 100});
+        doAnswer(invocation -> {
+            LocalDate fechaInicio = invocation.getArgument(2);
+            ConsumidorAgregado consumidor = invocation.getArgument(6);
+            consumidor.aceptar(fechaInicio, "Deposito", 2, 30.0);
+            return null;
+        }).when(analiticaMovimientosRepository).agregar(eq("movimientos"), eq("Ahorros"), any(), any(), anyLong(), anyLong(), any());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        analiticaMovimientosService.detener();
+    }
+
+    @Test
+    public void testRepartePeriodosLargosYCombinaLosTramos() {
+        YearMonth mes = YearMonth.now().minusMonths(2);
+
+        AnaliticaMovimientosDto resultado = analiticaMovimientosService.analizar("Ahorros", mes.atDay(1), mes.atEndOfMonth());
+
+        verify(analiticaMovimientosRepository).agregar(eq("movimientos"), any(), any(), any(), eq(1L), eq(25L), any());
+        verify(analiticaMovimientosRepository).agregar(eq("movimientos"), any(), any(), any(), eq(76L), eq(100L), any());
+        assertEquals(8, resultado.getCantidad());
+        assertEquals(120.0, resultado.getTotal(), 0.001);
+        assertEquals(1, resultado.getPorDia().size());
+        assertEquals("Deposito", resultado.getPorTipo().get(0).getTipoMovimiento());
+    }
+
+    @Test
+    public void testReutilizaLosMesesCerradosEnCache() {
+        YearMonth mes = YearMonth.now().minusMonths(2);
+        LocalDate fechaInicio = mes.minusMonths(1).atEndOfMonth().minusDays(2);
+        LocalDate fechaFin = mes.atEndOfMonth();
+
+        analiticaMovimientosService.analizar("Ahorros", fechaInicio, fechaFin);
+        AnaliticaMovimientosDto resultado = analiticaMovimientosService.analizar("Ahorros", fechaInicio, fechaFin);
+
+        verify(analiticaMovimientosRepository, times(4)).agregar(eq("movimientos"), any(), eq(mes.atDay(1)), any(), anyLong(), anyLong(), any());
+        verify(analiticaMovimientosRepository, times(2)).agregar(eq("movimientos"), any(), eq(fechaInicio), any(), anyLong(), anyLong(), any());
+        assertEquals(2, resultado.getPorDia().size());
+        assertEquals(10, resultado.getCantidad());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.cache.ClienteNombreCache;
+import com.example.cuentaMovimientos.cache.CuentaMetadata;
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.dto.response.ReporteResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class CalentamientoServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CuentaMetadataCache cuentaMetadataCache;
+
+    @Mock
+    private ClienteNombreCache clienteNombreCache;
+
+    @Mock
+    private ReporteService reporteService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), any())).thenReturn(List.of(1L, 2L, 3L));
+        when(cuentaMetadataCache.precargar(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .map(id -> new CuentaMetadata(id, "C-" + id, "Ahorros", 100.0, true, id % 2 == 0 ? 20L : 10L))
+                    .toList();
+        });
+        when(reporteService.generarReporte(anyList(), any(), any())).thenReturn(new ReporteResponseDto());
+    }
+
+    @Test
+    public void testPrecargaCuentasPorBloquesYCadaClienteUnaVez() {
+        calentamiento(Duration.ofSeconds(10)).calentar();
+
+        verify(cuentaMetadataCache).precargar(List.of(1L, 2L));
+        verify(cuentaMetadataCache).precargar(List.of(3L));
+        verify(clienteNombreCache, times(1)).nombre(10L);
+        verify(clienteNombreCache, times(1)).nombre(20L);
+        verify(reporteService, times(6)).generarReporte(anyList(), any(), any());
+        verify(reporteService, times(6)).calcularEtag(any(ReporteResponseDto.class));
+    }
+
+    @Test
+    public void testRespetaElPresupuestoAunqueClientePersonaNoResponda() {
+        when(clienteNombreCache.nombre(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return "Cliente";
+        });
+
+        long inicio = System.nanoTime();
+        calentamiento(Duration.ofMillis(200)).calentar();
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 2000);
+        verify(reporteService, never()).generarReporte(anyList(), any(), any());
+    }
+
+    @Test
+    public void testUnFalloNoImpideElArranque() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), any())).thenThrow(new RuntimeException("Base de datos no disponible"));
+
+        calentamiento(Duration.ofSeconds(10)).calentar();
+
+        verifyNoInteractions(cuentaMetadataCache, clienteNombreCache, reporteService);
+    }
+
+    private CalentamientoService calentamiento(Duration presupuesto) {
+        return new CalentamientoService(jdbcTemplate, cuentaMetadataCache, clienteNombreCache, reporteService,
+                new ObjectMapper(), new SimpleMeterRegistry(), true, 100, 7, 2, 2, 6, presupuesto);
+    }
+}
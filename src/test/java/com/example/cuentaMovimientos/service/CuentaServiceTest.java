@@ -0,0 +1,94 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.dto.request.CuentaFiltroDto;
+import com.example.cuentaMovimientos.dto.response.PaginaCuentasDto;
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.repository.CuentaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class CuentaServiceTest {
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private CuentaMetadataCache cuentaMetadataCache;
+
+    private CuentaService cuentaService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cuentaService = new CuentaService(cuentaRepository, cuentaMetadataCache);
+    }
+
+    @Test
+    public void testPaginaIncompletaDeduceElTotalSinContar() {
+        CuentaFiltroDto filtro = filtro(2, 10);
+        when(cuentaRepository.buscar(filtro, 20, 10)).thenReturn(cuentas(3));
+
+        PaginaCuentasDto pagina = cuentaService.buscarCuentas(filtro);
+
+        assertEquals(23L, pagina.getTotal());
+        verify(cuentaRepository, never()).contar(any());
+    }
+
+    @Test
+    public void testPaginaCompletaOVaciaConsultaElTotal() {
+        CuentaFiltroDto completa = filtro(0, 10);
+        when(cuentaRepository.buscar(completa, 0, 10)).thenReturn(cuentas(10));
+        when(cuentaRepository.contar(completa)).thenReturn(25L);
+        assertEquals(25L, cuentaService.buscarCuentas(completa).getTotal());
+
+        // Una página vacía más allá del final no permite deducir el total
+        CuentaFiltroDto vacia = filtro(5, 10);
+        when(cuentaRepository.buscar(vacia, 50, 10)).thenReturn(List.of());
+        when(cuentaRepository.contar(vacia)).thenReturn(25L);
+        assertEquals(25L, cuentaService.buscarCuentas(vacia).getTotal());
+    }
+
+    @Test
+    public void testPrimeraPaginaVaciaTieneTotalCero() {
+        CuentaFiltroDto filtro = filtro(0, 10);
+        when(cuentaRepository.buscar(filtro, 0, 10)).thenReturn(List.of());
+
+        assertEquals(0L, cuentaService.buscarCuentas(filtro).getTotal());
+        verify(cuentaRepository, never()).contar(any());
+    }
+
+    @Test
+    public void testDesplazamientoQueDesbordaSeRechaza() {
+        CuentaFiltroDto filtro = filtro(Integer.MAX_VALUE, 500);
+
+        assertThrows(IllegalArgumentException.class, () -> cuentaService.buscarCuentas(filtro));
+        verify(cuentaRepository, never()).buscar(any(), anyInt(), anyInt());
+    }
+
+    private static CuentaFiltroDto filtro(int page, int size) {
+        CuentaFiltroDto filtro = new CuentaFiltroDto();
+        filtro.setPage(page);
+        filtro.setSize(size);
+        return filtro;
+    }
+
+    private static List<Cuenta> cuentas(int cantidad) {
+        List<Cuenta> cuentas = new ArrayList<>();
+        for (long id = 1; id <= cantidad; id++) {
+            cuentas.add(new Cuenta(id, "C-" + id, "Ahorros", 100.0, 100.0, true, 1L, 0L));
+        }
+        return cuentas;
+    }
+}
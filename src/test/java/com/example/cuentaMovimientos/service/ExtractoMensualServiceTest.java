@@ -0,0 +1,137 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.dto.response.CuentaReporteDto;
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import com.example.cuentaMovimientos.entity.Movimiento;
+import com.example.cuentaMovimientos.repository.ExtractoMensualRepository;
+import com.example.cuentaMovimientos.repository.MovimientoArchivoRepository;
+import com.example.cuentaMovimientos.repository.MovimientoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExtractoMensualServiceTest {
+
+    @Mock
+    private ExtractoMensualRepository extractoMensualRepository;
+
+    @Mock
+    private MovimientoRepository movimientoRepository;
+
+    @Mock
+    private MovimientoArchivoRepository movimientoArchivoRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private ExtractoMensualService extractoMensualService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        extractoMensualService = new ExtractoMensualService(extractoMensualRepository, movimientoRepository,
+                movimientoArchivoRepository, jdbcTemplate, objectMapper, new SimpleMeterRegistry(), 13);
+    }
+
+    @Test
+    public void testCombinaExtractosConMovimientosEnVivo() throws IOException {
+        YearMonth haceTres = YearMonth.now().minusMonths(3);
+        YearMonth haceDos = YearMonth.now().minusMonths(2);
+        LocalDate fechaInicio = haceTres.atDay(15);
+        LocalDate fechaFin = LocalDate.now();
+
+        when(extractoMensualRepository.buscar(1L, haceDos, YearMonth.now().minusMonths(1)))
+                .thenReturn(Map.of(haceDos, comprimir(new CuentaReporteDto("478758", "Ahorros", 100.0, true,
+                        List.of(new MovimientoReporteDto(haceDos.atDay(3), "Deposito", 50.0, 150.0))))));
+        when(movimientoRepository.findByCuentaIdAndFechaBetween(1L, fechaInicio, haceTres.atEndOfMonth()))
+                .thenReturn(List.of(movimiento(haceTres.atDay(20), 10.0)));
+        when(movimientoRepository.findByCuentaIdAndFechaBetween(1L, haceDos.plusMonths(1).atDay(1), fechaFin))
+                .thenReturn(List.of(movimiento(fechaFin, -5.0)));
+
+        List<MovimientoReporteDto> movimientos = extractoMensualService.movimientos(1L, fechaInicio, fechaFin);
+
+        assertEquals(3, movimientos.size());
+        assertEquals(10.0, movimientos.get(0).getValor());
+        assertEquals(50.0, movimientos.get(1).getValor());
+        assertEquals(-5.0, movimientos.get(2).getValor());
+        verify(movimientoRepository, times(2)).findByCuentaIdAndFechaBetween(any(), any(), any());
+    }
+
+    @Test
+    public void testSinExtractosConsultaEnVivo() {
+        LocalDate fechaInicio = LocalDate.now().withDayOfMonth(1);
+        LocalDate fechaFin = LocalDate.now();
+        when(movimientoRepository.findByCuentaIdAndFechaBetween(1L, fechaInicio, fechaFin))
+                .thenReturn(List.of(movimiento(fechaFin, 20.0)));
+
+        List<MovimientoReporteDto> movimientos = extractoMensualService.movimientos(1L, fechaInicio, fechaFin);
+
+        assertEquals(1, movimientos.size());
+        verifyNoInteractions(extractoMensualRepository);
+    }
+
+    @Test
+    public void testGuardaConLaVersionLeidaAntesDeLosMovimientosDeCadaCuenta() throws SQLException {
+        YearMonth mes = YearMonth.now().minusMonths(1);
+        ResultSet fila = mock(ResultSet.class);
+        when(fila.getLong("id")).thenReturn(1L);
+        when(fila.getString("numero_cuenta")).thenReturn("478758");
+        when(fila.getDouble("saldo_inicial")).thenReturn(100.0);
+        doAnswer(invocacion -> {
+            invocacion.getArgument(1, RowCallbackHandler.class).processRow(fila);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        when(extractoMensualRepository.periodosGenerados(mes, mes)).thenReturn(Map.of());
+        when(jdbcTemplate.queryForObject("SELECT version_datos FROM cuentas WHERE id = ?", Long.class, 1L)).thenReturn(7L);
+        when(movimientoRepository.findByCuentaIdAndFechaBetween(1L, mes.atDay(1), mes.atEndOfMonth()))
+                .thenReturn(List.of(movimiento(mes.atDay(5), 50.0)));
+        when(extractoMensualRepository.guardar(eq(1L), eq(mes), anyDouble(), anyDouble(), anyInt(), any(), anyLong())).thenReturn(true);
+
+        assertEquals(1, extractoMensualService.generar(mes, mes));
+
+        InOrder orden = inOrder(jdbcTemplate, movimientoRepository, extractoMensualRepository);
+        orden.verify(jdbcTemplate).queryForObject("SELECT version_datos FROM cuentas WHERE id = ?", Long.class, 1L);
+        orden.verify(movimientoRepository).findByCuentaIdAndFechaBetween(1L, mes.atDay(1), mes.atEndOfMonth());
+        orden.verify(extractoMensualRepository).guardar(eq(1L), eq(mes), eq(100.0), eq(150.0), eq(1), any(), eq(7L));
+    }
+
+    private byte[] comprimir(CuentaReporteDto extracto) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            objectMapper.writeValue(gzip, extracto);
+        }
+        return salida.toByteArray();
+    }
+
+    private static Movimiento movimiento(LocalDate fecha, double valor) {
+        Movimiento movimiento = new Movimiento();
+        movimiento.setFecha(fecha);
+        movimiento.setTipoMovimiento(valor > 0 ? "Deposito" : "Retiro");
+        movimiento.setValor(valor);
+        movimiento.setSaldo(100.0);
+        return movimiento;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.entity.MovimientoOutbox;
+import com.example.cuentaMovimientos.outbox.MovimientoEventSink;
+import com.example.cuentaMovimientos.repository.MovimientoOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Relay con lotes de 2 eventos y como mucho 3 lotes por ciclo.
+ */
+public class MovimientoOutboxRelayTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MovimientoOutboxRepository outboxRepository;
+    private MovimientoEventSink sink;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        outboxRepository = mock(MovimientoOutboxRepository.class);
+        sink = mock(MovimientoEventSink.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+    }
+
+    @Test
+    public void testPublicaLotesHastaVaciarYNoCuentaPendientes() {
+        when(outboxRepository.findPendientes(any(Pageable.class)))
+                .thenReturn(eventos(1, 2), eventos(3, 4), eventos(5, 5));
+
+        relay(Duration.ofHours(1)).sondear();
+
+        verify(sink, times(3)).publicar(anyList());
+        verify(outboxRepository).marcarEnviados(eq(List.of(1L, 2L)), any());
+        verify(outboxRepository).marcarEnviados(eq(List.of(5L)), any());
+        verify(outboxRepository, never()).countByEnviadoFalse();
+        assertEquals(5.0, meterRegistry.get("outbox.eventos.enviados").counter().count());
+        assertEquals(0.0, meterRegistry.get("outbox.pendientes").gauge().value());
+    }
+
+    @Test
+    public void testCuentaPendientesComoMuchoUnaVezPorIntervalo() {
+        when(outboxRepository.findPendientes(any(Pageable.class))).thenAnswer(invocacion -> eventos(1, 2));
+        when(outboxRepository.countByEnviadoFalse()).thenReturn(40L);
+        MovimientoOutboxRelay relay = relay(Duration.ofHours(1));
+
+        relay.sondear();
+        relay.sondear();
+
+        // Ciclos con trabajo pendiente tras 3 lotes: una sola consulta de conteo en el intervalo
+        verify(outboxRepository, times(6)).findPendientes(any(Pageable.class));
+        verify(outboxRepository, times(1)).countByEnviadoFalse();
+        assertEquals(40.0, meterRegistry.get("outbox.pendientes").gauge().value());
+    }
+
+    @Test
+    public void testFalloDelSinkDejaElLotePendiente() {
+        when(outboxRepository.findPendientes(any(Pageable.class))).thenReturn(eventos(1, 2));
+        doThrow(new IllegalStateException("Cola de eventos llena")).when(sink).publicar(anyList());
+
+        relay(Duration.ofHours(1)).sondear();
+
+        verify(outboxRepository, never()).marcarEnviados(anyList(), any());
+        verify(transactionManager).rollback(any());
+        assertEquals(0.0, meterRegistry.get("outbox.eventos.enviados").counter().count());
+    }
+
+    @Test
+    public void testPurgaPorBloquesHastaUnBloqueIncompleto() {
+        when(outboxRepository.eliminarEnviados(any(Instant.class), eq(100))).thenReturn(100, 100, 30);
+        Instant antes = Instant.now().minus(Duration.ofDays(7));
+
+        relay(Duration.ofHours(1)).purgar();
+
+        verify(outboxRepository, times(3)).eliminarEnviados(argThat(limite -> !limite.isBefore(antes)), eq(100));
+        assertEquals(230.0, meterRegistry.get("outbox.eventos.purgados").counter().count());
+    }
+
+    private MovimientoOutboxRelay relay(Duration intervaloConteo) {
+        return new MovimientoOutboxRelay(outboxRepository, sink, new TransactionTemplate(transactionManager), meterRegistry,
+                2, 3, intervaloConteo, Duration.ofDays(7), 100);
+    }
+
+    private static List<MovimientoOutbox> eventos(long desde, long hasta) {
+        List<MovimientoOutbox> eventos = new ArrayList<>();
+        for (long id = desde; id <= hasta; id++) {
+            eventos.add(new MovimientoOutbox(id, "MOVIMIENTO_CREADO", id, 1L, "{}", Instant.now(), false, null));
+        }
+        return eventos;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.dto.response.ReconciliacionResultadoDto;
+import com.example.cuentaMovimientos.repository.ExtractoMensualRepository;
+import com.example.cuentaMovimientos.repository.MovimientoArchivoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Reconciliación sobre H2: cuenta 1 cuadrada, cuenta 2 con {@code saldo_actual} descuadrado y cuenta 3 con un
+ * movimiento de la cadena mal calculado (dentro y fuera de la tolerancia).
+ */
+public class ReconciliacionServiceTest {
+
+    private static final LocalDate ENERO = LocalDate.of(2024, 1, 10);
+    private static final LocalDate FEBRERO = LocalDate.of(2024, 2, 10);
+
+    private EmbeddedDatabase baseDatos;
+    private JdbcTemplate jdbcTemplate;
+    private ExtractoMensualRepository extractoMensualRepository;
+    private Runnable escrituraConcurrente = () -> { };
+
+    @BeforeEach
+    public void setUp() {
+        baseDatos = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(baseDatos);
+        jdbcTemplate.execute("CREATE TABLE cuentas (id BIGINT PRIMARY KEY, saldo_inicial DOUBLE, saldo_actual DOUBLE, "
+                + "version_datos BIGINT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE movimientos (id BIGINT PRIMARY KEY, cuenta_id BIGINT, fecha DATE, valor DOUBLE, "
+                + "saldo DOUBLE, aplicado BOOLEAN)");
+        jdbcTemplate.update("INSERT INTO cuentas (id, saldo_inicial, saldo_actual) VALUES (1, 100, 150.001), (2, 100, 999), (3, 100, 130)");
+        movimiento(1, 1, ENERO, 50, 150.001);
+        movimiento(2, 2, ENERO, 20, 120);
+        movimiento(3, 3, ENERO, 10, 110);
+        movimiento(4, 3, FEBRERO, 10, 500);
+        movimiento(5, 3, FEBRERO, 10, 130);
+        extractoMensualRepository = mock(ExtractoMensualRepository.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        baseDatos.shutdown();
+    }
+
+    @Test
+    public void testDetectaDescuadresFueraDeLaTolerancia() {
+        ReconciliacionResultadoDto resultado = reconciliacion().reconciliar(false);
+
+        assertEquals(3, resultado.getCuentasRevisadas());
+        assertEquals(5, resultado.getMovimientosRevisados());
+        // Cuenta 1: 0.001 de diferencia, dentro de la tolerancia
+        assertEquals(1, resultado.getSaldosDescuadrados());
+        assertEquals(1, resultado.getMovimientosConSaldoIncorrecto());
+        assertEquals(0, resultado.getSaldosReparados());
+        assertEquals(999.0, saldoActual(2));
+        assertEquals(500.0, saldoMovimiento(4));
+        verifyNoInteractions(extractoMensualRepository);
+    }
+
+    @Test
+    public void testReparaConActualizacionCondicionalEInvalidaLosExtractos() {
+        ReconciliacionResultadoDto resultado = reconciliacion().reconciliar(true);
+
+        assertEquals(1, resultado.getSaldosReparados());
+        assertEquals(1, resultado.getMovimientosReparados());
+        assertEquals(120.0, saldoActual(2));
+        assertEquals(120.0, saldoMovimiento(4));
+        assertEquals(150.001, saldoActual(1));
+        assertEquals(1L, version(2));
+        // La cadena de la cuenta 3 cambió aunque su saldo_actual ya cuadraba
+        assertEquals(1L, version(3));
+
+        List<Object[]> invalidados = invalidados();
+        assertEquals(1, invalidados.size());
+        assertArrayEquals(new Object[]{3L, FEBRERO}, invalidados.get(0));
+    }
+
+    @Test
+    public void testNoPisaValoresModificadosDuranteLaReconciliacion() {
+        // Entre la lectura y la reparación llegan un movimiento a la cuenta 2 y una corrección del movimiento 4
+        escrituraConcurrente = () -> {
+            jdbcTemplate.update("UPDATE cuentas SET saldo_actual = 1019 WHERE id = 2");
+            jdbcTemplate.update("UPDATE movimientos SET saldo = 120 WHERE id = 4");
+        };
+
+        ReconciliacionResultadoDto resultado = reconciliacion().reconciliar(true);
+
+        assertEquals(1, resultado.getSaldosDescuadrados());
+        assertEquals(0, resultado.getSaldosReparados());
+        assertEquals(0, resultado.getMovimientosReparados());
+        assertEquals(1019.0, saldoActual(2));
+        assertEquals(0L, version(2));
+        assertEquals(0, invalidados().size());
+    }
+
+    private ReconciliacionService reconciliacion() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(baseDatos)) {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+                escrituraConcurrente.run();
+                return super.execute(action);
+            }
+        };
+        return new ReconciliacionService(jdbcTemplate, transactionTemplate,
+                new MovimientoArchivoRepository(jdbcTemplate, false, 13, Duration.ofMinutes(1)), extractoMensualRepository,
+                new SimpleMeterRegistry(), true, true, 2, 2, 100, 500, 0.005);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> invalidados() {
+        ArgumentCaptor<Collection<Object[]>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(extractoMensualRepository, atLeastOnce()).invalidar(captor.capture());
+        List<Object[]> todos = new ArrayList<>();
+        captor.getAllValues().forEach(todos::addAll);
+        return todos;
+    }
+
+    private void movimiento(long id, long cuentaId, LocalDate fecha, double valor, double saldo) {
+        jdbcTemplate.update("INSERT INTO movimientos VALUES (?, ?, ?, ?, ?, TRUE)", id, cuentaId, Date.valueOf(fecha), valor, saldo);
+    }
+
+    private double saldoActual(long cuentaId) {
+        return jdbcTemplate.queryForObject("SELECT saldo_actual FROM cuentas WHERE id = ?", Double.class, cuentaId);
+    }
+
+    private double saldoMovimiento(long id) {
+        return jdbcTemplate.queryForObject("SELECT saldo FROM movimientos WHERE id = ?", Double.class, id);
+    }
+
+    private long version(long cuentaId) {
+        return jdbcTemplate.queryForObject("SELECT version_datos FROM cuentas WHERE id = ?", Long.class, cuentaId);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.cache.ClienteNombreCache;
+import com.example.cuentaMovimientos.cache.CuentaMetadata;
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.cache.MovimientosColumnaresCache;
+import com.example.cuentaMovimientos.dto.response.MovimientoReporteDto;
+import com.example.cuentaMovimientos.repository.MovimientoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReporteServiceTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2024, 1, 31);
+
+    @Mock
+    private CuentaMetadataCache cuentaMetadataCache;
+
+    @Mock
+    private MovimientosColumnaresCache movimientosColumnaresCache;
+
+    @Mock
+    private ClienteNombreCache clienteNombreCache;
+
+    private ReporteService reporteService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reporteService = new ReporteService(cuentaMetadataCache, mock(MovimientoRepository.class),
+                mock(ExtractoMensualService.class), movimientosColumnaresCache, clienteNombreCache);
+        when(cuentaMetadataCache.porId(1L)).thenReturn(Optional.of(new CuentaMetadata(1L, "478758", "Ahorros", 100.0, true, 7L)));
+        when(clienteNombreCache.nombre(7L)).thenReturn("Jose Lema");
+        when(movimientosColumnaresCache.movimientos(1L, INICIO, FIN))
+                .thenReturn(Optional.of(List.of(new MovimientoReporteDto(INICIO, "Deposito", 50.0, 150.0))));
+    }
+
+    @Test
+    public void testEtagEstableConLosMismosDatos() {
+        assertEquals(etag(), etag());
+    }
+
+    @Test
+    public void testEtagCambiaConElNombreDelCliente() {
+        String etag = etag();
+
+        when(clienteNombreCache.nombre(7L)).thenReturn("José Lema");
+
+        assertNotEquals(etag, etag());
+    }
+
+    @Test
+    public void testEtagCambiaConLosMetadatosCacheados() {
+        String etag = etag();
+
+        when(cuentaMetadataCache.porId(1L)).thenReturn(Optional.of(new CuentaMetadata(1L, "478758", "Corriente", 100.0, true, 7L)));
+
+        assertNotEquals(etag, etag());
+    }
+
+    @Test
+    public void testEtagCambiaConLosMovimientos() {
+        String etag = etag();
+
+        when(movimientosColumnaresCache.movimientos(1L, INICIO, FIN))
+                .thenReturn(Optional.of(List.of(new MovimientoReporteDto(INICIO, "Deposito", 60.0, 160.0))));
+
+        assertNotEquals(etag, etag());
+    }
+
+    private String etag() {
+        return reporteService.calcularEtag(reporteService.generarReporte(List.of(1L), INICIO, FIN));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.exception.SaldoInsuficienteException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Créditos diferidos, débitos y volcados concurrentes sobre H2, reproduciendo el camino write-behind de
+ * {@link MovimientoService#crearMovimiento}: fila de la cuenta bloqueada, saldo = {@code saldo_actual + pendiente}.
+ */
+public class SaldoWriteBehindBufferTest {
+
+    private EmbeddedDatabase baseDatos;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private SaldoWriteBehindBuffer buffer;
+
+    @BeforeEach
+    public void setUp() {
+        baseDatos = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(baseDatos);
+        jdbcTemplate.execute("CREATE TABLE cuentas (id BIGINT PRIMARY KEY, saldo_actual DOUBLE, version_datos BIGINT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE movimientos (id BIGINT AUTO_INCREMENT PRIMARY KEY, cuenta_id BIGINT, valor DOUBLE, "
+                + "saldo DOUBLE, aplicado BOOLEAN)");
+        jdbcTemplate.update("INSERT INTO cuentas (id, saldo_actual) VALUES (1, 100)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(baseDatos));
+        buffer = new SaldoWriteBehindBuffer(jdbcTemplate, transactionTemplate, true, 5);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        baseDatos.shutdown();
+    }
+
+    @Test
+    public void testCreditoRevertidoNoQuedaPendiente() {
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            registrar(30.0);
+            assertEquals(30.0, buffer.pendiente(1L));
+            throw new IllegalStateException("rollback");
+        }));
+
+        assertEquals(0.0, buffer.pendiente(1L));
+        buffer.volcar();
+        assertEquals(100.0, saldoActual());
+    }
+
+    @Test
+    public void testVolcadoMantieneElDeltaVisibleHastaConfirmarse() {
+        transactionTemplate.executeWithoutResult(status -> registrar(50.0));
+        assertEquals(50.0, buffer.pendiente(1L));
+
+        buffer.volcar();
+
+        assertEquals(150.0, saldoActual());
+        assertEquals(0.0, buffer.pendiente(1L));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos WHERE aplicado = FALSE", Integer.class));
+    }
+
+    @Test
+    public void testCreditosDebitosYVolcadosConcurrentesMantienenLaCadenaDeSaldos() throws Exception {
+        AtomicBoolean activo = new AtomicBoolean(true);
+        ExecutorService hilos = Executors.newFixedThreadPool(5);
+        Future<?> volcador = hilos.submit(() -> {
+            while (activo.get()) {
+                buffer.volcar();
+            }
+        });
+        List<Future<?>> escritores = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            escritores.add(hilos.submit(() -> {
+                for (int j = 0; j < 100; j++) {
+                    // Cada escritor acredita y después retira lo mismo: el saldo nunca baja de 100, así que
+                    // cualquier SaldoInsuficienteException sería un falso positivo
+                    double valor = j % 2 == 0 ? 25.0 : -25.0;
+                    transactionTemplate.executeWithoutResult(status -> registrar(valor));
+                }
+            }));
+        }
+        for (Future<?> escritor : escritores) {
+            escritor.get();
+        }
+        activo.set(false);
+        volcador.get();
+        hilos.shutdown();
+        buffer.volcar();
+
+        assertEquals(100.0, saldoActual(), 0.0001);
+        assertEquals(0.0, buffer.pendiente(1L), 0.0001);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos WHERE aplicado = FALSE", Integer.class));
+
+        // Los IDs se asignan con la fila bloqueada: en orden de ID, cada saldo es el anterior más el valor
+        double saldo = 100.0;
+        for (Map<String, Object> fila : jdbcTemplate.queryForList("SELECT valor, saldo FROM movimientos ORDER BY id")) {
+            saldo += ((Number) fila.get("VALOR")).doubleValue();
+            assertEquals(saldo, ((Number) fila.get("SALDO")).doubleValue(), 0.0001);
+        }
+    }
+
+    private void registrar(double valor) {
+        double saldoActual = jdbcTemplate.queryForObject("SELECT saldo_actual FROM cuentas WHERE id = 1 FOR UPDATE", Double.class);
+        double pendiente = buffer.pendiente(1L);
+        double nuevoSaldo = saldoActual + pendiente + valor;
+        if (nuevoSaldo < 0) {
+            throw new SaldoInsuficienteException("Saldo no disponible");
+        }
+        boolean diferido = valor > 0;
+        GeneratedKeyHolder clave = new GeneratedKeyHolder();
+        jdbcTemplate.update(conexion -> {
+            PreparedStatement ps = conexion.prepareStatement(
+                    "INSERT INTO movimientos (cuenta_id, valor, saldo, aplicado) VALUES (1, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+            ps.setDouble(1, valor);
+            ps.setDouble(2, nuevoSaldo);
+            ps.setBoolean(3, !diferido);
+            return ps;
+        }, clave);
+        if (diferido) {
+            buffer.acumularAlConfirmar(1L, clave.getKey().longValue(), valor);
+        } else {
+            jdbcTemplate.update("UPDATE cuentas SET saldo_actual = ? WHERE id = 1", nuevoSaldo - pendiente);
+        }
+    }
+
+    private double saldoActual() {
+        return jdbcTemplate.queryForObject("SELECT saldo_actual FROM cuentas WHERE id = 1", Double.class);
+    }
+}
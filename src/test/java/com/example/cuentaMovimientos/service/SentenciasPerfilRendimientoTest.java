@@ -0,0 +1,235 @@
+package com.example.cuentaMovimientos.service;
+
+import com.example.cuentaMovimientos.cache.ClienteNombreCache;
+import com.example.cuentaMovimientos.cache.CuentaMetadata;
+import com.example.cuentaMovimientos.cache.CuentaMetadataCache;
+import com.example.cuentaMovimientos.cache.MovimientosColumnaresCache;
+import com.example.cuentaMovimientos.dto.request.MovimientoRequestDto;
+import com.example.cuentaMovimientos.dto.response.ReporteResponseDto;
+import com.example.cuentaMovimientos.entity.Cuenta;
+import com.example.cuentaMovimientos.entity.Movimiento;
+import com.example.cuentaMovimientos.repository.CuentaRepository;
+import com.example.cuentaMovimientos.repository.ExtractoMensualRepository;
+import com.example.cuentaMovimientos.repository.MovimientoArchivoRepository;
+import com.example.cuentaMovimientos.repository.MovimientoOutboxRepository;
+import com.example.cuentaMovimientos.repository.MovimientoRepository;
+import com.example.cuentaMovimientos.stream.HubCambiosCuenta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sentencias que llegan al driver con los ajustes de Hibernate del perfil {@code performance} ({@code batch_size},
+ * {@code order_updates}, {@code in_clause_parameter_padding}) sobre H2, contadas con datasource-proxy igual que en
+ * {@link com.example.cuentaMovimientos.config.SqlProfilerConfig}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ActiveProfiles("performance")
+@Import({MovimientoArchivoRepository.class, SentenciasPerfilRendimientoTest.ProxyConfig.class})
+public class SentenciasPerfilRendimientoTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2024, 1, 15);
+    private static final ContadorSentencias CONTADOR = new ContadorSentencias();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    @Autowired
+    private MovimientoOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Cuenta> cuentas = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        // 3 cuentas del cliente 7 con 40 movimientos cada una
+        for (int i = 1; i <= 3; i++) {
+            Cuenta cuenta = new Cuenta(null, "C-" + i, "Ahorros", 1000.0, 1000.0, true, 7L, null);
+            entityManager.persist(cuenta);
+            cuentas.add(cuenta);
+            for (int j = 1; j <= 40; j++) {
+                entityManager.persist(new Movimiento(null, FECHA, "Deposito", 10.0, 1000.0 + 10 * j, true, cuenta));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        CONTADOR.reiniciar();
+    }
+
+    @Test
+    public void testCrearMovimientoPorJpaEjecutaCuatroSentencias() {
+        CuentaMetadataCache cuentaMetadataCache = mock(CuentaMetadataCache.class);
+        when(cuentaMetadataCache.idPorNumero("C-1")).thenReturn(Optional.of(cuentas.get(0).getId()));
+        MovimientoService movimientoService = new MovimientoService(movimientoRepository, cuentaRepository,
+                mock(SaldoWriteBehindBuffer.class), new MovimientoOutboxService(outboxRepository, new ObjectMapper().findAndRegisterModules()),
+                cuentaMetadataCache, mock(MotorSaldosService.class), mock(CommitAgrupadoService.class),
+                mock(ExtractoMensualRepository.class), mock(HubCambiosCuenta.class), mock(MovimientosColumnaresCache.class),
+                new TransactionTemplate(transactionManager), mock(ClienteNombreCache.class));
+
+        MovimientoRequestDto peticion = new MovimientoRequestDto();
+        peticion.setNumeroCuenta("C-1");
+        peticion.setFecha(FECHA);
+        peticion.setTipo("Deposito");
+        peticion.setMovimiento(25.0);
+        movimientoService.crearMovimiento(peticion);
+        entityManager.flush();
+
+        // Cuenta por clave primaria; INSERT del movimiento y del evento (IDENTITY: uno a uno); un único UPDATE con el
+        // saldo y la versión, fuera de los lotes de Hibernate
+        assertEquals(4, CONTADOR.total());
+        assertEquals(1, CONTADOR.contar("select"));
+        assertEquals(2, CONTADOR.contar("insert"));
+        assertEquals(1, CONTADOR.contar("update"));
+        assertEquals(List.of(), CONTADOR.lotes());
+    }
+
+    @Test
+    public void testActualizacionesSeAgrupanEnLotesDeBatchSize() {
+        List<Movimiento> movimientos = new ArrayList<>();
+        for (Cuenta cuenta : cuentas) {
+            movimientos.addAll(movimientoRepository.findByCuentaIdAndFechaBetween(cuenta.getId(), FECHA, FECHA));
+        }
+        CONTADOR.reiniciar();
+
+        movimientos.forEach(movimiento -> movimiento.setSaldo(movimiento.getSaldo() + 1));
+        entityManager.flush();
+
+        // 120 UPDATE en 3 ejecuciones por lotes
+        assertEquals(3, CONTADOR.total());
+        assertEquals(List.of(50, 50, 20), CONTADOR.lotes());
+    }
+
+    @Test
+    public void testReporteEjecutaUnaConsultaPorCuentaYElEtagNinguna() {
+        CuentaMetadataCache cuentaMetadataCache = mock(CuentaMetadataCache.class);
+        for (Cuenta cuenta : cuentas) {
+            when(cuentaMetadataCache.porId(cuenta.getId())).thenReturn(Optional.of(new CuentaMetadata(cuenta.getId(),
+                    cuenta.getNumeroCuenta(), cuenta.getTipoCuenta(), cuenta.getSaldoInicial(), true, cuenta.getClienteId())));
+        }
+        MovimientosColumnaresCache movimientosColumnaresCache = mock(MovimientosColumnaresCache.class);
+        when(movimientosColumnaresCache.movimientos(anyLong(), any(), any())).thenReturn(Optional.empty());
+        ReporteService reporteService = new ReporteService(cuentaMetadataCache, movimientoRepository,
+                mock(ExtractoMensualService.class), movimientosColumnaresCache, mock(ClienteNombreCache.class));
+        List<Long> ids = cuentas.stream().map(Cuenta::getId).toList();
+
+        ReporteResponseDto reporte = reporteService.generarReporte(ids, FECHA, FECHA);
+        assertEquals(120, reporte.getCuentas().stream().mapToInt(cuenta -> cuenta.getMovimientos().size()).sum());
+        // Una consulta por cuenta, sin cargas perezosas de la cuenta de cada movimiento
+        assertEquals(3, CONTADOR.total());
+
+        // El ETag sale del reporte generado
+        CONTADOR.reiniciar();
+        reporteService.calcularEtag(reporte);
+        assertEquals(0, CONTADOR.total());
+    }
+
+    @Test
+    public void testMovimientosDelClienteEnUnaConsulta() {
+        assertEquals(120, movimientoRepository.findByClienteIdAndFechaBetween(7L, FECHA, FECHA).size());
+        assertEquals(1, CONTADOR.total());
+    }
+
+    @Test
+    public void testListasInRellenadasAPotenciasDeDos() {
+        cuentaRepository.findVersionesByIdIn(LongStream.rangeClosed(1, 5).boxed().toList());
+        cuentaRepository.findVersionesByIdIn(LongStream.rangeClosed(1, 8).boxed().toList());
+
+        // 5 y 8 IDs comparten la misma sentencia de 8 marcadores
+        List<String> sentencias = CONTADOR.sentencias();
+        assertEquals(2, sentencias.size());
+        assertEquals(sentencias.get(0), sentencias.get(1));
+        assertEquals(8, sentencias.get(0).chars().filter(c -> c == '?').count());
+    }
+
+    /**
+     * Sustituye el bean {@code dataSource} por un proxy que notifica cada ejecución al contador.
+     */
+    @TestConfiguration
+    static class ProxyConfig {
+
+        @Bean
+        static BeanPostProcessor contadorDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                        return ProxyDataSourceBuilder.create(dataSource).listener(CONTADOR).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    private static class ContadorSentencias implements QueryExecutionListener {
+
+        private final List<ExecutionInfo> ejecuciones = new ArrayList<>();
+        private final List<String> sentencias = new ArrayList<>();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public synchronized void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            ejecuciones.add(execInfo);
+            queryInfoList.forEach(query -> sentencias.add(query.getQuery().trim().toLowerCase()));
+        }
+
+        synchronized void reiniciar() {
+            ejecuciones.clear();
+            sentencias.clear();
+        }
+
+        synchronized int total() {
+            return ejecuciones.size();
+        }
+
+        synchronized long contar(String tipo) {
+            return sentencias.stream().filter(sql -> sql.startsWith(tipo)).count();
+        }
+
+        synchronized List<Integer> lotes() {
+            return ejecuciones.stream().filter(ExecutionInfo::isBatch).map(ExecutionInfo::getBatchSize).toList();
+        }
+
+        synchronized List<String> sentencias() {
+            return new ArrayList<>(sentencias);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.cuentaMovimientos.stream;
+
+import com.example.cuentaMovimientos.repository.CuentaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class HubCambiosCuentaTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CuentaRepository cuentaRepository;
+    private HubCambiosCuenta hub;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaRepository = mock(CuentaRepository.class);
+        hub = new HubCambiosCuenta(cuentaRepository, meterRegistry, 1, 16, 8, 1, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        hub.detener();
+    }
+
+    @Test
+    public void testFalloAlLeerLosSaldosDeshaceLaSuscripcion() {
+        when(cuentaRepository.findAllById(any())).thenThrow(new DataAccessResourceFailureException("sin conexión"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> hub.suscribir(List.of(1L, 2L), PoliticaDesborde.COALESCER));
+
+        assertEquals(0.0, meterRegistry.get("cambios.suscriptores").gauge().value());
+
+        // La plaza (max-subscribers = 1) vuelve a estar libre
+        reset(cuentaRepository);
+        when(cuentaRepository.findAllById(any())).thenReturn(List.of());
+        assertTrue(hub.suscribir(List.of(1L), PoliticaDesborde.COALESCER).isPresent());
+        assertEquals(1.0, meterRegistry.get("cambios.suscriptores").gauge().value());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.cuentaMovimientos.stream;
+
+import com.example.cuentaMovimientos.dto.event.CambioCuentaDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SuscriptorCambiosTest {
+
+    @Test
+    public void testDescartarEliminaLosMasAntiguos() {
+        SuscriptorCambios suscriptor = new SuscriptorCambios(new SseEmitter(), Set.of(1L), PoliticaDesborde.DESCARTAR, 3);
+
+        int descartados = 0;
+        for (long i = 1; i <= 5; i++) {
+            descartados += suscriptor.encolar(cambio(1L, i));
+        }
+
+        assertEquals(2, descartados);
+        assertTrue(suscriptor.tienePendientes());
+    }
+
+    @Test
+    public void testCoalescerConservaUltimoEventoPorCuenta() {
+        SuscriptorCambios suscriptor = new SuscriptorCambios(new SseEmitter(), Set.of(1L, 2L), PoliticaDesborde.COALESCER, 4);
+
+        suscriptor.encolar(cambio(1L, 1));
+        suscriptor.encolar(cambio(2L, 2));
+        suscriptor.encolar(cambio(1L, 3));
+        suscriptor.encolar(cambio(2L, 4));
+
+        // Buffer lleno: quedan el último de cada cuenta y el nuevo
+        assertEquals(2, suscriptor.encolar(cambio(1L, 5)));
+        assertEquals(0, suscriptor.encolar(cambio(2L, 6)));
+    }
+
+    @Test
+    public void testCoalescerDescartaSiHayMasCuentasQueCapacidad() {
+        SuscriptorCambios suscriptor = new SuscriptorCambios(new SseEmitter(), Set.of(1L, 2L, 3L), PoliticaDesborde.COALESCER, 2);
+
+        suscriptor.encolar(cambio(1L, 1));
+        suscriptor.encolar(cambio(2L, 2));
+
+        assertEquals(1, suscriptor.encolar(cambio(3L, 3)));
+    }
+
+    @Test
+    public void testSoloUnaEntregaProgramada() {
+        SuscriptorCambios suscriptor = new SuscriptorCambios(new SseEmitter(), Set.of(1L), PoliticaDesborde.COALESCER, 2);
+
+        assertTrue(suscriptor.programar());
+        assertEquals(false, suscriptor.programar());
+        suscriptor.liberar();
+        assertTrue(suscriptor.programar());
+    }
+
+    private static CambioCuentaDto cambio(Long cuentaId, long movimientoId) {
+        return new CambioCuentaDto("MOVIMIENTO_CREADO", cuentaId, "C-" + cuentaId, 100.0 + movimientoId, movimientoId,
+                null, "Deposito", 1.0);
+    }
+}